@@ -7,6 +7,17 @@ environment variable to be defined:
   JAVAFX_HOME
     the location of the JavaFX SDK
 
+The 'trainJar' task performs a training run of the executable JAR: the
+application starts with the system property 'trainingRun' set, selects
+each page and exits, and the classes that were loaded are recorded in a
+dynamic class-data-sharing (AppCDS) archive, build/bin/autoKeyTyper.jsa.
+The 'runJar' task uses the archive if it is newer than the JAR.
+
+The 'jmh' task runs the benchmarks of the 'jmh' source set and writes the
+results in JSON format to build/jmh/results.json.  The JMH libraries are
+resolved from Maven Central.  JMH options may be passed in the 'jmhArgs'
+project property (eg, -PjmhArgs="-f 1 -wi 2 KeyMap").
+
 The 'runMainJre' and 'runJarJre' tasks expect the following environment
 variable to be defined:
   JRE_DIR
@@ -43,11 +54,13 @@ val javaVersion = 17
 val projectName = project.name
 
 val packageName     = "autokeytyper"
-val mainClassName   = "uk.blankaspect.${packageName}.AutoKeyTyperApp"
+val mainClassName   = "uk.blankaspect.${packageName}.AutoKeyTyperLauncher"
 
 val buildDir    = layout.buildDirectory.get().getAsFile().toString()
 val jarDir      = _path(buildDir, "bin")
 val jarFilename = "autoKeyTyper.jar"
+val cdsFilename = "autoKeyTyper.jsa"
+val cdsFile     = _path(jarDir, cdsFilename)
 
 val jfxLibDir   = _path(System.getenv("JAVAFX_HOME"), "lib")
 val jfxModules  = listOf(
@@ -71,12 +84,37 @@ val vmArgs = listOf(
     "--enable-native-access", "javafx.graphics"
 )
 
+val jmhVersion      = "1.37"
+val jmhResultsFile  = _path(buildDir, "jmh", "results.json")
+
+//----------------------------------------------------------------------
+
+// Source sets
+
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets["main"].output + sourceSets["main"].compileClasspath
+        runtimeClasspath += sourceSets["main"].output + sourceSets["main"].runtimeClasspath
+    }
+}
+
+//----------------------------------------------------------------------
+
+// Repositories
+
+repositories {
+    mavenCentral()
+}
+
 //----------------------------------------------------------------------
 
 // Dependencies
 
 dependencies {
     jfxModules.forEach { compileOnly(files(_path(jfxLibDir, it + ".jar"))) }
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:${jmhVersion}")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:${jmhVersion}")
 }
 
 //----------------------------------------------------------------------
@@ -87,6 +125,10 @@ tasks.compileJava {
     options.release.set(javaVersion)
 }
 
+tasks.named<JavaCompile>("compileJmhJava") {
+    options.release.set(javaVersion)
+}
+
 //----------------------------------------------------------------------
 
 // Create executable JAR
@@ -137,6 +179,26 @@ tasks.register<JavaExec>("runJar") {
     jvmArgs = jfxArgs + vmArgs
 
     systemProperties(_appSystemProperties())
+
+    // Use class-data-sharing archive from training run if it is not older than JAR
+    doFirst {
+        val archive = file(cdsFile)
+        if (archive.isFile() && (archive.lastModified() >= tasks.jar.get().archiveFile.get().asFile.lastModified()))
+            jvmArgs("-XX:SharedArchiveFile=" + cdsFile)
+    }
+}
+
+//----------------------------------------------------------------------
+
+// Perform training run of executable JAR with Gradle's Java launcher; record loaded classes in class-data-sharing
+// archive
+
+tasks.register<JavaExec>("trainJar") {
+    classpath = files(tasks.jar)
+    jvmArgs = jfxArgs + vmArgs + listOf("-XX:ArchiveClassesAtExit=" + cdsFile)
+
+    systemProperties(_appSystemProperties())
+    systemProperty("trainingRun", "true")
 }
 
 //----------------------------------------------------------------------
@@ -152,3 +214,17 @@ tasks.register<JavaExec>("runJarJre") {
 }
 
 //----------------------------------------------------------------------
+
+// Run JMH benchmarks; write results in JSON format
+
+tasks.register<JavaExec>("jmh") {
+    dependsOn(tasks.named("jmhClasses"))
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args = listOf("-rf", "json", "-rff", jmhResultsFile, "-prof", "gc") +
+            (findProperty("jmhArgs")?.toString()?.split(' ')?.filter { it.isNotEmpty() } ?: emptyList())
+
+    doFirst { file(jmhResultsFile).parentFile.mkdirs() }
+}
+
+//----------------------------------------------------------------------
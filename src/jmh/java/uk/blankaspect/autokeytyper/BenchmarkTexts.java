@@ -0,0 +1,219 @@
+/*====================================================================*\
+
+BenchmarkTexts.java
+
+Class: texts and key maps for benchmarks.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import uk.blankaspect.common.exception2.BaseException;
+
+import uk.blankaspect.common.resource.ResourceUtils;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: TEXTS AND KEY MAPS FOR BENCHMARKS
+
+
+/**
+ * This class provides the bundled key map and deterministic pseudo-random texts of a specified size and {@linkplain
+ * CharMix mix of characters} for the benchmarks of the typing pipeline.
+ */
+
+public class BenchmarkTexts
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The filename of the bundled key map. */
+	private static final	String	KEY_MAP_FILENAME	= "keyMap.txt";
+
+	/** The seed of the generator of pseudo-random texts. */
+	private static final	long	RANDOM_SEED	= 0x4B6579547970L;
+
+	/** The characters of text that has a mix of characters of {@link CharMix#LOWERCASE}. */
+	private static final	String	LOWERCASE_CHARS	= "abcdefghijklmnopqrstuvwxyz      ";
+
+	/** The interval between unmapped characters in text that has a mix of characters of {@link CharMix#UNMAPPED}. */
+	private static final	int		UNMAPPED_CHAR_INTERVAL	= 1000;
+
+	/** The character that is not in the bundled key map. */
+	private static final	char	UNMAPPED_CHAR	= '\u4E00';
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Prevents this class from being instantiated externally.
+	 */
+
+	private BenchmarkTexts()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the lines of the bundled key map.
+	 *
+	 * @return the lines of the bundled key map.
+	 */
+
+	static List<String> keyMapLines()
+	{
+		try
+		{
+			return ResourceUtils.readLines(KeyMap.class, KEY_MAP_FILENAME);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Parses the bundled key map and returns the result.
+	 *
+	 * @return the map from characters to keys that is defined by the bundled key map.
+	 */
+
+	static Map<Integer, KeyMap.Key> keyMap()
+	{
+		try
+		{
+			return KeyMap.parse(keyMapLines());
+		}
+		catch (BaseException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a pseudo-random text of the specified length and mix of characters.  The same text is
+	 * returned for the same arguments.
+	 *
+	 * @param  keyMap
+	 *           the map from characters to keys from which mapped characters will be selected.
+	 * @param  mix
+	 *           the mix of characters of the text.
+	 * @param  length
+	 *           the length of the text.
+	 * @return a pseudo-random text of length {@code length} whose characters are drawn from {@code mix}.
+	 */
+
+	static String create(
+		Map<Integer, KeyMap.Key>	keyMap,
+		CharMix						mix,
+		int							length)
+	{
+		// Create pools of characters
+		StringBuilder unshifted = new StringBuilder();
+		StringBuilder shifted = new StringBuilder();
+		for (Map.Entry<Integer, KeyMap.Key> entry : keyMap.entrySet())
+		{
+			if (entry.getValue().modifierKeys().isEmpty())
+				unshifted.appendCodePoint(entry.getKey());
+			else
+				shifted.appendCodePoint(entry.getKey());
+		}
+		String pool = switch (mix)
+		{
+			case LOWERCASE -> LOWERCASE_CHARS;
+			case SHIFTED   -> shifted.toString();
+			case MIXED     -> unshifted.toString() + shifted;
+			case UNMAPPED  -> unshifted.toString() + shifted;
+		};
+
+		// Create text
+		Random random = new Random(RANDOM_SEED);
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++)
+			chars[i] = pool.charAt(random.nextInt(pool.length()));
+
+		// Scatter unmapped characters through text
+		if (mix == CharMix.UNMAPPED)
+		{
+			for (int i = UNMAPPED_CHAR_INTERVAL / 2; i < length; i += UNMAPPED_CHAR_INTERVAL)
+				chars[i] = UNMAPPED_CHAR;
+			if (length < UNMAPPED_CHAR_INTERVAL / 2)
+				chars[length / 2] = UNMAPPED_CHAR;
+		}
+
+		// Return text
+		return new String(chars);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: MIX OF CHARACTERS
+
+
+	/**
+	 * This is an enumeration of the mixes of characters of benchmark texts.
+	 */
+
+	public enum CharMix
+	{
+		/**
+		 * Lower-case letters and spaces, none of which requires a modifier key.
+		 */
+		LOWERCASE,
+
+		/**
+		 * Characters that require a modifier key.
+		 */
+		SHIFTED,
+
+		/**
+		 * All the characters of the key map.
+		 */
+		MIXED,
+
+		/**
+		 * All the characters of the key map, with an unmapped character every 1000 characters.
+		 */
+		UNMAPPED
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
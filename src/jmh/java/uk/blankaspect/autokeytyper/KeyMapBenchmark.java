@@ -0,0 +1,142 @@
+/*====================================================================*\
+
+KeyMapBenchmark.java
+
+Class: benchmarks of the parsing and lookup of key maps.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.blankaspect.common.exception2.BaseException;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: BENCHMARKS OF THE PARSING AND LOOKUP OF KEY MAPS
+
+
+/**
+ * This class contains benchmarks of the parsing of the bundled key map and of the lookup of characters in a parsed key
+ * map and in a {@linkplain CompiledKeyMap compiled key map}.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KeyMapBenchmark
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The length of the text whose characters are looked up. */
+	private static final	int		LOOKUP_TEXT_LENGTH	= 4096;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The lines of the bundled key map. */
+	private	List<String>				keyMapLines;
+
+	/** The parsed bundled key map. */
+	private	Map<Integer, KeyMap.Key>	keyMap;
+
+	/** The compiled bundled key map. */
+	private	CompiledKeyMap				compiledKeyMap;
+
+	/** The characters that are looked up. */
+	private	char[]						lookupChars;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	@Setup
+	public void setUp()
+	{
+		keyMapLines = BenchmarkTexts.keyMapLines();
+		keyMap = BenchmarkTexts.keyMap();
+		compiledKeyMap = CompiledKeyMap.of(keyMap);
+		lookupChars = BenchmarkTexts.create(keyMap, BenchmarkTexts.CharMix.MIXED, LOOKUP_TEXT_LENGTH).toCharArray();
+	}
+
+	//------------------------------------------------------------------
+
+	@Benchmark
+	public Map<Integer, KeyMap.Key> parse()
+		throws BaseException
+	{
+		return KeyMap.parse(keyMapLines);
+	}
+
+	//------------------------------------------------------------------
+
+	@Benchmark
+	public CompiledKeyMap parseAndCompile()
+		throws BaseException
+	{
+		return CompiledKeyMap.of(KeyMap.parse(keyMapLines));
+	}
+
+	//------------------------------------------------------------------
+
+	@Benchmark
+	public int lookUpInMap()
+	{
+		int result = 0;
+		for (char ch : lookupChars)
+		{
+			KeyMap.Key key = keyMap.get((int)ch);
+			if (key != null)
+				result += key.keyCode() + key.modifierMask();
+		}
+		return result;
+	}
+
+	//------------------------------------------------------------------
+
+	@Benchmark
+	public int lookUpInCompiledMap()
+	{
+		int result = 0;
+		for (char ch : lookupChars)
+			result += compiledKeyMap.get(ch);
+		return result;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
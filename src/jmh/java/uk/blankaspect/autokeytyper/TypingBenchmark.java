@@ -0,0 +1,192 @@
+/*====================================================================*\
+
+TypingBenchmark.java
+
+Class: benchmarks of the typing pipeline.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.StringReader;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.blankaspect.common.exception2.BaseException;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: BENCHMARKS OF THE TYPING PIPELINE
+
+
+/**
+ * This class contains benchmarks of the typing pipeline, from the compilation of text into a {@linkplain
+ * KeyEventProgram program of key events} to the generation of the key events by a {@link TypingEngine} into a
+ * non-native {@linkplain IKeyEventSink sink}.  The texts vary in length from 10 to 10 million characters and in their
+ * {@linkplain BenchmarkTexts.CharMix mix of characters}.  The unmapped characters of a text whose mix is {@link
+ * BenchmarkTexts.CharMix#UNMAPPED UNMAPPED} are typed with the default {@linkplain FallbackSequence fallback
+ * sequence}, so that every text is typed in full.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TypingBenchmark
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The length of the text. */
+	@Param({ "10", "1000", "100000", "10000000" })
+	private	int							length;
+
+	/** The mix of characters of the text. */
+	@Param({ "LOWERCASE", "SHIFTED", "MIXED", "UNMAPPED" })
+	private	BenchmarkTexts.CharMix		charMix;
+
+	/** The kind of sink to which key events are sent. */
+	@Param({ "NULL", "RECORDING" })
+	private	String						sinkKind;
+
+	/** The text that is typed. */
+	private	String						text;
+
+	/** The compiler of programs of key events. */
+	private	KeyEventProgram.Compiler	compiler;
+
+	/** The sink to which key events are sent. */
+	private	IKeyEventSink				sink;
+
+	/** The engine that generates key events. */
+	private	TypingEngine				typingEngine;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	@Setup
+	public void setUp()
+		throws BaseException
+	{
+		Map<Integer, KeyMap.Key> keyMap = BenchmarkTexts.keyMap();
+		text = BenchmarkTexts.create(keyMap, charMix, length);
+		CompiledKeyMap compiledKeyMap = CompiledKeyMap.of(keyMap);
+		FallbackSequence fallback = (charMix == BenchmarkTexts.CharMix.UNMAPPED)
+											? FallbackSequence.parse(FallbackSequence.DEFAULT_TEMPLATE, compiledKeyMap)
+											: null;
+		compiler = new KeyEventProgram.Compiler(compiledKeyMap, '\0', '\0', false, fallback);
+		sink = sinkKind.equals("RECORDING") ? new RecordingKeyEventSink() : NullKeyEventSink.INSTANCE;
+		typingEngine = new TypingEngine(sink, Runnable::run);
+	}
+
+	//------------------------------------------------------------------
+
+	@Benchmark
+	public KeyEventProgram compile()
+	{
+		return compiler.compile(text, new ArrayList<>());
+	}
+
+	//------------------------------------------------------------------
+
+	@Benchmark
+	public TypingStats.Summary compileAndType()
+		throws InterruptedException
+	{
+		// Compile text
+		KeyEventProgram program = compiler.compile(text, new ArrayList<>());
+
+		// Generate key events and wait for completion
+		return type(TypingEngine.IProgramSource.of(program));
+	}
+
+	//------------------------------------------------------------------
+
+	@Benchmark
+	public TypingStats.Summary streamAndType()
+		throws InterruptedException
+	{
+		return type(TextStreamSource.ofReader(new StringReader(text), compiler));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Generates the key events of the programs of the specified source with the typing engine of this benchmark, and
+	 * waits for the job to finish.
+	 *
+	 * @param  source
+	 *           the source of the programs of key events.
+	 * @return a summary of the statistics of the typing job.
+	 * @throws InterruptedException
+	 *           if the current thread was interrupted while it was waiting for the job to finish.
+	 */
+
+	private TypingStats.Summary type(
+		TypingEngine.IProgramSource	source)
+		throws InterruptedException
+	{
+		CountDownLatch latch = new CountDownLatch(1);
+		TypingStats.Summary[] result = new TypingStats.Summary[1];
+		typingEngine.submit(source, 0, new Pacer(Pacer.Mode.MAXIMUM, Pacer.DEFAULT_RATE, sink),
+							new TypingEngine.IListener()
+		{
+			@Override
+			public void progress(
+				TypingStats.Summary		stats,
+				TimingRecorder.Snapshot	timing)
+			{
+				// do nothing
+			}
+
+			@Override
+			public void finished(
+				TypingStats.Summary		stats,
+				TimingRecorder.Snapshot	timing,
+				Exception				exception)
+			{
+				result[0] = stats;
+				latch.countDown();
+			}
+		});
+		latch.await();
+		return result[0];
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
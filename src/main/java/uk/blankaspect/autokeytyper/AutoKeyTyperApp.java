@@ -23,7 +23,6 @@ import java.awt.Robot;
 
 import java.io.IOException;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 import java.util.EnumMap;
@@ -31,6 +30,9 @@ import java.util.List;
 import java.util.Map;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+
+import javafx.beans.property.SimpleObjectProperty;
 
 import javafx.geometry.Dimension2D;
 import javafx.geometry.HPos;
@@ -65,8 +67,6 @@ import uk.blankaspect.common.exception2.BaseException;
 import uk.blankaspect.common.exception2.FileException;
 import uk.blankaspect.common.exception2.LocationException;
 
-import uk.blankaspect.common.filesystem.PathnameUtils;
-
 import uk.blankaspect.common.function.IProcedure1;
 
 import uk.blankaspect.common.logging.ErrorLogger;
@@ -157,6 +157,10 @@ public class AutoKeyTyperApp
 		SystemPropertyKey.MAIN_WINDOW_DELAY_OPACITY,   25
 	);
 
+	/** The delay (in milliseconds) between the selection of the last page and the closing of the main window in a
+		training run. */
+	private static final	int		TRAINING_RUN_CLOSE_DELAY	= 500;
+
 	/** The minimum width of the main window. */
 	private static final	double	MAIN_WINDOW_MIN_WIDTH	= 120.0;
 
@@ -182,8 +186,8 @@ public class AutoKeyTyperApp
 	/** The padding around a button. */
 	private static final	Insets	BUTTON_PADDING	= new Insets(4.0, 12.0, 4.0, 12.0);
 
-	/** The name of the default key-map file. */
-	private static final	String	KEY_MAP_FILENAME	= "keyMap.txt";
+	/** The name of the file, within the auxiliary directory, to which startup profiles are appended. */
+	private static final	String	STARTUP_PROFILE_FILENAME	= "startupProfile.jsonl";
 
 	/** Miscellaneous strings. */
 	private static final	String	CONFIG_ERROR_STR	= "Configuration error";
@@ -203,10 +207,11 @@ public class AutoKeyTyperApp
 	/** Keys of system properties. */
 	private interface SystemPropertyKey
 	{
-		String	KEY_MAP						= "keyMap";
 		String	MAIN_WINDOW_DELAY_LOCATION	= "mainWindowDelay.location";
 		String	MAIN_WINDOW_DELAY_OPACITY	= "mainWindowDelay.opacity";
 		String	MAIN_WINDOW_DELAY_SIZE		= "mainWindowDelay.size";
+		String	PRINT_STARTUP_PROFILE		= "printStartupProfile";
+		String	TRAINING_RUN				= "trainingRun";
 		String	USE_STYLE_SHEET_FILE		= "useStyleSheetFile";
 	}
 
@@ -216,9 +221,6 @@ public class AutoKeyTyperApp
 		String	NO_AUXILIARY_DIRECTORY =
 				"The location of the auxiliary directory could not be determined.";
 
-		String	FAILED_TO_READ_KEY_MAP =
-				"Failed to read the key map.";
-
 		String	FAILED_TO_CREATE_ROBOT =
 				"Failed to create a robot.";
 	}
@@ -228,31 +230,37 @@ public class AutoKeyTyperApp
 ////////////////////////////////////////////////////////////////////////
 
 	/** The properties of the build of this application. */
-	private	ResourceProperties			buildProperties;
+	private	ResourceProperties						buildProperties;
 
 	/** The string representation of the version of this application. */
-	private	String						versionStr;
+	private	String									versionStr;
 
 	/** The state of the main window. */
-	private	WindowState					mainWindowState;
+	private	WindowState								mainWindowState;
+
+	/** The sink to which key events are sent. */
+	private	IKeyEventSink							keyEventSink;
+
+	/** A map from characters to key codes.  The map is replaced if the key-map file is reloaded. */
+	private	SimpleObjectProperty<CompiledKeyMap>	keyMap;
 
-	/** The object that adds native key events to the platform's input queue. */
-	private	Robot						robot;
+	/** The watcher of the key-map file, or {@code null} if the file is not watched. */
+	private	KeyMapWatcher							keyMapWatcher;
 
-	/** A map from characters to key codes. */
-	private Map<Character, KeyMap.Key>	keyMap;
+	/** A map of pages of the UI.  A page is created when it is first selected. */
+	private Map<Page, IPage>						pages;
 
-	/** A map of pages of the UI. */
-	private Map<Page, IPage>			pages;
+	/** A map of the encoded states of pages that have not been created. */
+	private Map<Page, MapNode>						pageStates;
 
 	/** The current page. */
-	private	Page						page;
+	private	Page									page;
 
 	/** The pane that contains the spinner for selecting the current page. */
-	private	HBox						pageSpinnerPane;
+	private	HBox									pageSpinnerPane;
 
 	/** The <i>exit</i> button. */
-	private	Button						exitButton;
+	private	Button									exitButton;
 
 ////////////////////////////////////////////////////////////////////////
 //  Constructors
@@ -317,6 +325,32 @@ public class AutoKeyTyperApp
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Finishes the specified startup profile and appends it to a file in the auxiliary directory of the application.
+	 * The profile is also written to the standard error stream if the system property {@code printStartupProfile} is
+	 * {@code true}.
+	 *
+	 * @param profiler
+	 *          the profiler of the startup of the application.
+	 */
+
+	private static void finishStartupProfile(
+		StartupProfiler	profiler)
+	{
+		AppAuxDirectory.Directory directory = AppAuxDirectory.getDirectory(NAME_KEY, AutoKeyTyperApp.class);
+		Path file = (directory == null) ? null : directory.location().resolve(STARTUP_PROFILE_FILENAME);
+		try
+		{
+			profiler.finish(file, Boolean.getBoolean(SystemPropertyKey.PRINT_STARTUP_PROFILE));
+		}
+		catch (FileException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	//------------------------------------------------------------------
+
 ////////////////////////////////////////////////////////////////////////
 //  Instance methods : overriding methods
 ////////////////////////////////////////////////////////////////////////
@@ -329,6 +363,13 @@ public class AutoKeyTyperApp
 	public void start(
 		Stage	primaryStage)
 	{
+		// Start profiling phases of startup
+		StartupProfiler profiler = new StartupProfiler();
+
+		// Test for training run, in which the application starts, selects each page and exits without writing its
+		// configuration, so that the classes that are loaded can be recorded in a class-data-sharing archive
+		boolean trainingRun = Boolean.getBoolean(SystemPropertyKey.TRAINING_RUN);
+
 		// Make main window invisible until it is shown
 		primaryStage.setOpacity(0.0);
 
@@ -351,8 +392,7 @@ public class AutoKeyTyperApp
 		// Initialise instance variables
 		mainWindowState = new WindowState(false, true);
 		pages = new EnumMap<>(Page.class);
-		for (Page page : Page.values())
-			pages.put(page, page.createPage());
+		pageStates = new EnumMap<>(Page.class);
 		page = Page.DELAYED;
 
 		// Read build properties
@@ -366,6 +406,7 @@ public class AutoKeyTyperApp
 		{
 			e.printStackTrace();
 		}
+		profiler.mark("buildProperties");
 
 		// Create container for local variables
 		class Vars
@@ -395,6 +436,7 @@ public class AutoKeyTyperApp
 		{
 			vars.configException = e;
 		}
+		profiler.mark("config");
 
 		// Get style manager
 		StyleManager styleManager = StyleManager.INSTANCE;
@@ -410,48 +452,73 @@ public class AutoKeyTyperApp
 			styleManager.setId(getClass().getSimpleName());
 			styleManager.setStyleSheetFilename(STYLE_SHEET_FILENAME);
 		}
+		profiler.mark("styleManager");
 
 		// Create robot to generate key events
 		try
 		{
-			robot = new Robot();
+			keyEventSink = new RobotKeyEventSink(new Robot());
 		}
 		catch (AWTException e)
 		{
 			ErrorDialog.show(primaryStage, SHORT_NAME, new BaseException(ErrorMsg.FAILED_TO_CREATE_ROBOT, e));
 			System.exit(1);
 		}
+		profiler.mark("robot");
 
 		// Read and parse key-map file
+		keyMap = new SimpleObjectProperty<>();
 		Path keyMapFile = null;
+		byte[] keyMapSource = null;
+		KeyMapCache keyMapCache = KeyMapLoader.createCache();
 		try
 		{
 			// Get location of key-map file from system property
-			String pathname = System.getProperty(SystemPropertyKey.KEY_MAP);
-			keyMapFile = (pathname == null) ? null : Path.of(PathnameUtils.parsePathname(pathname));
+			keyMapFile = KeyMapLoader.keyMapFile();
 
-			// Read lines of key-map file
-			List<String> keyMapLines = null;
-			try
-			{
-				keyMapLines = (keyMapFile == null) ? ResourceUtils.readLines(getClass(), KEY_MAP_FILENAME)
-												   : Files.readAllLines(keyMapFile);
-			}
-			catch (IOException e)
-			{
-				throw new BaseException(ErrorMsg.FAILED_TO_READ_KEY_MAP, e);
-			}
+			// Read content of key-map file
+			keyMapSource = KeyMapLoader.readSource(keyMapFile);
 
-			// Parse key map
-			keyMap = KeyMap.parse(keyMapLines);
+			// Compile key map, using cache if it is enabled
+			keyMap.set(CompiledKeyMap.of(keyMapSource, keyMapCache));
 		}
 		catch (BaseException e)
 		{
-			e = (keyMapFile == null) ? new LocationException(e, KEY_MAP_FILENAME) : new FileException(e, keyMapFile);
-			ErrorDialog.show(primaryStage, SHORT_NAME, e);
+			ErrorDialog.show(primaryStage, SHORT_NAME, KeyMapLoader.exception(e, keyMapFile));
 			System.exit(1);
 		}
 
+		// Watch key-map file for changes; swap key map on FX application thread when file is reloaded
+		if (keyMapFile != null)
+		{
+			keyMapWatcher = new KeyMapWatcher(keyMapFile, keyMapSource, keyMapCache, new KeyMapWatcher.IListener()
+			{
+				@Override
+				public void keyMapChanged(
+					CompiledKeyMap	newKeyMap)
+				{
+					Platform.runLater(() -> keyMap.set(newKeyMap));
+				}
+
+				@Override
+				public void keyMapError(
+					BaseException	exception)
+				{
+					Platform.runLater(() -> ErrorDialog.show(primaryStage, SHORT_NAME, exception));
+				}
+			});
+			try
+			{
+				keyMapWatcher.start();
+			}
+			catch (BaseException e)
+			{
+				keyMapWatcher = null;
+				ErrorDialog.show(primaryStage, SHORT_NAME, e);
+			}
+		}
+		profiler.mark("keyMap");
+
 		// Initialise 'Images' class
 		Images.init();
 
@@ -462,11 +529,6 @@ public class AutoKeyTyperApp
 			exitButton.setDisable(!enabled);
 		};
 
-		// Initialise pages
-		((DelayedPage)pages.get(Page.DELAYED)).init(robot, keyMap, enableControls);
-		((PeriodicPage)pages.get(Page.PERIODIC)).init(robot, enableControls);
-		((PreferencesPage)pages.get(Page.PREFERENCES)).init();
-
 		// Create page pane
 		StackPane pagePane = new StackPane();
 		pagePane.setPadding(PAGE_PANE_PADDING);
@@ -474,17 +536,36 @@ public class AutoKeyTyperApp
 		// Create page-button pane
 		StackPane pageButtonPane = new StackPane();
 
-		// Add pages to page pane; add page buttons to page-button pane
-		for (Page page : pages.keySet())
+		// Create procedure to create a page when it is first selected.  The class of a page registers its styles with
+		// the style manager when the class is initialised, so the style sheet of the main window accounts only for the
+		// pages that have been created.
+		IProcedure1<Page> createPage = page ->
 		{
+			// Create page
+			IPage pageImpl = page.createPage();
+			pages.put(page, pageImpl);
+
+			// Decode state of page
+			MapNode stateNode = pageStates.remove(page);
+			if (stateNode != null)
+				pageImpl.decodeState(stateNode);
+
+			// Initialise page
+			switch (page)
+			{
+				case DELAYED     -> ((DelayedPage)pageImpl).init(keyEventSink, keyMap, enableControls);
+				case PERIODIC    -> ((PeriodicPage)pageImpl).init(keyEventSink, enableControls);
+				case PREFERENCES -> ((PreferencesPage)pageImpl).init();
+			}
+
 			// Add page to page pane
-			Pane pane = pages.get(page).pane();
+			Pane pane = pageImpl.pane();
 			pane.setUserData(page.key);
 			pane.setVisible(false);
 			pagePane.getChildren().add(pane);
 
 			// Add buttons to page-button pane
-			List<Button> buttons = pages.get(page).buttons();
+			List<Button> buttons = pageImpl.buttons();
 			TilePane buttonPane = new TilePane(PAGE_BUTTON_PANE_H_GAP, PAGE_BUTTON_PANE_V_GAP);
 			buttonPane.setUserData(page.key);
 			buttonPane.setPrefColumns(buttons.size());
@@ -492,13 +573,43 @@ public class AutoKeyTyperApp
 			buttonPane.setVisible(false);
 			buttonPane.getChildren().addAll(buttons);
 			pageButtonPane.getChildren().add(buttonPane);
-		}
+
+			// If main window has been shown, add styles of page to scene, increase height of window to accommodate
+			// page, and notify page that its containing window has been shown
+			if (primaryStage.isShowing())
+			{
+				// Add style sheet for styles that were registered by class of page
+				Scene scene = primaryStage.getScene();
+				StyleManager.INSTANCE.appendStyleSheet(scene);
+
+				// Increase height of window if page requires it
+				Node root = scene.getRoot();
+				root.applyCss();
+				double deltaHeight = root.prefHeight(scene.getWidth()) - scene.getHeight();
+				if (deltaHeight > 0.0)
+				{
+					double height = primaryStage.getHeight() + deltaHeight;
+					primaryStage.setMaxHeight(height);
+					primaryStage.setMinHeight(height);
+					primaryStage.setHeight(height);
+				}
+
+				// Notify page
+				pageImpl.onWindowShown();
+			}
+		};
 
 		// Create procedure to update page
 		IProcedure1<Page> updatePage = page ->
 		{
+			// Create page if it has not been created
+			if (!pages.containsKey(page))
+				createPage.invoke(page);
+
 			// Notify current page that it is being deselected
-			pages.get(this.page).onDeselecting();
+			IPage currentPage = pages.get(this.page);
+			if (currentPage != null)
+				currentPage.onDeselecting();
 
 			// Update current page
 			this.page = page;
@@ -540,12 +651,14 @@ public class AutoKeyTyperApp
 
 		// Show initial page
 		updatePage.invoke(page);
+		profiler.mark("createUi");
 
 		// Create scene
 		Scene scene = new Scene(mainPane);
 
 		// Add style sheet to scene
 		styleManager.addStyleSheet(scene);
+		profiler.mark("styleSheet");
 
 		// Update images of image buttons when theme changes
 		StyleManager.INSTANCE.themeProperty().addListener(observable ->
@@ -571,6 +684,9 @@ public class AutoKeyTyperApp
 			// Set width of main window after a delay
 			ExecUtils.afterDelay(getDelay(SystemPropertyKey.MAIN_WINDOW_DELAY_SIZE), () ->
 			{
+				// Mark end of delay before setting size
+				profiler.mark("sizeDelay");
+
 				// Update dimensions
 				dims.update(false);
 
@@ -596,9 +712,15 @@ public class AutoKeyTyperApp
 					primaryStage.setHeight(height);
 				}
 
+				// Mark end of setting size
+				profiler.mark("size");
+
 				// Set location of main window after a delay
 				ExecUtils.afterDelay(getDelay(SystemPropertyKey.MAIN_WINDOW_DELAY_LOCATION), () ->
 				{
+					// Mark end of delay before setting location
+					profiler.mark("locationDelay");
+
 					// Get location of window from saved state
 					Point2D location = mainWindowState.getLocation();
 
@@ -616,9 +738,15 @@ public class AutoKeyTyperApp
 					primaryStage.setX(location.getX());
 					primaryStage.setY(location.getY());
 
+					// Mark end of setting location
+					profiler.mark("location");
+
 					// Perform remaining initialisation after a delay
 					ExecUtils.afterDelay(getDelay(SystemPropertyKey.MAIN_WINDOW_DELAY_OPACITY), () ->
 					{
+						// Mark end of delay before making window visible
+						profiler.mark("opacityDelay");
+
 						// Set minimum width of window
 						primaryStage.setMinWidth(MAIN_WINDOW_MIN_WIDTH);
 
@@ -630,16 +758,30 @@ public class AutoKeyTyperApp
 						// Make window visible
 						primaryStage.setOpacity(1.0);
 
+						// Finish profile of startup
+						profiler.mark("opacity");
+						finishStartupProfile(profiler);
+
+						// In a training run, select each page so that its classes are loaded, then close main window
+						if (trainingRun)
+						{
+							for (Page page : Page.values())
+								pageSpinner.setItem(page);
+							ExecUtils.afterDelay(TRAINING_RUN_CLOSE_DELAY, () ->
+									primaryStage.fireEvent(new WindowEvent(primaryStage,
+																		   WindowEvent.WINDOW_CLOSE_REQUEST)));
+						}
+
 						// Report any configuration error
-						if (vars.configException != null)
+						else if (vars.configException != null)
 							ErrorDialog.show(primaryStage, SHORT_NAME + " : " + CONFIG_ERROR_STR, vars.configException);
 					});
 				});
 			});
 		});
 
-		// Write configuration file when main window is closed
-		if (vars.config != null)
+		// Write configuration file when main window is closed, except in a training run
+		if ((vars.config != null) && !trainingRun)
 		{
 			primaryStage.setOnHiding(event ->
 			{
@@ -668,9 +810,34 @@ public class AutoKeyTyperApp
 		// Display main window
 		primaryStage.show();
 
-		// Notify pages that their containing window has been shown
+		// Notify pages that have been created that their containing window has been shown
 		for (Page page : pages.keySet())
 			pages.get(page).onWindowShown();
+		profiler.mark("showWindow");
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void stop()
+	{
+		// Stop watching key-map file
+		if (keyMapWatcher != null)
+		{
+			try
+			{
+				keyMapWatcher.close();
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+			keyMapWatcher = null;
+		}
 	}
 
 	//------------------------------------------------------------------
@@ -705,11 +872,12 @@ public class AutoKeyTyperApp
 		// Encode page
 		rootNode.addString(PropertyKey.PAGE, page.key);
 
-		// Encode state of pages
+		// Encode state of pages; the state of a page that has not been created is the state that was decoded
 		MapNode pagesNode = rootNode.addMap(PropertyKey.PAGES);
-		for (Page page : pages.keySet())
+		for (Page page : Page.values())
 		{
-			MapNode pageNode = pages.get(page).encodeState();
+			IPage pageImpl = pages.get(page);
+			MapNode pageNode = (pageImpl == null) ? pageStates.get(page) : pageImpl.encodeState();
 			if (pageNode != null)
 				pagesNode.add(page.key, pageNode);
 		}
@@ -743,15 +911,15 @@ public class AutoKeyTyperApp
 		// Decode page
 		page = rootNode.getEnumValue(Page.class, PropertyKey.PAGE, p -> p.key, Page.DELAYED);
 
-		// Decode state of pages
+		// Decode state of pages; the state of a page is retained until the page is created
 		key = PropertyKey.PAGES;
 		if (rootNode.hasMap(key))
 		{
 			MapNode pagesNode = rootNode.getMapNode(key);
-			for (Page page : pages.keySet())
+			for (Page page : Page.values())
 			{
 				if (pagesNode.hasMap(page.key))
-					pages.get(page).decodeState(pagesNode.getMapNode(page.key));
+					pageStates.put(page, pagesNode.getMapNode(page.key));
 			}
 		}
 	}
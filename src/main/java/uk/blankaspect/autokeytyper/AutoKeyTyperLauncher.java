@@ -0,0 +1,82 @@
+/*====================================================================*\
+
+AutoKeyTyperLauncher.java
+
+Class: launcher of the automatic key-typer application.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import javafx.application.Application;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: LAUNCHER OF THE AUTOMATIC KEY-TYPER APPLICATION
+
+
+/**
+ * This class provides the main method of the executable JAR.  If the command-line arguments select the {@linkplain
+ * HeadlessTyper headless typing mode}, key events are generated without a user interface and the JVM exits when the
+ * typing job ends; otherwise, the JavaFX application {@link AutoKeyTyperApp} is launched.
+ * <p>
+ * This class must not extend {@link Application}: when the main class of a program is a JavaFX application, the Java
+ * launcher starts the JavaFX toolkit before it calls the main method.
+ * </p>
+ */
+
+public class AutoKeyTyperLauncher
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Prevents this class from being instantiated externally.
+	 */
+
+	private AutoKeyTyperLauncher()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * This is the main method of the executable JAR.
+	 *
+	 * @param args
+	 *          the command-line arguments of the application.
+	 */
+
+	public static void main(
+		String[]	args)
+	{
+		// If arguments select headless typing, type without a user interface
+		if (HeadlessTyper.isHeadless(args))
+			System.exit(HeadlessTyper.run(args));
+
+		// Launch JavaFX application
+		Application.launch(AutoKeyTyperApp.class, args);
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,531 @@
+/*====================================================================*\
+
+CompiledKeyMap.java
+
+Class: compiled map from characters to keys.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.awt.event.KeyEvent;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: COMPILED MAP FROM CHARACTERS TO KEYS
+
+
+/**
+ * This class implements an immutable map from characters to keys that has been compiled from a map that was created by
+ * {@link KeyMap#parse(java.util.List)}.  The characters of the map are Unicode code points, so supplementary characters
+ * may be mapped.
+ * <p>
+ * Each key is packed into a single {@code int} <i>entry</i> that combines the key code with a bit mask of the modifier
+ * keys.  Entries for code points below {@link #DENSE_TABLE_SIZE} are stored in a table that is indexed directly by the
+ * code point; entries for other code points are stored in a hash table with open addressing.  A lookup therefore
+ * requires no allocation and no boxing of the code point.
+ * </p>
+ * <p>
+ * An entry of {@link #NO_ENTRY} denotes the absence of a mapping.  Consequently, a character that is mapped to the
+ * undefined key code (0) with no modifier keys is treated as unmapped; such a mapping could not be typed in any case.
+ * </p>
+ * <p>
+ * A compiled key map can be {@linkplain #write(DataOutput) written} to a stream as a sequence of code point&ndash;entry
+ * pairs and {@linkplain #read(DataInput) read} from it again, which allows the parsing of a key-map file to be avoided
+ * when the file has not changed.
+ * </p>
+ */
+
+public class CompiledKeyMap
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The value that denotes the absence of an entry. */
+	public static final		int		NO_ENTRY	= 0;
+
+	/** The number of characters, starting from U+0000, whose entries are stored in the dense table. */
+	public static final		int		DENSE_TABLE_SIZE	= 0x800;
+
+	/** The number of bits by which the bit mask of modifier keys of an entry is shifted. */
+	private static final	int		MODIFIERS_SHIFT	= 28;
+
+	/** The mask for the key code of an entry. */
+	private static final	int		KEY_CODE_MASK	= (1 << MODIFIERS_SHIFT) - 1;
+
+	/** The maximum key code that can be encoded in an entry. */
+	public static final		int		MAX_KEY_CODE	= KEY_CODE_MASK;
+
+	/** The key codes of the modifier keys, indexed by the bit that represents the key in the modifier mask of an
+		entry. */
+	private static final	int[]	MODIFIER_KEY_CODES	= KeyMap.ModifierKey.keyCodes();
+
+	/** The entry for the <i>tab</i> key. */
+	public static final		int		TAB_ENTRY	= entry(KeyEvent.VK_TAB, 0);
+
+	/** The entry for the <i>enter</i> key. */
+	public static final		int		ENTER_ENTRY	= entry(KeyEvent.VK_ENTER, 0);
+
+	/** The value that denotes an empty slot in the sparse hash table. */
+	private static final	int		EMPTY_SLOT	= -1;
+
+	/** The multiplier that is used to hash a character for the sparse hash table. */
+	private static final	int		HASH_MULTIPLIER	= 0x9E3779B9;
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	MALFORMED_DATA =
+				"The data of the key map are malformed.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of entries in this map. */
+	private	int		size;
+
+	/** The entries for characters below {@link #DENSE_TABLE_SIZE}, indexed by character. */
+	private	int[]	denseEntries;
+
+	/** The characters of the sparse hash table. */
+	private	int[]	sparseChars;
+
+	/** The entries of the sparse hash table. */
+	private	int[]	sparseEntries;
+
+	/** The number of bits by which a hash code is shifted to give an index into the sparse hash table. */
+	private	int		sparseShift;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of an empty compiled key map whose sparse hash table can accommodate the specified number
+	 * of entries.
+	 *
+	 * @param numSparse
+	 *          the number of entries for characters that are not in the range of the dense table.
+	 */
+
+	private CompiledKeyMap(
+		int	numSparse)
+	{
+		// Initialise dense table
+		denseEntries = new int[DENSE_TABLE_SIZE];
+
+		// Initialise sparse hash table with a load factor of no more than 0.5
+		int numSlotBits = 1;
+		while ((1 << numSlotBits) < 2 * numSparse)
+			++numSlotBits;
+		sparseShift = Integer.SIZE - numSlotBits;
+		sparseChars = new int[1 << numSlotBits];
+		sparseEntries = new int[sparseChars.length];
+		Arrays.fill(sparseChars, EMPTY_SLOT);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates and returns a new instance of a compiled key map from the specified map.
+	 *
+	 * @param  keyMap
+	 *           the map from characters to keys from which the compiled key map will be created.
+	 * @return a new instance of a compiled key map that contains the mappings of {@code keyMap}.
+	 */
+
+	public static CompiledKeyMap of(
+		Map<Integer, KeyMap.Key>	keyMap)
+	{
+		// Count code points that are not in the range of the dense table
+		int numSparse = 0;
+		for (int codePoint : keyMap.keySet())
+		{
+			if (codePoint >= DENSE_TABLE_SIZE)
+				++numSparse;
+		}
+
+		// Create compiled key map
+		CompiledKeyMap compiledKeyMap = new CompiledKeyMap(numSparse);
+
+		// Add entries
+		for (Map.Entry<Integer, KeyMap.Key> mapEntry : keyMap.entrySet())
+		{
+			KeyMap.Key key = mapEntry.getValue();
+			int entry = entry(key.keyCode(), key.modifierMask());
+			if (entry != NO_ENTRY)
+				compiledKeyMap.put(mapEntry.getKey(), entry);
+		}
+
+		// Return compiled key map
+		return compiledKeyMap;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of a compiled key map from the specified content of a key-map file.  If a
+	 * cache is specified, the compiled key map is looked up in the cache before the content is parsed, and a key map
+	 * that is parsed is added to the cache.
+	 *
+	 * @param  source
+	 *           the content of the key-map file, encoded as UTF-8.
+	 * @param  cache
+	 *           the cache of compiled key maps, which may be {@code null}.
+	 * @return a compiled key map for {@code source}.
+	 * @throws KeyMap.ParseException
+	 *           if an error occurred when parsing {@code source}.
+	 */
+
+	public static CompiledKeyMap of(
+		byte[]		source,
+		KeyMapCache	cache)
+		throws KeyMap.ParseException
+	{
+		// Look up key map in cache
+		byte[] hashValue = (cache == null) ? null : KeyMapCache.hash(source);
+		CompiledKeyMap keyMap = (cache == null) ? null : cache.load(hashValue);
+
+		// If key map was not found in cache, parse it and add it to cache
+		if (keyMap == null)
+		{
+			List<String> lines = new String(source, StandardCharsets.UTF_8).lines().toList();
+			keyMap = of(KeyMap.parse(lines));
+			if (cache != null)
+				cache.store(hashValue, keyMap);
+		}
+
+		// Return key map
+		return keyMap;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Reads a compiled key map that was written by {@link #write(DataOutput)} from the specified input.
+	 *
+	 * @param  input
+	 *           the input from which the key map will be read.
+	 * @return the compiled key map that was read from {@code input}.
+	 * @throws IOException
+	 *           if an error occurred when reading from {@code input}, or if the data that were read are malformed.
+	 */
+
+	public static CompiledKeyMap read(
+		DataInput	input)
+		throws IOException
+	{
+		// Read number of entries
+		int numEntries = input.readInt();
+		if ((numEntries < 0) || (numEntries > Character.MAX_CODE_POINT + 1))
+			throw new IOException(ErrorMsg.MALFORMED_DATA);
+
+		// Read code point-entry pairs
+		int[] codePoints = new int[numEntries];
+		int[] entries = new int[numEntries];
+		int numSparse = 0;
+		for (int i = 0; i < numEntries; i++)
+		{
+			codePoints[i] = input.readInt();
+			entries[i] = input.readInt();
+			if (!Character.isValidCodePoint(codePoints[i]) || (entries[i] == NO_ENTRY)
+					|| ((modifierMask(entries[i]) >>> MODIFIER_KEY_CODES.length) != 0))
+				throw new IOException(ErrorMsg.MALFORMED_DATA);
+			if (codePoints[i] >= DENSE_TABLE_SIZE)
+				++numSparse;
+		}
+
+		// Create compiled key map and add entries to it
+		CompiledKeyMap compiledKeyMap = new CompiledKeyMap(numSparse);
+		for (int i = 0; i < numEntries; i++)
+			compiledKeyMap.put(codePoints[i], entries[i]);
+
+		// Check for duplicate code points
+		if (compiledKeyMap.size != numEntries)
+			throw new IOException(ErrorMsg.MALFORMED_DATA);
+
+		// Return compiled key map
+		return compiledKeyMap;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns an entry that is composed of the specified key code and bit mask of modifier keys.
+	 *
+	 * @param  keyCode
+	 *           the key code.
+	 * @param  modifierMask
+	 *           the bit mask of modifier keys.
+	 * @return an entry that is composed of {@code keyCode} and {@code modifierMask}.
+	 */
+
+	public static int entry(
+		int	keyCode,
+		int	modifierMask)
+	{
+		return (modifierMask << MODIFIERS_SHIFT) | (keyCode & KEY_CODE_MASK);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the key code of the specified entry.
+	 *
+	 * @param  entry
+	 *           the entry whose key code is required.
+	 * @return the key code of {@code entry}.
+	 */
+
+	public static int keyCode(
+		int	entry)
+	{
+		return entry & KEY_CODE_MASK;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the bit mask of modifier keys of the specified entry.
+	 *
+	 * @param  entry
+	 *           the entry whose modifier keys are required.
+	 * @return the bit mask of modifier keys of {@code entry}.
+	 */
+
+	public static int modifierMask(
+		int	entry)
+	{
+		return entry >>> MODIFIERS_SHIFT;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of modifier keys that can be represented in the bit mask of an entry.
+	 *
+	 * @return the number of modifier keys that can be represented in the bit mask of an entry.
+	 */
+
+	public static int numModifierKeys()
+	{
+		return MODIFIER_KEY_CODES.length;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the key code of the modifier key that is represented by the specified bit of the modifier mask of an
+	 * entry.
+	 *
+	 * @param  index
+	 *           the index of the bit in the modifier mask.
+	 * @return the key code of the modifier key that is represented by bit {@code index} of a modifier mask.
+	 */
+
+	public static int modifierKeyCode(
+		int	index)
+	{
+		return MODIFIER_KEY_CODES[index];
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the number of entries in this map.
+	 *
+	 * @return the number of entries in this map.
+	 */
+
+	public int size()
+	{
+		return size;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the entry for the specified code point.
+	 *
+	 * @param  ch
+	 *           the code point whose entry is required.
+	 * @return the entry for {@code ch}, or {@link #NO_ENTRY} if there is no entry for {@code ch}.
+	 */
+
+	public int get(
+		int	ch)
+	{
+		// Look up character in dense table
+		if ((ch >= 0) && (ch < DENSE_TABLE_SIZE))
+			return denseEntries[ch];
+
+		// Look up character in sparse hash table
+		int mask = sparseChars.length - 1;
+		int index = (ch * HASH_MULTIPLIER) >>> sparseShift;
+		while (true)
+		{
+			int slotChar = sparseChars[index];
+			if (slotChar == ch)
+				return sparseEntries[index];
+			if (slotChar == EMPTY_SLOT)
+				return NO_ENTRY;
+			index = (index + 1) & mask;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if this map contains an entry for the specified code point.
+	 *
+	 * @param  ch
+	 *           the code point of interest.
+	 * @return {@code true} if this map contains an entry for {@code ch}.
+	 */
+
+	public boolean contains(
+		int	ch)
+	{
+		return get(ch) != NO_ENTRY;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the code points for which this map contains an entry, in ascending order.
+	 *
+	 * @return an array of the code points for which this map contains an entry, in ascending order.
+	 */
+
+	public int[] codePoints()
+	{
+		int[] codePoints = new int[size];
+		int index = 0;
+		for (int i = 0; i < DENSE_TABLE_SIZE; i++)
+		{
+			if (denseEntries[i] != NO_ENTRY)
+				codePoints[index++] = i;
+		}
+		int sparseStart = index;
+		for (int i = 0; i < sparseChars.length; i++)
+		{
+			if (sparseChars[i] != EMPTY_SLOT)
+				codePoints[index++] = sparseChars[i];
+		}
+		Arrays.sort(codePoints, sparseStart, index);
+		return codePoints;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Writes this map to the specified output as the number of entries followed by a code point&ndash;entry pair for
+	 * each entry.  The map can be recreated with {@link #read(DataInput)}.
+	 *
+	 * @param  output
+	 *           the output to which this map will be written.
+	 * @throws IOException
+	 *           if an error occurred when writing to {@code output}.
+	 */
+
+	public void write(
+		DataOutput	output)
+		throws IOException
+	{
+		// Write number of entries
+		output.writeInt(size);
+
+		// Write entries of dense table
+		for (int i = 0; i < DENSE_TABLE_SIZE; i++)
+		{
+			if (denseEntries[i] != NO_ENTRY)
+			{
+				output.writeInt(i);
+				output.writeInt(denseEntries[i]);
+			}
+		}
+
+		// Write entries of sparse hash table
+		for (int i = 0; i < sparseChars.length; i++)
+		{
+			if (sparseChars[i] != EMPTY_SLOT)
+			{
+				output.writeInt(sparseChars[i]);
+				output.writeInt(sparseEntries[i]);
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Adds the specified entry for the specified character to this map, replacing any existing entry for the character.
+	 *
+	 * @param ch
+	 *          the character.
+	 * @param entry
+	 *          the entry for {@code ch}.
+	 */
+
+	private void put(
+		int	ch,
+		int	entry)
+	{
+		// Add entry to dense table
+		if (ch < DENSE_TABLE_SIZE)
+		{
+			if (denseEntries[ch] == NO_ENTRY)
+				++size;
+			denseEntries[ch] = entry;
+			return;
+		}
+
+		// Add entry to sparse hash table
+		int mask = sparseChars.length - 1;
+		int index = (ch * HASH_MULTIPLIER) >>> sparseShift;
+		while ((sparseChars[index] != EMPTY_SLOT) && (sparseChars[index] != ch))
+			index = (index + 1) & mask;
+		if (sparseChars[index] == EMPTY_SLOT)
+			++size;
+		sparseChars[index] = ch;
+		sparseEntries[index] = entry;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -18,16 +18,27 @@ package uk.blankaspect.autokeytyper;
 // IMPORTS
 
 
-import java.awt.Robot;
+import java.io.File;
+import java.io.IOException;
 
 import java.lang.invoke.MethodHandles;
 
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import java.util.stream.Collectors;
+
+import javafx.application.Platform;
+
+import javafx.beans.value.ObservableValue;
+
+import javafx.css.PseudoClass;
 
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
@@ -36,7 +47,11 @@ import javafx.geometry.Pos;
 import javafx.scene.Group;
 
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextFormatter;
 
@@ -50,13 +65,16 @@ import javafx.scene.layout.VBox;
 
 import javafx.scene.paint.Color;
 
-import javafx.util.Duration;
+import javafx.stage.FileChooser;
 
+import uk.blankaspect.common.basictree.ListNode;
 import uk.blankaspect.common.basictree.MapNode;
 
 import uk.blankaspect.common.css.CssRuleSet;
 import uk.blankaspect.common.css.CssSelector;
 
+import uk.blankaspect.common.exception2.BaseException;
+
 import uk.blankaspect.common.function.IFunction0;
 import uk.blankaspect.common.function.IFunction1;
 import uk.blankaspect.common.function.IProcedure0;
@@ -69,6 +87,8 @@ import uk.blankaspect.ui.jfx.container.PaneStyle;
 
 import uk.blankaspect.ui.jfx.dialog.ErrorDialog;
 
+import uk.blankaspect.ui.jfx.dropdownlist.SimpleDropDownList;
+
 import uk.blankaspect.ui.jfx.font.Fonts;
 import uk.blankaspect.ui.jfx.font.FontUtils;
 
@@ -79,6 +99,7 @@ import uk.blankaspect.ui.jfx.label.Labels;
 import uk.blankaspect.ui.jfx.scene.SceneUtils;
 
 import uk.blankaspect.ui.jfx.spinner.IntRangeSpinner;
+import uk.blankaspect.ui.jfx.spinner.SpinnerFactory;
 
 import uk.blankaspect.ui.jfx.style.ColourProperty;
 import uk.blankaspect.ui.jfx.style.FxProperty;
@@ -118,6 +139,34 @@ public class DelayedPage
 	/** The preferred number of columns of the input field. */
 	private static final	int		INPUT_FIELD_NUM_COLUMNS	= 40;
 
+	/** The preferred number of columns of the text field for the template of the fallback sequence. */
+	private static final	int		FALLBACK_TEMPLATE_FIELD_NUM_COLUMNS	= 24;
+
+	/** The preferred number of rows of the text area for the source text of a macro. */
+	private static final	int		MACRO_AREA_NUM_ROWS	= 6;
+
+	/** The preferred number of columns of the text field for the name of a macro. */
+	private static final	int		MACRO_NAME_FIELD_NUM_COLUMNS	= 16;
+
+	/** The number of milliseconds in a second. */
+	private static final	int		MILLISECONDS_PER_SECOND	= 1000;
+
+	/** The number of nanoseconds in a millisecond. */
+	private static final	double	NANOSECONDS_PER_MILLISECOND	= 1.0e6;
+
+	/** The maximum number of digits of the pacing-rate spinner. */
+	private static final	int		RATE_SPINNER_NUM_DIGITS	= 4;
+
+	/** The maximum number of unmapped characters that are listed below the input field. */
+	private static final	int		MAX_NUM_LISTED_UNMAPPED_CHARS	= 8;
+
+	/** The pseudo-class of the input field when it contains unmapped characters. */
+	private static final	PseudoClass	UNMAPPED_PSEUDO_CLASS	= PseudoClass.getPseudoClass("unmapped");
+
+	/** The template for the text of the statistics label. */
+	private static final	String	STATISTICS_TEMPLATE	=
+			"%.1f chars/s \u2022 Interval (ms): p50 %.3f, p90 %.3f, p99 %.3f, max %.3f";
+
 	/** The horizontal gap between adjacent components in a container. */
 	private static final	double	CONTROL_H_GAP	= 6.0;
 
@@ -131,16 +180,36 @@ public class DelayedPage
 	private static final	Insets	BUTTON_PADDING	= new Insets(4.0, 10.0, 4.0, 10.0);
 
 	/** Miscellaneous strings. */
-	private static final	String	INPUT_STR		= "Input";
-	private static final	String	CLEAR_INPUT_STR	= "Clear input";
-	private static final	String	DELAY_STR		= "Delay";
-	private static final	String	SECONDS_STR		= "seconds";
-	private static final	String	ALIASES_STR		= "Aliases";
-	private static final	String	TAB_STR			= "Tab";
-	private static final	String	ENTER_STR		= "Enter";
-	private static final	String	KEY_STR			= " key";
-	private static final	String	ABORT_STR		= "Abort";
-	private static final	String	GENERATE_STR	= "Generate";
+	private static final	String	SOURCE_STR				= "Source";
+	private static final	String	INPUT_STR				= "Input";
+	private static final	String	FILE_STR				= "File";
+	private static final	String	MACRO_STR				= "Macro";
+	private static final	String	NAME_STR				= "Name";
+	private static final	String	SAVE_STR				= "Save";
+	private static final	String	DELETE_STR				= "Delete";
+	private static final	String	CHOOSE_FILE_STR			= "Choose file";
+	private static final	String	ELLIPSIS_STR			= "...";
+	private static final	String	CLEAR_INPUT_STR			= "Clear input";
+	private static final	String	DELAY_STR				= "Delay";
+	private static final	String	SECONDS_STR				= "seconds";
+	private static final	String	PROGRESS_STR			= "Progress";
+	private static final	String	STATISTICS_STR			= "Statistics";
+	private static final	String	TIMING_STR				= "Timing";
+	private static final	String	PACING_STR				= "Pacing";
+	private static final	String	CHARS_PER_SECOND_STR	= "chars/s";
+	private static final	String	ALIASES_STR				= "Aliases";
+	private static final	String	TAB_STR					= "Tab";
+	private static final	String	ENTER_STR				= "Enter";
+	private static final	String	KEY_STR					= " key";
+	private static final	String	MODIFIER_KEYS_STR		= "Modifier keys";
+	private static final	String	HOLD_MODIFIERS_STR		= "Keep pressed across characters";
+	private static final	String	FALLBACK_STR			= "Fallback";
+	private static final	String	USE_FALLBACK_STR		= "Type unmapped characters with";
+	private static final	String	ABORT_STR				= "Abort";
+	private static final	String	GENERATE_STR			= "Generate";
+	private static final	String	UNMAPPED_STR			= "Cannot be mapped to keys: ";
+	private static final	String	FALLBACK_CHARS_STR		= "Typed with fallback sequence: ";
+	private static final	String	AT_STR					= " at ";
 
 	/** CSS colour properties. */
 	private static final	List<ColourProperty>	COLOUR_PROPERTIES	= List.of
@@ -173,6 +242,24 @@ public class DelayedPage
 					.build()
 		),
 		ColourProperty.of
+		(
+			FxProperty.CONTROL_INNER_BACKGROUND,
+			ColourKey.INPUT_FIELD_UNMAPPED_BACKGROUND,
+			CssSelector.builder()
+					.cls(StyleClass.DELAYED_PAGE)
+					.desc(StyleClass.INPUT_FIELD).pseudo(UNMAPPED_PSEUDO_CLASS.getPseudoClassName())
+					.build()
+		),
+		ColourProperty.of
+		(
+			FxProperty.TEXT_FILL,
+			ColourKey.UNMAPPED_CHARS_TEXT,
+			CssSelector.builder()
+					.cls(StyleClass.DELAYED_PAGE)
+					.desc(StyleClass.UNMAPPED_CHARS_LABEL)
+					.build()
+		),
+		ColourProperty.of
 		(
 			FxProperty.BORDER_COLOUR,
 			PaneStyle.ColourKey.PANE_BORDER,
@@ -199,10 +286,11 @@ public class DelayedPage
 	/** CSS style classes. */
 	private interface StyleClass
 	{
-		String	ALIAS_KEY_TEXT	= StyleConstants.CLASS_PREFIX + "alias-key-text";
-		String	CONTROL_PANE	= StyleConstants.CLASS_PREFIX + "control-pane";
-		String	DELAYED_PAGE	= StyleConstants.CLASS_PREFIX + "delayed-page";
-		String	INPUT_FIELD		= StyleConstants.CLASS_PREFIX + "input-field";
+		String	ALIAS_KEY_TEXT			= StyleConstants.CLASS_PREFIX + "alias-key-text";
+		String	CONTROL_PANE			= StyleConstants.CLASS_PREFIX + "control-pane";
+		String	DELAYED_PAGE			= StyleConstants.CLASS_PREFIX + "delayed-page";
+		String	INPUT_FIELD				= StyleConstants.CLASS_PREFIX + "input-field";
+		String	UNMAPPED_CHARS_LABEL	= StyleConstants.CLASS_PREFIX + "unmapped-chars-label";
 	}
 
 	/** Keys of colours that are used in colour properties. */
@@ -213,13 +301,21 @@ public class DelayedPage
 		String	ALIAS_KEY_TEXT					= PREFIX + "aliasKeyText";
 		String	CLEAR_INPUT_BUTTON_BACKGROUND	= PREFIX + "clearInputButton.background";
 		String	CLEAR_INPUT_BUTTON_FOREGROUND	= PREFIX + "clearInputButton.foreground";
+		String	INPUT_FIELD_UNMAPPED_BACKGROUND	= PREFIX + "inputField.unmapped.background";
+		String	UNMAPPED_CHARS_TEXT				= PREFIX + "unmappedCharsText";
 	}
 
 	/** Error messages. */
 	private interface ErrorMsg
 	{
+		String	PROBLEM_WITH_KEY_EVENT_GENERATOR =
+				"There was a problem with the key-event generator.";
+
+		String	NOT_A_FILE =
+				"The pathname does not denote a file.";
+
 		String	CHARACTERS_NOT_IN_KEY_MAP =
-				"The following characters cannot be mapped to key codes:";
+				"The following characters cannot be mapped to key codes:%s";
 	}
 
 ////////////////////////////////////////////////////////////////////////
@@ -227,22 +323,59 @@ public class DelayedPage
 ////////////////////////////////////////////////////////////////////////
 
 	/** The saved state of this page. */
-	private	State			state;
+	private	State							state;
 
 	/** The <i>delay</i> spinner. */
-	private	IntRangeSpinner	delaySpinner;
+	private	IntRangeSpinner					delaySpinner;
+
+	/** The drop-down list for the source of the text that is typed. */
+	private	SimpleDropDownList<Source>		sourceList;
+
+	/** The text field for the pathname of the file whose text is typed. */
+	private	TextField						fileField;
+
+	/** The text area for the source text of the macro that is run. */
+	private	TextArea						macroArea;
+
+	/** The text field for the name under which the macro is saved. */
+	private	TextField						macroNameField;
+
+	/** The check box that selects whether modifier keys are kept pressed across consecutive characters. */
+	private	CheckBox						holdModifiersCheckBox;
+
+	/** The check box that selects whether unmapped characters are typed with a fallback sequence. */
+	private	CheckBox						fallbackCheckBox;
+
+	/** The text field for the template of the fallback sequence. */
+	private	TextField						fallbackTemplateField;
+
+	/** The most recently used fallback sequence, which is reused while its template and key map are unchanged so
+		that its cache of compiled code points is retained.  It is used only on the FX application thread. */
+	private	FallbackSequence				fallbackSequence;
+
+	/** The drop-down list for the mode of pacing. */
+	private	SimpleDropDownList<Pacer.Mode>	pacingModeList;
+
+	/** The spinner for the rate of typing in the <i>fixed rate</i> pacing mode. */
+	private	Spinner<Integer>				pacingRateSpinner;
 
 	/** The <i>generate</i> button. */
-	private	Button			generateButton;
+	private	Button							generateButton;
 
 	/** The <i>abort</i> button. */
-	private	Button			abortButton;
+	private	Button							abortButton;
 
 	/** The outer pane of this page. */
-	private	StackPane		pane;
+	private	StackPane						pane;
+
+	/** The engine that generates key events on a background thread. */
+	private	TypingEngine					typingEngine;
 
-	/** The timer that provides a delay of the chosen length when generating key events. */
-	private	Timeline		timer;
+	/** The handle of the current typing job. */
+	private	TypingEngine.Task				typingTask;
+
+	/** The most recent snapshot of the accuracy of the timing of the current or last typing job. */
+	private	TimingRecorder.Snapshot			timingSnapshot;
 
 ////////////////////////////////////////////////////////////////////////
 //  Static initialiser
@@ -314,6 +447,15 @@ public class DelayedPage
 	{
 		// Update state
 		state.delay = delaySpinner.value();
+		state.source = sourceList.item();
+		state.file = fileField.getText();
+		state.macroName = macroNameField.getText();
+		state.macroText = macroArea.getText();
+		state.holdModifiers = holdModifiersCheckBox.isSelected();
+		state.fallback = fallbackCheckBox.isSelected();
+		state.fallbackTemplate = fallbackTemplateField.getText();
+		state.pacingMode = pacingModeList.item();
+		state.pacingRate = pacingRateSpinner.getValue();
 
 		// Encode state and return result
 		return state.encode();
@@ -343,10 +485,13 @@ public class DelayedPage
 ////////////////////////////////////////////////////////////////////////
 
 	public void init(
-		Robot						robot,
-		Map<Character, KeyMap.Key>	keyMap,
-		IProcedure1<Boolean>		enableExternalControls)
+		IKeyEventSink					keyEventSink,
+		ObservableValue<CompiledKeyMap>	keyMap,
+		IProcedure1<Boolean>			enableExternalControls)
 	{
+		// Create typing engine
+		typingEngine = new TypingEngine(keyEventSink, Platform::runLater);
+
 		// Create control pane
 		GridPane controlPane = new GridPane();
 		controlPane.setHgap(CONTROL_H_GAP);
@@ -370,6 +515,14 @@ public class DelayedPage
 		// Initialise row index
 		int row = 0;
 
+		// Drop-down list: source
+		sourceList = new SimpleDropDownList<>(Source.values());
+		sourceList.item(state.source);
+		controlPane.addRow(row++, new Label(SOURCE_STR), sourceList);
+
+		// Create tracker of unmapped characters in input field
+		UnmappedCharTracker unmappedCharTracker = new UnmappedCharTracker(keyMap.getValue());
+
 		// Text field: input
 		TextField inputField = new TextField();
 		inputField.setFont(Fonts.monoFont());
@@ -378,6 +531,14 @@ public class DelayedPage
 		inputField.getStyleClass().add(StyleClass.INPUT_FIELD);
 		HBox.setHgrow(inputField, Priority.ALWAYS);
 
+		// Validate only the edited range of the input field against the key map
+		inputField.setTextFormatter(new TextFormatter<>(change ->
+		{
+			unmappedCharTracker.update(change.getRangeStart(), change.getRangeEnd(), change.getText(),
+									   change.getControlText());
+			return change;
+		}));
+
 		// Button: clear input
 		Group clearIcon = Icons.clear02(getColour(ColourKey.CLEAR_INPUT_BUTTON_BACKGROUND),
 										getColour(ColourKey.CLEAR_INPUT_BUTTON_FOREGROUND));
@@ -388,12 +549,149 @@ public class DelayedPage
 			inputField.clear();
 		});
 
+		// Pane: input field
+		HBox inputFieldPane = new HBox(2.0, inputField, clearInputButton);
+		inputFieldPane.setAlignment(Pos.CENTER_LEFT);
+
+		// Label: unmapped characters
+		Label unmappedCharsLabel = new Label();
+		unmappedCharsLabel.setTextFill(getColour(ColourKey.UNMAPPED_CHARS_TEXT));
+		unmappedCharsLabel.getStyleClass().add(StyleClass.UNMAPPED_CHARS_LABEL);
+		unmappedCharsLabel.managedProperty().bind(unmappedCharsLabel.visibleProperty());
+		unmappedCharsLabel.setVisible(false);
+
 		// Pane: input
-		HBox inputPane = new HBox(2.0, inputField, clearInputButton);
-		inputPane.setAlignment(Pos.CENTER_LEFT);
+		VBox inputPane = new VBox(2.0, inputFieldPane, unmappedCharsLabel);
 		controlPane.addRow(row++, new Label(INPUT_STR), inputPane);
 		GridPane.setHgrow(inputPane, Priority.ALWAYS);
 
+		// Create procedure to highlight unmapped characters of input field
+		IProcedure0 updateUnmappedChars = () ->
+		{
+			int numUnmapped = unmappedCharTracker.numUnmapped();
+			boolean fallback = fallbackCheckBox.isSelected();
+			int numUntypable = fallback ? unmappedCharTracker.numUnmappedSurrogates() : numUnmapped;
+			inputField.pseudoClassStateChanged(UNMAPPED_PSEUDO_CLASS, numUntypable > 0);
+			unmappedCharsLabel.setVisible(numUnmapped > 0);
+			if (numUnmapped > 0)
+			{
+				StringBuilder buffer = new StringBuilder(fallback ? FALLBACK_CHARS_STR : UNMAPPED_STR);
+				int numListed = Math.min(numUnmapped, MAX_NUM_LISTED_UNMAPPED_CHARS);
+				for (int i = 0; i < numListed; i++)
+				{
+					if (i > 0)
+						buffer.append(", ");
+					buffer.append('\'').appendCodePoint(unmappedCharTracker.unmappedChar(i)).append('\'');
+					buffer.append(AT_STR).append(unmappedCharTracker.position(i) + 1);
+				}
+				if (numUnmapped > numListed)
+					buffer.append(", \u2026 (").append(numUnmapped).append(')');
+				unmappedCharsLabel.setText(buffer.toString());
+			}
+		};
+
+		// Text field: file
+		fileField = new TextField(state.file);
+		fileField.setFont(Fonts.monoFont());
+		fileField.setPrefColumnCount(INPUT_FIELD_NUM_COLUMNS);
+		fileField.setOnAction(event -> generateButton.fire());
+		HBox.setHgrow(fileField, Priority.ALWAYS);
+
+		// Button: choose file
+		Button chooseFileButton = Buttons.hNoShrink(ELLIPSIS_STR);
+		chooseFileButton.setOnAction(event ->
+		{
+			// Initialise file chooser
+			FileChooser fileChooser = new FileChooser();
+			fileChooser.setTitle(CHOOSE_FILE_STR);
+			File directory = new File(fileField.getText()).getAbsoluteFile().getParentFile();
+			if ((directory != null) && directory.isDirectory())
+				fileChooser.setInitialDirectory(directory);
+
+			// Display file chooser; update file field
+			File file = fileChooser.showOpenDialog(SceneUtils.getWindow(chooseFileButton));
+			if (file != null)
+				fileField.setText(file.getPath());
+		});
+
+		// Pane: file
+		HBox filePane = new HBox(2.0, fileField, chooseFileButton);
+		filePane.setAlignment(Pos.CENTER_LEFT);
+		controlPane.addRow(row++, new Label(FILE_STR), filePane);
+		GridPane.setHgrow(filePane, Priority.ALWAYS);
+
+		// Text area: macro
+		macroArea = new TextArea(state.macroText);
+		macroArea.setFont(Fonts.monoFont());
+		macroArea.setPrefColumnCount(INPUT_FIELD_NUM_COLUMNS);
+		macroArea.setPrefRowCount(MACRO_AREA_NUM_ROWS);
+
+		// Drop-down list: saved macros
+		SimpleDropDownList<Macro> macroList = new SimpleDropDownList<>(state.macros);
+
+		// Text field: name of macro
+		macroNameField = new TextField(state.macroName);
+		macroNameField.setPrefColumnCount(MACRO_NAME_FIELD_NUM_COLUMNS);
+		HBox.setHgrow(macroNameField, Priority.ALWAYS);
+
+		// Button: save macro
+		Button saveMacroButton = Buttons.hNoShrink(SAVE_STR);
+		saveMacroButton.setOnAction(event ->
+		{
+			// Get name of macro
+			String name = macroNameField.getText().trim();
+			if (name.isEmpty())
+				return;
+
+			// Replace saved macro with the same name, or add macro to list
+			Macro macro = new Macro(name, macroArea.getText());
+			int index = 0;
+			while ((index < state.macros.size()) && !state.macros.get(index).name.equals(name))
+				++index;
+			if (index < state.macros.size())
+				state.macros.set(index, macro);
+			else
+				state.macros.add(macro);
+
+			// Update drop-down list
+			macroList.items(state.macros);
+			macroList.selectItem(macro);
+		});
+
+		// Button: delete macro
+		Button deleteMacroButton = Buttons.hNoShrink(DELETE_STR);
+		deleteMacroButton.setOnAction(event ->
+		{
+			// Remove selected macro from list
+			state.macros.remove(macroList.item());
+
+			// Update drop-down list
+			macroList.items(state.macros);
+		});
+
+		// Load selected macro into text field and text area
+		macroList.itemProperty().addListener((observable, oldMacro, macro) ->
+		{
+			if (macro != null)
+			{
+				macroNameField.setText(macro.name);
+				macroArea.setText(macro.text);
+			}
+		});
+
+		// Update 'delete' button when selected macro changes
+		deleteMacroButton.disableProperty().bind(macroList.itemProperty().isNull());
+
+		// Pane: saved macros
+		HBox savedMacrosPane = new HBox(CONTROL_H_GAP, macroList, Labels.hNoShrink(NAME_STR), macroNameField,
+										saveMacroButton, deleteMacroButton);
+		savedMacrosPane.setAlignment(Pos.CENTER_LEFT);
+
+		// Pane: macro
+		VBox macroPane = new VBox(CONTROL_V_GAP, macroArea, savedMacrosPane);
+		controlPane.addRow(row++, new Label(MACRO_STR), macroPane);
+		GridPane.setHgrow(macroPane, Priority.ALWAYS);
+
 		// Create factory function for single-character text fields
 		IFunction0<TextField> singleCharFieldFactory = () ->
 		{
@@ -431,6 +729,34 @@ public class DelayedPage
 		aliasesPane.setAlignment(Pos.CENTER_LEFT);
 		controlPane.addRow(row++, new Label(ALIASES_STR), aliasesPane);
 
+		// Create function to extract alias character from text field
+		IFunction1<Character, TextField> alias = field ->
+		{
+			String text = field.getText();
+			return text.isEmpty() ? '\0' : text.charAt(0);
+		};
+
+		// Check box: fallback
+		fallbackCheckBox = new CheckBox(USE_FALLBACK_STR);
+		fallbackCheckBox.setSelected(state.fallback);
+
+		// Text field: fallback template
+		fallbackTemplateField = new TextField(state.fallbackTemplate);
+		fallbackTemplateField.setFont(Fonts.monoFont());
+		fallbackTemplateField.setPrefColumnCount(FALLBACK_TEMPLATE_FIELD_NUM_COLUMNS);
+		fallbackTemplateField.disableProperty().bind(fallbackCheckBox.selectedProperty().not());
+		HBox.setHgrow(fallbackTemplateField, Priority.ALWAYS);
+
+		// Pane: fallback
+		HBox fallbackPane = new HBox(CONTROL_H_GAP, fallbackCheckBox, fallbackTemplateField);
+		fallbackPane.setAlignment(Pos.CENTER_LEFT);
+		controlPane.addRow(row++, new Label(FALLBACK_STR), fallbackPane);
+
+		// Check box: hold modifier keys
+		holdModifiersCheckBox = new CheckBox(HOLD_MODIFIERS_STR);
+		holdModifiersCheckBox.setSelected(state.holdModifiers);
+		controlPane.addRow(row++, new Label(MODIFIER_KEYS_STR), holdModifiersCheckBox);
+
 		// Spinner: delay
 		delaySpinner = IntRangeSpinner.leftRightH(HPos.CENTER, false, MIN_DELAY, MAX_DELAY, state.delay, "000", null);
 
@@ -439,6 +765,49 @@ public class DelayedPage
 		delayPane.setAlignment(Pos.CENTER_LEFT);
 		controlPane.addRow(row++, new Label(DELAY_STR), delayPane);
 
+		// Drop-down list: pacing mode
+		pacingModeList = new SimpleDropDownList<>(Pacer.Mode.values());
+		pacingModeList.item(state.pacingMode);
+
+		// Spinner: pacing rate
+		pacingRateSpinner = SpinnerFactory.integerSpinner(Pacer.MIN_RATE, Pacer.MAX_RATE, state.pacingRate,
+														  RATE_SPINNER_NUM_DIGITS);
+
+		// Pane: pacing
+		HBox pacingPane = new HBox(CONTROL_H_GAP, pacingModeList, pacingRateSpinner,
+								   Labels.hNoShrink(CHARS_PER_SECOND_STR));
+		pacingPane.setAlignment(Pos.CENTER_LEFT);
+		controlPane.addRow(row++, new Label(PACING_STR), pacingPane);
+
+		// Enable pacing-rate spinner only in 'fixed rate' mode
+		IProcedure0 updatePacingRate = () ->
+				pacingRateSpinner.setDisable(pacingModeList.item() != Pacer.Mode.FIXED_RATE);
+		pacingModeList.itemProperty().addListener(observable -> updatePacingRate.invoke());
+		updatePacingRate.invoke();
+
+		// Progress bar
+		ProgressBar progressBar = new ProgressBar(0.0);
+		progressBar.setMaxWidth(Double.MAX_VALUE);
+		controlPane.addRow(row++, new Label(PROGRESS_STR), progressBar);
+
+		// Label: statistics
+		Label statisticsLabel = new Label(" ");
+		controlPane.addRow(row++, new Label(STATISTICS_STR), statisticsLabel);
+
+		// Pane: timing
+		TimingPane timingPane = new TimingPane(() -> timingSnapshot.encode());
+		controlPane.addRow(row++, new Label(TIMING_STR), timingPane);
+
+		// Create procedure to update statistics label
+		IProcedure1<TypingStats.Summary> updateStatistics = stats ->
+		{
+			statisticsLabel.setText(String.format(STATISTICS_TEMPLATE, stats.charsPerSecond(),
+												  stats.p50Interval() / NANOSECONDS_PER_MILLISECOND,
+												  stats.p90Interval() / NANOSECONDS_PER_MILLISECOND,
+												  stats.p99Interval() / NANOSECONDS_PER_MILLISECOND,
+												  stats.maxInterval() / NANOSECONDS_PER_MILLISECOND));
+		};
+
 		// Create outer pane
 		pane = new StackPane(controlPane);
 		pane.getStyleClass().add(StyleClass.DELAYED_PAGE);
@@ -446,11 +815,26 @@ public class DelayedPage
 		// Create procedure to update buttons
 		IProcedure0 updateButtons = () ->
 		{
-			boolean timerRunning = (timer != null);
-			boolean noInput = inputField.getText().isEmpty();
-			clearInputButton.setDisable(timerRunning || noInput);
-			generateButton.setDisable(timerRunning || noInput);
-			abortButton.setDisable(!timerRunning);
+			boolean typing = (typingTask != null);
+			Source source = sourceList.item();
+			boolean fromText = (source == Source.TEXT);
+			boolean noInput = switch (source)
+			{
+				case TEXT  -> inputField.getText().isEmpty();
+				case FILE  -> fileField.getText().isBlank();
+				case MACRO -> macroArea.getText().isBlank();
+			};
+			inputField.setDisable(!fromText);
+			aliasesPane.setDisable(!fromText);
+			filePane.setDisable(source != Source.FILE);
+			macroPane.setDisable(source != Source.MACRO);
+			clearInputButton.setDisable(typing || !fromText || inputField.getText().isEmpty());
+			int numUntypable = fallbackCheckBox.isSelected() ? unmappedCharTracker.numUnmappedSurrogates()
+															 : unmappedCharTracker.numUnmapped();
+			boolean unmapped = fromText && (numUntypable > 0);
+			generateButton.setDisable(typing || noInput || unmapped);
+			abortButton.setDisable(!typing);
+			progressBar.setDisable(!typing);
 		};
 
 		// Create button: generate
@@ -458,89 +842,201 @@ public class DelayedPage
 		generateButton.setPadding(BUTTON_PADDING);
 		generateButton.setOnAction(event ->
 		{
-			// Get text from input field
-			String text = inputField.getText();
-
-			// If there is text, generate key presses and releases for its characters after a delay
-			if (!text.isEmpty())
+			// Create source of programs of key events, and estimate number of characters that will be typed
+			TypingEngine.IProgramSource source = null;
+			double numChars = 0.0;
+			boolean holdModifiers = holdModifiersCheckBox.isSelected();
+
+			// Get current key map.  The job keeps this map even if the key map is reloaded while the job is running.
+			CompiledKeyMap jobKeyMap = keyMap.getValue();
+
+			// Get fallback sequence for unmapped characters.  A file is compiled in chunks on the thread of the typing
+			// job, so a file job has its own sequence; the reused sequence is used only on the FX application thread.
+			FallbackSequence fallback = null;
+			if (fallbackCheckBox.isSelected())
 			{
-				// Create function to extract alias character from text field
-				IFunction1<Character, TextField> alias = field ->
+				try
 				{
-					String t = field.getText();
-					return t.isEmpty() ? '\0' : t.charAt(0);
-				};
-
-				// Get aliases for tab and enter keys
-				char tabAlias = alias.invoke(tabField);
-				char enterAlias = alias.invoke(enterField);
+					fallback = (sourceList.item() == Source.FILE)
+									? FallbackSequence.parse(fallbackTemplateField.getText(), jobKeyMap)
+									: fallbackSequence(jobKeyMap);
+				}
+				catch (BaseException e)
+				{
+					ErrorDialog.show(SceneUtils.getWindow(generateButton), GENERATE_STR, e);
+					return;
+				}
+			}
+			if (sourceList.item() == Source.MACRO)
+			{
+				// Get source text of macro
+				String text = macroArea.getText();
+				if (text.isBlank())
+					return;
 
-				// Create list of characters of input text that do not appear in key map
-				List<Character> unmappedChars = new ArrayList<>();
-				for (int i = 0; i < text.length(); i++)
+				// Compile macro into program of key events; map tab and LF characters of 'type' statements to keys
+				KeyEventProgram program = null;
+				try
 				{
-					char ch = text.charAt(i);
-					if ((ch != tabAlias) && (ch != enterAlias) && !keyMap.containsKey(ch))
-						unmappedChars.add(ch);
+					KeyEventProgram.Compiler compiler =
+							new KeyEventProgram.Compiler(jobKeyMap, '\t', '\n', holdModifiers, fallback);
+					program = new MacroCompiler(compiler).compile(text);
 				}
+				catch (BaseException e)
+				{
+					ErrorDialog.show(SceneUtils.getWindow(generateButton), GENERATE_STR, e);
+					return;
+				}
+
+				// Create source for program.  The number of characters that will be typed is unknown because the
+				// program may contain loops, so the progress bar is indeterminate.
+				source = TypingEngine.IProgramSource.of(program);
+			}
+			else if (sourceList.item() == Source.FILE)
+			{
+				// Get pathname of file
+				String pathname = fileField.getText().trim();
+				if (pathname.isEmpty())
+					return;
 
-				// Report characters not in key map
-				if (!unmappedChars.isEmpty())
+				// Test for file
+				Path file = Path.of(pathname);
+				if (!Files.isRegularFile(file))
 				{
-					StringBuilder buffer = new StringBuilder(256);
-					buffer.append(ErrorMsg.CHARACTERS_NOT_IN_KEY_MAP);
-					for (int i = 0; i < unmappedChars.size(); i++)
-					{
-						if (i % 10 == 0)
-							buffer.append('\n');
-						else
-							buffer.append("  ");
-						buffer.append(unmappedChars.get(i));
-					}
-					ErrorDialog.show(SceneUtils.getWindow(generateButton), GENERATE_STR, buffer.toString());
+					ErrorDialog.show(SceneUtils.getWindow(generateButton), GENERATE_STR,
+									 ErrorMsg.NOT_A_FILE + "\n" + pathname);
 					return;
 				}
 
-				// Create timer to generate key presses after a delay
-				timer = new Timeline(new KeyFrame(Duration.seconds((double)delaySpinner.value()), event0 ->
+				// Create source that reads text of file in chunks; map tab and LF characters to keys
+				KeyEventProgram.Compiler compiler =
+						new KeyEventProgram.Compiler(jobKeyMap, '\t', '\n', holdModifiers, fallback);
+				source = TextStreamSource.ofFile(file, StandardCharsets.UTF_8, compiler);
+
+				// Estimate number of characters from size of file
+				try
+				{
+					numChars = Files.size(file);
+				}
+				catch (IOException e)
 				{
-					// Invalidate delay timer
-					timer = null;
+					// ignore
+				}
+			}
+			else
+			{
+				// Get text from input field
+				String text = inputField.getText();
+				if (text.isEmpty())
+					return;
 
-					// Generate key presses and releases
-					for (int i = 0; i < text.length(); i++)
+				// Get aliases for tab and enter keys
+				char tabAlias = alias.invoke(tabField);
+				char enterAlias = alias.invoke(enterField);
+
+				// Compile input text into program of key events
+				List<Integer> unmappedChars = new ArrayList<>();
+				KeyEventProgram program =
+						new KeyEventProgram.Compiler(jobKeyMap, tabAlias, enterAlias, holdModifiers, fallback)
+								.compile(text, unmappedChars);
+
+				// If some characters could not be mapped to keys, report them
+				if (program == null)
+				{
+					StringBuilder buffer = new StringBuilder();
+					int numListed = 0;
+					for (int ch : new LinkedHashSet<>(unmappedChars))
 					{
-						char ch = text.charAt(i);
-						KeyMap.Key key = null;
-						if (ch == tabAlias)
-							key = KeyMap.TAB_KEY;
-						else if (ch == enterAlias)
-							key = KeyMap.ENTER_KEY;
-						else
-							key = keyMap.get(ch);
-						if (key != null)
-							key.type(robot);
+						if (numListed++ == MAX_NUM_LISTED_UNMAPPED_CHARS)
+						{
+							buffer.append("  ...");
+							break;
+						}
+						buffer.append("  ").append(String.format("U+%04X", ch));
 					}
+					ErrorDialog.show(SceneUtils.getWindow(generateButton), GENERATE_STR,
+									 String.format(ErrorMsg.CHARACTERS_NOT_IN_KEY_MAP, buffer));
+					return;
+				}
 
-					// Update buttons
-					updateButtons.invoke();
+				// Create source for program
+				source = TypingEngine.IProgramSource.of(program);
+				numChars = program.numChars();
+			}
 
-					// Enable external controls
-					enableExternalControls.invoke(true);
-				}));
+			// Create procedure to end typing job
+			IProcedure0 endTyping = () ->
+			{
+				// Invalidate typing job
+				typingTask = null;
 
 				// Update buttons
 				updateButtons.invoke();
 
-				// Disable external controls
-				enableExternalControls.invoke(false);
+				// Enable external controls
+				enableExternalControls.invoke(true);
+			};
 
-				// Request focus on 'abort' button
-				abortButton.requestFocus();
+			// Reset progress bar and statistics
+			progressBar.setProgress(0.0);
+			statisticsLabel.setText(" ");
+			timingSnapshot = null;
+			timingPane.update(null);
 
-				// Start delay
-				timer.play();
-			}
+			// Create pacer
+			Pacer pacer = new Pacer(pacingModeList.item(), pacingRateSpinner.getValue(), keyEventSink);
+
+			// Submit job to generate key presses and releases after a delay
+			double totalNumChars = numChars;
+			typingTask = typingEngine.submit(source, delaySpinner.value() * MILLISECONDS_PER_SECOND, pacer,
+											 new TypingEngine.IListener()
+			{
+				@Override
+				public void progress(
+					TypingStats.Summary		stats,
+					TimingRecorder.Snapshot	timing)
+				{
+					progressBar.setProgress((totalNumChars > 0.0)
+												? Math.min((double)stats.numChars() / totalNumChars, 1.0)
+												: ProgressBar.INDETERMINATE_PROGRESS);
+					updateStatistics.invoke(stats);
+					timingSnapshot = timing;
+					timingPane.update(timing);
+				}
+
+				@Override
+				public void finished(
+					TypingStats.Summary		stats,
+					TimingRecorder.Snapshot	timing,
+					Exception				exception)
+				{
+					// Update progress and statistics
+					progress(stats, timing);
+
+					// End typing job
+					endTyping.invoke();
+
+					// Report error
+					if (exception instanceof BaseException)
+						ErrorDialog.show(SceneUtils.getWindow(generateButton), GENERATE_STR, exception);
+					else if (exception != null)
+					{
+						ErrorDialog.show(SceneUtils.getWindow(generateButton), GENERATE_STR,
+										 ErrorMsg.PROBLEM_WITH_KEY_EVENT_GENERATOR, exception);
+					}
+					else
+						progressBar.setProgress(1.0);
+				}
+			});
+
+			// Update buttons
+			updateButtons.invoke();
+
+			// Disable external controls
+			enableExternalControls.invoke(false);
+
+			// Request focus on 'abort' button
+			abortButton.requestFocus();
 		});
 
 		// Create button: abort
@@ -548,14 +1044,14 @@ public class DelayedPage
 		abortButton.setPadding(BUTTON_PADDING);
 		abortButton.setOnAction(event ->
 		{
-			// Stop delay timer and invalidate it
-			if (timer != null)
+			// Cancel typing job and invalidate it
+			if (typingTask != null)
 			{
-				// Stop delay timer
-				timer.stop();
+				// Cancel typing job
+				typingTask.cancel();
 
-				// Invalidate delay timer
-				timer = null;
+				// Invalidate typing job
+				typingTask = null;
 			}
 
 			// Update buttons
@@ -565,8 +1061,42 @@ public class DelayedPage
 			enableExternalControls.invoke(true);
 		});
 
-		// Update buttons when content of input field changes
-		inputField.textProperty().addListener(observable -> updateButtons.invoke());
+		// Update highlighting of unmapped characters and buttons when content of input field changes
+		inputField.textProperty().addListener(observable ->
+		{
+			updateUnmappedChars.invoke();
+			updateButtons.invoke();
+		});
+
+		// Revalidate input field when aliases change
+		IProcedure0 updateAliases = () ->
+		{
+			unmappedCharTracker.setAliases(alias.invoke(tabField), alias.invoke(enterField), inputField.getText());
+			updateUnmappedChars.invoke();
+			updateButtons.invoke();
+		};
+		tabField.textProperty().addListener(observable -> updateAliases.invoke());
+		enterField.textProperty().addListener(observable -> updateAliases.invoke());
+
+		// Update highlighting of unmapped characters and buttons when fallback is selected or deselected
+		fallbackCheckBox.selectedProperty().addListener(observable ->
+		{
+			updateUnmappedChars.invoke();
+			updateButtons.invoke();
+		});
+
+		// Revalidate input field when key map is reloaded
+		keyMap.addListener((observable, oldKeyMap, newKeyMap) ->
+		{
+			unmappedCharTracker.setKeyMap(newKeyMap, inputField.getText());
+			updateUnmappedChars.invoke();
+			updateButtons.invoke();
+		});
+
+		// Update buttons when source or content of file field changes
+		sourceList.itemProperty().addListener(observable -> updateButtons.invoke());
+		fileField.textProperty().addListener(observable -> updateButtons.invoke());
+		macroArea.textProperty().addListener(observable -> updateButtons.invoke());
 
 		// Update buttons
 		updateButtons.invoke();
@@ -574,6 +1104,136 @@ public class DelayedPage
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Returns a fallback sequence for the template in the fallback-template field and the specified key map.  The most
+	 * recently used sequence is returned if its template and key map are unchanged.  Because a fallback sequence is not
+	 * thread-safe, the sequence that is returned must be used only on the FX application thread.
+	 *
+	 * @param  keyMap
+	 *           the key map with which the digits of the fallback sequence will be typed.
+	 * @return a fallback sequence for the current template and {@code keyMap}.
+	 * @throws BaseException
+	 *           if the template is malformed.
+	 */
+
+	private FallbackSequence fallbackSequence(
+		CompiledKeyMap	keyMap)
+		throws BaseException
+	{
+		String template = fallbackTemplateField.getText();
+		if ((fallbackSequence == null) || !fallbackSequence.template().equals(template)
+				|| (fallbackSequence.keyMap() != keyMap))
+			fallbackSequence = FallbackSequence.parse(template, keyMap);
+		return fallbackSequence;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: SOURCE OF TEXT
+
+
+	private enum Source
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		TEXT
+		(
+			"Input field"
+		),
+
+		FILE
+		(
+			"File"
+		),
+
+		MACRO
+		(
+			"Macro"
+		);
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	String	key;
+		private	String	text;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Source(
+			String	text)
+		{
+			// Initialise instance variables
+			key = name().toLowerCase();
+			this.text = text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public String toString()
+		{
+			return text;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: MACRO
+
+
+	/**
+	 * This record encapsulates a macro that is saved in the state of the page.
+	 *
+	 * @param name
+	 *          the name of the macro.
+	 * @param text
+	 *          the source text of the macro.
+	 */
+
+	private record Macro(
+		String	name,
+		String	text)
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
 ////////////////////////////////////////////////////////////////////////
 //  Member classes : non-inner classes
 ////////////////////////////////////////////////////////////////////////
@@ -592,14 +1252,37 @@ public class DelayedPage
 		/** Keys of properties. */
 		private interface PropertyKey
 		{
-			String	DELAY	= "delay";
+			String	DELAY			= "delay";
+			String	ENABLED			= "enabled";
+			String	FALLBACK		= "fallback";
+			String	FILE			= "file";
+			String	HOLD_MODIFIERS	= "holdModifiers";
+			String	MACRO			= "macro";
+			String	MODE			= "mode";
+			String	NAME			= "name";
+			String	PACING			= "pacing";
+			String	RATE			= "rate";
+			String	SAVED			= "saved";
+			String	SOURCE			= "source";
+			String	TEMPLATE		= "template";
+			String	TEXT			= "text";
 		}
 
 	////////////////////////////////////////////////////////////////////
 	//  Instance variables
 	////////////////////////////////////////////////////////////////////
 
-		private int	delay;
+		private Source		source;
+		private String		file;
+		private String		macroName;
+		private String		macroText;
+		private List<Macro>	macros;
+		private int			delay;
+		private boolean		holdModifiers;
+		private boolean		fallback;
+		private String		fallbackTemplate;
+		private Pacer.Mode	pacingMode;
+		private int			pacingRate;
 
 	////////////////////////////////////////////////////////////////////
 	//  Constructors
@@ -608,7 +1291,15 @@ public class DelayedPage
 		private State()
 		{
 			// Initialise instance variables
+			source = Source.TEXT;
+			file = "";
+			macroName = "";
+			macroText = "";
+			macros = new ArrayList<>();
 			delay = DEFAULT_DELAY;
+			fallbackTemplate = FallbackSequence.DEFAULT_TEMPLATE;
+			pacingMode = Pacer.Mode.MAXIMUM;
+			pacingRate = Pacer.DEFAULT_RATE;
 		}
 
 		//--------------------------------------------------------------
@@ -622,9 +1313,41 @@ public class DelayedPage
 			// Create root node
 			MapNode rootNode = new MapNode();
 
+			// Encode source
+			rootNode.addString(PropertyKey.SOURCE, source.key);
+
+			// Encode pathname of file
+			if (!file.isEmpty())
+				rootNode.addString(PropertyKey.FILE, file);
+
+			// Encode current and saved macros
+			MapNode macroNode = rootNode.addMap(PropertyKey.MACRO);
+			macroNode.addString(PropertyKey.NAME, macroName);
+			macroNode.addString(PropertyKey.TEXT, macroText);
+			ListNode macrosNode = macroNode.addList(PropertyKey.SAVED);
+			for (Macro macro : macros)
+			{
+				MapNode savedNode = macrosNode.addMap();
+				savedNode.addString(PropertyKey.NAME, macro.name);
+				savedNode.addString(PropertyKey.TEXT, macro.text);
+			}
+
 			// Encode delay
 			rootNode.addInt(PropertyKey.DELAY, delay);
 
+			// Encode 'hold modifier keys' flag
+			rootNode.addBoolean(PropertyKey.HOLD_MODIFIERS, holdModifiers);
+
+			// Encode fallback
+			MapNode fallbackNode = rootNode.addMap(PropertyKey.FALLBACK);
+			fallbackNode.addBoolean(PropertyKey.ENABLED, fallback);
+			fallbackNode.addString(PropertyKey.TEMPLATE, fallbackTemplate);
+
+			// Encode pacing
+			MapNode pacingNode = rootNode.addMap(PropertyKey.PACING);
+			pacingNode.addString(PropertyKey.MODE, pacingMode.key());
+			pacingNode.addInt(PropertyKey.RATE, pacingRate);
+
 			// Return root node
 			return rootNode;
 		}
@@ -634,8 +1357,55 @@ public class DelayedPage
 		private void decode(
 			MapNode	rootNode)
 		{
+			// Decode source
+			source = rootNode.getEnumValue(Source.class, PropertyKey.SOURCE, value -> value.key, Source.TEXT);
+
+			// Decode pathname of file
+			file = rootNode.getString(PropertyKey.FILE, "");
+
+			// Decode current and saved macros
+			String key = PropertyKey.MACRO;
+			if (rootNode.hasMap(key))
+			{
+				MapNode macroNode = rootNode.getMapNode(key);
+				macroName = macroNode.getString(PropertyKey.NAME, "");
+				macroText = macroNode.getString(PropertyKey.TEXT, "");
+				key = PropertyKey.SAVED;
+				if (macroNode.hasList(key))
+				{
+					macros = macroNode.getListNode(key).mapStream()
+							.filter(node -> node.hasString(PropertyKey.NAME) && node.hasString(PropertyKey.TEXT))
+							.map(node -> new Macro(node.getString(PropertyKey.NAME), node.getString(PropertyKey.TEXT)))
+							.collect(Collectors.toCollection(ArrayList::new));
+				}
+			}
+
 			// Decode delay
 			delay = rootNode.getInt(PropertyKey.DELAY, DEFAULT_DELAY);
+
+			// Decode 'hold modifier keys' flag
+			holdModifiers = rootNode.getBoolean(PropertyKey.HOLD_MODIFIERS, false);
+
+			// Decode fallback
+			key = PropertyKey.FALLBACK;
+			if (rootNode.hasMap(key))
+			{
+				MapNode fallbackNode = rootNode.getMapNode(key);
+				fallback = fallbackNode.getBoolean(PropertyKey.ENABLED, false);
+				fallbackTemplate = fallbackNode.getString(PropertyKey.TEMPLATE, FallbackSequence.DEFAULT_TEMPLATE);
+			}
+
+			// Decode pacing
+			key = PropertyKey.PACING;
+			if (rootNode.hasMap(key))
+			{
+				MapNode pacingNode = rootNode.getMapNode(key);
+				pacingMode = pacingNode.getEnumValue(Pacer.Mode.class, PropertyKey.MODE, Pacer.Mode::key,
+													 Pacer.Mode.MAXIMUM);
+				int rate = pacingNode.getInt(PropertyKey.RATE, Pacer.DEFAULT_RATE);
+				if ((rate >= Pacer.MIN_RATE) && (rate <= Pacer.MAX_RATE))
+					pacingRate = rate;
+			}
 		}
 
 		//--------------------------------------------------------------
@@ -0,0 +1,567 @@
+/*====================================================================*\
+
+FallbackSequence.java
+
+Class: sequence of keys with which unmapped code points are typed.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import uk.blankaspect.common.exception2.BaseException;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: SEQUENCE OF KEYS WITH WHICH UNMAPPED CODE POINTS ARE TYPED
+
+
+/**
+ * This class implements a sequence of keys with which a code point that is not in a key map can be typed, typically by
+ * means of the Unicode-entry feature of the target platform or input method.  The sequence is created from a
+ * <i>template</i>, which consists of one or more tokens that are separated by spaces.  Each token is a key, which may
+ * be preceded by one or more modifier keys, each followed by '+'.  A key is either
+ * <ul>
+ *   <li>the name of a static final field of {@link java.awt.event.KeyEvent} that has the prefix {@code VK_}, or</li>
+ *   <li>the placeholder {@code {hex}}, which denotes the hexadecimal digits of the code point (at least four digits,
+ *     with leading zeros), or</li>
+ *   <li>the placeholder {@code {dec}}, which denotes the decimal digits of the code point.</li>
+ * </ul>
+ * <p>
+ * The modifier keys of a token are held down while the key of the token is pressed; for a placeholder, they are held
+ * down while all the digits are typed.  The digits are typed with the keys to which they are mapped by the key map, so
+ * the key map must contain the digits that are required by the template.  For example, the template {@code
+ * control+shift+VK_U {hex} VK_SPACE} types a code point with the Unicode-entry sequence of GTK and IBus, and the
+ * template {@code {hex} alt+VK_X} types it with the Unicode-conversion shortcut of some Windows applications.
+ * </p>
+ * <p>
+ * The program of key events for a code point is compiled when it is first required and cached in a hash table with
+ * open addressing that is keyed by the code point, so each distinct code point is usually compiled only once and
+ * a lookup allocates nothing.  The cache holds no more than {@link #MAX_NUM_CACHED_PROGRAMS} programs; it is emptied
+ * when it is full.  An instance of this class is not thread-safe: it must not be used by more than one thread at a
+ * time.
+ * </p>
+ */
+
+public class FallbackSequence
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The default template. */
+	public static final		String	DEFAULT_TEMPLATE	= "control+shift+VK_U {hex} VK_SPACE";
+
+	/** The separator of the tokens of a template. */
+	private static final	char	TOKEN_SEPARATOR	= ' ';
+
+	/** The separator of the modifier keys and the key of a token. */
+	private static final	char	MODIFIER_KEY_SEPARATOR	= '+';
+
+	/** The prefix of the name of an AWT key-code field. */
+	private static final	String	KEY_CODE_PREFIX	= "VK_";
+
+	/** The digits that may be typed for a placeholder. */
+	private static final	String	DIGITS	= "0123456789abcdef";
+
+	/** The minimum number of hexadecimal digits that are typed for the {@code {hex}} placeholder. */
+	private static final	int		MIN_NUM_HEX_DIGITS	= 4;
+
+	/** The initial capacity of the program for a code point. */
+	private static final	int		PROGRAM_CAPACITY	= 32;
+
+	/** The maximum number of programs that are cached. */
+	public static final		int		MAX_NUM_CACHED_PROGRAMS	= 4096;
+
+	/** The initial number of slots of the cache of programs. */
+	private static final	int		INITIAL_NUM_SLOTS	= 64;
+
+	/** The value that denotes an empty slot in the cache of programs. */
+	private static final	int		EMPTY_SLOT	= -1;
+
+	/** The multiplier that is used to hash a code point for the cache of programs. */
+	private static final	int		HASH_MULTIPLIER	= 0x9E3779B9;
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	EMPTY_TEMPLATE =
+				"The fallback template is empty.";
+
+		String	MALFORMED_TOKEN =
+				"The token '%s' of the fallback template is malformed.";
+
+		String	UNRECOGNISED_MODIFIER_KEY =
+				"'%s' is not a recognised modifier key.";
+
+		String	UNRECOGNISED_KEY =
+				"'%s' is not a recognised key code or placeholder.";
+
+		String	NO_KEY_FOR_DIGIT =
+				"The key map has no key for the digit '%s', which is required by the fallback template.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The template from which this sequence was created. */
+	private	String							template;
+
+	/** The key map with which digits are typed. */
+	private	CompiledKeyMap					keyMap;
+
+	/** The tokens of this sequence. */
+	private	List<Token>						tokens;
+
+	/** The key-map entries for the digits of {@link #DIGITS}, or {@link CompiledKeyMap#NO_ENTRY} for a digit that is
+		not required. */
+	private	int[]							digitEntries;
+
+	/** The code points of the cache of programs. */
+	private	int[]							cachedCodePoints;
+
+	/** The programs of the cache of programs. */
+	private	KeyEventProgram[]				cachedPrograms;
+
+	/** The number of programs in the cache. */
+	private	int								numCached;
+
+	/** The number of bits by which a hash code is shifted to give an index into the cache of programs. */
+	private	int								cacheShift;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a fallback sequence.
+	 *
+	 * @param template
+	 *          the template from which the sequence was created.
+	 * @param keyMap
+	 *          the key map with which digits will be typed.
+	 * @param tokens
+	 *          the tokens of the sequence.
+	 * @param digitEntries
+	 *          the key-map entries for the digits.
+	 */
+
+	private FallbackSequence(
+		String			template,
+		CompiledKeyMap	keyMap,
+		List<Token>		tokens,
+		int[]			digitEntries)
+	{
+		// Initialise instance variables
+		this.template = template;
+		this.keyMap = keyMap;
+		this.tokens = tokens;
+		this.digitEntries = digitEntries;
+		initCache(INITIAL_NUM_SLOTS);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Parses the specified template and returns the resulting fallback sequence.
+	 *
+	 * @param  template
+	 *           the template that will be parsed.
+	 * @param  keyMap
+	 *           the key map with which the digits of placeholders will be typed.
+	 * @return the fallback sequence that was created from {@code template}.
+	 * @throws BaseException
+	 *           if {@code template} is malformed or the key map does not contain a digit that is required by it.
+	 */
+
+	public static FallbackSequence parse(
+		String			template,
+		CompiledKeyMap	keyMap)
+		throws BaseException
+	{
+		// Parse tokens
+		List<Token> tokens = new ArrayList<>();
+		int[] digitEntries = new int[DIGITS.length()];
+		for (String tokenStr : template.strip().split(String.valueOf(TOKEN_SEPARATOR)))
+		{
+			// Ignore empty token between consecutive separators
+			if (tokenStr.isEmpty())
+				continue;
+
+			// Parse modifier keys
+			String[] keys = tokenStr.split("\\" + MODIFIER_KEY_SEPARATOR, -1);
+			int modifierMask = 0;
+			for (int i = 0; i < keys.length - 1; i++)
+			{
+				if (keys[i].isEmpty())
+					throw new BaseException(ErrorMsg.MALFORMED_TOKEN, tokenStr);
+				KeyMap.ModifierKey modifierKey = KeyMap.ModifierKey.forKey(keys[i]);
+				if (modifierKey == null)
+					throw new BaseException(ErrorMsg.UNRECOGNISED_MODIFIER_KEY, keys[i]);
+				modifierMask |= 1 << modifierKey.ordinal();
+			}
+
+			// Parse key
+			String key = keys[keys.length - 1];
+			Placeholder placeholder = Placeholder.forKey(key);
+			int keyCode = 0;
+			if (placeholder == null)
+			{
+				Integer value = key.startsWith(KEY_CODE_PREFIX) ? KeyMap.keyCodes().get(key) : null;
+				if (value == null)
+					throw new BaseException(key.isEmpty() ? ErrorMsg.MALFORMED_TOKEN : ErrorMsg.UNRECOGNISED_KEY,
+											key.isEmpty() ? tokenStr : key);
+				keyCode = value;
+			}
+			else
+			{
+				// Look up digits of placeholder in key map
+				for (int i = 0; i < placeholder.radix; i++)
+				{
+					char digit = DIGITS.charAt(i);
+					digitEntries[i] = keyMap.get(digit);
+					if (digitEntries[i] == CompiledKeyMap.NO_ENTRY)
+						throw new BaseException(ErrorMsg.NO_KEY_FOR_DIGIT, digit);
+				}
+			}
+
+			// Add token to list
+			tokens.add(new Token(modifierMask, keyCode, placeholder));
+		}
+
+		// Test for empty template
+		if (tokens.isEmpty())
+			throw new BaseException(ErrorMsg.EMPTY_TEMPLATE);
+
+		// Create sequence and return it
+		return new FallbackSequence(template, keyMap, tokens, digitEntries);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the template from which this sequence was created.
+	 *
+	 * @return the template from which this sequence was created.
+	 */
+
+	public String template()
+	{
+		return template;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the key map with which the digits of placeholders are typed.
+	 *
+	 * @return the key map with which the digits of placeholders are typed.
+	 */
+
+	public CompiledKeyMap keyMap()
+	{
+		return keyMap;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the program of key events that types the specified code point with this sequence.  The program is
+	 * compiled when it is first requested for a code point, and it is cached for subsequent requests.  The program
+	 * must not be modified.
+	 *
+	 * @param  codePoint
+	 *           the code point of interest.
+	 * @return the program of key events that types {@code codePoint}, or {@code null} if {@code codePoint} is not a
+	 *         valid code point or it is a surrogate.
+	 */
+
+	public KeyEventProgram program(
+		int	codePoint)
+	{
+		// Test for code point that cannot be typed
+		if (!Character.isValidCodePoint(codePoint) || (Character.getType(codePoint) == Character.SURROGATE))
+			return null;
+
+		// Look up code point in cache
+		int index = slot(codePoint);
+		if (cachedCodePoints[index] == codePoint)
+			return cachedPrograms[index];
+
+		// Compile program
+		KeyEventProgram program = compile(codePoint);
+
+		// If cache is full, empty it; otherwise, if load factor would exceed 0.5, enlarge cache
+		if (numCached == MAX_NUM_CACHED_PROGRAMS)
+		{
+			Arrays.fill(cachedCodePoints, EMPTY_SLOT);
+			Arrays.fill(cachedPrograms, null);
+			numCached = 0;
+			index = slot(codePoint);
+		}
+		else if (2 * (numCached + 1) > cachedCodePoints.length)
+		{
+			int[] codePoints = cachedCodePoints;
+			KeyEventProgram[] programs = cachedPrograms;
+			initCache(2 * codePoints.length);
+			for (int i = 0; i < codePoints.length; i++)
+			{
+				if (codePoints[i] != EMPTY_SLOT)
+				{
+					int j = slot(codePoints[i]);
+					cachedCodePoints[j] = codePoints[i];
+					cachedPrograms[j] = programs[i];
+				}
+			}
+			index = slot(codePoint);
+		}
+
+		// Add program to cache
+		cachedCodePoints[index] = codePoint;
+		cachedPrograms[index] = program;
+		++numCached;
+
+		// Return program
+		return program;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Initialises the cache of programs as an empty hash table with the specified number of slots.  The number of
+	 * entries of the cache is not changed.
+	 *
+	 * @param numSlots
+	 *          the number of slots, which must be a power of 2.
+	 */
+
+	private void initCache(
+		int	numSlots)
+	{
+		cachedCodePoints = new int[numSlots];
+		cachedPrograms = new KeyEventProgram[numSlots];
+		cacheShift = Integer.SIZE - Integer.numberOfTrailingZeros(numSlots);
+		Arrays.fill(cachedCodePoints, EMPTY_SLOT);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index of the slot of the cache of programs that contains the specified code point, or of the empty
+	 * slot at which the code point would be added if the cache does not contain it.
+	 *
+	 * @param  codePoint
+	 *           the code point of interest.
+	 * @return the index of the slot of the cache that contains {@code codePoint}, or of the empty slot at which it
+	 *         would be added.
+	 */
+
+	private int slot(
+		int	codePoint)
+	{
+		int mask = cachedCodePoints.length - 1;
+		int index = (codePoint * HASH_MULTIPLIER) >>> cacheShift;
+		while ((cachedCodePoints[index] != EMPTY_SLOT) && (cachedCodePoints[index] != codePoint))
+			index = (index + 1) & mask;
+		return index;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Compiles a program of key events that types the specified code point with this sequence.
+	 *
+	 * @param  codePoint
+	 *           the code point that will be typed.
+	 * @return a program of key events that types {@code codePoint}.
+	 */
+
+	private KeyEventProgram compile(
+		int	codePoint)
+	{
+		KeyEventProgram program = new KeyEventProgram(PROGRAM_CAPACITY);
+		for (Token token : tokens)
+		{
+			program.appendPressModifiers(token.modifierMask);
+			if (token.placeholder == null)
+				program.appendKey(token.keyCode);
+			else
+			{
+				for (char digit : token.placeholder.digits(codePoint).toCharArray())
+				{
+					int entry = digitEntries[Character.digit(digit, token.placeholder.radix)];
+					int modifierMask = CompiledKeyMap.modifierMask(entry) & ~token.modifierMask;
+					program.appendPressModifiers(modifierMask);
+					program.appendKey(CompiledKeyMap.keyCode(entry));
+					program.appendReleaseModifiers(modifierMask);
+				}
+			}
+			program.appendReleaseModifiers(token.modifierMask);
+		}
+		return program;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: PLACEHOLDER
+
+
+	/**
+	 * This is an enumeration of the placeholders for the digits of a code point in a template.
+	 */
+
+	private enum Placeholder
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * The hexadecimal digits of a code point.
+		 */
+
+		HEX
+		(
+			"{hex}",
+			16
+		),
+
+		/**
+		 * The decimal digits of a code point.
+		 */
+
+		DEC
+		(
+			"{dec}",
+			10
+		);
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	String	key;
+		private	int		radix;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Placeholder(
+			String	key,
+			int		radix)
+		{
+			// Initialise instance variables
+			this.key = key;
+			this.radix = radix;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		private static Placeholder forKey(
+			String	key)
+		{
+			for (Placeholder value : values())
+			{
+				if (value.key.equals(key))
+					return value;
+			}
+			return null;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the digits of the specified code point for this placeholder.
+		 *
+		 * @param  codePoint
+		 *           the code point.
+		 * @return the digits of {@code codePoint} for this placeholder.
+		 */
+
+		private String digits(
+			int	codePoint)
+		{
+			String digits = Integer.toString(codePoint, radix);
+			if (this == HEX)
+			{
+				while (digits.length() < MIN_NUM_HEX_DIGITS)
+					digits = "0" + digits;
+			}
+			return digits;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: TOKEN
+
+
+	/**
+	 * This record encapsulates a token of a template.
+	 *
+	 * @param modifierMask
+	 *          the bit mask of the modifier keys that are held down while the key of the token is pressed.
+	 * @param keyCode
+	 *          the key code of the key of the token, if the token is not a placeholder.
+	 * @param placeholder
+	 *          the placeholder of the token, or {@code null} if the token is a key.
+	 */
+
+	private record Token(
+		int			modifierMask,
+		int			keyCode,
+		Placeholder	placeholder)
+	{ }
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
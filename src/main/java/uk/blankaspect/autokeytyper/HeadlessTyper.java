@@ -0,0 +1,635 @@
+/*====================================================================*\
+
+HeadlessTyper.java
+
+Class: typer of key events without a user interface.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.awt.AWTException;
+import java.awt.HeadlessException;
+import java.awt.Robot;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import uk.blankaspect.common.exception2.BaseException;
+import uk.blankaspect.common.exception2.ExceptionUtils;
+import uk.blankaspect.common.exception2.FileException;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: TYPER OF KEY EVENTS WITHOUT A USER INTERFACE
+
+
+/**
+ * This class implements a mode of the application in which key events are generated for some text, a text file or a
+ * {@linkplain MacroCompiler macro} that is specified on the command line, without a user interface.  Only the objects
+ * that are needed to generate the key events are created: a {@link Robot}, the compiled key map and a {@link
+ * TypingEngine}.  No JavaFX stage is created, and no styles, themes, images or configuration are loaded, so the first
+ * key event is generated soon after the JVM starts.
+ * <p>
+ * The command-line options are:
+ * </p>
+ * <ul>
+ *   <li>{@code --text} <i>text</i> &ndash; types the specified text,</li>
+ *   <li>{@code --type-file} <i>pathname</i> &ndash; types the content of the specified UTF-8 text file, or of the
+ *     standard input stream if the pathname is {@code -},</li>
+ *   <li>{@code --macro} <i>pathname</i> &ndash; runs the macro in the specified UTF-8 text file,</li>
+ *   <li>{@code --delay} <i>milliseconds</i> &ndash; waits before generating the first key event (default: 0),</li>
+ *   <li>{@code --rate} <i>characters-per-second</i> &ndash; types at a fixed rate, rather than as fast as the input
+ *     queue will accept the key events.</li>
+ * </ul>
+ * <p>
+ * Exactly one of {@code --text}, {@code --type-file} and {@code --macro} must be specified.  Tab and LF characters
+ * are typed with the <i>tab</i> and <i>enter</i> keys.  The key map is selected by the system property {@code keyMap}
+ * and cached as it is by the application.
+ * </p>
+ */
+
+public class HeadlessTyper
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The exit status when the typing job completes successfully. */
+	private static final	int		EXIT_SUCCESS	= 0;
+
+	/** The exit status when an error occurs. */
+	private static final	int		EXIT_ERROR		= 1;
+
+	/** The exit status when the command line is malformed. */
+	private static final	int		EXIT_USAGE		= 2;
+
+	/** The maximum time (in milliseconds) to wait for pressed keys to be released when the JVM shuts down. */
+	private static final	long	SHUTDOWN_TIMEOUT	= 1000;
+
+	/** The maximum number of unmapped characters that are listed in an error message. */
+	private static final	int		MAX_NUM_REPORTED_CHARS	= 16;
+
+	/** The pathname that denotes the standard input stream. */
+	private static final	String	STANDARD_INPUT_PATHNAME	= "-";
+
+	/** The usage message. */
+	private static final	String	USAGE_STR	=
+			"Usage: (--text TEXT | --type-file PATHNAME | --macro PATHNAME) [--delay MILLISECONDS]"
+				+ " [--rate CHARS_PER_SECOND]\n"
+				+ "A PATHNAME of '-' for --type-file denotes the standard input stream.";
+
+	/** Command-line options. */
+	private interface Option
+	{
+		String	DELAY		= "--delay";
+		String	MACRO		= "--macro";
+		String	RATE		= "--rate";
+		String	TEXT		= "--text";
+		String	TYPE_FILE	= "--type-file";
+	}
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	UNRECOGNISED_OPTION =
+				"'%s' is not a recognised option.";
+
+		String	NO_OPTION_ARGUMENT =
+				"No argument was specified for %s.";
+
+		String	INVALID_OPTION_ARGUMENT =
+				"The argument of %s is invalid: %s";
+
+		String	DUPLICATE_OPTION =
+				"%s was specified more than once.";
+
+		String	ONE_SOURCE_REQUIRED =
+				"Exactly one of --text, --type-file and --macro must be specified.";
+
+		String	NOT_A_FILE =
+				"The pathname does not denote a file.";
+
+		String	ERROR_READING_FILE =
+				"An error occurred when reading the file.";
+
+		String	FAILED_TO_CREATE_ROBOT =
+				"Failed to create a robot.";
+
+		String	CHARACTERS_NOT_IN_KEY_MAP =
+				"The following characters cannot be mapped to key codes:%s";
+
+		String	INTERRUPTED =
+				"The typing job was interrupted.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Prevents this class from being instantiated externally.
+	 */
+
+	private HeadlessTyper()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns {@code true} if the specified command-line arguments select the headless typing mode.
+	 *
+	 * @param  args
+	 *           the command-line arguments of the application.
+	 * @return {@code true} if {@code args} contain {@code --text}, {@code --type-file} or {@code --macro}.
+	 */
+
+	public static boolean isHeadless(
+		String[]	args)
+	{
+		for (String arg : args)
+		{
+			switch (arg)
+			{
+				case Option.TEXT:
+				case Option.TYPE_FILE:
+				case Option.MACRO:
+					return true;
+			}
+		}
+		return false;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Generates the key events that are specified by the command-line arguments, and returns the exit status of the
+	 * application.  An error is reported on the standard error stream.
+	 *
+	 * @param  args
+	 *           the command-line arguments of the application.
+	 * @return the exit status of the application: 0 if the key events were generated, 1 if an error occurred, or 2 if
+	 *         the command line is malformed.
+	 */
+
+	public static int run(
+		String[]	args)
+	{
+		// Parse command line
+		Arguments arguments = null;
+		try
+		{
+			arguments = Arguments.parse(args);
+		}
+		catch (BaseException e)
+		{
+			System.err.println(e.getMessage());
+			System.err.println(USAGE_STR);
+			return EXIT_USAGE;
+		}
+
+		// Generate key events
+		try
+		{
+			type(arguments);
+			return EXIT_SUCCESS;
+		}
+		catch (BaseException e)
+		{
+			System.err.println(ExceptionUtils.exceptionToString(e));
+			return EXIT_ERROR;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Generates the key events that are specified by the parsed command-line arguments, and waits for the typing job to
+	 * end.
+	 *
+	 * @param  arguments
+	 *           the parsed command-line arguments.
+	 * @throws BaseException
+	 *           if an error occurred.
+	 */
+
+	private static void type(
+		Arguments	arguments)
+		throws BaseException
+	{
+		// Read and compile key map, using cache if it is enabled
+		Path keyMapFile = KeyMapLoader.keyMapFile();
+		CompiledKeyMap keyMap = null;
+		try
+		{
+			keyMap = CompiledKeyMap.of(KeyMapLoader.readSource(keyMapFile), KeyMapLoader.createCache());
+		}
+		catch (BaseException e)
+		{
+			throw KeyMapLoader.exception(e, keyMapFile);
+		}
+
+		// Create source of programs of key events; map tab and LF characters to keys
+		KeyEventProgram.Compiler compiler = new KeyEventProgram.Compiler(keyMap, '\t', '\n', false);
+		TypingEngine.IProgramSource source = null;
+		if (arguments.text != null)
+			source = TypingEngine.IProgramSource.of(compileText(arguments.text, compiler));
+		else if (arguments.file != null)
+		{
+			source = arguments.file.equals(STANDARD_INPUT_PATHNAME)
+					? TextStreamSource.ofReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), compiler)
+					: TextStreamSource.ofFile(testFile(arguments.file), StandardCharsets.UTF_8, compiler);
+		}
+		else
+		{
+			Path file = testFile(arguments.macroFile);
+			try
+			{
+				source = TypingEngine.IProgramSource.of(new MacroCompiler(compiler).compile(Files.readString(file)));
+			}
+			catch (IOException e)
+			{
+				throw new FileException(ErrorMsg.ERROR_READING_FILE, e, file);
+			}
+			catch (BaseException e)
+			{
+				throw new FileException(e, file);
+			}
+		}
+
+		// Create robot to generate key events
+		IKeyEventSink sink = null;
+		try
+		{
+			sink = new RobotKeyEventSink(new Robot());
+		}
+		catch (AWTException | HeadlessException e)
+		{
+			throw new BaseException(ErrorMsg.FAILED_TO_CREATE_ROBOT, e);
+		}
+
+		// Create typing engine; notify listener on thread of engine
+		TypingEngine typingEngine = new TypingEngine(sink, Runnable::run);
+
+		// Create pacer
+		Pacer pacer = (arguments.rate > 0) ? new Pacer(Pacer.Mode.FIXED_RATE, arguments.rate, sink)
+										   : new Pacer(Pacer.Mode.MAXIMUM, Pacer.DEFAULT_RATE, sink);
+
+		// Submit typing job
+		CountDownLatch finished = new CountDownLatch(1);
+		Exception[] jobException = new Exception[1];
+		TypingEngine.Task task = typingEngine.submit(source, arguments.delay, pacer, new TypingEngine.IListener()
+		{
+			@Override
+			public void progress(
+				TypingStats.Summary		stats,
+				TimingRecorder.Snapshot	timing)
+			{
+				// do nothing
+			}
+
+			@Override
+			public void finished(
+				TypingStats.Summary		stats,
+				TimingRecorder.Snapshot	timing,
+				Exception				exception)
+			{
+				jobException[0] = exception;
+				finished.countDown();
+			}
+		});
+
+		// If the JVM is shut down before the job ends (for example, by an interrupt from the console), cancel the job
+		// and wait for the engine to release any pressed keys.  The engine runs jobs in turn, so an empty job ends only
+		// after the keys of the cancelled job have been released.
+		Thread shutdownHook = new Thread(() ->
+		{
+			if (finished.getCount() > 0)
+			{
+				task.cancel();
+				CountDownLatch released = new CountDownLatch(1);
+				typingEngine.submit(new KeyEventProgram(0), 0, pacer, new TypingEngine.IListener()
+				{
+					@Override
+					public void progress(
+						TypingStats.Summary		stats,
+						TimingRecorder.Snapshot	timing)
+					{
+						// do nothing
+					}
+
+					@Override
+					public void finished(
+						TypingStats.Summary		stats,
+						TimingRecorder.Snapshot	timing,
+						Exception				exception)
+					{
+						released.countDown();
+					}
+				});
+				try
+				{
+					released.await(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+				}
+				catch (InterruptedException e)
+				{
+					// ignore
+				}
+			}
+		});
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+		// Wait for job to end
+		try
+		{
+			finished.await();
+		}
+		catch (InterruptedException e)
+		{
+			task.cancel();
+			throw new BaseException(ErrorMsg.INTERRUPTED);
+		}
+
+		// Remove shutdown hook
+		Runtime.getRuntime().removeShutdownHook(shutdownHook);
+
+		// Report error
+		if (jobException[0] instanceof BaseException baseException)
+			throw baseException;
+		if (jobException[0] != null)
+			throw new BaseException(jobException[0].toString(), jobException[0]);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Compiles the specified text into a program of key events.
+	 *
+	 * @param  text
+	 *           the text that will be compiled.
+	 * @param  compiler
+	 *           the compiler that will translate the text into key events.
+	 * @return the program of key events for {@code text}.
+	 * @throws BaseException
+	 *           if some characters of {@code text} cannot be mapped to keys.
+	 */
+
+	private static KeyEventProgram compileText(
+		String						text,
+		KeyEventProgram.Compiler	compiler)
+		throws BaseException
+	{
+		// Compile text
+		List<Integer> unmappedChars = new ArrayList<>();
+		KeyEventProgram program = compiler.compile(text, unmappedChars);
+
+		// If some characters could not be mapped to keys, throw an exception that lists them
+		if (program == null)
+		{
+			StringBuilder buffer = new StringBuilder();
+			Set<Integer> chars = new LinkedHashSet<>(unmappedChars);
+			int numChars = 0;
+			for (int ch : chars)
+			{
+				if (numChars++ == MAX_NUM_REPORTED_CHARS)
+				{
+					buffer.append("  ...");
+					break;
+				}
+				buffer.append("  ").append(String.format("U+%04X", ch));
+			}
+			throw new BaseException(ErrorMsg.CHARACTERS_NOT_IN_KEY_MAP, buffer);
+		}
+
+		// Return program
+		return program;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Tests whether the specified pathname denotes a regular file, and returns the corresponding path.
+	 *
+	 * @param  pathname
+	 *           the pathname of interest.
+	 * @return the path that corresponds to {@code pathname}.
+	 * @throws BaseException
+	 *           if {@code pathname} does not denote a regular file.
+	 */
+
+	private static Path testFile(
+		String	pathname)
+		throws BaseException
+	{
+		Path file = Path.of(pathname);
+		if (!Files.isRegularFile(file))
+			throw new FileException(ErrorMsg.NOT_A_FILE, file);
+		return file;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: COMMAND-LINE ARGUMENTS
+
+
+	/**
+	 * This class encapsulates the parsed command-line arguments of the headless typing mode.
+	 */
+
+	private static class Arguments
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The text that will be typed, or {@code null} if the text is not specified on the command line. */
+		private	String	text;
+
+		/** The pathname of the text file whose content will be typed, or {@link #STANDARD_INPUT_PATHNAME} for the
+			standard input stream. */
+		private	String	file;
+
+		/** The pathname of the file that contains the macro that will be run. */
+		private	String	macroFile;
+
+		/** The delay (in milliseconds) before the first key event is generated. */
+		private	long	delay;
+
+		/** The rate (in characters per second) at which characters are typed, or 0 to type as fast as possible. */
+		private	int		rate;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Arguments()
+		{
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Parses the specified command-line arguments and returns the result.
+		 *
+		 * @param  args
+		 *           the command-line arguments.
+		 * @return the parsed arguments.
+		 * @throws BaseException
+		 *           if the arguments are malformed.
+		 */
+
+		private static Arguments parse(
+			String[]	args)
+			throws BaseException
+		{
+			Arguments arguments = new Arguments();
+			Set<String> options = new LinkedHashSet<>();
+			int index = 0;
+			while (index < args.length)
+			{
+				// Get option
+				String option = args[index++];
+				switch (option)
+				{
+					case Option.TEXT:
+					case Option.TYPE_FILE:
+					case Option.MACRO:
+					case Option.DELAY:
+					case Option.RATE:
+						break;
+
+					default:
+						throw new BaseException(ErrorMsg.UNRECOGNISED_OPTION, option);
+				}
+				if (!options.add(option))
+					throw new BaseException(ErrorMsg.DUPLICATE_OPTION, option);
+
+				// Get argument of option
+				if (index >= args.length)
+					throw new BaseException(ErrorMsg.NO_OPTION_ARGUMENT, option);
+				String value = args[index++];
+
+				// Set argument
+				switch (option)
+				{
+					case Option.TEXT:
+						arguments.text = value;
+						break;
+
+					case Option.TYPE_FILE:
+						arguments.file = value;
+						break;
+
+					case Option.MACRO:
+						arguments.macroFile = value;
+						break;
+
+					case Option.DELAY:
+						arguments.delay = parseInt(option, value, 0, Integer.MAX_VALUE);
+						break;
+
+					case Option.RATE:
+						arguments.rate = parseInt(option, value, Pacer.MIN_RATE, Pacer.MAX_RATE);
+						break;
+				}
+			}
+
+			// Test for a single source of key events
+			int numSources = (int)options.stream()
+					.filter(option -> option.equals(Option.TEXT) || option.equals(Option.TYPE_FILE)
+										|| option.equals(Option.MACRO))
+					.count();
+			if (numSources != 1)
+				throw new BaseException(ErrorMsg.ONE_SOURCE_REQUIRED);
+
+			// Return arguments
+			return arguments;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Parses the specified argument of an option as an integer.
+		 *
+		 * @param  option
+		 *           the option.
+		 * @param  value
+		 *           the argument of the option.
+		 * @param  minValue
+		 *           the minimum value of the argument.
+		 * @param  maxValue
+		 *           the maximum value of the argument.
+		 * @return the integer value of the argument.
+		 * @throws BaseException
+		 *           if the argument is not an integer or it is out of bounds.
+		 */
+
+		private static int parseInt(
+			String	option,
+			String	value,
+			int		minValue,
+			int		maxValue)
+			throws BaseException
+		{
+			try
+			{
+				int result = Integer.parseInt(value);
+				if ((result >= minValue) && (result <= maxValue))
+					return result;
+			}
+			catch (NumberFormatException e)
+			{
+				// fall through
+			}
+			throw new BaseException(ErrorMsg.INVALID_OPTION_ARGUMENT, option, value);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
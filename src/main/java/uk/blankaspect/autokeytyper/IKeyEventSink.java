@@ -0,0 +1,72 @@
+/*====================================================================*\
+
+IKeyEventSink.java
+
+Interface: sink of key events.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// INTERFACE: SINK OF KEY EVENTS
+
+
+/**
+ * This interface defines the methods that must be implemented by a sink of key events.  The application generates all
+ * its key events through a sink, so that the native implementation ({@link RobotKeyEventSink}) can be replaced by one
+ * that records the events ({@link RecordingKeyEventSink}) or discards them ({@link NullKeyEventSink}) when there is no
+ * display.
+ */
+
+public interface IKeyEventSink
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Generates a key-press event for the specified key code.
+	 *
+	 * @param keyCode
+	 *          the key code of the key that is pressed.
+	 */
+
+	void keyPress(
+		int	keyCode);
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Generates a key-release event for the specified key code.
+	 *
+	 * @param keyCode
+	 *          the key code of the key that is released.
+	 */
+
+	void keyRelease(
+		int	keyCode);
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Waits until all the key events that have been generated by this sink have been processed.  The default
+	 * implementation returns immediately.
+	 */
+
+	default void waitForIdle()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
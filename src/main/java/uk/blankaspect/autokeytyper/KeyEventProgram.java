@@ -0,0 +1,752 @@
+/*====================================================================*\
+
+KeyEventProgram.java
+
+Class: program of key events.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.Arrays;
+import java.util.List;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: PROGRAM OF KEY EVENTS
+
+
+/**
+ * This class implements a program of key events that has been compiled from some text and a key map.  A program is a
+ * flat array of instructions, each of which is an {@code int} that combines an opcode with a key code, so that it can
+ * be replayed by a {@link TypingEngine} without allocating objects or looking up characters in the key map.
+ * <p>
+ * A program that has been compiled from a {@linkplain MacroCompiler macro} may also contain instructions that wait,
+ * update integer variables and repeat a range of instructions.  The operand of such an instruction (a variable index or
+ * a loop counter) takes the place of the key code, and the instruction is followed by one or two <i>operand words</i>.
+ * A <i>value</i> operand word is either a non-negative constant or the bitwise complement of the index of a variable,
+ * and is resolved by {@link #value(int, int[])}.
+ * </p>
+ */
+
+public class KeyEventProgram
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** Opcode: generate a key-press event. */
+	public static final		int		OP_PRESS		= 0;
+
+	/** Opcode: generate a key-release event. */
+	public static final		int		OP_RELEASE		= 1;
+
+	/** Opcode: mark the end of the key events for a character. */
+	public static final		int		OP_END_OF_CHAR	= 2;
+
+	/** Opcode: wait for the number of milliseconds that is given by the following value word. */
+	public static final		int		OP_WAIT			= 3;
+
+	/** Opcode: set the variable of the operand to the following value word. */
+	public static final		int		OP_SET			= 4;
+
+	/** Opcode: add the following value word to the variable of the operand. */
+	public static final		int		OP_ADD			= 5;
+
+	/** Opcode: subtract the following value word from the variable of the operand. */
+	public static final		int		OP_SUBTRACT		= 6;
+
+	/** Opcode: start a loop whose counter is the variable of the operand.  The instruction is followed by a value word
+		for the number of iterations and by the index of the instruction that follows the loop, to which control passes
+		if the number of iterations is not positive. */
+	public static final		int		OP_LOOP			= 7;
+
+	/** Opcode: end an iteration of a loop whose counter is the variable of the operand.  The instruction is followed by
+		the index of the first instruction of the body of the loop, to which control passes if the decremented counter
+		is positive. */
+	public static final		int		OP_NEXT			= 8;
+
+	/** The number of bits by which the opcode of an instruction is shifted. */
+	private static final	int		OPCODE_SHIFT	= 28;
+
+	/** The mask for the key code of an instruction. */
+	private static final	int		KEY_CODE_MASK	= (1 << OPCODE_SHIFT) - 1;
+
+	/** The maximum key code that can be encoded in an instruction. */
+	public static final		int		MAX_KEY_CODE	= KEY_CODE_MASK;
+
+	/** The number of instructions that are generated for a character whose modifier keys are already pressed. */
+	private static final	int		MIN_NUM_INSTRUCTIONS_PER_CHAR	= 3;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The instructions of this program. */
+	private	int[]	instructions;
+
+	/** The number of instructions of this program. */
+	private	int		length;
+
+	/** The number of characters for which this program generates key events. */
+	private	int		numChars;
+
+	/** The number of integer variables of this program, including the counters of loops. */
+	private	int		numVariables;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of an empty program of key events with the specified initial capacity.
+	 *
+	 * @param capacity
+	 *          the initial capacity of the array of instructions.
+	 */
+
+	KeyEventProgram(
+		int	capacity)
+	{
+		// Initialise instance variables
+		instructions = new int[Math.max(1, capacity)];
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the opcode of the specified instruction.
+	 *
+	 * @param  instruction
+	 *           the instruction whose opcode is required.
+	 * @return the opcode of {@code instruction}.
+	 */
+
+	public static int opcode(
+		int	instruction)
+	{
+		return instruction >>> OPCODE_SHIFT;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the key code of the specified instruction.
+	 *
+	 * @param  instruction
+	 *           the instruction whose key code is required.
+	 * @return the key code of {@code instruction}.
+	 */
+
+	public static int keyCode(
+		int	instruction)
+	{
+		return instruction & KEY_CODE_MASK;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the operand of the specified instruction.  The operand occupies the same bits as the key code of an
+	 * instruction that generates a key event.
+	 *
+	 * @param  instruction
+	 *           the instruction whose operand is required.
+	 * @return the operand of {@code instruction}.
+	 */
+
+	public static int operand(
+		int	instruction)
+	{
+		return instruction & KEY_CODE_MASK;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of the specified value word, which is either a non-negative constant or the bitwise complement
+	 * of the index of a variable.
+	 *
+	 * @param  word
+	 *           the value word.
+	 * @param  variables
+	 *           the values of the variables of the program.
+	 * @return the value that is denoted by {@code word}.
+	 */
+
+	public static int value(
+		int		word,
+		int[]	variables)
+	{
+		return (word >= 0) ? word : variables[~word];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a value word that denotes the variable with the specified index.
+	 *
+	 * @param  index
+	 *           the index of the variable.
+	 * @return a value word that denotes the variable whose index is {@code index}.
+	 */
+
+	static int variableWord(
+		int	index)
+	{
+		return ~index;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns an instruction that is composed of the specified opcode and key code.
+	 *
+	 * @param  opcode
+	 *           the opcode of the instruction.
+	 * @param  keyCode
+	 *           the key code of the instruction.
+	 * @return an instruction that is composed of {@code opcode} and {@code keyCode}.
+	 */
+
+	private static int instruction(
+		int	opcode,
+		int	keyCode)
+	{
+		return (opcode << OPCODE_SHIFT) | (keyCode & KEY_CODE_MASK);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the array of instructions of this program.  Only the first {@link #length()} elements of the array are
+	 * valid.
+	 *
+	 * @return the array of instructions of this program.
+	 */
+
+	public int[] instructions()
+	{
+		return instructions;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of instructions of this program.
+	 *
+	 * @return the number of instructions of this program.
+	 */
+
+	public int length()
+	{
+		return length;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of characters for which this program generates key events.
+	 *
+	 * @return the number of characters for which this program generates key events.
+	 */
+
+	public int numChars()
+	{
+		return numChars;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of integer variables of this program, including the counters of loops.
+	 *
+	 * @return the number of integer variables of this program.
+	 */
+
+	public int numVariables()
+	{
+		return numVariables;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Sets the number of integer variables of this program.
+	 *
+	 * @param numVariables
+	 *          the number of integer variables of this program, including the counters of loops.
+	 */
+
+	void setNumVariables(
+		int	numVariables)
+	{
+		this.numVariables = numVariables;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Removes all instructions from this program, retaining the array of instructions for reuse.
+	 */
+
+	private void clear()
+	{
+		length = 0;
+		numChars = 0;
+		numVariables = 0;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends instructions to press the modifier keys of the specified bit mask to this program.
+	 *
+	 * @param modifierMask
+	 *          the bit mask of the modifier keys that will be pressed.
+	 */
+
+	void appendPressModifiers(
+		int	modifierMask)
+	{
+		int numModifierKeys = CompiledKeyMap.numModifierKeys();
+		for (int i = 0; i < numModifierKeys; i++)
+		{
+			if ((modifierMask & (1 << i)) != 0)
+				append(instruction(OP_PRESS, CompiledKeyMap.modifierKeyCode(i)));
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends instructions to release the modifier keys of the specified bit mask to this program.  The keys are
+	 * released in the reverse order to that in which they are pressed by {@link #appendPressModifiers(int)}.
+	 *
+	 * @param modifierMask
+	 *          the bit mask of the modifier keys that will be released.
+	 */
+
+	void appendReleaseModifiers(
+		int	modifierMask)
+	{
+		for (int i = CompiledKeyMap.numModifierKeys() - 1; i >= 0; i--)
+		{
+			if ((modifierMask & (1 << i)) != 0)
+				append(instruction(OP_RELEASE, CompiledKeyMap.modifierKeyCode(i)));
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends instructions to press and release the key with the specified key code to this program.
+	 *
+	 * @param keyCode
+	 *          the key code of the key that will be pressed and released.
+	 */
+
+	void appendKey(
+		int	keyCode)
+	{
+		append(instruction(OP_PRESS, keyCode));
+		append(instruction(OP_RELEASE, keyCode));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends the instructions of the specified program to this program, and adds the number of characters of the
+	 * program to the number of characters of this program.
+	 *
+	 * @param program
+	 *          the program whose instructions and characters will be appended.
+	 */
+
+	void appendChars(
+		KeyEventProgram	program)
+	{
+		appendProgram(program);
+		numChars += program.numChars;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends the instructions of the specified program to this program.
+	 *
+	 * @param program
+	 *          the program whose instructions will be appended.
+	 */
+
+	private void appendProgram(
+		KeyEventProgram	program)
+	{
+		int newLength = length + program.length;
+		if (newLength > instructions.length)
+			instructions = Arrays.copyOf(instructions, Math.max(newLength, 2 * length));
+		System.arraycopy(program.instructions, 0, instructions, length, program.length);
+		length = newLength;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends an instruction that marks the end of the key events for a character to this program.
+	 */
+
+	void appendEndOfChar()
+	{
+		append(instruction(OP_END_OF_CHAR, 0));
+		++numChars;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends an instruction that is composed of the specified opcode and operand to this program.
+	 *
+	 * @param opcode
+	 *          the opcode of the instruction.
+	 * @param operand
+	 *          the key code or other operand of the instruction.
+	 */
+
+	void appendInstruction(
+		int	opcode,
+		int	operand)
+	{
+		append(instruction(opcode, operand));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends the specified operand word to this program.
+	 *
+	 * @param word
+	 *          the operand word that will be appended.
+	 */
+
+	void appendWord(
+		int	word)
+	{
+		append(word);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Replaces the instruction or operand word at the specified index of this program.
+	 *
+	 * @param index
+	 *          the index of the word that will be replaced.
+	 * @param word
+	 *          the new instruction or operand word.
+	 */
+
+	void setWord(
+		int	index,
+		int	word)
+	{
+		instructions[index] = word;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends the specified instruction to this program, increasing the capacity of the array of instructions if
+	 * necessary.
+	 *
+	 * @param instruction
+	 *          the instruction that will be appended.
+	 */
+
+	private void append(
+		int	instruction)
+	{
+		if (length == instructions.length)
+			instructions = Arrays.copyOf(instructions, 2 * length);
+		instructions[length++] = instruction;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: COMPILER
+
+
+	/**
+	 * This class implements a compiler that translates text into a {@linkplain KeyEventProgram program of key events}
+	 * with a specified key map and aliases for the <i>tab</i> and <i>enter</i> keys.
+	 * <p>
+	 * The compiler can optionally coalesce runs of modifier keys: instead of pressing and releasing the modifier keys
+	 * of each character, it keeps the modifier keys pressed across consecutive characters that require the same set of
+	 * modifier keys, and it releases them only when the set changes or the text ends.  The text that is typed in the
+	 * target application is the same, but far fewer native key events are generated for text in which many adjacent
+	 * characters require a modifier key (for example, upper-case text).
+	 * </p>
+	 * <p>
+	 * The text is compiled as a sequence of code points.  If a {@linkplain FallbackSequence fallback sequence} is
+	 * specified, a code point that is not in the key map is typed with the program that the fallback sequence provides
+	 * for it, instead of being reported as unmapped.
+	 * </p>
+	 */
+
+	public static class Compiler
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The map from characters to keys. */
+		private	CompiledKeyMap		keyMap;
+
+		/** The character that is mapped to the <i>tab</i> key, or U+0000 for no alias. */
+		private	char				tabAlias;
+
+		/** The character that is mapped to the <i>enter</i> key, or U+0000 for no alias. */
+		private	char				enterAlias;
+
+		/** Flag: if {@code true}, modifier keys are kept pressed across consecutive characters that require them. */
+		private	boolean				coalesceModifiers;
+
+		/** The sequence of keys with which unmapped code points are typed, or {@code null} if there is none. */
+		private	FallbackSequence	fallback;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of a compiler of programs of key events.
+		 *
+		 * @param keyMap
+		 *          the map from characters to keys.
+		 * @param tabAlias
+		 *          the character that will be mapped to the <i>tab</i> key, or U+0000 for no alias.
+		 * @param enterAlias
+		 *          the character that will be mapped to the <i>enter</i> key, or U+0000 for no alias.
+		 * @param coalesceModifiers
+		 *          if {@code true}, modifier keys will be kept pressed across consecutive characters that require the
+		 *          same set of modifier keys.
+		 */
+
+		public Compiler(
+			CompiledKeyMap	keyMap,
+			char			tabAlias,
+			char			enterAlias,
+			boolean			coalesceModifiers)
+		{
+			// Call alternative constructor
+			this(keyMap, tabAlias, enterAlias, coalesceModifiers, null);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Creates a new instance of a compiler of programs of key events with a fallback sequence for code points that
+		 * are not in the key map.
+		 *
+		 * @param keyMap
+		 *          the map from characters to keys.
+		 * @param tabAlias
+		 *          the character that will be mapped to the <i>tab</i> key, or U+0000 for no alias.
+		 * @param enterAlias
+		 *          the character that will be mapped to the <i>enter</i> key, or U+0000 for no alias.
+		 * @param coalesceModifiers
+		 *          if {@code true}, modifier keys will be kept pressed across consecutive characters that require the
+		 *          same set of modifier keys.
+		 * @param fallback
+		 *          the sequence of keys with which code points that are not in the key map will be typed, or {@code
+		 *          null} if such code points should be reported as unmapped.
+		 */
+
+		public Compiler(
+			CompiledKeyMap		keyMap,
+			char				tabAlias,
+			char				enterAlias,
+			boolean				coalesceModifiers,
+			FallbackSequence	fallback)
+		{
+			// Initialise instance variables
+			this.keyMap = keyMap;
+			this.tabAlias = tabAlias;
+			this.enterAlias = enterAlias;
+			this.coalesceModifiers = coalesceModifiers;
+			this.fallback = fallback;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the key-map entry for the specified code point, taking into account the aliases of this compiler.
+		 *
+		 * @param  ch
+		 *           the code point whose entry is required.
+		 * @return the key-map entry for {@code ch}, or {@link CompiledKeyMap#NO_ENTRY} if {@code ch} cannot be mapped
+		 *         to a key.
+		 */
+
+		public int entry(
+			int	ch)
+		{
+			if ((ch == tabAlias) && (tabAlias != '\0'))
+				return CompiledKeyMap.TAB_ENTRY;
+			if ((ch == enterAlias) && (enterAlias != '\0'))
+				return CompiledKeyMap.ENTER_ENTRY;
+			return keyMap.get(ch);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Compiles the specified text into a program of key events and returns the resulting program.  The text is
+		 * validated as it is compiled: if any of its characters cannot be mapped to a key, the code points of those
+		 * characters are added to the specified list and {@code null} is returned.
+		 *
+		 * @param  text
+		 *           the text that will be compiled.
+		 * @param  unmappedChars
+		 *           the list to which the code points of {@code text} that cannot be mapped to a key will be added.
+		 * @return the program of key events for {@code text}, or {@code null} if some of the characters of {@code
+		 *         text} could not be mapped to a key.
+		 */
+
+		public KeyEventProgram compile(
+			CharSequence	text,
+			List<Integer>	unmappedChars)
+		{
+			return compile(text, unmappedChars, null);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Compiles the specified text into a program of key events and returns the resulting program.  If a program
+		 * is specified, its instructions are replaced and its array of instructions is reused; otherwise, a new
+		 * program is created.  The text is validated as it is compiled: if any of its characters cannot be mapped to a
+		 * key, the code points of those characters are added to the specified list and {@code null} is returned.
+		 *
+		 * @param  text
+		 *           the text that will be compiled.
+		 * @param  unmappedChars
+		 *           the list to which the code points of {@code text} that cannot be mapped to a key will be added.
+		 * @param  program
+		 *           the program that will be reused, or {@code null} if a new program should be created.
+		 * @return the program of key events for {@code text}, or {@code null} if some of the characters of {@code
+		 *         text} could not be mapped to a key.
+		 */
+
+		public KeyEventProgram compile(
+			CharSequence	text,
+			List<Integer>	unmappedChars,
+			KeyEventProgram	program)
+		{
+			// Initialise program
+			int length = text.length();
+			if (program == null)
+				program = new KeyEventProgram(length * MIN_NUM_INSTRUCTIONS_PER_CHAR);
+			else
+				program.clear();
+
+			// Compile code points of text
+			boolean valid = true;
+			int heldModifierMask = 0;
+			for (int i = 0; i < length; )
+			{
+				// Get key-map entry for code point
+				int ch = Character.codePointAt(text, i);
+				i += Character.charCount(ch);
+				int entry = entry(ch);
+
+				// If there is no entry for the code point, type it with the fallback sequence or add it to list of
+				// unmapped characters
+				if (entry == CompiledKeyMap.NO_ENTRY)
+				{
+					KeyEventProgram fallbackProgram = (fallback == null) ? null : fallback.program(ch);
+					if (fallbackProgram == null)
+					{
+						unmappedChars.add(ch);
+						valid = false;
+					}
+					else if (valid)
+					{
+						program.appendReleaseModifiers(heldModifierMask);
+						heldModifierMask = 0;
+						program.appendProgram(fallbackProgram);
+						program.appendEndOfChar();
+					}
+					continue;
+				}
+
+				// Once an unmapped character has been found, continue only to search for others
+				if (!valid)
+					continue;
+
+				// Append instructions for key
+				int modifierMask = CompiledKeyMap.modifierMask(entry);
+				if (coalesceModifiers)
+				{
+					if (modifierMask != heldModifierMask)
+					{
+						program.appendReleaseModifiers(heldModifierMask);
+						program.appendPressModifiers(modifierMask);
+						heldModifierMask = modifierMask;
+					}
+					program.appendKey(CompiledKeyMap.keyCode(entry));
+				}
+				else
+				{
+					program.appendPressModifiers(modifierMask);
+					program.appendKey(CompiledKeyMap.keyCode(entry));
+					program.appendReleaseModifiers(modifierMask);
+				}
+				program.appendEndOfChar();
+			}
+
+			// Release any modifier keys that are still pressed
+			program.appendReleaseModifiers(heldModifierMask);
+
+			// Return program
+			return valid ? program : null;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
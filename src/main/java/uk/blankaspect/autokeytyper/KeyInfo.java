@@ -0,0 +1,184 @@
+/*====================================================================*\
+
+KeyInfo.java
+
+Record: information about a key.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.scene.input.KeyCode;
+
+//----------------------------------------------------------------------
+
+
+// RECORD: INFORMATION ABOUT A KEY
+
+
+/**
+ * This record encapsulates information about a key that is derived from a JavaFX {@link KeyCode}: an identifier (the
+ * name of the enum constant), a name (the name of the key code for display) and a key code.  Two instances are equal
+ * if their key codes are equal.
+ * <p>
+ * The keys are obtained from {@link KeyCode#values()}, excluding those that do not have a positive key code.
+ * </p>
+ *
+ * @param id
+ *          the identifier of the key.
+ * @param name
+ *          the name of the key.
+ * @param code
+ *          the key code of the key.
+ */
+
+public record KeyInfo(
+	String	id,
+	String	name,
+	int		code)
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** A list of information about keys. */
+	private static final	List<KeyInfo>			KEY_INFOS;
+
+	/** A map from the lower-case identifiers and names of keys to information about the keys. */
+	private static final	Map<String, KeyInfo>	KEY_INFOS_BY_NAME;
+
+////////////////////////////////////////////////////////////////////////
+//  Static initialiser
+////////////////////////////////////////////////////////////////////////
+
+	static
+	{
+		// Create list of key information
+		List<KeyInfo> keyInfos = new ArrayList<>();
+		for (KeyCode keyCode : KeyCode.values())
+		{
+			int code = keyCode.getCode();
+			if (code > 0)
+				keyInfos.add(new KeyInfo(keyCode.name(), keyCode.getName(), code));
+		}
+		KEY_INFOS = Collections.unmodifiableList(keyInfos);
+
+		// Create map of key information, in which an identifier takes precedence over a name
+		KEY_INFOS_BY_NAME = new HashMap<>();
+		for (KeyInfo keyInfo : KEY_INFOS)
+			KEY_INFOS_BY_NAME.putIfAbsent(keyInfo.id.toLowerCase(), keyInfo);
+		for (KeyInfo keyInfo : KEY_INFOS)
+			KEY_INFOS_BY_NAME.putIfAbsent(keyInfo.name.toLowerCase(), keyInfo);
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns an unmodifiable list of information about all keys.
+	 *
+	 * @return an unmodifiable list of information about all keys.
+	 */
+
+	public static List<KeyInfo> all()
+	{
+		return KEY_INFOS;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns information about the key with the specified identifier.
+	 *
+	 * @param  id
+	 *           the identifier of the key.
+	 * @return information about the key whose identifier is {@code id}, or {@code null} if there is no such key.
+	 */
+
+	public static KeyInfo forId(
+		String	id)
+	{
+		return KEY_INFOS.stream().filter(keyInfo -> keyInfo.id.equals(id)).findFirst().orElse(null);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns information about the key with the specified key code.
+	 *
+	 * @param  code
+	 *           the key code of the key.
+	 * @return information about the key whose key code is {@code code}, or {@code null} if there is no such key.
+	 */
+
+	public static KeyInfo forCode(
+		int	code)
+	{
+		return KEY_INFOS.stream().filter(keyInfo -> keyInfo.code == code).findFirst().orElse(null);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns information about the key whose identifier or name matches the specified string, ignoring letter case.
+	 * For example, the <i>control</i> key may be denoted by "CONTROL" or "ctrl".
+	 *
+	 * @param  name
+	 *           the identifier or name of the key.
+	 * @return information about the key whose identifier or name matches {@code name}, or {@code null} if there is
+	 *         no such key.
+	 */
+
+	public static KeyInfo forName(
+		String	name)
+	{
+		return KEY_INFOS_BY_NAME.get(name.toLowerCase());
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : overriding methods
+////////////////////////////////////////////////////////////////////////
+
+	@Override
+	public boolean equals(
+		Object	obj)
+	{
+		if (this == obj)
+			return true;
+
+		return (obj instanceof KeyInfo other) && (code == other.code);
+	}
+
+	//------------------------------------------------------------------
+
+	@Override
+	public int hashCode()
+	{
+		return code;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
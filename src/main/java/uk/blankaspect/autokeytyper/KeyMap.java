@@ -18,17 +18,15 @@ package uk.blankaspect.autokeytyper;
 // IMPORTS
 
 
-import java.awt.Robot;
-
 import java.awt.event.KeyEvent;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,9 +46,6 @@ public class KeyMap
 //  Constants
 ////////////////////////////////////////////////////////////////////////
 
-	public static final		Key		TAB_KEY		= new Key(KeyEvent.VK_TAB,   EnumSet.noneOf(ModifierKey.class));
-	public static final		Key		ENTER_KEY	= new Key(KeyEvent.VK_ENTER, EnumSet.noneOf(ModifierKey.class));
-
 	private static final	int		MIN_NUM_FIELDS	= 2;
 	private static final	int		MAX_NUM_FIELDS	= 3;
 
@@ -60,12 +55,19 @@ public class KeyMap
 	private static final	String	UNICODE_PREFIX		= "U+";
 
 	private static final	int		MIN_UNICODE_SEQUENCE_LENGTH	= 4;
+	private static final	int		MAX_UNICODE_SEQUENCE_LENGTH	= 6;
 
-	private static final	int		MAX_CODE_POINT	= 0xFFFF;
+	private static final	int		MAX_CODE_POINT	= Character.MAX_CODE_POINT;
 
 	/** The prefix of the name of an AWT key-code field. */
 	private static final	String	KEY_CODE_PREFIX	= "VK_";
 
+	/** The separator of the fields of a line. */
+	private static final	char	FIELD_SEPARATOR	= '\t';
+
+	/** The separator of modifier keys in the modifier-key field of a line. */
+	private static final	char	MODIFIER_KEY_SEPARATOR	= ' ';
+
 	/** Error messages. */
 	private interface ErrorMsg
 	{
@@ -90,6 +92,9 @@ public class KeyMap
 		String	ILLEGAL_KEY_CODE =
 				"'%s' is not a legal key code.";
 
+		String	KEY_CODE_OUT_OF_BOUNDS =
+				"The key code %s is out of bounds.";
+
 		String	UNRECOGNISED_KEY_CODE =
 				"'%s' is not a recognised key code.";
 
@@ -97,6 +102,13 @@ public class KeyMap
 				"'%s' is not a recognised modifier key.";
 	}
 
+////////////////////////////////////////////////////////////////////////
+//  Class variables
+////////////////////////////////////////////////////////////////////////
+
+	/** A map from the names of the AWT key-code fields to their values. */
+	private static	Map<String, Integer>	keyCodes;
+
 ////////////////////////////////////////////////////////////////////////
 //  Constructors
 ////////////////////////////////////////////////////////////////////////
@@ -111,22 +123,22 @@ public class KeyMap
 //  Class methods
 ////////////////////////////////////////////////////////////////////////
 
-	public static Map<Character, Key> parse(
+	public static Map<Integer, Key> parse(
 		List<String>	lines)
 		throws ParseException
 	{
 		// Initialise key map
-		Map<Character, Key> keyMap = new LinkedHashMap<>();
+		Map<Integer, Key> keyMap = new LinkedHashMap<>();
 
 		// Parse map entries
 		for (int lineIndex = 0; lineIndex < lines.size(); lineIndex++)
 		{
 			// Get next line and split it into fields
-			String[] fields = lines.get(lineIndex).split("\\t+", -1);
+			List<String> fields = split(lines.get(lineIndex), FIELD_SEPARATOR);
 
 			// If last field is empty or starts with comment prefix, ignore it
-			int numFields = fields.length;
-			String lastField = fields[numFields - 1];
+			int numFields = fields.size();
+			String lastField = fields.get(numFields - 1);
 			if (lastField.isEmpty() || lastField.startsWith(COMMENT_PREFIX))
 				--numFields;
 
@@ -139,15 +151,15 @@ public class KeyMap
 				throw new ParseException(ErrorMsg.MALFORMED_ENTRY, lineIndex);
 
 			// Parse field: character
-			char ch = '\0';
+			int codePoint = 0;
 			int fieldIndex = 0;
-			String charField = fields[fieldIndex++];
+			String charField = fields.get(fieldIndex++);
 			if (charField.startsWith(CHARACTER_PREFIX))
 			{
 				String charStr = charField.substring(CHARACTER_PREFIX.length());
-				if (charStr.length() != 1)
+				if (charStr.isEmpty() || (charStr.codePointCount(0, charStr.length()) != 1))
 					throw new ParseException(ErrorMsg.MALFORMED_CHARACTER, lineIndex, charField);
-				ch = charStr.charAt(0);
+				codePoint = charStr.codePointAt(0);
 			}
 			else if (charField.startsWith(UNICODE_PREFIX))
 			{
@@ -158,15 +170,14 @@ public class KeyMap
 
 				try
 				{
-					int codePoint = Integer.parseUnsignedInt(unicodeSeq, 16);
-					if (codePoint > MAX_CODE_POINT)
+					codePoint = Integer.parseUnsignedInt(unicodeSeq, 16);
+					if (Integer.compareUnsigned(codePoint, MAX_CODE_POINT) > 0)
 					{
 						throw new ParseException(ErrorMsg.CODE_POINT_OUT_OF_BOUNDS, lineIndex,
 												 UNICODE_PREFIX + Integer.toHexString(codePoint).toUpperCase());
 					}
-					if (seqLength > MIN_UNICODE_SEQUENCE_LENGTH)
+					if (seqLength > MAX_UNICODE_SEQUENCE_LENGTH)
 						throw new ParseException(ErrorMsg.MALFORMED_CODE_POINT, lineIndex, charField);
-					ch = (char)codePoint;
 				}
 				catch (NumberFormatException e)
 				{
@@ -178,30 +189,13 @@ public class KeyMap
 
 			// Parse field: key code
 			int keyCode = KeyEvent.VK_UNDEFINED;
-			String keyCodeStr = fields[fieldIndex++];
+			String keyCodeStr = fields.get(fieldIndex++);
 			if (keyCodeStr.startsWith(KEY_CODE_PREFIX))
 			{
-				boolean found = false;
-				for (Field field : KeyEvent.class.getDeclaredFields())
-				{
-					int modifiers = field.getModifiers();
-					if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && (field.getType() == Integer.TYPE)
-							&& field.getName().equals(keyCodeStr))
-					{
-						try
-						{
-							keyCode = field.getInt(null);
-							found = true;
-						}
-						catch (Throwable e)
-						{
-							// ignore
-						}
-						break;
-					}
-				}
-				if (!found)
+				Integer value = keyCodes().get(keyCodeStr);
+				if (value == null)
 					throw new ParseException(ErrorMsg.UNRECOGNISED_KEY_CODE, lineIndex, keyCodeStr);
+				keyCode = value;
 			}
 			else
 			{
@@ -213,13 +207,15 @@ public class KeyMap
 				{
 					throw new ParseException(ErrorMsg.ILLEGAL_KEY_CODE, lineIndex, keyCodeStr);
 				}
+				if (Integer.compareUnsigned(keyCode, CompiledKeyMap.MAX_KEY_CODE) > 0)
+					throw new ParseException(ErrorMsg.KEY_CODE_OUT_OF_BOUNDS, lineIndex, keyCodeStr);
 			}
 
 			// Parse field: modifier keys
 			EnumSet<ModifierKey> modifierKeys = EnumSet.noneOf(ModifierKey.class);
 			if (numFields > MIN_NUM_FIELDS)
 			{
-				for (String key : fields[fieldIndex++].strip().split(" +"))
+				for (String key : split(fields.get(fieldIndex++).strip(), MODIFIER_KEY_SEPARATOR))
 				{
 					ModifierKey modifierKey = ModifierKey.forKey(key);
 					if (modifierKey == null)
@@ -229,7 +225,7 @@ public class KeyMap
 			}
 
 			// Add entry to map
-			keyMap.put(ch, new Key(keyCode, modifierKeys));
+			keyMap.put(codePoint, new Key(keyCode, modifierKeys));
 		}
 
 		// Return key map
@@ -238,6 +234,81 @@ public class KeyMap
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Returns a map from the names of the static final {@code int} fields of {@link KeyEvent} that have the prefix
+	 * {@code VK_} to their values.  The map is created when this method is first called.
+	 *
+	 * @return a map from the names of the AWT key-code fields to their values.
+	 */
+
+	static synchronized Map<String, Integer> keyCodes()
+	{
+		if (keyCodes == null)
+		{
+			Map<String, Integer> map = new HashMap<>();
+			for (Field field : KeyEvent.class.getDeclaredFields())
+			{
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && (field.getType() == Integer.TYPE)
+						&& field.getName().startsWith(KEY_CODE_PREFIX))
+				{
+					try
+					{
+						map.put(field.getName(), field.getInt(null));
+					}
+					catch (Throwable e)
+					{
+						// ignore
+					}
+				}
+			}
+			keyCodes = map;
+		}
+		return keyCodes;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Splits the specified string into fields at each run of one or more consecutive instances of the specified
+	 * separator.  An empty field is included at the start or end of the list if the string starts or ends with the
+	 * separator, and the list contains a single empty field if the string is empty.
+	 *
+	 * @param  str
+	 *           the string that will be split.
+	 * @param  separator
+	 *           the separator of the fields.
+	 * @return a list of the fields of {@code str}.
+	 */
+
+	private static List<String> split(
+		String	str,
+		char	separator)
+	{
+		List<String> fields = new ArrayList<>();
+		int length = str.length();
+		int start = 0;
+		while (true)
+		{
+			// Find end of field
+			int end = str.indexOf(separator, start);
+			if (end < 0)
+			{
+				fields.add(str.substring(start));
+				break;
+			}
+			fields.add(str.substring(start, end));
+
+			// Skip run of separators
+			start = end + 1;
+			while ((start < length) && (str.charAt(start) == separator))
+				++start;
+		}
+		return fields;
+	}
+
+	//------------------------------------------------------------------
+
 ////////////////////////////////////////////////////////////////////////
 //  Enumerated types
 ////////////////////////////////////////////////////////////////////////
@@ -246,7 +317,7 @@ public class KeyMap
 	// ENUMERATION: MODIFIER KEY
 
 
-	private enum ModifierKey
+	enum ModifierKey
 	{
 
 	////////////////////////////////////////////////////////////////////
@@ -301,7 +372,7 @@ public class KeyMap
 	//  Class methods
 	////////////////////////////////////////////////////////////////////
 
-		private static ModifierKey forKey(
+		static ModifierKey forKey(
 			String	key)
 		{
 			return Arrays.stream(values()).filter(value -> value.key.equals(key)).findFirst().orElse(null);
@@ -309,6 +380,19 @@ public class KeyMap
 
 		//--------------------------------------------------------------
 
+		/**
+		 * Returns the key codes of the modifier keys, indexed by ordinal.
+		 *
+		 * @return the key codes of the modifier keys, indexed by ordinal.
+		 */
+
+		static int[] keyCodes()
+		{
+			return Arrays.stream(values()).mapToInt(value -> value.keyCode).toArray();
+		}
+
+		//--------------------------------------------------------------
+
 	}
 
 	//==================================================================
@@ -335,30 +419,18 @@ public class KeyMap
 	////////////////////////////////////////////////////////////////////
 
 		/**
-		 * Generates native key events for this key by using the specified robot.
+		 * Returns a bit mask of the modifier keys of this key, in which each modifier key is represented by the bit
+		 * whose index is the ordinal of the modifier key.
 		 *
-		 * @param robot
-		 *          the object that will be used to generate native key events for this key.
+		 * @return a bit mask of the modifier keys of this key.
 		 */
 
-		public void type(
-			Robot	robot)
+		public int modifierMask()
 		{
-			// Generate key-press events for modifier keys
-			Deque<Integer> keyCodes = new ArrayDeque<>();
+			int mask = 0;
 			for (ModifierKey modifierKey : modifierKeys)
-			{
-				robot.keyPress(modifierKey.keyCode);
-				keyCodes.push(modifierKey.keyCode);
-			}
-
-			// Generate key-press and key-release events for principal key
-			robot.keyPress(keyCode);
-			robot.keyRelease(keyCode);
-
-			// Generate key-release events for modifier keys
-			while (!keyCodes.isEmpty())
-				robot.keyRelease(keyCodes.pop());
+				mask |= 1 << modifierKey.ordinal();
+			return mask;
 		}
 
 		//--------------------------------------------------------------
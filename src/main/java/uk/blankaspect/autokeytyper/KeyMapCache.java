@@ -0,0 +1,360 @@
+/*====================================================================*\
+
+KeyMapCache.java
+
+Class: cache of compiled key maps.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.nio.file.attribute.FileTime;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import uk.blankaspect.common.exception2.UnexpectedRuntimeException;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: CACHE OF COMPILED KEY MAPS
+
+
+/**
+ * This class implements a cache of {@linkplain CompiledKeyMap compiled key maps} in a directory of the file system.
+ * <p>
+ * A compiled key map is stored in a binary file whose name is derived from a SHA-256 hash of the content of the key-map
+ * file from which it was compiled, so a change to the key-map file causes a cache miss rather than a stale map.  The
+ * hash is also stored in the cache file, along with an identifier and a version number of the file format, and all
+ * three are checked when the file is read.
+ * </p>
+ * <p>
+ * Each key-map file has its own cache file, so switching between several key maps does not cause cache misses.  The
+ * number of cache files is limited to {@link #MAX_NUM_FILES}: when a key map is stored, the least recently used cache
+ * files are deleted until the limit is met.  The modification time of a cache file is updated whenever the file is
+ * read, and it serves as the time of last use.
+ * </p>
+ * <p>
+ * The cache is purely an optimisation: any error that occurs when a cache file is read or written is ignored, and the
+ * caller falls back to parsing the key-map file.  A cache file is written to a temporary file that is then moved to
+ * its final location, so that a reader never sees a partially written file.
+ * </p>
+ */
+
+public class KeyMapCache
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The identifier of a cache file. */
+	private static final	int		FILE_ID	= 0x4B4D4150;		// "KMAP"
+
+	/** The version of the format of a cache file. */
+	private static final	int		FILE_VERSION	= 2;
+
+	/** The name of the hash function that is applied to the content of a key-map file. */
+	private static final	String	HASH_NAME	= "SHA-256";
+
+	/** The prefix of the name of a cache file. */
+	private static final	String	FILENAME_PREFIX	= "keyMap-";
+
+	/** The suffix of the name of a cache file. */
+	private static final	String	FILENAME_SUFFIX	= ".bin";
+
+	/** The suffix of the name of a temporary file. */
+	private static final	String	TEMP_FILENAME_SUFFIX	= ".tmp";
+
+	/** The maximum number of cache files. */
+	public static final		int		MAX_NUM_FILES	= 16;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The directory in which cache files are stored. */
+	private	Path	directory;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a cache of compiled key maps that are stored in the specified directory.  The directory
+	 * is not created until a key map is {@linkplain #store(byte[], CompiledKeyMap) stored} in the cache.
+	 *
+	 * @param directory
+	 *          the directory in which cache files will be stored.
+	 */
+
+	public KeyMapCache(
+		Path	directory)
+	{
+		// Validate argument
+		if (directory == null)
+			throw new IllegalArgumentException("Null directory");
+
+		// Initialise instance variables
+		this.directory = directory;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the SHA-256 hash of the specified content of a key-map file, which identifies the cache file of the key
+	 * map.
+	 *
+	 * @param  source
+	 *           the content of the key-map file.
+	 * @return the hash of {@code source}.
+	 */
+
+	public static byte[] hash(
+		byte[]	source)
+	{
+		try
+		{
+			return MessageDigest.getInstance(HASH_NAME).digest(source);
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new UnexpectedRuntimeException(e);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the directory in which the cache files of this cache are stored.
+	 *
+	 * @return the directory in which the cache files of this cache are stored.
+	 */
+
+	public Path directory()
+	{
+		return directory;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the compiled key map that was stored in this cache for the content of a key-map file that has the
+	 * specified {@linkplain #hash(byte[]) hash}.
+	 *
+	 * @param  hashValue
+	 *           the hash of the content of the key-map file.
+	 * @return the compiled key map for {@code hashValue}, or {@code null} if there is no such map in this cache or an
+	 *         error occurred when reading it.
+	 */
+
+	public CompiledKeyMap load(
+		byte[]	hashValue)
+	{
+		// Get location of cache file
+		Path file = file(hashValue);
+		if (!Files.isRegularFile(file))
+			return null;
+
+		// Read cache file
+		try (DataInputStream inStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+		{
+			// Read and check header
+			if ((inStream.readInt() != FILE_ID) || (inStream.readInt() != FILE_VERSION))
+				return null;
+			byte[] fileHashValue = new byte[hashValue.length];
+			inStream.readFully(fileHashValue);
+			if (!Arrays.equals(fileHashValue, hashValue))
+				return null;
+
+			// Read key map
+			CompiledKeyMap keyMap = CompiledKeyMap.read(inStream);
+
+			// Mark cache file as recently used
+			try
+			{
+				Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+
+			// Return key map
+			return keyMap;
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Stores the specified compiled key map in this cache for the content of a key-map file that has the specified
+	 * {@linkplain #hash(byte[]) hash}.  If there are then more than {@link #MAX_NUM_FILES} cache files, the least
+	 * recently used files are deleted.
+	 *
+	 * @param  hashValue
+	 *           the hash of the content of the key-map file.
+	 * @param  keyMap
+	 *           the key map that was compiled from the content of the key-map file.
+	 * @return {@code true} if the key map was stored successfully.
+	 */
+
+	public boolean store(
+		byte[]			hashValue,
+		CompiledKeyMap	keyMap)
+	{
+		// Get location of cache file
+		Path file = file(hashValue);
+		Path tempFile = null;
+
+		try
+		{
+			// Create directory
+			Files.createDirectories(directory);
+
+			// Write temporary file
+			tempFile = Files.createTempFile(directory, FILENAME_PREFIX, TEMP_FILENAME_SUFFIX);
+			try (DataOutputStream outStream =
+					new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile))))
+			{
+				outStream.writeInt(FILE_ID);
+				outStream.writeInt(FILE_VERSION);
+				outStream.write(hashValue);
+				keyMap.write(outStream);
+			}
+
+			// Move temporary file to cache file
+			try
+			{
+				Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			tempFile = null;
+
+			// Delete least recently used cache files
+			deleteExcessFiles();
+			return true;
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+		finally
+		{
+			// Delete temporary file if it was not moved
+			if (tempFile != null)
+			{
+				try
+				{
+					Files.deleteIfExists(tempFile);
+				}
+				catch (IOException e)
+				{
+					// ignore
+				}
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Deletes the least recently used cache files in the directory of this cache until there are no more than {@link
+	 * #MAX_NUM_FILES} of them.  Any error that occurs when listing the directory or deleting a file is ignored.
+	 */
+
+	private void deleteExcessFiles()
+	{
+		try
+		{
+			// Get cache files and their times of last use
+			Map<Path, FileTime> times = new HashMap<>();
+			try (DirectoryStream<Path> entries =
+					Files.newDirectoryStream(directory, FILENAME_PREFIX + "*" + FILENAME_SUFFIX))
+			{
+				for (Path entry : entries)
+					times.put(entry, Files.getLastModifiedTime(entry));
+			}
+
+			// Delete least recently used files
+			if (times.size() > MAX_NUM_FILES)
+			{
+				List<Path> files = new ArrayList<>(times.keySet());
+				files.sort(Comparator.comparing(times::get));
+				for (Path file : files.subList(0, files.size() - MAX_NUM_FILES))
+					Files.deleteIfExists(file);
+			}
+		}
+		catch (IOException e)
+		{
+			// ignore
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the location of the cache file for the specified hash of the content of a key-map file.
+	 *
+	 * @param  hashValue
+	 *           the hash of the content of the key-map file.
+	 * @return the location of the cache file for {@code hashValue}.
+	 */
+
+	private Path file(
+		byte[]	hashValue)
+	{
+		return directory.resolve(FILENAME_PREFIX + HexFormat.of().formatHex(hashValue) + FILENAME_SUFFIX);
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
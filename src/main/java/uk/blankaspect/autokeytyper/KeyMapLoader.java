@@ -0,0 +1,183 @@
+/*====================================================================*\
+
+KeyMapLoader.java
+
+Class: loader of the key map of the application.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import uk.blankaspect.common.config.AppAuxDirectory;
+
+import uk.blankaspect.common.exception2.BaseException;
+import uk.blankaspect.common.exception2.FileException;
+import uk.blankaspect.common.exception2.LocationException;
+
+import uk.blankaspect.common.filesystem.PathnameUtils;
+
+import uk.blankaspect.common.resource.ResourceUtils;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: LOADER OF THE KEY MAP OF THE APPLICATION
+
+
+/**
+ * This class contains methods that locate, read and cache the key map of the application.  They are used both by the
+ * JavaFX application {@link AutoKeyTyperApp} and by the {@linkplain HeadlessTyper headless typing mode}, so this class
+ * must not depend on JavaFX: the headless mode must not load the JavaFX classes.
+ */
+
+class KeyMapLoader
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The key of the application, which identifies its auxiliary directory.  It is the same as the name key of {@link
+		AutoKeyTyperApp}. */
+	private static final	String	APP_KEY	= "autoKeyTyper";
+
+	/** The name of the default key-map file. */
+	private static final	String	KEY_MAP_FILENAME	= "keyMap.txt";
+
+	/** The name of the directory, within the auxiliary directory, in which compiled key maps are cached. */
+	private static final	String	CACHE_DIRECTORY_NAME	= "keyMapCache";
+
+	/** Keys of system properties. */
+	private interface SystemPropertyKey
+	{
+		String	KEY_MAP			= "keyMap";
+		String	KEY_MAP_CACHE	= "keyMapCache";
+	}
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	FAILED_TO_READ_KEY_MAP =
+				"Failed to read the key map.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Prevents this class from being instantiated externally.
+	 */
+
+	private KeyMapLoader()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the location of the key-map file that is defined by the system property {@code keyMap}.
+	 *
+	 * @return the location of the key-map file, or {@code null} if the system property is not defined, in which case
+	 *         the default key map is used.
+	 */
+
+	static Path keyMapFile()
+	{
+		String pathname = System.getProperty(SystemPropertyKey.KEY_MAP);
+		return (pathname == null) ? null : Path.of(PathnameUtils.parsePathname(pathname));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Reads and returns the source of the specified key map.
+	 *
+	 * @param  keyMapFile
+	 *           the location of the key-map file, or {@code null} for the default key map, which is read from a
+	 *           resource.
+	 * @return the content of the key-map file or resource.
+	 * @throws BaseException
+	 *           if an error occurred when reading the key map.
+	 */
+
+	static byte[] readSource(
+		Path	keyMapFile)
+		throws BaseException
+	{
+		try
+		{
+			return (keyMapFile == null) ? ResourceUtils.readBytes(KeyMapLoader.class, KEY_MAP_FILENAME)
+										: Files.readAllBytes(keyMapFile);
+		}
+		catch (IOException e)
+		{
+			throw new BaseException(ErrorMsg.FAILED_TO_READ_KEY_MAP, e);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a cache of compiled key maps in the auxiliary directory of the application.  The cache may be
+	 * disabled by setting the system property {@code keyMapCache} to {@code false}.
+	 *
+	 * @return a cache of compiled key maps, or {@code null} if the cache is disabled or the location of the auxiliary
+	 *         directory could not be determined.
+	 */
+
+	static KeyMapCache createCache()
+	{
+		// Test whether cache is disabled
+		if (Boolean.FALSE.toString().equalsIgnoreCase(System.getProperty(SystemPropertyKey.KEY_MAP_CACHE)))
+			return null;
+
+		// Create cache in auxiliary directory
+		AppAuxDirectory.Directory directory = AppAuxDirectory.getDirectory(APP_KEY, KeyMapLoader.class);
+		return (directory == null) ? null : new KeyMapCache(directory.location().resolve(CACHE_DIRECTORY_NAME));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns an exception that adds the location of the specified key map to the specified exception.
+	 *
+	 * @param  exception
+	 *           the exception that was thrown when reading or compiling the key map.
+	 * @param  keyMapFile
+	 *           the location of the key-map file, or {@code null} for the default key map.
+	 * @return an exception that adds the location of the key map to {@code exception}.
+	 */
+
+	static BaseException exception(
+		BaseException	exception,
+		Path			keyMapFile)
+	{
+		return (keyMapFile == null) ? new LocationException(exception, KEY_MAP_FILENAME)
+									: new FileException(exception, keyMapFile);
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,346 @@
+/*====================================================================*\
+
+KeyMapWatcher.java
+
+Class: watcher of a key-map file.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import java.util.Arrays;
+
+import uk.blankaspect.common.exception2.BaseException;
+import uk.blankaspect.common.exception2.FileException;
+
+import uk.blankaspect.common.thread.DaemonFactory;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: WATCHER OF A KEY-MAP FILE
+
+
+/**
+ * This class implements a watcher of a key-map file.  The directory that contains the file is registered with a {@link
+ * WatchService}, and a daemon thread waits for events that relate to the file.  When the file is created or modified,
+ * the thread waits briefly for further events to settle, reads the file, and, if its content has changed, parses and
+ * compiles it.  The {@linkplain IListener listener} of the watcher is notified of the new key map or of the error that
+ * prevented the file from being parsed; in the latter case, the previous key map remains in effect.
+ * <p>
+ * The listener is notified on the thread of the watcher.  A compiled key map is immutable, so it may be passed to
+ * another thread and swapped for the map that is in use there; a typing job that is already running keeps the key map
+ * with which it was created.
+ * </p>
+ */
+
+public class KeyMapWatcher
+	implements Closeable
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The name of the thread on which the key-map file is watched. */
+	private static final	String	THREAD_NAME	= "key-map-watcher";
+
+	/** The time (in milliseconds) for which events relating to the key-map file must settle before the file is read. */
+	private static final	long	SETTLE_DELAY	= 200;
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	FAILED_TO_WATCH_FILE =
+				"Failed to watch the file for changes.";
+
+		String	ERROR_READING_FILE =
+				"An error occurred when reading the file.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The key-map file. */
+	private	Path			file;
+
+	/** The cache of compiled key maps, or {@code null} if compiled key maps are not cached. */
+	private	KeyMapCache		cache;
+
+	/** The listener that is notified of changes to the key map. */
+	private	IListener		listener;
+
+	/** The content of the key-map file from which the current key map was compiled. */
+	private	byte[]			source;
+
+	/** The service that watches the directory of the key-map file. */
+	private	WatchService	watchService;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a watcher of the specified key-map file.  The file is not watched until the watcher is
+	 * {@linkplain #start() started}.
+	 *
+	 * @param file
+	 *          the key-map file.
+	 * @param source
+	 *          the content of {@code file} from which the current key map was compiled.
+	 * @param cache
+	 *          the cache of compiled key maps, which may be {@code null}.
+	 * @param listener
+	 *          the listener that will be notified of changes to the key map.
+	 */
+
+	public KeyMapWatcher(
+		Path		file,
+		byte[]		source,
+		KeyMapCache	cache,
+		IListener	listener)
+	{
+		// Validate arguments
+		if (file == null)
+			throw new IllegalArgumentException("Null file");
+		if (listener == null)
+			throw new IllegalArgumentException("Null listener");
+
+		// Initialise instance variables
+		this.file = file.toAbsolutePath();
+		this.source = source;
+		this.cache = cache;
+		this.listener = listener;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : Closeable interface
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Stops watching the key-map file.
+	 *
+	 * @throws IOException
+	 *           if an error occurred when closing the watch service.
+	 */
+
+	@Override
+	public void close()
+		throws IOException
+	{
+		if (watchService != null)
+		{
+			WatchService service = watchService;
+			watchService = null;
+			service.close();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Starts watching the key-map file.
+	 *
+	 * @throws BaseException
+	 *           if an error occurred when registering the directory of the key-map file with a watch service.
+	 */
+
+	public void start()
+		throws BaseException
+	{
+		// Test whether watcher has already been started
+		if (watchService != null)
+			throw new IllegalStateException("Watcher already started");
+
+		// Register directory of key-map file with watch service
+		try
+		{
+			watchService = file.getFileSystem().newWatchService();
+			file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+									  StandardWatchEventKinds.ENTRY_MODIFY);
+		}
+		catch (IOException e)
+		{
+			throw new FileException(ErrorMsg.FAILED_TO_WATCH_FILE, e, file);
+		}
+
+		// Start thread to process events of watch service
+		WatchService service = watchService;
+		DaemonFactory.create(THREAD_NAME, () -> watch(service)).start();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Waits for events of the specified watch service that relate to the key-map file, and reloads the file after
+	 * each group of such events.  This method returns when the watch service is closed.
+	 *
+	 * @param service
+	 *          the watch service.
+	 */
+
+	private void watch(
+		WatchService	service)
+	{
+		Path filename = file.getFileName();
+		try
+		{
+			while (true)
+			{
+				// Wait for events
+				WatchKey key = service.take();
+
+				// Test whether any event relates to key-map file
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents())
+				{
+					if ((event.kind() == StandardWatchEventKinds.OVERFLOW) || filename.equals(event.context()))
+						changed = true;
+				}
+				if (!key.reset())
+					break;
+
+				// Wait for events to settle, discarding any that occur in the meantime, and reload key-map file
+				if (changed)
+				{
+					Thread.sleep(SETTLE_DELAY);
+					while ((key = service.poll()) != null)
+					{
+						key.pollEvents();
+						key.reset();
+					}
+					reload();
+				}
+			}
+		}
+		catch (ClosedWatchServiceException | InterruptedException e)
+		{
+			// ignore
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Reads the key-map file and, if its content has changed, compiles it and notifies the listener of the new key map.
+	 * If an error occurs, the listener is notified of the error.
+	 */
+
+	private void reload()
+	{
+		// If file does not exist (eg, it is being replaced), wait for next event
+		if (!Files.isRegularFile(file))
+			return;
+
+		// Read file; ignore it if its content has not changed
+		byte[] newSource = null;
+		try
+		{
+			newSource = Files.readAllBytes(file);
+		}
+		catch (IOException e)
+		{
+			listener.keyMapError(new FileException(ErrorMsg.ERROR_READING_FILE, e, file));
+			return;
+		}
+		if (Arrays.equals(newSource, source))
+			return;
+
+		// Compile key map
+		CompiledKeyMap keyMap = null;
+		try
+		{
+			keyMap = CompiledKeyMap.of(newSource, cache);
+		}
+		catch (KeyMap.ParseException e)
+		{
+			listener.keyMapError(new FileException(e, file));
+			return;
+		}
+
+		// Update content and notify listener
+		source = newSource;
+		listener.keyMapChanged(keyMap);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member interfaces
+////////////////////////////////////////////////////////////////////////
+
+
+	// INTERFACE: LISTENER
+
+
+	/**
+	 * This interface defines the methods that must be implemented by a listener that is notified when a watched
+	 * key-map file is reloaded.  The methods are called on the thread of the {@link KeyMapWatcher}.
+	 */
+
+	public interface IListener
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Notifies this listener that the key-map file has been reloaded successfully.
+		 *
+		 * @param keyMap
+		 *          the key map that was compiled from the new content of the file.
+		 */
+
+		void keyMapChanged(
+			CompiledKeyMap	keyMap);
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Notifies this listener that the key-map file could not be reloaded.  The previous key map remains in effect.
+		 *
+		 * @param exception
+		 *          the exception that describes the error.
+		 */
+
+		void keyMapError(
+			BaseException	exception);
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,370 @@
+/*====================================================================*\
+
+LatencyHistogram.java
+
+Class: log-linear histogram of durations.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.Arrays;
+
+import uk.blankaspect.common.basictree.ListNode;
+import uk.blankaspect.common.basictree.MapNode;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: LOG-LINEAR HISTOGRAM OF DURATIONS
+
+
+/**
+ * This class implements a histogram of non-negative durations (in nanoseconds) whose buckets have a fixed log-linear
+ * layout: each range of values between successive powers of two is divided into {@value #NUM_SUB_BUCKETS} buckets of
+ * equal width, so the width of a bucket is at most 1/{@value #NUM_SUB_BUCKETS} of its lower bound.  Values below
+ * {@value #NUM_SUB_BUCKETS} are recorded exactly.
+ * <p>
+ * The counts of the buckets are stored in a {@code long[]} that is allocated when the histogram is created, so
+ * {@linkplain #record(long) recording} a value requires no allocation.  An instance of this class is not thread-safe.
+ * </p>
+ */
+
+public class LatencyHistogram
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of bits of a value below its most significant bit that select a sub-bucket. */
+	private static final	int		SUB_BUCKET_BITS	= 3;
+
+	/** The number of buckets into which each range of values between successive powers of two is divided. */
+	private static final	int		NUM_SUB_BUCKETS	= 1 << SUB_BUCKET_BITS;
+
+	/** The number of buckets of a histogram. */
+	private static final	int		NUM_BUCKETS	= (Long.SIZE - SUB_BUCKET_BITS) * NUM_SUB_BUCKETS;
+
+	/** Keys of properties. */
+	private interface PropertyKey
+	{
+		String	BUCKETS	= "buckets";
+		String	COUNT	= "count";
+		String	MAX		= "max";
+		String	MEAN	= "mean";
+		String	MIN		= "min";
+		String	P50		= "p50";
+		String	P90		= "p90";
+		String	P99		= "p99";
+		String	P999	= "p999";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of values that have been recorded. */
+	private	long	count;
+
+	/** The sum of the values that have been recorded. */
+	private	long	sum;
+
+	/** The smallest value that has been recorded. */
+	private	long	min;
+
+	/** The largest value that has been recorded. */
+	private	long	max;
+
+	/** The number of values in each bucket. */
+	private	long[]	bucketCounts;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of an empty histogram of durations.
+	 */
+
+	public LatencyHistogram()
+	{
+		// Initialise instance variables
+		min = Long.MAX_VALUE;
+		bucketCounts = new long[NUM_BUCKETS];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates a new instance of a histogram of durations that is a copy of the specified histogram.
+	 *
+	 * @param histogram
+	 *          the histogram of which a copy will be created.
+	 */
+
+	public LatencyHistogram(
+		LatencyHistogram	histogram)
+	{
+		// Initialise instance variables
+		count = histogram.count;
+		sum = histogram.sum;
+		min = histogram.min;
+		max = histogram.max;
+		bucketCounts = histogram.bucketCounts.clone();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the index of the bucket that contains the specified value.
+	 *
+	 * @param  value
+	 *           the non-negative value of interest.
+	 * @return the index of the bucket that contains {@code value}.
+	 */
+
+	private static int bucketIndex(
+		long	value)
+	{
+		if (value < NUM_SUB_BUCKETS)
+			return (int)value;
+		int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + (int)((value >>> shift) & (NUM_SUB_BUCKETS - 1));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the smallest value that is contained in the bucket at the specified index.
+	 *
+	 * @param  index
+	 *           the index of the bucket.
+	 * @return the smallest value that is contained in the bucket at {@code index}.
+	 */
+
+	private static long lowerBound(
+		int	index)
+	{
+		if (index < NUM_SUB_BUCKETS)
+			return index;
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		return (long)(NUM_SUB_BUCKETS + (index & (NUM_SUB_BUCKETS - 1))) << shift;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the largest value that is contained in the bucket at the specified index.
+	 *
+	 * @param  index
+	 *           the index of the bucket.
+	 * @return the largest value that is contained in the bucket at {@code index}.
+	 */
+
+	private static long upperBound(
+		int	index)
+	{
+		if (index < NUM_SUB_BUCKETS)
+			return index;
+		return lowerBound(index) + (1L << ((index >>> SUB_BUCKET_BITS) - 1)) - 1;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Records the specified value in this histogram.  A negative value is recorded as zero.
+	 *
+	 * @param value
+	 *          the value (in nanoseconds) that will be recorded.
+	 */
+
+	public void record(
+		long	value)
+	{
+		if (value < 0)
+			value = 0;
+		++count;
+		sum += value;
+		if (value < min)
+			min = value;
+		if (value > max)
+			max = value;
+		++bucketCounts[bucketIndex(value)];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Adds the values of the specified histogram to this histogram.
+	 *
+	 * @param histogram
+	 *          the histogram whose values will be added to this histogram.
+	 */
+
+	public void add(
+		LatencyHistogram	histogram)
+	{
+		count += histogram.count;
+		sum += histogram.sum;
+		min = Math.min(min, histogram.min);
+		max = Math.max(max, histogram.max);
+		for (int i = 0; i < NUM_BUCKETS; i++)
+			bucketCounts[i] += histogram.bucketCounts[i];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Removes all values from this histogram.
+	 */
+
+	public void reset()
+	{
+		count = 0;
+		sum = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+		Arrays.fill(bucketCounts, 0);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of values that have been recorded in this histogram.
+	 *
+	 * @return the number of values that have been recorded in this histogram.
+	 */
+
+	public long count()
+	{
+		return count;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the smallest value that has been recorded in this histogram.
+	 *
+	 * @return the smallest value that has been recorded in this histogram, or 0 if the histogram is empty.
+	 */
+
+	public long min()
+	{
+		return (count > 0) ? min : 0;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the largest value that has been recorded in this histogram.
+	 *
+	 * @return the largest value that has been recorded in this histogram, or 0 if the histogram is empty.
+	 */
+
+	public long max()
+	{
+		return max;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the mean of the values that have been recorded in this histogram.
+	 *
+	 * @return the mean of the values that have been recorded in this histogram, or 0 if the histogram is empty.
+	 */
+
+	public double mean()
+	{
+		return (count > 0) ? (double)sum / (double)count : 0.0;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns an estimate of the specified percentile of the values that have been recorded in this histogram.  The
+	 * estimate is the upper bound of the bucket that contains the percentile, limited to the largest recorded value.
+	 *
+	 * @param  fraction
+	 *           the percentile of interest, as a fraction between 0 and 1.
+	 * @return an estimate of the percentile of the recorded values that corresponds to {@code fraction}, or 0 if the
+	 *         histogram is empty.
+	 */
+
+	public long percentile(
+		double	fraction)
+	{
+		if (count == 0)
+			return 0;
+
+		long threshold = Math.max((long)Math.ceil(fraction * (double)count), 1);
+		long total = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			total += bucketCounts[i];
+			if (total >= threshold)
+				return Math.min(upperBound(i), max);
+		}
+		return max;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Encodes this histogram as a tree of {@linkplain MapNode nodes}.  The non-empty buckets are encoded as a list of
+	 * triples of lower bound, upper bound and count.
+	 *
+	 * @return a map node that encodes this histogram.
+	 */
+
+	public MapNode encode()
+	{
+		// Create root node
+		MapNode rootNode = new MapNode();
+
+		// Encode summary
+		rootNode.addLong(PropertyKey.COUNT, count);
+		rootNode.addLong(PropertyKey.MIN, min());
+		rootNode.addDouble(PropertyKey.MEAN, mean());
+		rootNode.addLong(PropertyKey.P50, percentile(0.5));
+		rootNode.addLong(PropertyKey.P90, percentile(0.9));
+		rootNode.addLong(PropertyKey.P99, percentile(0.99));
+		rootNode.addLong(PropertyKey.P999, percentile(0.999));
+		rootNode.addLong(PropertyKey.MAX, max);
+
+		// Encode non-empty buckets
+		ListNode bucketsNode = rootNode.addList(PropertyKey.BUCKETS);
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			if (bucketCounts[i] > 0)
+				bucketsNode.addList().addLongs(lowerBound(i), upperBound(i), bucketCounts[i]);
+		}
+
+		// Return root node
+		return rootNode;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
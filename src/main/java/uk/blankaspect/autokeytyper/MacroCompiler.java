@@ -0,0 +1,1057 @@
+/*====================================================================*\
+
+MacroCompiler.java
+
+Class: compiler of macros.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import uk.blankaspect.common.exception2.BaseException;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: COMPILER OF MACROS
+
+
+/**
+ * This class implements a compiler that translates the source text of a macro into a {@linkplain KeyEventProgram
+ * program of key events}, which is run by a {@link TypingEngine} in the same way as a program that has been compiled
+ * from plain text.  All names, keys and text are resolved when the macro is compiled, so the program can be run without
+ * any parsing or allocation.
+ * <p>
+ * A macro is a sequence of statements, each of which is terminated by the end of a line or by ';'.  The text from '#'
+ * to the end of a line is a comment.  The statements are:
+ * </p>
+ * <ul>
+ *   <li>{@code type "}<i>text</i>{@code "} &ndash; types some text with the key map.  The escape sequences {@code \"},
+ *     {@code \\}, {@code \t}, {@code \n} and &#92;u<i>hhhh</i> may be used in the text.</li>
+ *   <li>{@code key} <i>chord</i> ... &ndash; presses and releases each chord in turn.  A chord is one or more keys
+ *     separated by '+' (for example, {@code ctrl+alt+t}); its keys are pressed in order and released in reverse
+ *     order.</li>
+ *   <li>{@code press} <i>chord</i> ... and {@code release} <i>chord</i> ... &ndash; press or release keys without
+ *     releasing or pressing them.  Any keys that are still pressed when the macro ends are released.</li>
+ *   <li>{@code wait} <i>value</i> &ndash; waits for a number of milliseconds.</li>
+ *   <li>{@code set} <i>name</i> <i>value</i>, {@code add} <i>name</i> <i>value</i> and {@code subtract} <i>name</i>
+ *     <i>value</i> &ndash; assign a value to an integer variable, or add a value to it or subtract a value from it.  A
+ *     variable must be assigned with {@code set} before it is otherwise used.</li>
+ *   <li>{@code repeat} <i>value</i> {@code {} ... {@code }} &ndash; runs the enclosed statements a number of
+ *     times.</li>
+ * </ul>
+ * <p>
+ * A key is denoted by the name of a JavaFX {@link javafx.scene.input.KeyCode} constant or by the name of the key code
+ * for display, ignoring letter case (for example, {@code CONTROL}, {@code ctrl}, {@code PAGE_UP} or {@code F5}).  A
+ * <i>value</i> is either a non-negative decimal integer or the name of a variable prefixed with '$' (for example,
+ * {@code $delay}).  Keywords are not case-sensitive; the names of variables are.
+ * </p>
+ */
+
+public class MacroCompiler
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The initial capacity of a compiled program. */
+	private static final	int		PROGRAM_CAPACITY	= 256;
+
+	/** The maximum number of unmapped characters that are listed in an error message. */
+	private static final	int		MAX_NUM_REPORTED_CHARS	= 16;
+
+	/** The prefix of a comment. */
+	private static final	char	COMMENT_PREFIX	= '#';
+
+	/** The separator of statements on a line. */
+	private static final	char	STATEMENT_SEPARATOR	= ';';
+
+	/** The start of a block of statements. */
+	private static final	char	BLOCK_START	= '{';
+
+	/** The end of a block of statements. */
+	private static final	char	BLOCK_END	= '}';
+
+	/** The delimiter of a string. */
+	private static final	char	STRING_DELIMITER	= '"';
+
+	/** The prefix of an escape sequence in a string. */
+	private static final	char	ESCAPE_PREFIX	= '\\';
+
+	/** The prefix of a reference to a variable. */
+	private static final	char	VARIABLE_PREFIX	= '$';
+
+	/** The separator of the keys of a chord. */
+	private static final	String	KEY_SEPARATOR	= "+";
+
+	/** The number of hexadecimal digits of a Unicode escape sequence. */
+	private static final	int		NUM_UNICODE_ESCAPE_DIGITS	= 4;
+
+	/** Keywords of statements. */
+	private interface Keyword
+	{
+		String	ADD			= "add";
+		String	KEY			= "key";
+		String	PRESS		= "press";
+		String	RELEASE		= "release";
+		String	REPEAT		= "repeat";
+		String	SET			= "set";
+		String	SUBTRACT	= "subtract";
+		String	TYPE		= "type";
+		String	WAIT		= "wait";
+	}
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	LOCATION =
+				"Line %d, column %d: ";
+
+		String	UNTERMINATED_STRING =
+				"The string is not terminated.";
+
+		String	ILLEGAL_ESCAPE_SEQUENCE =
+				"The string contains an illegal escape sequence.";
+
+		String	INVALID_VARIABLE_NAME =
+				"A variable name was expected after '$'.";
+
+		String	STATEMENT_EXPECTED =
+				"A statement was expected.";
+
+		String	UNRECOGNISED_STATEMENT =
+				"'%s' is not a recognised statement.";
+
+		String	END_OF_STATEMENT_EXPECTED =
+				"The end of the statement was expected.";
+
+		String	STRING_EXPECTED =
+				"A string was expected.";
+
+		String	KEY_EXPECTED =
+				"A key or chord was expected.";
+
+		String	UNRECOGNISED_KEY =
+				"'%s' is not a recognised key.";
+
+		String	VALUE_EXPECTED =
+				"A number or variable was expected.";
+
+		String	NUMBER_OUT_OF_BOUNDS =
+				"The number %s is too large.";
+
+		String	VARIABLE_NAME_EXPECTED =
+				"A variable name was expected.";
+
+		String	UNDEFINED_VARIABLE =
+				"The variable '%s' has not been set.";
+
+		String	BLOCK_START_EXPECTED =
+				"'{' was expected.";
+
+		String	BLOCK_END_EXPECTED =
+				"'}' was expected.";
+
+		String	UNEXPECTED_BLOCK_END =
+				"There is no block for '}' to end.";
+
+		String	CHARACTERS_NOT_IN_KEY_MAP =
+				"The following characters cannot be mapped to key codes:%s";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The compiler that translates the text of {@code type} statements into programs of key events. */
+	private	KeyEventProgram.Compiler	textCompiler;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a compiler of macros.
+	 *
+	 * @param textCompiler
+	 *          the compiler that will translate the text of {@code type} statements into programs of key events.
+	 */
+
+	public MacroCompiler(
+		KeyEventProgram.Compiler	textCompiler)
+	{
+		// Validate argument
+		if (textCompiler == null)
+			throw new IllegalArgumentException("Null text compiler");
+
+		// Initialise instance variables
+		this.textCompiler = textCompiler;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns {@code true} if the specified character may start the name of a variable.
+	 *
+	 * @param  ch
+	 *           the character of interest.
+	 * @return {@code true} if {@code ch} may start the name of a variable.
+	 */
+
+	private static boolean isNameStart(
+		char	ch)
+	{
+		return ((ch >= 'A') && (ch <= 'Z')) || ((ch >= 'a') && (ch <= 'z')) || (ch == '_');
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the specified character may be part of the name of a variable.
+	 *
+	 * @param  ch
+	 *           the character of interest.
+	 * @return {@code true} if {@code ch} may be part of the name of a variable.
+	 */
+
+	private static boolean isNamePart(
+		char	ch)
+	{
+		return isNameStart(ch) || ((ch >= '0') && (ch <= '9'));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the specified string is a decimal integer.
+	 *
+	 * @param  str
+	 *           the string of interest.
+	 * @return {@code true} if {@code str} is a decimal integer.
+	 */
+
+	private static boolean isNumber(
+		String	str)
+	{
+		return !str.isEmpty() && str.chars().allMatch(ch -> (ch >= '0') && (ch <= '9'));
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Compiles the specified source text of a macro into a program of key events and returns the resulting program.
+	 *
+	 * @param  source
+	 *           the source text of the macro.
+	 * @return the program of key events for {@code source}.
+	 * @throws BaseException
+	 *           if {@code source} is malformed or it contains text that cannot be mapped to keys.
+	 */
+
+	public KeyEventProgram compile(
+		String	source)
+		throws BaseException
+	{
+		return new Compilation(source).compile();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: KIND OF TOKEN
+
+
+	/**
+	 * This is an enumeration of the kinds of token of the source text of a macro.
+	 */
+
+	private enum TokenKind
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * A sequence of characters that are not whitespace or other delimiters: a keyword, a number, a key, a chord or
+		 * the name of a variable.
+		 */
+		WORD,
+
+		/**
+		 * A quoted string.
+		 */
+		STRING,
+
+		/**
+		 * A reference to a variable.
+		 */
+		VARIABLE,
+
+		/**
+		 * The start of a block.
+		 */
+		BLOCK_START,
+
+		/**
+		 * The end of a block.
+		 */
+		BLOCK_END,
+
+		/**
+		 * The end of a statement.
+		 */
+		END_OF_STATEMENT,
+
+		/**
+		 * The end of the source text.
+		 */
+		END
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: TOKEN
+
+
+	/**
+	 * This record encapsulates a token of the source text of a macro.
+	 *
+	 * @param kind
+	 *          the kind of the token.
+	 * @param text
+	 *          the text of the token: the characters of a word, the content of a string or the name of a variable.
+	 * @param line
+	 *          the one-based index of the line of the source text at which the token starts.
+	 * @param column
+	 *          the one-based index of the column of the source text at which the token starts.
+	 */
+
+	private record Token(
+		TokenKind	kind,
+		String		text,
+		int			line,
+		int			column)
+	{ }
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: COMPILATION OF A MACRO
+
+
+	/**
+	 * This class implements the compilation of the source text of a single macro.  The source text is tokenised on
+	 * demand, and each statement is compiled as soon as it has been parsed.
+	 */
+
+	private class Compilation
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The source text of the macro. */
+		private	String					source;
+
+		/** The index of the next character of the source text. */
+		private	int						index;
+
+		/** The one-based index of the current line of the source text. */
+		private	int						line;
+
+		/** The index of the first character of the current line of the source text. */
+		private	int						lineStart;
+
+		/** The current token. */
+		private	Token					token;
+
+		/** The program into which the macro is compiled. */
+		private	KeyEventProgram			program;
+
+		/** A map from the names of variables to their indices. */
+		private	Map<String, Integer>	variables;
+
+		/** The number of variables of the program, including the counters of loops. */
+		private	int						numVariables;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of the compilation of the specified source text of a macro.
+		 *
+		 * @param source
+		 *          the source text of the macro.
+		 */
+
+		private Compilation(
+			String	source)
+		{
+			// Initialise instance variables
+			this.source = source;
+			line = 1;
+			program = new KeyEventProgram(PROGRAM_CAPACITY);
+			variables = new HashMap<>();
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Compiles the source text of the macro and returns the resulting program.
+		 *
+		 * @return the program of key events for the source text of the macro.
+		 * @throws BaseException
+		 *           if the source text is malformed or it contains text that cannot be mapped to keys.
+		 */
+
+		private KeyEventProgram compile()
+			throws BaseException
+		{
+			// Compile statements
+			nextToken();
+			compileBlock(false);
+
+			// Set number of variables
+			program.setNumVariables(numVariables);
+
+			// Return program
+			return program;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Creates and returns an exception with the specified message at the location of the specified token.
+		 *
+		 * @param  token
+		 *           the token at whose location the error occurred.
+		 * @param  message
+		 *           the message of the exception.
+		 * @param  replacements
+		 *           the items whose string representations will replace placeholders in {@code message}.
+		 * @return an exception with {@code message} at the location of {@code token}.
+		 */
+
+		private BaseException error(
+			Token		token,
+			String		message,
+			Object...	replacements)
+		{
+			return error(token.line, token.column, message, replacements);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Creates and returns an exception with the specified message at the specified location.
+		 *
+		 * @param  line
+		 *           the one-based index of the line at which the error occurred.
+		 * @param  column
+		 *           the one-based index of the column at which the error occurred.
+		 * @param  message
+		 *           the message of the exception.
+		 * @param  replacements
+		 *           the items whose string representations will replace placeholders in {@code message}.
+		 * @return an exception with {@code message} at the specified location.
+		 */
+
+		private BaseException error(
+			int			line,
+			int			column,
+			String		message,
+			Object...	replacements)
+		{
+			Object[] locationAndReplacements = new Object[replacements.length + 2];
+			locationAndReplacements[0] = line;
+			locationAndReplacements[1] = column;
+			System.arraycopy(replacements, 0, locationAndReplacements, 2, replacements.length);
+			return new BaseException(ErrorMsg.LOCATION + message, locationAndReplacements);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Reads the next token of the source text into {@link #token}.
+		 *
+		 * @throws BaseException
+		 *           if the next token is malformed.
+		 */
+
+		private void nextToken()
+			throws BaseException
+		{
+			// Skip whitespace and comments, except for line breaks
+			int length = source.length();
+			while (index < length)
+			{
+				char ch = source.charAt(index);
+				if (ch == COMMENT_PREFIX)
+				{
+					while ((index < length) && (source.charAt(index) != '\n'))
+						++index;
+				}
+				else if ((ch != '\n') && Character.isWhitespace(ch))
+					++index;
+				else
+					break;
+			}
+
+			// Test for end of source text
+			int column = index - lineStart + 1;
+			if (index >= length)
+			{
+				token = new Token(TokenKind.END, "", line, column);
+				return;
+			}
+
+			// Get token
+			char ch = source.charAt(index);
+			switch (ch)
+			{
+				case '\n':
+					token = new Token(TokenKind.END_OF_STATEMENT, "", line, column);
+					++index;
+					++line;
+					lineStart = index;
+					break;
+
+				case STATEMENT_SEPARATOR:
+					token = new Token(TokenKind.END_OF_STATEMENT, "", line, column);
+					++index;
+					break;
+
+				case BLOCK_START:
+					token = new Token(TokenKind.BLOCK_START, "", line, column);
+					++index;
+					break;
+
+				case BLOCK_END:
+					token = new Token(TokenKind.BLOCK_END, "", line, column);
+					++index;
+					break;
+
+				case STRING_DELIMITER:
+					token = new Token(TokenKind.STRING, readString(column), line, column);
+					break;
+
+				case VARIABLE_PREFIX:
+				{
+					int start = ++index;
+					if ((index < length) && isNameStart(source.charAt(index)))
+					{
+						while ((index < length) && isNamePart(source.charAt(index)))
+							++index;
+					}
+					if (index == start)
+						throw error(line, column, ErrorMsg.INVALID_VARIABLE_NAME);
+					token = new Token(TokenKind.VARIABLE, source.substring(start, index), line, column);
+					break;
+				}
+
+				default:
+				{
+					int start = index;
+					while (index < length)
+					{
+						ch = source.charAt(index);
+						if (Character.isWhitespace(ch) || (ch == COMMENT_PREFIX) || (ch == STATEMENT_SEPARATOR)
+								|| (ch == BLOCK_START) || (ch == BLOCK_END) || (ch == STRING_DELIMITER))
+							break;
+						++index;
+					}
+					token = new Token(TokenKind.WORD, source.substring(start, index), line, column);
+					break;
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Reads a quoted string that starts at the current index of the source text, and returns its content with
+		 * escape sequences replaced by the characters that they denote.
+		 *
+		 * @param  column
+		 *           the column at which the string starts.
+		 * @return the content of the string.
+		 * @throws BaseException
+		 *           if the string is not terminated or it contains an illegal escape sequence.
+		 */
+
+		private String readString(
+			int	column)
+			throws BaseException
+		{
+			StringBuilder buffer = new StringBuilder();
+			int length = source.length();
+			++index;
+			while (true)
+			{
+				// Test for end of line or source text
+				if ((index >= length) || (source.charAt(index) == '\n'))
+					throw error(line, column, ErrorMsg.UNTERMINATED_STRING);
+
+				// Test for end of string
+				char ch = source.charAt(index++);
+				if (ch == STRING_DELIMITER)
+					break;
+
+				// Append character
+				if (ch != ESCAPE_PREFIX)
+				{
+					buffer.append(ch);
+					continue;
+				}
+
+				// Append character of escape sequence
+				int escapeColumn = index - lineStart;
+				if (index >= length)
+					throw error(line, escapeColumn, ErrorMsg.ILLEGAL_ESCAPE_SEQUENCE);
+				ch = source.charAt(index++);
+				switch (ch)
+				{
+					case STRING_DELIMITER:
+					case ESCAPE_PREFIX:
+						buffer.append(ch);
+						break;
+
+					case 't':
+						buffer.append('\t');
+						break;
+
+					case 'n':
+						buffer.append('\n');
+						break;
+
+					case 'u':
+					{
+						int end = index + NUM_UNICODE_ESCAPE_DIGITS;
+						if (end > length)
+							throw error(line, escapeColumn, ErrorMsg.ILLEGAL_ESCAPE_SEQUENCE);
+						try
+						{
+							buffer.append((char)Integer.parseInt(source.substring(index, end), 16));
+						}
+						catch (NumberFormatException e)
+						{
+							throw error(line, escapeColumn, ErrorMsg.ILLEGAL_ESCAPE_SEQUENCE);
+						}
+						index = end;
+						break;
+					}
+
+					default:
+						throw error(line, escapeColumn, ErrorMsg.ILLEGAL_ESCAPE_SEQUENCE);
+				}
+			}
+			return buffer.toString();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Compiles a sequence of statements.
+		 *
+		 * @param  nested
+		 *           if {@code true}, the statements are the body of a loop, which is terminated by '}'; otherwise, the
+		 *           statements are terminated by the end of the source text.
+		 * @throws BaseException
+		 *           if a statement is malformed.
+		 */
+
+		private void compileBlock(
+			boolean	nested)
+			throws BaseException
+		{
+			while (true)
+			{
+				// Skip empty statements
+				while (token.kind == TokenKind.END_OF_STATEMENT)
+					nextToken();
+
+				// Test for end of block
+				switch (token.kind)
+				{
+					case END:
+						if (nested)
+							throw error(token, ErrorMsg.BLOCK_END_EXPECTED);
+						return;
+
+					case BLOCK_END:
+						if (!nested)
+							throw error(token, ErrorMsg.UNEXPECTED_BLOCK_END);
+						nextToken();
+						return;
+
+					default:
+						break;
+				}
+
+				// Compile statement
+				compileStatement();
+
+				// Test for end of statement
+				if ((token.kind != TokenKind.END_OF_STATEMENT) && (token.kind != TokenKind.BLOCK_END)
+						&& (token.kind != TokenKind.END))
+					throw error(token, ErrorMsg.END_OF_STATEMENT_EXPECTED);
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Compiles a statement that starts at the current token.
+		 *
+		 * @throws BaseException
+		 *           if the statement is malformed.
+		 */
+
+		private void compileStatement()
+			throws BaseException
+		{
+			// Get keyword
+			Token keyword = token;
+			if (keyword.kind != TokenKind.WORD)
+				throw error(keyword, ErrorMsg.STATEMENT_EXPECTED);
+			nextToken();
+
+			// Compile statement
+			switch (keyword.text.toLowerCase())
+			{
+				case Keyword.TYPE:
+					compileType();
+					break;
+
+				case Keyword.KEY:
+					for (int[] keyCodes : chords())
+					{
+						for (int keyCode : keyCodes)
+							program.appendInstruction(KeyEventProgram.OP_PRESS, keyCode);
+						for (int i = keyCodes.length - 1; i >= 0; i--)
+							program.appendInstruction(KeyEventProgram.OP_RELEASE, keyCodes[i]);
+						program.appendEndOfChar();
+					}
+					break;
+
+				case Keyword.PRESS:
+					for (int[] keyCodes : chords())
+					{
+						for (int keyCode : keyCodes)
+							program.appendInstruction(KeyEventProgram.OP_PRESS, keyCode);
+					}
+					break;
+
+				case Keyword.RELEASE:
+					for (int[] keyCodes : chords())
+					{
+						for (int i = keyCodes.length - 1; i >= 0; i--)
+							program.appendInstruction(KeyEventProgram.OP_RELEASE, keyCodes[i]);
+					}
+					break;
+
+				case Keyword.WAIT:
+				{
+					int value = value();
+					program.appendInstruction(KeyEventProgram.OP_WAIT, 0);
+					program.appendWord(value);
+					break;
+				}
+
+				case Keyword.SET:
+				{
+					Token nameToken = variableName();
+					int value = value();
+					Integer variable = variables.get(nameToken.text);
+					if (variable == null)
+					{
+						variable = numVariables++;
+						variables.put(nameToken.text, variable);
+					}
+					program.appendInstruction(KeyEventProgram.OP_SET, variable);
+					program.appendWord(value);
+					break;
+				}
+
+				case Keyword.ADD:
+				case Keyword.SUBTRACT:
+				{
+					int variable = variable(variableName());
+					int value = value();
+					program.appendInstruction(keyword.text.equalsIgnoreCase(Keyword.ADD) ? KeyEventProgram.OP_ADD
+																						 : KeyEventProgram.OP_SUBTRACT,
+											  variable);
+					program.appendWord(value);
+					break;
+				}
+
+				case Keyword.REPEAT:
+					compileRepeat();
+					break;
+
+				default:
+					throw error(keyword, ErrorMsg.UNRECOGNISED_STATEMENT, keyword.text);
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Compiles the argument of a {@code type} statement.
+		 *
+		 * @throws BaseException
+		 *           if the argument is not a string or it contains characters that cannot be mapped to keys.
+		 */
+
+		private void compileType()
+			throws BaseException
+		{
+			// Get string
+			Token stringToken = token;
+			if (stringToken.kind != TokenKind.STRING)
+				throw error(stringToken, ErrorMsg.STRING_EXPECTED);
+			nextToken();
+
+			// Compile text of string
+			List<Integer> unmappedChars = new ArrayList<>();
+			KeyEventProgram textProgram = textCompiler.compile(stringToken.text, unmappedChars);
+
+			// If some characters could not be mapped to keys, throw an exception that lists them
+			if (textProgram == null)
+			{
+				StringBuilder buffer = new StringBuilder();
+				int numChars = 0;
+				for (int ch : new LinkedHashSet<>(unmappedChars))
+				{
+					if (numChars++ == MAX_NUM_REPORTED_CHARS)
+					{
+						buffer.append("  ...");
+						break;
+					}
+					buffer.append("  ");
+					if (Character.isISOControl(ch) || (Character.getType(ch) == Character.SURROGATE))
+						buffer.append(String.format("U+%04X", ch));
+					else
+						buffer.appendCodePoint(ch);
+				}
+				throw error(stringToken, ErrorMsg.CHARACTERS_NOT_IN_KEY_MAP, buffer);
+			}
+
+			// Append program for text
+			program.appendChars(textProgram);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Compiles a {@code repeat} statement, whose keyword has been consumed.
+		 *
+		 * @throws BaseException
+		 *           if the statement is malformed.
+		 */
+
+		private void compileRepeat()
+			throws BaseException
+		{
+			// Get number of iterations
+			int count = value();
+
+			// Test for start of block
+			if (token.kind != TokenKind.BLOCK_START)
+				throw error(token, ErrorMsg.BLOCK_START_EXPECTED);
+			nextToken();
+
+			// Append start of loop; the index of the end of the loop is set when the body has been compiled
+			int counter = numVariables++;
+			program.appendInstruction(KeyEventProgram.OP_LOOP, counter);
+			program.appendWord(count);
+			int endIndex = program.length();
+			program.appendWord(0);
+
+			// Compile body of loop
+			int bodyIndex = program.length();
+			compileBlock(true);
+
+			// Append end of loop
+			program.appendInstruction(KeyEventProgram.OP_NEXT, counter);
+			program.appendWord(bodyIndex);
+			program.setWord(endIndex, program.length());
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Parses one or more chords, and returns the key codes of their keys.
+		 *
+		 * @return a list of the key codes of the keys of each chord, in the order in which they appear.
+		 * @throws BaseException
+		 *           if there is no chord or a key is not recognised.
+		 */
+
+		private List<int[]> chords()
+			throws BaseException
+		{
+			List<int[]> chords = new ArrayList<>();
+			while (token.kind == TokenKind.WORD)
+			{
+				String[] names = token.text.split("\\" + KEY_SEPARATOR, -1);
+				int[] keyCodes = new int[names.length];
+				for (int i = 0; i < names.length; i++)
+				{
+					KeyInfo keyInfo = names[i].isEmpty() ? null : KeyInfo.forName(names[i]);
+					if (keyInfo == null)
+					{
+						throw names[i].isEmpty() ? error(token, ErrorMsg.KEY_EXPECTED)
+												 : error(token, ErrorMsg.UNRECOGNISED_KEY, names[i]);
+					}
+					keyCodes[i] = keyInfo.code();
+				}
+				chords.add(keyCodes);
+				nextToken();
+			}
+			if (chords.isEmpty())
+				throw error(token, ErrorMsg.KEY_EXPECTED);
+			return chords;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Parses a value, and returns the corresponding value word.
+		 *
+		 * @return the value word for a constant or a reference to a variable.
+		 * @throws BaseException
+		 *           if the current token is not a value or it refers to a variable that has not been set.
+		 */
+
+		private int value()
+			throws BaseException
+		{
+			Token valueToken = token;
+			int value = 0;
+			switch (valueToken.kind)
+			{
+				case WORD:
+				{
+					if (!isNumber(valueToken.text))
+						throw error(valueToken, ErrorMsg.VALUE_EXPECTED);
+					try
+					{
+						value = Integer.parseInt(valueToken.text);
+					}
+					catch (NumberFormatException e)
+					{
+						throw error(valueToken, ErrorMsg.NUMBER_OUT_OF_BOUNDS, valueToken.text);
+					}
+					break;
+				}
+
+				case VARIABLE:
+					value = KeyEventProgram.variableWord(variable(valueToken));
+					break;
+
+				default:
+					throw error(valueToken, ErrorMsg.VALUE_EXPECTED);
+			}
+			nextToken();
+			return value;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Parses the name of a variable that is the target of an assignment, and returns its token.
+		 *
+		 * @return the token of the name of the variable.
+		 * @throws BaseException
+		 *           if the current token is not the name of a variable.
+		 */
+
+		private Token variableName()
+			throws BaseException
+		{
+			Token nameToken = token;
+			String name = nameToken.text;
+			if ((nameToken.kind != TokenKind.WORD) || !isNameStart(name.charAt(0))
+					|| !name.chars().allMatch(ch -> isNamePart((char)ch)))
+				throw error(nameToken, ErrorMsg.VARIABLE_NAME_EXPECTED);
+			nextToken();
+			return nameToken;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the index of the variable whose name is the text of the specified token.
+		 *
+		 * @param  nameToken
+		 *           the token of the name of the variable.
+		 * @return the index of the variable.
+		 * @throws BaseException
+		 *           if the variable has not been set.
+		 */
+
+		private int variable(
+			Token	nameToken)
+			throws BaseException
+		{
+			Integer variable = variables.get(nameToken.text);
+			if (variable == null)
+				throw error(nameToken, ErrorMsg.UNDEFINED_VARIABLE, nameToken.text);
+			return variable;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,83 @@
+/*====================================================================*\
+
+NullKeyEventSink.java
+
+Class: sink of key events that discards all events.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: SINK OF KEY EVENTS THAT DISCARDS ALL EVENTS
+
+
+/**
+ * This class implements a {@linkplain IKeyEventSink sink of key events} that discards all events.  It may be used to
+ * measure the cost of producing key events independently of the cost of consuming them.
+ */
+
+public class NullKeyEventSink
+	implements IKeyEventSink
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The single instance of this class. */
+	public static final		NullKeyEventSink	INSTANCE	= new NullKeyEventSink();
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a sink of key events that discards all events.
+	 */
+
+	private NullKeyEventSink()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : IKeyEventSink interface
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void keyPress(
+		int	keyCode)
+	{
+		// do nothing
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void keyRelease(
+		int	keyCode)
+	{
+		// do nothing
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
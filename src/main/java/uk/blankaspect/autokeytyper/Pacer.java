@@ -0,0 +1,363 @@
+/*====================================================================*\
+
+Pacer.java
+
+Class: pacer of generated key events.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: PACER OF GENERATED KEY EVENTS
+
+
+/**
+ * This class implements a means of controlling the rate at which a {@link TypingEngine} generates the key events of
+ * successive characters.  The pacer is notified after the key events of each character have been generated, and it
+ * blocks the typing thread for as long as is required by its {@linkplain Mode mode}.
+ */
+
+public class Pacer
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The minimum rate (in characters per second) in the <i>fixed rate</i> mode. */
+	public static final		int		MIN_RATE	= 1;
+
+	/** The maximum rate (in characters per second) in the <i>fixed rate</i> mode. */
+	public static final		int		MAX_RATE	= 1000;
+
+	/** The default rate (in characters per second) in the <i>fixed rate</i> mode. */
+	public static final		int		DEFAULT_RATE	= 50;
+
+	/** The number of nanoseconds in a second. */
+	private static final	long	NANOSECONDS_PER_SECOND	= 1_000_000_000L;
+
+	/** The number of nanoseconds in a millisecond. */
+	private static final	long	NANOSECONDS_PER_MILLISECOND	= 1_000_000L;
+
+	/** The number of characters between successive checks of the backlog of the input queue in the <i>adaptive</i>
+		mode. */
+	private static final	int		ADAPTIVE_CHECK_INTERVAL	= 8;
+
+	/** The time (in nanoseconds) that waiting for the input queue to become idle must exceed for the queue to be
+		regarded as having a backlog in the <i>adaptive</i> mode. */
+	private static final	long	ADAPTIVE_BACKLOG_THRESHOLD	= 2 * NANOSECONDS_PER_MILLISECOND;
+
+	/** The amount (in nanoseconds) by which the delay between characters is reduced after a check in the
+		<i>adaptive</i> mode finds no backlog. */
+	private static final	long	ADAPTIVE_DELAY_DECREMENT	= 100_000L;
+
+	/** The minimum non-zero delay (in nanoseconds) between characters in the <i>adaptive</i> mode. */
+	private static final	long	ADAPTIVE_MIN_DELAY	= 500_000L;
+
+	/** The maximum delay (in nanoseconds) between characters in the <i>adaptive</i> mode. */
+	private static final	long	ADAPTIVE_MAX_DELAY	= 200 * NANOSECONDS_PER_MILLISECOND;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The mode of this pacer. */
+	private	Mode			mode;
+
+	/** The interval (in nanoseconds) between successive characters in the <i>fixed rate</i> mode. */
+	private	long			interval;
+
+	/** The sink of key events whose input queue is checked for a backlog in the <i>adaptive</i> mode. */
+	private	IKeyEventSink	sink;
+
+	/** The time (in nanoseconds) at which the key events of the next character are due in the <i>fixed rate</i>
+		mode. */
+	private	long			nextCharTime;
+
+	/** The time (in nanoseconds) at which the key events of the next character are due. */
+	private	long			dueTime;
+
+	/** The current delay (in nanoseconds) between characters in the <i>adaptive</i> mode. */
+	private	long			delay;
+
+	/** The number of characters since the last check of the input queue in the <i>adaptive</i> mode. */
+	private	int				numCharsSinceCheck;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a pacer of generated key events.
+	 *
+	 * @param mode
+	 *          the mode of the pacer.
+	 * @param rate
+	 *          the rate (in characters per second) in the <i>fixed rate</i> mode.
+	 * @param sink
+	 *          the sink of key events whose input queue will be checked for a backlog in the <i>adaptive</i> mode.
+	 */
+
+	public Pacer(
+		Mode			mode,
+		int				rate,
+		IKeyEventSink	sink)
+	{
+		// Validate arguments
+		if (mode == null)
+			throw new IllegalArgumentException("Null mode");
+		if ((rate < MIN_RATE) || (rate > MAX_RATE))
+			throw new IllegalArgumentException("Rate out of bounds: " + rate);
+
+		// Initialise instance variables
+		this.mode = mode;
+		this.sink = sink;
+		interval = NANOSECONDS_PER_SECOND / rate;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Causes the current thread to sleep for the specified time.
+	 *
+	 * @param  time
+	 *           the time (in nanoseconds) for which the current thread will sleep.
+	 * @throws InterruptedException
+	 *           if the current thread was interrupted while it was sleeping.
+	 */
+
+	private static void sleep(
+		long	time)
+		throws InterruptedException
+	{
+		if (time > 0)
+			Thread.sleep(time / NANOSECONDS_PER_MILLISECOND, (int)(time % NANOSECONDS_PER_MILLISECOND));
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the mode of this pacer.
+	 *
+	 * @return the mode of this pacer.
+	 */
+
+	public Mode mode()
+	{
+		return mode;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of {@link System#nanoTime()} at which the key events of the next character are due, as
+	 * determined by the most recent call to {@link #start(long)} or {@link #charTyped(long)}.
+	 *
+	 * @return the time at which the key events of the next character are due.
+	 */
+
+	public long dueTime()
+	{
+		return dueTime;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this pacer that the generation of key events is about to start.
+	 *
+	 * @param time
+	 *          the current value of {@link System#nanoTime()}.
+	 */
+
+	public void start(
+		long	time)
+	{
+		nextCharTime = time;
+		dueTime = time;
+		delay = 0;
+		numCharsSinceCheck = 0;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this pacer that the key events of a character have been generated, and blocks the current thread until
+	 * the key events of the next character may be generated.
+	 *
+	 * @param  time
+	 *           the value of {@link System#nanoTime()} when the key events of the character had been generated.
+	 * @throws InterruptedException
+	 *           if the current thread was interrupted while it was blocked.
+	 */
+
+	public void charTyped(
+		long	time)
+		throws InterruptedException
+	{
+		switch (mode)
+		{
+			case MAXIMUM:
+				dueTime = time;
+				break;
+
+			case FIXED_RATE:
+			{
+				// Advance the due time of the next character; if typing has fallen behind by more than one interval,
+				// don't try to catch up
+				nextCharTime += interval;
+				if (nextCharTime < time - interval)
+					nextCharTime = time;
+
+				// Wait until the next character is due
+				dueTime = nextCharTime;
+				sleep(nextCharTime - time);
+				break;
+			}
+
+			case ADAPTIVE:
+			{
+				// Periodically wait for the input queue to become idle, and adjust the delay according to the length
+				// of the wait
+				long waitEndTime = time;
+				if (++numCharsSinceCheck >= ADAPTIVE_CHECK_INTERVAL)
+				{
+					numCharsSinceCheck = 0;
+					long startTime = System.nanoTime();
+					sink.waitForIdle();
+					waitEndTime = System.nanoTime();
+					if (waitEndTime - startTime > ADAPTIVE_BACKLOG_THRESHOLD)
+						delay = Math.min(Math.max(2 * delay, ADAPTIVE_MIN_DELAY), ADAPTIVE_MAX_DELAY);
+					else
+						delay = (delay > ADAPTIVE_MIN_DELAY) ? delay - ADAPTIVE_DELAY_DECREMENT : 0;
+				}
+
+				// Wait for the current delay
+				dueTime = waitEndTime + delay;
+				sleep(delay);
+				break;
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: MODE OF PACER
+
+
+	/**
+	 * This is an enumeration of the modes of a {@link Pacer}.
+	 */
+
+	public enum Mode
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Key events are generated as fast as the input queue will accept them.
+		 */
+
+		MAXIMUM
+		(
+			"Maximum"
+		),
+
+		/**
+		 * The key events of successive characters are generated at a fixed rate.
+		 */
+
+		FIXED_RATE
+		(
+			"Fixed rate"
+		),
+
+		/**
+		 * The delay between the key events of successive characters is adjusted according to the backlog of the input
+		 * queue.
+		 */
+
+		ADAPTIVE
+		(
+			"Adaptive"
+		);
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	String	key;
+		private	String	text;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Mode(
+			String	text)
+		{
+			// Initialise instance variables
+			key = name().toLowerCase();
+			this.text = text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public String toString()
+		{
+			return text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the key of this mode.
+		 *
+		 * @return the key of this mode.
+		 */
+
+		public String key()
+		{
+			return key;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
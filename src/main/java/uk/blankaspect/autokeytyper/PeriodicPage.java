@@ -18,8 +18,6 @@ package uk.blankaspect.autokeytyper;
 // IMPORTS
 
 
-import java.awt.Robot;
-
 import java.lang.invoke.MethodHandles;
 
 import java.time.LocalTime;
@@ -29,12 +27,10 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-
 import javafx.application.Platform;
 
+import javafx.beans.InvalidationListener;
+
 import javafx.css.PseudoClass;
 
 import javafx.geometry.HPos;
@@ -45,7 +41,9 @@ import javafx.scene.Group;
 import javafx.scene.Scene;
 
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.Spinner;
 import javafx.scene.control.TextField;
 
@@ -59,13 +57,13 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
 
 import javafx.scene.paint.Color;
 
 import javafx.stage.Stage;
 
-import javafx.util.Duration;
-
+import uk.blankaspect.common.basictree.ListNode;
 import uk.blankaspect.common.basictree.MapNode;
 
 import uk.blankaspect.common.css.CssRuleSet;
@@ -86,6 +84,8 @@ import uk.blankaspect.ui.jfx.dropdownlist.SimpleDropDownList;
 
 import uk.blankaspect.ui.jfx.font.FontUtils;
 
+import uk.blankaspect.ui.jfx.listview.ListViewStyle;
+
 import uk.blankaspect.ui.jfx.icon.Icons;
 
 import uk.blankaspect.ui.jfx.popup.ActionLabelPopUp;
@@ -128,12 +128,27 @@ public class PeriodicPage
 	/** The default interval unit. */
 	private static final	TimeUnit	DEFAULT_INTERVAL_UNIT	= TimeUnit.SECONDS;
 
+	/** The minimum jitter (in milliseconds). */
+	private static final	int		MIN_JITTER	= 0;
+
+	/** The maximum jitter (in milliseconds). */
+	private static final	int		MAX_JITTER	= 9999;
+
 	/** The preferred number of columns of the key field. */
 	private static final	int		KEY_FIELD_NUM_COLUMNS	= 15;
 
 	/** The maximum number of digits of the interval-value spinner. */
 	private static final	int		INTERVAL_VALUE_SPINNER_NUM_DIGITS	= 3;
 
+	/** The maximum number of digits of the jitter spinner. */
+	private static final	int		JITTER_SPINNER_NUM_DIGITS	= 4;
+
+	/** The preferred height of the list view of jobs. */
+	private static final	double	JOB_LIST_VIEW_HEIGHT	= 120.0;
+
+	/** The separator between the names of the keys of a chord. */
+	private static final	String	CHORD_SEPARATOR	= "+";
+
 	/** The horizontal gap between adjacent components in a container. */
 	private static final	double	CONTROL_H_GAP	= 6.0;
 
@@ -159,20 +174,26 @@ public class PeriodicPage
 	/** The formatter for the time of the last generated key press. */
 	private static final	DateTimeFormatter	TIME_FORMATTER	= DateTimeFormatter.ofPattern("HH:mm:ss");
 
-	/** A list of information about keys. */
-	private static final	List<KeyInfo>	KEY_INFOS;
-
 	/** Miscellaneous strings. */
-	private static final	String	KEY_STR			= "Key";
-	private static final	String	EDIT_KEY_STR	= "Edit key";
-	private static final	String	CLEAR_KEY_STR	= "Clear key";
-	private static final	String	INTERVAL_STR	= "Interval";
-	private static final	String	START_STR		= "Start";
-	private static final	String	STOP_STR		= "Stop";
-	private static final	String	ERROR_STR		= "Error";
-	private static final	String	MOVE_PANE_STR	= "Move pane to the ";
-	private static final	String	LEFT_STR		= "left";
-	private static final	String	RIGHT_STR		= "right";
+	private static final	String	JOBS_STR			= "Jobs";
+	private static final	String	ADD_STR				= "Add";
+	private static final	String	REMOVE_STR			= "Remove";
+	private static final	String	KEY_STR				= "Key";
+	private static final	String	NO_KEY_STR			= "(no key)";
+	private static final	String	EDIT_KEY_STR		= "Edit key";
+	private static final	String	CLEAR_KEY_STR		= "Clear key";
+	private static final	String	INTERVAL_STR		= "Interval";
+	private static final	String	JITTER_STR			= "Jitter";
+	private static final	String	MS_STR				= "ms";
+	private static final	String	TIMING_STR			= "Timing";
+	private static final	String	MISSED_STR			= "Missed presses";
+	private static final	String	RUN_INACTIVE_STR	= "Keep running when window is inactive";
+	private static final	String	START_STR			= "Start";
+	private static final	String	STOP_STR			= "Stop";
+	private static final	String	ERROR_STR			= "Error";
+	private static final	String	MOVE_PANE_STR		= "Move pane to the ";
+	private static final	String	LEFT_STR			= "left";
+	private static final	String	RIGHT_STR			= "right";
 
 	/** The pseudo-class that is associated with the <i>highlighted</i> state. */
 	private static final	PseudoClass	PSEUDO_CLASS_HIGHLIGHTED	=
@@ -302,51 +323,85 @@ public class PeriodicPage
 		String	PROBLEM_WITH_KEY_EVENT_GENERATOR	= "There was a problem with the key-event generator.";
 	}
 
+	/** Keys of properties of the statistics of the timing of jobs. */
+	private interface PropertyKey
+	{
+		String	ALL		= "all";
+		String	JOBS	= "jobs";
+		String	KEYS	= "keys";
+		String	TIMING	= "timing";
+	}
+
 ////////////////////////////////////////////////////////////////////////
 //  Instance variables
 ////////////////////////////////////////////////////////////////////////
 
 	/** The saved state of this page. */
-	private	State							state;
-
-	/** Information about the current key. */
-	private	KeyInfo							keyInfo;
+	private	State													state;
 
 	/** The time of the last generated key press. */
-	private	LocalTime						keyPressTime;
+	private	LocalTime												keyPressTime;
+
+	/** The scheduler that generates periodic key presses. */
+	private	PeriodicScheduler										scheduler;
+
+	/** The tasks of {@link #scheduler} that generate the key presses of the current jobs. */
+	private	List<PeriodicScheduler.Task>							tasks;
+
+	/** The most recent snapshots of the accuracy of the timing of the tasks of the current or last jobs, in the same
+		order as the jobs.  An element is {@code null} if its task has not generated a key press. */
+	private	List<TimingRecorder.Snapshot>							timingSnapshots;
 
-	/** The interval timer. */
-	private	Timeline						timer;
+	/** The keys of the current or last jobs, in the same order as {@link #timingSnapshots}. */
+	private	List<String>											timingJobKeys;
+
+	/** The list view of periodic jobs. */
+	private	ListView<Job>											jobListView;
 
 	/** The <i>edit key</i> button. */
-	private	ImageDataButton					editKeyButton;
+	private	ImageDataButton											editKeyButton;
+
+	/** The text field in which the key or chord of the selected job is selected. */
+	private	TextField												keyField;
+
+	/** The spinner for the numerical part of the interval between the generated key presses of the selected job. */
+	private	Spinner<Integer>										intervalValueSpinner;
 
-	/** The text field in which a key is selected. */
-	private	TextField						keyField;
+	/** The drop-down list for the unit of the interval between the generated key presses of the selected job. */
+	private	SimpleDropDownList<TimeUnit>							intervalUnitList;
 
-	/** The spinner for the numerical part of the interval between generated key presses. */
-	private	Spinner<Integer>				intervalValueSpinner;
+	/** The spinner for the jitter of the selected job. */
+	private	Spinner<Integer>										jitterSpinner;
 
-	/** The drop-down list for the unit (seconds or minutes) of the interval between generated key presses. */
-	private	SimpleDropDownList<TimeUnit>	intervalUnitList;
+	/** The drop-down list for the mode of the scheduler tasks. */
+	private	SimpleDropDownList<PeriodicScheduler.Mode>				timingModeList;
+
+	/** The drop-down list for the policy for missed key presses. */
+	private	SimpleDropDownList<PeriodicScheduler.MissedTickPolicy>	missedTickPolicyList;
+
+	/** The check box that determines whether key presses are generated while the window is inactive. */
+	private	CheckBox												runInactiveCheckBox;
 
 	/** The label for the time of the last generated key press, {@link #keyPressTime}. */
-	private	Label							timeLabel;
+	private	Label													timeLabel;
 
 	/** The pane that contains {@link #timeLabel}. */
-	private	StackPane						timePane;
+	private	StackPane												timePane;
+
+	/** The pane that displays the accuracy of the timing of the current or last jobs. */
+	private	TimingPane												timingPane;
 
 	/** The <i>start</i> button. */
-	private	Button							startButton;
+	private	Button													startButton;
 
 	/** The <i>stop</i> button. */
-	private	Button							stopButton;
+	private	Button													stopButton;
 
 	/** The outer pane of this page. */
-	private	HBox							pane;
+	private	HBox													pane;
 
 	/** The scene that contains this page. */
-	private	Scene							scene;
+	private	Scene													scene;
 
 ////////////////////////////////////////////////////////////////////////
 //  Static initialiser
@@ -356,16 +411,7 @@ public class PeriodicPage
 	{
 		// Register the style properties of this class and its dependencies with the style manager
 		StyleManager.INSTANCE.register(PeriodicPage.class, COLOUR_PROPERTIES, RULE_SETS,
-									   PaneStyle.class);
-
-		// Create list of key information
-		KEY_INFOS = new ArrayList<>();
-		for (KeyCode keyCode : KeyCode.values())
-		{
-			int code = keyCode.getCode();
-			if (code > 0)
-				KEY_INFOS.add(new KeyInfo(keyCode.name(), keyCode.getName(), code));
-		}
+									   ListViewStyle.class, PaneStyle.class);
 	}
 
 ////////////////////////////////////////////////////////////////////////
@@ -376,6 +422,9 @@ public class PeriodicPage
 	{
 		// Initialise instance variables
 		state = new State();
+		tasks = new ArrayList<>();
+		timingSnapshots = new ArrayList<>();
+		timingJobKeys = new ArrayList<>();
 	}
 
 	//------------------------------------------------------------------
@@ -384,18 +433,37 @@ public class PeriodicPage
 //  Class methods
 ////////////////////////////////////////////////////////////////////////
 
-	private static KeyInfo keyInfoForId(
-		String	id)
-	{
-		return KEY_INFOS.stream().filter(keyInfo -> keyInfo.id.equals(id)).findFirst().orElse(null);
-	}
-
-	//------------------------------------------------------------------
+	/**
+	 * Returns the keys of the chord that is denoted by the specified <i>key pressed</i> event: the modifier keys that
+	 * are down, followed by the key that was pressed.  A modifier key that is pressed on its own is a chord of one key.
+	 *
+	 * @param  event
+	 *           the <i>key pressed</i> event.
+	 * @return the keys of the chord that is denoted by {@code event}, or an empty list if the key that was pressed is
+	 *         not recognised.
+	 */
 
-	private static KeyInfo keyInfoForCode(
-		int	code)
+	private static List<KeyInfo> chord(
+		KeyEvent	event)
 	{
-		return KEY_INFOS.stream().filter(keyInfo -> keyInfo.code == code).findFirst().orElse(null);
+		// Get key that was pressed
+		KeyCode keyCode = event.getCode();
+		KeyInfo keyInfo = KeyInfo.forCode(keyCode.getCode());
+		if (keyInfo == null)
+			return List.of();
+
+		// Add modifier keys, excluding the key that was pressed, followed by the key that was pressed
+		List<KeyInfo> keys = new ArrayList<>();
+		if (event.isControlDown() && (keyCode != KeyCode.CONTROL))
+			keys.add(KeyInfo.forCode(KeyCode.CONTROL.getCode()));
+		if (event.isShiftDown() && (keyCode != KeyCode.SHIFT))
+			keys.add(KeyInfo.forCode(KeyCode.SHIFT.getCode()));
+		if (event.isAltDown() && (keyCode != KeyCode.ALT))
+			keys.add(KeyInfo.forCode(KeyCode.ALT.getCode()));
+		if (event.isMetaDown() && (keyCode != KeyCode.META))
+			keys.add(KeyInfo.forCode(KeyCode.META.getCode()));
+		keys.add(keyInfo);
+		return keys;
 	}
 
 	//------------------------------------------------------------------
@@ -442,9 +510,10 @@ public class PeriodicPage
 	public MapNode encodeState()
 	{
 		// Update state
-		state.keyInfo = keyInfo;
-		state.intervalValue = intervalValueSpinner.getValue();
-		state.intervalUnit = intervalUnitList.item();
+		state.jobs = new ArrayList<>(jobListView.getItems());
+		state.timingMode = timingModeList.item();
+		state.missedTickPolicy = missedTickPolicyList.item();
+		state.runInactive = runInactiveCheckBox.isSelected();
 
 		// Encode state and return result
 		return state.encode();
@@ -480,50 +549,55 @@ public class PeriodicPage
 			// Handle 'key pressed' events
 			scene.addEventFilter(KeyEvent.KEY_PRESSED, event ->
 			{
-				if (keyField.isEditable() && keyField.isFocused())
+				Job job = jobListView.getSelectionModel().getSelectedItem();
+				if (keyField.isEditable() && keyField.isFocused() && (job != null))
 				{
-					// Get key code
-					int code = event.getCode().getCode();
+					// Set keys of selected job
+					job.keys = chord(event);
 
-					// Display name of key in field
-					keyInfo = keyInfoForCode(code);
-					keyField.setText((keyInfo == null) ? "" : keyInfo.name);
+					// Display names of keys in field
+					keyField.setText(job.keysText());
 					keyField.end();
 
+					// Update list of jobs
+					jobListView.refresh();
+
 					// Consume event
 					event.consume();
 				}
 			});
 
-			// Start/pause timer when window gains/loses focus or when 'iconified' state of window changes
+			// Resume/pause tasks when window gains/loses focus or when 'iconified' state of window changes, unless
+			// tasks run while window is inactive
 			if (scene.getWindow() instanceof Stage window)
 			{
-				// Create procedure to start or pause timer
-				IProcedure0 updateTimer = () ->
+				// Create procedure to resume or pause tasks
+				IProcedure0 updateTasks = () ->
 				{
-					// Start or pause timer
-					if (timer != null)
+					// Resume or pause tasks
+					boolean active = runInactiveCheckBox.isSelected() || (!window.isIconified() && window.isFocused());
+					for (PeriodicScheduler.Task task : tasks)
 					{
-						if (!window.isIconified() && window.isFocused())
-							timer.play();
+						if (active)
+							task.resume();
 						else
-							timer.pause();
+							task.pause();
 					}
 
 					// Update time
 					updateTime();
 				};
 
-				// Start/pause timer when window gains/loses focus
-				window.focusedProperty().addListener(observable -> updateTimer.invoke());
+				// Resume/pause tasks when window gains/loses focus
+				window.focusedProperty().addListener(observable -> updateTasks.invoke());
 
-				// Start/pause timer when 'iconified' state of window changes
-				window.iconifiedProperty().addListener(observable -> updateTimer.invoke());
+				// Resume/pause tasks when 'iconified' state of window changes
+				window.iconifiedProperty().addListener(observable -> updateTasks.invoke());
 			}
 		}
 
-		// Request focus on interval-value spinner
-		intervalValueSpinner.requestFocus();
+		// Request focus on list of jobs
+		jobListView.requestFocus();
 	}
 
 	//------------------------------------------------------------------
@@ -533,9 +607,12 @@ public class PeriodicPage
 ////////////////////////////////////////////////////////////////////////
 
 	public void init(
-		Robot					robot,
+		IKeyEventSink			keyEventSink,
 		IProcedure1<Boolean>	enableExternalControls)
 	{
+		// Create scheduler of periodic key presses
+		scheduler = new PeriodicScheduler(keyEventSink, Platform::runLater);
+
 		// Create control pane
 		GridPane controlPane = new GridPane();
 		controlPane.setHgap(CONTROL_H_GAP);
@@ -559,13 +636,50 @@ public class PeriodicPage
 		// Initialise row index
 		int row = 0;
 
+		// List view: jobs
+		jobListView = new ListView<>();
+		jobListView.getItems().setAll(state.jobs);
+		jobListView.setPrefHeight(JOB_LIST_VIEW_HEIGHT);
+		jobListView.getStyleClass().add(ListViewStyle.StyleClass.LIST_VIEW);
+
+		// Button: add job
+		Button addJobButton = Buttons.hExpansive(ADD_STR);
+		addJobButton.setOnAction(event ->
+		{
+			// Create job with interval of selected job
+			Job job = new Job();
+			Job selectedJob = jobListView.getSelectionModel().getSelectedItem();
+			if (selectedJob != null)
+			{
+				job.intervalValue = selectedJob.intervalValue;
+				job.intervalUnit = selectedJob.intervalUnit;
+				job.jitter = selectedJob.jitter;
+			}
+
+			// Add job to list and select it
+			jobListView.getItems().add(job);
+			jobListView.getSelectionModel().select(job);
+			jobListView.scrollTo(job);
+		});
+
+		// Button: remove job
+		Button removeJobButton = Buttons.hExpansive(REMOVE_STR);
+		removeJobButton.setOnAction(event ->
+		{
+			int index = jobListView.getSelectionModel().getSelectedIndex();
+			if (index >= 0)
+				jobListView.getItems().remove(index);
+		});
+
+		// Pane: job buttons
+		VBox jobButtonPane = new VBox(CONTROL_V_GAP, addJobButton, removeJobButton);
+
+		// Pane: jobs
+		HBox jobPane = new HBox(CONTROL_H_GAP, jobListView, jobButtonPane);
+		controlPane.addRow(row++, new Label(JOBS_STR), jobPane);
+
 		// Text field: key
 		keyField = new TextField();
-		if (state.keyInfo != null)
-		{
-			keyInfo = state.keyInfo;
-			keyField.setText(keyInfo.name);
-		}
 		keyField.setPrefColumnCount(KEY_FIELD_NUM_COLUMNS);
 		keyField.addEventHandler(KeyEvent.KEY_TYPED, event -> event.consume());
 		keyField.addEventHandler(MouseEvent.MOUSE_PRESSED, event ->
@@ -592,7 +706,12 @@ public class PeriodicPage
 		{
 			if (keyField.isEditable())
 				keyField.requestFocus();
-			keyInfo = null;
+			Job job = jobListView.getSelectionModel().getSelectedItem();
+			if (job != null)
+			{
+				job.keys = List.of();
+				jobListView.refresh();
+			}
 			keyField.clear();
 		});
 
@@ -608,17 +727,107 @@ public class PeriodicPage
 
 		// Spinner: interval value
 		intervalValueSpinner = SpinnerFactory.integerSpinner(MIN_INTERVAL_VALUE, MAX_INTERVAL_VALUE,
-															 state.intervalValue, INTERVAL_VALUE_SPINNER_NUM_DIGITS);
+															 DEFAULT_INTERVAL_VALUE, INTERVAL_VALUE_SPINNER_NUM_DIGITS);
 
 		// Drop-down list: interval unit
 		intervalUnitList = new SimpleDropDownList<>(TimeUnit.values());
-		intervalUnitList.item(state.intervalUnit);
+		intervalUnitList.item(DEFAULT_INTERVAL_UNIT);
 
 		// Pane: interval
 		HBox intervalPane = new HBox(CONTROL_H_GAP, intervalValueSpinner, intervalUnitList);
 		intervalPane.setAlignment(Pos.CENTER_LEFT);
 		controlPane.addRow(row++, new Label(INTERVAL_STR), intervalPane);
 
+		// Spinner: jitter
+		jitterSpinner = SpinnerFactory.integerSpinner(MIN_JITTER, MAX_JITTER, MIN_JITTER, JITTER_SPINNER_NUM_DIGITS);
+
+		// Pane: jitter
+		HBox jitterPane = new HBox(CONTROL_H_GAP, jitterSpinner, new Label(MS_STR));
+		jitterPane.setAlignment(Pos.CENTER_LEFT);
+		controlPane.addRow(row++, new Label(JITTER_STR), jitterPane);
+
+		// Create procedure to update editors of job from selected job
+		IProcedure0 updateJobEditors = () ->
+		{
+			Job job = jobListView.getSelectionModel().getSelectedItem();
+			if (job == null)
+				keyField.clear();
+			else
+			{
+				keyField.setText(job.keysText());
+				intervalValueSpinner.getValueFactory().setValue(job.intervalValue);
+				intervalUnitList.item(job.intervalUnit);
+				jitterSpinner.getValueFactory().setValue(job.jitter);
+			}
+			boolean noJob = (job == null);
+			keyPane.setDisable(noJob);
+			intervalPane.setDisable(noJob);
+			jitterPane.setDisable(noJob);
+			removeJobButton.setDisable(noJob);
+		};
+
+		// Update editors of job when selection changes
+		jobListView.getSelectionModel().selectedItemProperty().addListener(observable -> updateJobEditors.invoke());
+
+		// Update selected job when interval or jitter changes
+		intervalValueSpinner.valueProperty().addListener((observable, oldValue, value) ->
+		{
+			Job job = jobListView.getSelectionModel().getSelectedItem();
+			if (job != null)
+			{
+				job.intervalValue = value;
+				jobListView.refresh();
+			}
+		});
+		intervalUnitList.itemProperty().addListener((observable, oldUnit, unit) ->
+		{
+			Job job = jobListView.getSelectionModel().getSelectedItem();
+			if ((job != null) && (unit != null))
+			{
+				job.intervalUnit = unit;
+				jobListView.refresh();
+			}
+		});
+		jitterSpinner.valueProperty().addListener((observable, oldValue, value) ->
+		{
+			Job job = jobListView.getSelectionModel().getSelectedItem();
+			if (job != null)
+			{
+				job.jitter = value;
+				jobListView.refresh();
+			}
+		});
+
+		// Drop-down list: timing mode
+		timingModeList = new SimpleDropDownList<>(PeriodicScheduler.Mode.values());
+		timingModeList.item(state.timingMode);
+		controlPane.addRow(row++, new Label(TIMING_STR), timingModeList);
+
+		// Drop-down list: missed-tick policy
+		missedTickPolicyList = new SimpleDropDownList<>(PeriodicScheduler.MissedTickPolicy.values());
+		missedTickPolicyList.item(state.missedTickPolicy);
+		controlPane.addRow(row++, new Label(MISSED_STR), missedTickPolicyList);
+
+		// Enable missed-tick policy only in 'fixed rate' mode
+		IProcedure0 updateMissedTickPolicy = () ->
+				missedTickPolicyList.setDisable(timingModeList.item() != PeriodicScheduler.Mode.FIXED_RATE);
+		timingModeList.itemProperty().addListener(observable -> updateMissedTickPolicy.invoke());
+		updateMissedTickPolicy.invoke();
+
+		// Check box: run while window is inactive
+		runInactiveCheckBox = new CheckBox(RUN_INACTIVE_STR);
+		runInactiveCheckBox.setSelected(state.runInactive);
+		controlPane.add(runInactiveCheckBox, 1, row++);
+
+		// Pane: timing
+		timingPane = new TimingPane(this::encodeTiming);
+		timingPane.setPadding(CONTROL_PANE_PADDING);
+		timingPane.setBorder(SceneUtils.createSolidBorder(getColour(PaneStyle.ColourKey.PANE_BORDER)));
+
+		// Pane: controls and timing
+		VBox controlAndTimingPane = new VBox(4.0, controlPane, timingPane);
+		HBox.setHgrow(controlAndTimingPane, Priority.ALWAYS);
+
 		// Label: time
 		timeLabel = new Label();
 		timeLabel.setFont(FontUtils.boldFont(TIME_LABEL_FONT_SIZE_FACTOR));
@@ -633,8 +842,8 @@ public class PeriodicPage
 		{
 			pane.getChildren().setAll(switch (state.timePanePos)
 			{
-				case LEFT  -> List.of(timePane, controlPane);
-				case RIGHT -> List.of(controlPane, timePane);
+				case LEFT  -> List.of(timePane, controlAndTimingPane);
+				case RIGHT -> List.of(controlAndTimingPane, timePane);
 			});
 		};
 
@@ -646,7 +855,7 @@ public class PeriodicPage
 		timePane.getStyleClass().add(StyleClass.TIME_PANE);
 		timePane.setOnContextMenuRequested(event ->
 		{
-			if (timer == null)
+			if (tasks.isEmpty())
 			{
 				// Create pop-up for 'move pane' action
 				String text = MOVE_PANE_STR + ((state.timePanePos == TimePanePos.LEFT) ? RIGHT_STR : LEFT_STR);
@@ -684,10 +893,11 @@ public class PeriodicPage
 		{
 			updateTime();
 
-			boolean timerActive = (timer != null);
-			controlPane.setDisable(timerActive);
-			startButton.setDisable(timerActive || (keyInfo == null));
-			stopButton.setDisable(!timerActive);
+			boolean tasksActive = !tasks.isEmpty();
+			boolean noKeys = jobListView.getItems().stream().allMatch(job -> job.keys.isEmpty());
+			controlPane.setDisable(tasksActive);
+			startButton.setDisable(tasksActive || noKeys);
+			stopButton.setDisable(!tasksActive);
 		};
 
 		// Button: start
@@ -695,56 +905,71 @@ public class PeriodicPage
 		startButton.setPadding(BUTTON_PADDING);
 		startButton.setOnAction(event ->
 		{
-			if (keyInfo != null)
+			// Get jobs that have keys
+			List<Job> jobs = jobListView.getItems().stream().filter(job -> !job.keys.isEmpty()).toList();
+
+			// Schedule a task for each job
+			if (!jobs.isEmpty())
 			{
 				// Reset time of last key press
 				keyPressTime = null;
 
-				// Create timer to generate key presses periodically
-				int interval = intervalValueSpinner.getValue();
-				if (intervalUnitList.item() == TimeUnit.MINUTES)
-					interval *= 60;
-				timer = new Timeline(new KeyFrame(Duration.seconds((double)interval), event0 ->
+				// Reset statistics of timing
+				timingSnapshots.clear();
+				timingJobKeys.clear();
+				for (Job job : jobs)
 				{
-					// Generate key press and release
-					try
-					{
-						robot.keyPress(keyInfo.code);
-						robot.keyRelease(keyInfo.code);
-					}
-					catch (Exception e)
-					{
-						// Stop timer
-						timer.stop();
+					timingSnapshots.add(null);
+					timingJobKeys.add(job.keysText());
+				}
+				timingPane.update(null);
 
-						// Report error
-						Platform.runLater(() ->
-						{
-							// Display error dialog
-							ErrorDialog.show(SceneUtils.getWindow(startButton), ERROR_STR,
-											 ErrorMsg.PROBLEM_WITH_KEY_EVENT_GENERATOR, e);
+				// Request focus on 'stop' button
+				stopButton.requestFocus();
 
-							// Fire 'stop' button
-							stopButton.fire();
-						});
+				// Create listener for tasks
+				PeriodicScheduler.IListener listener = new PeriodicScheduler.IListener()
+				{
+					@Override
+					public void fired(
+						PeriodicScheduler.Task	task,
+						TimingRecorder.Snapshot	timing)
+					{
+						// Update time of last key press
+						keyPressTime = LocalTime.now();
 
-						// Return from event handler
-						return;
-					}
+						// Update time
+						updateTime();
 
-					// Update time of last key press
-					keyPressTime = LocalTime.now();
+						// Update statistics of timing
+						int index = tasks.indexOf(task);
+						if (index >= 0)
+						{
+							timingSnapshots.set(index, timing);
+							timingPane.update(mergedTimingSnapshot());
+						}
+					}
 
-					// Update time
-					updateTime();
-				}));
-				timer.setCycleCount(Animation.INDEFINITE);
+					@Override
+					public void failed(
+						Exception	exception)
+					{
+						// Display error dialog
+						ErrorDialog.show(SceneUtils.getWindow(startButton), ERROR_STR,
+										 ErrorMsg.PROBLEM_WITH_KEY_EVENT_GENERATOR, exception);
 
-				// Request focus on 'stop' button
-				stopButton.requestFocus();
+						// Fire 'stop' button
+						stopButton.fire();
+					}
+				};
 
-				// Start timer
-				timer.play();
+				// Schedule tasks to generate key presses periodically
+				for (Job job : jobs)
+				{
+					tasks.add(scheduler.schedule(job.keyCodes(), job.intervalValue * job.intervalUnit.milliseconds,
+												 job.jitter, timingModeList.item(), missedTickPolicyList.item(),
+												 listener));
+				}
 
 				// Update UI components
 				updateComponents.invoke();
@@ -759,15 +984,10 @@ public class PeriodicPage
 		stopButton.setPadding(BUTTON_PADDING);
 		stopButton.setOnAction(event ->
 		{
-			// Stop timer and invalidate it
-			if (timer != null)
-			{
-				// Stop timer
-				timer.stop();
-
-				// Invalidate timer
-				timer = null;
-			}
+			// Cancel tasks and invalidate them
+			for (PeriodicScheduler.Task task : tasks)
+				task.cancel();
+			tasks.clear();
 
 			// Update UI components
 			updateComponents.invoke();
@@ -776,33 +996,86 @@ public class PeriodicPage
 			enableExternalControls.invoke(true);
 		});
 
-		// Update UI components when content of key field changes
+		// Update UI components when content of key field or list of jobs changes
 		keyField.textProperty().addListener(observable -> updateComponents.invoke());
+		jobListView.getItems().addListener((InvalidationListener) observable -> updateComponents.invoke());
 
 		// Update key field
 		updateKeyField.invoke();
 
+		// Select first job
+		if (!jobListView.getItems().isEmpty())
+			jobListView.getSelectionModel().select(0);
+		updateJobEditors.invoke();
+
 		// Update UI components
 		updateComponents.invoke();
 	}
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Returns a snapshot that combines the most recent statistics of the timing of the current or last jobs.
+	 *
+	 * @return a snapshot that combines the most recent statistics of the timing of the current or last jobs.
+	 */
+
+	private TimingRecorder.Snapshot mergedTimingSnapshot()
+	{
+		return TimingRecorder.Snapshot.merge(timingSnapshots.stream().filter(snapshot -> snapshot != null).toList());
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Encodes the most recent statistics of the timing of the current or last jobs as a tree of {@linkplain MapNode
+	 * nodes}.  The statistics of all jobs are combined, and they are also encoded for each job.
+	 *
+	 * @return a map node that encodes the statistics of the timing of the current or last jobs.
+	 */
+
+	private MapNode encodeTiming()
+	{
+		// Create root node
+		MapNode rootNode = new MapNode();
+
+		// Encode combined statistics
+		rootNode.add(PropertyKey.ALL, mergedTimingSnapshot().encode());
+
+		// Encode statistics of each job
+		ListNode jobsNode = rootNode.addList(PropertyKey.JOBS);
+		for (int i = 0; i < timingSnapshots.size(); i++)
+		{
+			TimingRecorder.Snapshot snapshot = timingSnapshots.get(i);
+			if (snapshot != null)
+			{
+				MapNode jobNode = jobsNode.addMap();
+				jobNode.addString(PropertyKey.KEYS, timingJobKeys.get(i));
+				jobNode.add(PropertyKey.TIMING, snapshot.encode());
+			}
+		}
+
+		// Return root node
+		return rootNode;
+	}
+
+	//------------------------------------------------------------------
+
 	private void updateTime()
 	{
 		// Update time label
-		timeLabel.setText(((timer == null) || (keyPressTime == null))
+		timeLabel.setText((tasks.isEmpty() || (keyPressTime == null))
 												? " "
 												: TIME_FORMATTER.format(keyPressTime));
-		boolean timerRunning = (timer != null) && (timer.getStatus() == Animation.Status.RUNNING);
-		String colourKey = timerRunning ? ColourKey.TIME_LABEL_TEXT_HIGHLIGHTED : ColourKey.TIME_LABEL_TEXT;
+		boolean taskRunning = !tasks.isEmpty() && !tasks.get(0).isPaused();
+		String colourKey = taskRunning ? ColourKey.TIME_LABEL_TEXT_HIGHLIGHTED : ColourKey.TIME_LABEL_TEXT;
 		timeLabel.setTextFill(getColour(colourKey));
-		timeLabel.pseudoClassStateChanged(PSEUDO_CLASS_HIGHLIGHTED, timerRunning);
+		timeLabel.pseudoClassStateChanged(PSEUDO_CLASS_HIGHLIGHTED, taskRunning);
 
 		// Update time pane
-		colourKey = timerRunning ? ColourKey.TIME_PANE_BACKGROUND_HIGHLIGHTED : ColourKey.TIME_PANE_BACKGROUND;
+		colourKey = taskRunning ? ColourKey.TIME_PANE_BACKGROUND_HIGHLIGHTED : ColourKey.TIME_PANE_BACKGROUND;
 		timePane.setBackground(SceneUtils.createColouredBackground(getColour(colourKey)));
-		timePane.pseudoClassStateChanged(PSEUDO_CLASS_HIGHLIGHTED, timerRunning);
+		timePane.pseudoClassStateChanged(PSEUDO_CLASS_HIGHLIGHTED, taskRunning);
 	}
 
 	//------------------------------------------------------------------
@@ -822,8 +1095,20 @@ public class PeriodicPage
 	//  Constants
 	////////////////////////////////////////////////////////////////////
 
-		SECONDS,
-		MINUTES;
+		MILLISECONDS
+		(
+			1
+		),
+
+		SECONDS
+		(
+			1000
+		),
+
+		MINUTES
+		(
+			60 * 1000
+		);
 
 	////////////////////////////////////////////////////////////////////
 	//  Instance variables
@@ -831,15 +1116,18 @@ public class PeriodicPage
 
 		private	String	key;
 		private	String	text;
+		private	long	milliseconds;
 
 	////////////////////////////////////////////////////////////////////
 	//  Constructors
 	////////////////////////////////////////////////////////////////////
 
-		private TimeUnit()
+		private TimeUnit(
+			long	milliseconds)
 		{
 			// Initialise instance variables
 			key = text = name().toLowerCase();
+			this.milliseconds = milliseconds;
 		}
 
 		//--------------------------------------------------------------
@@ -897,39 +1185,93 @@ public class PeriodicPage
 	//==================================================================
 
 ////////////////////////////////////////////////////////////////////////
-//  Member records
+//  Member classes : non-inner classes
 ////////////////////////////////////////////////////////////////////////
 
 
-	// RECORD: INFORMATION ABOUT A KEY
+	// CLASS: PERIODIC JOB
 
 
-	private record KeyInfo(
-		String	id,
-		String	name,
-		int		code)
+	/**
+	 * This class encapsulates a periodic job, which presses a key or chord at a regular interval.
+	 */
+
+	private static class Job
 	{
 
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The keys of the chord that is pressed, in the order in which they are pressed. */
+		private	List<KeyInfo>	keys;
+
+		/** The numerical part of the interval between key presses. */
+		private	int				intervalValue;
+
+		/** The unit of the interval between key presses. */
+		private	TimeUnit		intervalUnit;
+
+		/** The maximum displacement (in milliseconds) of a key press from its scheduled time. */
+		private	int				jitter;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Job()
+		{
+			// Initialise instance variables
+			keys = List.of();
+			intervalValue = DEFAULT_INTERVAL_VALUE;
+			intervalUnit = DEFAULT_INTERVAL_UNIT;
+			jitter = MIN_JITTER;
+		}
+
+		//--------------------------------------------------------------
+
 	////////////////////////////////////////////////////////////////////
 	//  Instance methods : overriding methods
 	////////////////////////////////////////////////////////////////////
 
 		@Override
-		public boolean equals(
-			Object	obj)
+		public String toString()
 		{
-			if (this == obj)
-				return true;
+			String text = (keys.isEmpty() ? NO_KEY_STR : keysText()) + "  \u2013  " + intervalValue + " "
+							+ intervalUnit.text;
+			if (jitter > 0)
+				text += " \u00B1 " + jitter + " " + MS_STR;
+			return text;
+		}
 
-			return (obj instanceof KeyInfo other) && (code == other.code);
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the names of the keys of this job, separated by {@link #CHORD_SEPARATOR}.
+		 *
+		 * @return the names of the keys of this job.
+		 */
+
+		private String keysText()
+		{
+			return String.join(CHORD_SEPARATOR, keys.stream().map(KeyInfo::name).toList());
 		}
 
 		//--------------------------------------------------------------
 
-		@Override
-		public int hashCode()
+		/**
+		 * Returns the key codes of the keys of this job.
+		 *
+		 * @return the key codes of the keys of this job.
+		 */
+
+		private int[] keyCodes()
 		{
-			return code;
+			return keys.stream().mapToInt(KeyInfo::code).toArray();
 		}
 
 		//--------------------------------------------------------------
@@ -938,10 +1280,6 @@ public class PeriodicPage
 
 	//==================================================================
 
-////////////////////////////////////////////////////////////////////////
-//  Member classes : non-inner classes
-////////////////////////////////////////////////////////////////////////
-
 
 	// CLASS: STATE
 
@@ -959,8 +1297,15 @@ public class PeriodicPage
 		private interface PropertyKey
 		{
 			String	INTERVAL			= "interval";
+			String	JITTER				= "jitter";
+			String	JOBS				= "jobs";
 			String	KEY					= "key";
+			String	KEYS				= "keys";
+			String	MISSED_TICK_POLICY	= "missedTickPolicy";
+			String	MODE				= "mode";
+			String	RUN_INACTIVE		= "runInactive";
 			String	TIME_PANE_POSITION	= "timePanePosition";
+			String	TIMING				= "timing";
 			String	UNIT				= "unit";
 			String	VALUE				= "value";
 		}
@@ -969,10 +1314,11 @@ public class PeriodicPage
 	//  Instance variables
 	////////////////////////////////////////////////////////////////////
 
-		private KeyInfo		keyInfo;
-		private int			intervalValue;
-		private TimeUnit	intervalUnit;
-		private	TimePanePos	timePanePos;
+		private	List<Job>							jobs;
+		private	PeriodicScheduler.Mode				timingMode;
+		private	PeriodicScheduler.MissedTickPolicy	missedTickPolicy;
+		private	boolean								runInactive;
+		private	TimePanePos							timePanePos;
 
 	////////////////////////////////////////////////////////////////////
 	//  Constructors
@@ -981,13 +1327,82 @@ public class PeriodicPage
 		private State()
 		{
 			// Initialise instance variables
-			intervalValue = DEFAULT_INTERVAL_VALUE;
-			intervalUnit = DEFAULT_INTERVAL_UNIT;
+			jobs = List.of(new Job());
+			timingMode = PeriodicScheduler.Mode.FIXED_RATE;
+			missedTickPolicy = PeriodicScheduler.MissedTickPolicy.SKIP;
 			timePanePos = DEFAULT_TIME_PANE_POS;
 		}
 
 		//--------------------------------------------------------------
 
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Decodes a job from the specified map node.  The keys of the job may be either a list of key identifiers or,
+		 * as in the format of the state before jobs were introduced, a single key identifier.
+		 *
+		 * @param  jobNode
+		 *           the map node from which the job will be decoded.
+		 * @return the job that was decoded from {@code jobNode}.
+		 */
+
+		private static Job decodeJob(
+			MapNode	jobNode)
+		{
+			// Create job
+			Job job = new Job();
+
+			// Decode keys
+			String key = PropertyKey.KEYS;
+			if (jobNode.hasList(key))
+			{
+				List<KeyInfo> keys = new ArrayList<>();
+				for (String id : jobNode.getListNode(key).getStringList())
+				{
+					KeyInfo keyInfo = KeyInfo.forId(id);
+					if (keyInfo != null)
+						keys.add(keyInfo);
+				}
+				job.keys = keys;
+			}
+			else
+			{
+				key = PropertyKey.KEY;
+				if (jobNode.hasString(key))
+				{
+					KeyInfo keyInfo = KeyInfo.forId(jobNode.getString(key));
+					if (keyInfo != null)
+						job.keys = List.of(keyInfo);
+				}
+			}
+
+			// Decode interval
+			key = PropertyKey.INTERVAL;
+			if (jobNode.hasMap(key))
+			{
+				MapNode intervalNode = jobNode.getMapNode(key);
+				int value = intervalNode.getInt(PropertyKey.VALUE, 0);
+				TimeUnit unit = intervalNode.getEnumValue(TimeUnit.class, PropertyKey.UNIT, u -> u.key, null);
+				if ((value >= MIN_INTERVAL_VALUE) && (value <= MAX_INTERVAL_VALUE) && (unit != null))
+				{
+					job.intervalValue = value;
+					job.intervalUnit = unit;
+				}
+			}
+
+			// Decode jitter
+			int jitter = jobNode.getInt(PropertyKey.JITTER, MIN_JITTER);
+			if ((jitter >= MIN_JITTER) && (jitter <= MAX_JITTER))
+				job.jitter = jitter;
+
+			// Return job
+			return job;
+		}
+
+		//--------------------------------------------------------------
+
 	////////////////////////////////////////////////////////////////////
 	//  Instance methods
 	////////////////////////////////////////////////////////////////////
@@ -997,14 +1412,23 @@ public class PeriodicPage
 			// Create root node
 			MapNode rootNode = new MapNode();
 
-			// Encode key name
-			if (keyInfo != null)
-				rootNode.addString(PropertyKey.KEY, keyInfo.id);
+			// Encode jobs
+			ListNode jobsNode = rootNode.addList(PropertyKey.JOBS);
+			for (Job job : jobs)
+			{
+				MapNode jobNode = jobsNode.addMap();
+				jobNode.addStrings(PropertyKey.KEYS, job.keys.stream().map(KeyInfo::id).toList());
+				MapNode intervalNode = jobNode.addMap(PropertyKey.INTERVAL);
+				intervalNode.addInt(PropertyKey.VALUE, job.intervalValue);
+				intervalNode.addString(PropertyKey.UNIT, job.intervalUnit.key);
+				jobNode.addInt(PropertyKey.JITTER, job.jitter);
+			}
 
-			// Encode interval
-			MapNode intervalNode = rootNode.addMap(PropertyKey.INTERVAL);
-			intervalNode.addInt(PropertyKey.VALUE, intervalValue);
-			intervalNode.addString(PropertyKey.UNIT, intervalUnit.key);
+			// Encode timing
+			MapNode timingNode = rootNode.addMap(PropertyKey.TIMING);
+			timingNode.addString(PropertyKey.MODE, timingMode.key());
+			timingNode.addString(PropertyKey.MISSED_TICK_POLICY, missedTickPolicy.key());
+			timingNode.addBoolean(PropertyKey.RUN_INACTIVE, runInactive);
 
 			// Encode position of time pane
 			rootNode.addString(PropertyKey.TIME_PANE_POSITION, timePanePos.key);
@@ -1018,23 +1442,25 @@ public class PeriodicPage
 		private void decode(
 			MapNode	rootNode)
 		{
-			// Decode key
-			String key = PropertyKey.KEY;
-			if (rootNode.hasString(key))
-				keyInfo = keyInfoForId(rootNode.getString(key));
-
-			// Decode interval
-			key = PropertyKey.INTERVAL;
+			// Decode jobs; if there is no list of jobs, decode a single job from the root node
+			String key = PropertyKey.JOBS;
+			if (rootNode.hasList(key))
+				jobs = rootNode.getListNode(key).mapStream().map(State::decodeJob).toList();
+			else
+				jobs = List.of(decodeJob(rootNode));
+
+			// Decode timing
+			key = PropertyKey.TIMING;
 			if (rootNode.hasMap(key))
 			{
-				MapNode intervalNode = rootNode.getMapNode(key);
-				int value = intervalNode.getInt(PropertyKey.VALUE, 0);
-				TimeUnit unit = intervalNode.getEnumValue(TimeUnit.class, PropertyKey.UNIT, u -> u.key, null);
-				if ((value >= MIN_INTERVAL_VALUE) && (value <= MAX_INTERVAL_VALUE) && (unit != null))
-				{
-					intervalValue = value;
-					intervalUnit = unit;
-				}
+				MapNode timingNode = rootNode.getMapNode(key);
+				timingMode = timingNode.getEnumValue(PeriodicScheduler.Mode.class, PropertyKey.MODE,
+													 PeriodicScheduler.Mode::key, PeriodicScheduler.Mode.FIXED_RATE);
+				missedTickPolicy = timingNode.getEnumValue(PeriodicScheduler.MissedTickPolicy.class,
+														   PropertyKey.MISSED_TICK_POLICY,
+														   PeriodicScheduler.MissedTickPolicy::key,
+														   PeriodicScheduler.MissedTickPolicy.SKIP);
+				runInactive = timingNode.getBoolean(PropertyKey.RUN_INACTIVE, false);
 			}
 
 			// Decode position of time pane
@@ -0,0 +1,866 @@
+/*====================================================================*\
+
+PeriodicScheduler.java
+
+Class: scheduler of periodic key presses.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import java.util.concurrent.locks.LockSupport;
+
+import uk.blankaspect.common.thread.DaemonFactory;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: SCHEDULER OF PERIODIC KEY PRESSES
+
+
+/**
+ * This class implements a scheduler that generates key presses periodically on a dedicated background thread.  The
+ * tasks of the scheduler are kept in a priority queue that is ordered by the time at which each task is next due, and
+ * the thread parks until the task at the head of the queue is due, so any number of tasks are served by a single
+ * thread.  The key press of a task may be a chord, in which the keys are pressed in order and released in reverse
+ * order.
+ * <p>
+ * The due times of a task are calculated from {@link System#nanoTime()} as absolute times rather than as delays from
+ * the previous key press, so that, in the <i>fixed rate</i> {@linkplain Mode mode}, the latency of waking the thread
+ * and generating key events does not accumulate as drift.  If a task falls so far behind that its next key press is
+ * already due when the current one has been generated (for example, because the system was suspended), the missed key
+ * presses are handled according to the {@linkplain MissedTickPolicy policy} of the task.
+ * </p>
+ * <p>
+ * A task may have a <i>jitter</i>, in which case each key press is displaced from its scheduled time by a random
+ * amount that is uniformly distributed between plus and minus the jitter.  The displacement is not carried forward to
+ * the scheduled time of the next key press.
+ * </p>
+ * <p>
+ * The listener of a task is notified of each key press through an {@link Executor} that is specified when the scheduler
+ * is created (for example, {@code Platform::runLater}).  Notifications are coalesced: at most one notification of a key
+ * press is pending on the executor at any time.  Each notification includes a {@linkplain TimingRecorder.Snapshot
+ * snapshot} of the accuracy of the timing of the task.
+ * </p>
+ */
+
+public class PeriodicScheduler
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The name of the thread on which key events are generated. */
+	private static final	String	THREAD_NAME	= "periodic-scheduler";
+
+	/** The number of nanoseconds in a millisecond. */
+	private static final	long	NANOSECONDS_PER_MILLISECOND	= 1_000_000L;
+
+	/** The maximum number of consecutive missed key presses that are generated by the <i>catch up</i> policy before the
+		remaining missed key presses are skipped. */
+	private static final	int		MAX_NUM_CATCH_UP_TICKS	= 16;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The sink to which key events are sent. */
+	private	IKeyEventSink				sink;
+
+	/** The executor on which the listeners of tasks are notified. */
+	private	Executor					listenerExecutor;
+
+	/** The tasks that are waiting to be run, in ascending order of the time at which they are next due.  The queue is
+		also the lock that guards the scheduling state of tasks. */
+	private	PriorityQueue<Task>			queue;
+
+	/** The number of tasks that have been scheduled, which orders tasks that are due at the same time. */
+	private	long						taskCount;
+
+	/** The thread on which key events are generated, or {@code null} if no task has been scheduled. */
+	private	Thread						thread;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a scheduler of periodic key presses.  The thread of the scheduler is not started until
+	 * the first task is scheduled.
+	 *
+	 * @param sink
+	 *          the sink to which key events will be sent.
+	 * @param listenerExecutor
+	 *          the executor on which the listeners of tasks will be notified.
+	 */
+
+	public PeriodicScheduler(
+		IKeyEventSink	sink,
+		Executor		listenerExecutor)
+	{
+		// Initialise instance variables
+		this.sink = sink;
+		this.listenerExecutor = listenerExecutor;
+		queue = new PriorityQueue<>(Comparator.comparingLong((Task task) -> task.dueTime)
+												.thenComparingLong(task -> task.index));
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Schedules a task that will press and release the keys with the specified key codes periodically, and returns a
+	 * handle for the task.  The first key press is scheduled one interval after this method is called.
+	 *
+	 * @param  keyCodes
+	 *           the key codes of the keys that will be pressed, in the order in which they will be pressed.
+	 * @param  interval
+	 *           the interval (in milliseconds) between key presses.
+	 * @param  jitter
+	 *           the maximum displacement (in milliseconds) of a key press from its scheduled time.
+	 * @param  mode
+	 *           the mode of the task.
+	 * @param  missedTickPolicy
+	 *           the policy for key presses that are missed in the <i>fixed rate</i> mode.
+	 * @param  listener
+	 *           the listener that will be notified of key presses and of the failure of the task.
+	 * @return a handle for the task that was scheduled.
+	 */
+
+	public Task schedule(
+		int[]				keyCodes,
+		long				interval,
+		long				jitter,
+		Mode				mode,
+		MissedTickPolicy	missedTickPolicy,
+		IListener			listener)
+	{
+		// Validate arguments
+		if ((keyCodes == null) || (keyCodes.length == 0))
+			throw new IllegalArgumentException("No key codes");
+		if (interval <= 0)
+			throw new IllegalArgumentException("Interval out of bounds: " + interval);
+		if (jitter < 0)
+			throw new IllegalArgumentException("Jitter out of bounds: " + jitter);
+		if (mode == null)
+			throw new IllegalArgumentException("Null mode");
+		if (missedTickPolicy == null)
+			throw new IllegalArgumentException("Null missed-tick policy");
+
+		// Create task
+		Task task = new Task(keyCodes.clone(), interval * NANOSECONDS_PER_MILLISECOND,
+							 jitter * NANOSECONDS_PER_MILLISECOND, mode, missedTickPolicy, listener);
+
+		// Add task to queue, starting thread if necessary
+		synchronized (queue)
+		{
+			task.index = taskCount++;
+			task.scheduledTime = System.nanoTime() + task.interval;
+			task.updateDueTime();
+			enqueue(task);
+			if (thread == null)
+			{
+				thread = DaemonFactory.create(THREAD_NAME, this::run);
+				thread.start();
+			}
+		}
+
+		// Return task
+		return task;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Adds the specified task to the queue and wakes the thread of this scheduler so that it can recalculate the time
+	 * for which it must wait.  This method must be called while holding the lock of the queue.
+	 *
+	 * @param task
+	 *          the task that will be added to the queue.
+	 */
+
+	private void enqueue(
+		Task	task)
+	{
+		queue.add(task);
+		task.queued = true;
+		if (thread != null)
+			LockSupport.unpark(thread);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Runs the tasks of this scheduler as they become due.  This method does not return.
+	 */
+
+	private void run()
+	{
+		while (true)
+		{
+			// Remove the task at the head of the queue if it is due; otherwise, calculate how long to wait
+			Task task = null;
+			long waitTime = 0;
+			synchronized (queue)
+			{
+				Task head = queue.peek();
+				if (head == null)
+					waitTime = -1;
+				else
+				{
+					waitTime = head.dueTime - System.nanoTime();
+					if (waitTime <= 0)
+					{
+						task = queue.poll();
+						task.queued = false;
+						task.running = true;
+					}
+				}
+			}
+
+			// If no task is due, wait until the head of the queue is due or the queue changes.  A spurious return from
+			// parking is harmless, because the queue is examined again.
+			if (task == null)
+			{
+				if (waitTime < 0)
+					LockSupport.park(this);
+				else
+					LockSupport.parkNanos(this, waitTime);
+			}
+
+			// Otherwise, run task
+			else
+				runTask(task);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Generates the key press of the specified task, and reschedules the task.  If the key events could not be
+	 * generated, the task is cancelled and its listener is notified of the failure.
+	 *
+	 * @param task
+	 *          the task that will be run.
+	 */
+
+	private void runTask(
+		Task	task)
+	{
+		// Record dispatch latency
+		TimingRecorder timing = task.timing;
+		timing.dispatched(task.dueTime, System.nanoTime());
+
+		// Generate key presses and releases, recording the duration of each call to the sink
+		int numPressed = 0;
+		try
+		{
+			int[] keyCodes = task.keyCodes;
+			while (numPressed < keyCodes.length)
+			{
+				long startTime = System.nanoTime();
+				sink.keyPress(keyCodes[numPressed++]);
+				timing.keyEvent(startTime, System.nanoTime());
+			}
+			while (numPressed > 0)
+			{
+				long startTime = System.nanoTime();
+				sink.keyRelease(keyCodes[--numPressed]);
+				timing.keyEvent(startTime, System.nanoTime());
+			}
+		}
+		catch (Exception e)
+		{
+			// Release any keys that are still pressed
+			while (numPressed > 0)
+			{
+				try
+				{
+					sink.keyRelease(task.keyCodes[--numPressed]);
+				}
+				catch (Exception e0)
+				{
+					// ignore
+				}
+			}
+
+			// Stop task
+			synchronized (queue)
+			{
+				task.running = false;
+				task.failed = true;
+			}
+
+			// Report failure
+			task.reportFailed(e);
+			return;
+		}
+
+		// Report key press
+		task.reportFired();
+
+		// Reschedule task
+		synchronized (queue)
+		{
+			task.running = false;
+			if (!task.cancelled)
+			{
+				long time = System.nanoTime();
+				task.reschedule(time);
+				if (task.paused)
+					task.pauseTime = time;
+				else
+					enqueue(task);
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: MODE OF TASK
+
+
+	/**
+	 * This is an enumeration of the modes of a periodic task.
+	 */
+
+	public enum Mode
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Each key press is due a whole number of intervals after the task was scheduled, irrespective of when the
+		 * previous key press was generated.
+		 */
+
+		FIXED_RATE
+		(
+			"Fixed rate"
+		),
+
+		/**
+		 * Each key press is due one interval after the previous key press was generated.
+		 */
+
+		FIXED_DELAY
+		(
+			"Fixed delay"
+		);
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	String	key;
+		private	String	text;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Mode(
+			String	text)
+		{
+			// Initialise instance variables
+			key = name().toLowerCase();
+			this.text = text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public String toString()
+		{
+			return text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the key of this mode.
+		 *
+		 * @return the key of this mode.
+		 */
+
+		public String key()
+		{
+			return key;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// ENUMERATION: POLICY FOR MISSED KEY PRESSES
+
+
+	/**
+	 * This is an enumeration of the policies for the key presses of a task in the <i>fixed rate</i> mode that are
+	 * missed because the task has fallen behind by more than one interval.  A policy has no effect in the <i>fixed
+	 * delay</i> mode, in which no key press can be missed.
+	 */
+
+	public enum MissedTickPolicy
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * The missed key presses are generated in succession, without waiting, up to a limit, after which any
+		 * remaining missed key presses are skipped.
+		 */
+
+		CATCH_UP
+		(
+			"Catch up"
+		),
+
+		/**
+		 * The missed key presses are skipped, and the next key press is due at the first due time of the original
+		 * schedule that has not passed.
+		 */
+
+		SKIP
+		(
+			"Skip"
+		);
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	String	key;
+		private	String	text;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private MissedTickPolicy(
+			String	text)
+		{
+			// Initialise instance variables
+			key = name().toLowerCase().replace('_', '-');
+			this.text = text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public String toString()
+		{
+			return text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the key of this policy.
+		 *
+		 * @return the key of this policy.
+		 */
+
+		public String key()
+		{
+			return key;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member interfaces
+////////////////////////////////////////////////////////////////////////
+
+
+	// INTERFACE: LISTENER
+
+
+	/**
+	 * This interface defines the methods that must be implemented by a listener that is notified of the key presses
+	 * and the failure of a periodic task.  The methods are called on the executor that was specified when the {@link
+	 * PeriodicScheduler} was created.  No method is called after a task has been cancelled.
+	 */
+
+	public interface IListener
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Notifies this listener that a task has generated one or more key presses since the previous notification.
+		 *
+		 * @param task
+		 *          the task that generated the key presses.
+		 * @param timing
+		 *          a snapshot of the accuracy of the timing of the task.
+		 */
+
+		void fired(
+			Task					task,
+			TimingRecorder.Snapshot	timing);
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Notifies this listener that a task has stopped because its key events could not be generated.
+		 *
+		 * @param exception
+		 *          the exception that caused the task to fail.
+		 */
+
+		void failed(
+			Exception	exception);
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: HANDLE OF A PERIODIC TASK
+
+
+	/**
+	 * This class implements a handle of a periodic task, through which the task may be paused, resumed and cancelled.
+	 * The methods of this class should be called on the thread of the listener executor.
+	 */
+
+	public class Task
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The key codes of the keys that are pressed, in the order in which they are pressed. */
+		private	int[]				keyCodes;
+
+		/** The interval (in nanoseconds) between key presses. */
+		private	long				interval;
+
+		/** The maximum displacement (in nanoseconds) of a key press from its scheduled time. */
+		private	long				jitter;
+
+		/** The mode of the task. */
+		private	Mode				mode;
+
+		/** The policy for missed key presses. */
+		private	MissedTickPolicy	missedTickPolicy;
+
+		/** The listener that is notified of key presses and of the failure of the task. */
+		private	IListener			listener;
+
+		/** The index of the task in the order in which tasks were scheduled. */
+		private	long				index;
+
+		/** The value of {@link System#nanoTime()} at which the next key press is scheduled, before jitter is
+			applied. */
+		private	long				scheduledTime;
+
+		/** The value of {@link System#nanoTime()} at which the next key press is due, after jitter is applied. */
+		private	long				dueTime;
+
+		/** The value of {@link System#nanoTime()} at which the task was paused. */
+		private	long				pauseTime;
+
+		/** The number of consecutive missed key presses that have been generated by the <i>catch up</i> policy. */
+		private	int					numCatchUpTicks;
+
+		/** Flag: if {@code true}, the task is in the queue of the scheduler. */
+		private	boolean				queued;
+
+		/** Flag: if {@code true}, the thread of the scheduler is generating the key press of the task. */
+		private	boolean				running;
+
+		/** Flag: if {@code true}, the task is paused. */
+		private	boolean				paused;
+
+		/** Flag: if {@code true}, the task has stopped because its key events could not be generated. */
+		private	boolean				failed;
+
+		/** Flag: if {@code true}, the task has been cancelled. */
+		private volatile boolean	cancelled;
+
+		/** The recorder of the timing of the task, which is updated on the thread of the scheduler. */
+		private	TimingRecorder		timing;
+
+		/** Flag: if {@code true}, a notification of a key press is pending on the listener executor. */
+		private	AtomicBoolean		firedPending;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Task(
+			int[]				keyCodes,
+			long				interval,
+			long				jitter,
+			Mode				mode,
+			MissedTickPolicy	missedTickPolicy,
+			IListener			listener)
+		{
+			// Initialise instance variables
+			this.keyCodes = keyCodes;
+			this.interval = interval;
+			this.jitter = jitter;
+			this.mode = mode;
+			this.missedTickPolicy = missedTickPolicy;
+			this.listener = listener;
+			timing = new TimingRecorder();
+			firedPending = new AtomicBoolean();
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns {@code true} if the task is paused.
+		 *
+		 * @return {@code true} if the task is paused.
+		 */
+
+		public boolean isPaused()
+		{
+			synchronized (queue)
+			{
+				return paused;
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Pauses the task.  When the task is {@linkplain #resume() resumed}, its schedule is delayed by the time for
+		 * which it was paused, so the time that remained until the next key press is preserved.
+		 */
+
+		public void pause()
+		{
+			synchronized (queue)
+			{
+				if (!paused && !cancelled && !failed)
+				{
+					paused = true;
+					if (queued)
+					{
+						queue.remove(this);
+						queued = false;
+						pauseTime = System.nanoTime();
+					}
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Resumes the task after it was {@linkplain #pause() paused}.
+		 */
+
+		public void resume()
+		{
+			synchronized (queue)
+			{
+				if (paused && !cancelled && !failed)
+				{
+					paused = false;
+					if (!running)
+					{
+						long delay = System.nanoTime() - pauseTime;
+						scheduledTime += delay;
+						dueTime += delay;
+						enqueue(this);
+					}
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Cancels the task.  If the thread of the scheduler is generating the key press of the task, the key press is
+		 * completed, but the listener of the task will not be notified after this method is called.
+		 */
+
+		public void cancel()
+		{
+			synchronized (queue)
+			{
+				cancelled = true;
+				if (queued)
+				{
+					queue.remove(this);
+					queued = false;
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Calculates the times at which the next key press of the task is scheduled and due.  This method must be
+		 * called while holding the lock of the queue.
+		 *
+		 * @param time
+		 *          the value of {@link System#nanoTime()} after the current key press was generated.
+		 */
+
+		private void reschedule(
+			long	time)
+		{
+			switch (mode)
+			{
+				case FIXED_RATE:
+				{
+					// Advance scheduled time by one interval
+					scheduledTime += interval;
+
+					// If the next key press is already due, either generate it immediately or skip to the first
+					// scheduled time that has not passed
+					long lateness = time - scheduledTime;
+					if (lateness < 0)
+						numCatchUpTicks = 0;
+					else if ((missedTickPolicy == MissedTickPolicy.SKIP)
+								|| (++numCatchUpTicks > MAX_NUM_CATCH_UP_TICKS))
+					{
+						scheduledTime += (lateness / interval + 1) * interval;
+						numCatchUpTicks = 0;
+					}
+					break;
+				}
+
+				case FIXED_DELAY:
+					scheduledTime = time + interval;
+					break;
+			}
+			updateDueTime();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Sets the time at which the next key press of the task is due by displacing its scheduled time by a random
+		 * amount within the jitter of the task.
+		 */
+
+		private void updateDueTime()
+		{
+			dueTime = scheduledTime;
+			if (jitter > 0)
+				dueTime += ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * If there is not already a notification of a key press pending, notifies the listener of the task of a key
+		 * press through the listener executor.
+		 */
+
+		private void reportFired()
+		{
+			if (firedPending.compareAndSet(false, true))
+			{
+				TimingRecorder.Snapshot timingSnapshot = timing.snapshot();
+				listenerExecutor.execute(() ->
+				{
+					firedPending.set(false);
+					if (!cancelled)
+						listener.fired(this, timingSnapshot);
+				});
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Notifies the listener of the task through the listener executor that the task has failed.
+		 *
+		 * @param exception
+		 *          the exception that caused the task to fail.
+		 */
+
+		private void reportFailed(
+			Exception	exception)
+		{
+			listenerExecutor.execute(() ->
+			{
+				if (!cancelled)
+					listener.failed(exception);
+			});
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
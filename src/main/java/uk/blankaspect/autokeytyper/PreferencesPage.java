@@ -109,7 +109,7 @@ public class PreferencesPage
 	static
 	{
 		// Register the style properties of this class and its dependencies with the style manager
-		StyleManager.INSTANCE.register(DelayedPage.class, COLOUR_PROPERTIES,
+		StyleManager.INSTANCE.register(PreferencesPage.class, COLOUR_PROPERTIES,
 									   PaneStyle.class);
 	}
 
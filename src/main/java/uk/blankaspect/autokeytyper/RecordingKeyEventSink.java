@@ -0,0 +1,265 @@
+/*====================================================================*\
+
+RecordingKeyEventSink.java
+
+Class: sink of key events that records events in a ring buffer.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: SINK OF KEY EVENTS THAT RECORDS EVENTS IN A RING BUFFER
+
+
+/**
+ * This class implements a {@linkplain IKeyEventSink sink of key events} that records events in a ring buffer of {@code
+ * int}s.  Each event is encoded as its key code, with the most significant bit set for a key-release event.  When the
+ * buffer is full, each new event overwrites the oldest event, so that recording an event never allocates memory.
+ * <p>
+ * The sink also maintains a running hash of all the events that it has recorded, which allows the event sequences of
+ * two typing jobs to be compared even if they are longer than the ring buffer.
+ * </p>
+ * <p>
+ * This class is not thread-safe: the events of a sink should be read only when no typing job is using the sink.
+ * </p>
+ */
+
+public class RecordingKeyEventSink
+	implements IKeyEventSink
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The default capacity of the ring buffer. */
+	public static final		int		DEFAULT_CAPACITY	= 1 << 16;
+
+	/** The bit that is set in a recorded key-release event. */
+	private static final	int		RELEASE_FLAG	= 1 << 31;
+
+	/** The multiplier of the running hash of events. */
+	private static final	long	HASH_MULTIPLIER	= 0x100000001B3L;
+
+	/** The initial value of the running hash of events. */
+	private static final	long	HASH_SEED	= 0xCBF29CE484222325L;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The ring buffer of events. */
+	private	int[]	events;
+
+	/** The total number of events that have been recorded since this sink was created or last cleared. */
+	private	long	numEvents;
+
+	/** The running hash of the events that have been recorded since this sink was created or last cleared. */
+	private	long	hash;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a recording sink of key events with a ring buffer of the default capacity.
+	 */
+
+	public RecordingKeyEventSink()
+	{
+		// Call alternative constructor
+		this(DEFAULT_CAPACITY);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates a new instance of a recording sink of key events with a ring buffer of the specified capacity.
+	 *
+	 * @param capacity
+	 *          the maximum number of events that will be retained.
+	 */
+
+	public RecordingKeyEventSink(
+		int	capacity)
+	{
+		// Validate arguments
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity out of bounds: " + capacity);
+
+		// Initialise instance variables
+		events = new int[capacity];
+		hash = HASH_SEED;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns {@code true} if the specified recorded event is a key-release event.
+	 *
+	 * @param  event
+	 *           the recorded event of interest.
+	 * @return {@code true} if {@code event} is a key-release event; {@code false} if it is a key-press event.
+	 */
+
+	public static boolean isRelease(
+		int	event)
+	{
+		return (event & RELEASE_FLAG) != 0;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the key code of the specified recorded event.
+	 *
+	 * @param  event
+	 *           the recorded event of interest.
+	 * @return the key code of {@code event}.
+	 */
+
+	public static int keyCode(
+		int	event)
+	{
+		return event & ~RELEASE_FLAG;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : IKeyEventSink interface
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void keyPress(
+		int	keyCode)
+	{
+		record(keyCode);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void keyRelease(
+		int	keyCode)
+	{
+		record(keyCode | RELEASE_FLAG);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the capacity of the ring buffer of this sink.
+	 *
+	 * @return the capacity of the ring buffer of this sink.
+	 */
+
+	public int capacity()
+	{
+		return events.length;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the total number of events that have been recorded since this sink was created or last cleared.  The
+	 * number may exceed the capacity of the ring buffer.
+	 *
+	 * @return the total number of events that have been recorded.
+	 */
+
+	public long numEvents()
+	{
+		return numEvents;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a hash of all the events that have been recorded since this sink was created or last cleared, including
+	 * events that have been overwritten in the ring buffer.
+	 *
+	 * @return a hash of all the events that have been recorded.
+	 */
+
+	public long hash()
+	{
+		return hash;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the events that are retained in the ring buffer of this sink, from oldest to newest.
+	 *
+	 * @return an array of the events that are retained in the ring buffer.
+	 */
+
+	public int[] events()
+	{
+		int capacity = events.length;
+		int length = (int)Math.min(numEvents, capacity);
+		int start = (int)((numEvents - length) % capacity);
+		int[] result = new int[length];
+		int length1 = Math.min(length, capacity - start);
+		System.arraycopy(events, start, result, 0, length1);
+		System.arraycopy(events, 0, result, length1, length - length1);
+		return result;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Removes all recorded events from this sink.
+	 */
+
+	public void clear()
+	{
+		numEvents = 0;
+		hash = HASH_SEED;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends the specified event to the ring buffer of this sink and updates the running hash.
+	 *
+	 * @param event
+	 *          the event that will be recorded.
+	 */
+
+	private void record(
+		int	event)
+	{
+		events[(int)(numEvents++ % events.length)] = event;
+		hash = (hash ^ event) * HASH_MULTIPLIER;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,113 @@
+/*====================================================================*\
+
+RobotKeyEventSink.java
+
+Class: sink of key events that generates native key events with a robot.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.awt.Robot;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: SINK OF KEY EVENTS THAT GENERATES NATIVE KEY EVENTS WITH A ROBOT
+
+
+/**
+ * This class implements a {@linkplain IKeyEventSink sink of key events} that adds native key events to the platform's
+ * input queue with a {@link Robot}.
+ */
+
+public class RobotKeyEventSink
+	implements IKeyEventSink
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The object that adds native key events to the platform's input queue. */
+	private	Robot	robot;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a sink of key events that generates native key events with the specified robot.
+	 *
+	 * @param robot
+	 *          the object that will add native key events to the platform's input queue.
+	 */
+
+	public RobotKeyEventSink(
+		Robot	robot)
+	{
+		// Validate arguments
+		if (robot == null)
+			throw new IllegalArgumentException("Null robot");
+
+		// Initialise instance variables
+		this.robot = robot;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : IKeyEventSink interface
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void keyPress(
+		int	keyCode)
+	{
+		robot.keyPress(keyCode);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void keyRelease(
+		int	keyCode)
+	{
+		robot.keyRelease(keyCode);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void waitForIdle()
+	{
+		robot.waitForIdle();
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,297 @@
+/*====================================================================*\
+
+StartupProfiler.java
+
+Class: profiler of the phases of the startup of the application.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.blankaspect.common.basictree.ListNode;
+import uk.blankaspect.common.basictree.MapNode;
+
+import uk.blankaspect.common.exception2.FileException;
+
+import uk.blankaspect.common.json.JsonGenerator;
+import uk.blankaspect.common.json.OutputMode;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: PROFILER OF THE PHASES OF THE STARTUP OF THE APPLICATION
+
+
+/**
+ * This class records the durations of the phases of the startup of the application.  The end of each phase is
+ * {@linkplain #mark(String) marked} with the value of {@link System#nanoTime()}; the duration of a phase is the time
+ * between its mark and the previous mark (or the creation of the profiler, for the first phase).
+ * <p>
+ * When the profile is {@linkplain #finish(Path, boolean) finished}, it is encoded as a JSON object on a single line and
+ * appended to a file, so that the file contains one profile per startup (the <i>JSON Lines</i> format).  The object
+ * has the following members:
+ * </p>
+ * <ul>
+ *   <li>{@code timestamp}: the time at which the profiler was created, in ISO-8601 format;</li>
+ *   <li>{@code processUptime}: the time (in milliseconds) from the start of the Java process to the creation of the
+ *       profiler, or -1 if the start time of the process is not available;</li>
+ *   <li>{@code unit}: the unit of the durations that follow ({@code ns});</li>
+ *   <li>{@code total}: the time from the creation of the profiler to the last mark;</li>
+ *   <li>{@code phases}: an array of objects, each of which has the {@code name}, {@code start} (relative to the
+ *       creation of the profiler) and {@code duration} of a phase.</li>
+ * </ul>
+ * <p>
+ * An instance of this class is not thread-safe; it is expected to be used on the JavaFX application thread.
+ * </p>
+ */
+
+public class StartupProfiler
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The unit of the durations of phases. */
+	private static final	String	UNIT	= "ns";
+
+	/** Keys of properties. */
+	private interface PropertyKey
+	{
+		String	DURATION		= "duration";
+		String	NAME			= "name";
+		String	PHASES			= "phases";
+		String	PROCESS_UPTIME	= "processUptime";
+		String	START			= "start";
+		String	TIMESTAMP		= "timestamp";
+		String	TOTAL			= "total";
+		String	UNIT			= "unit";
+	}
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	FAILED_TO_WRITE_PROFILE =
+				"Failed to write the startup profile to the file.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The time at which this profiler was created. */
+	private	Instant		timestamp;
+
+	/** The time (in milliseconds) from the start of the Java process to the creation of this profiler, or -1 if the
+		start time of the process is not available. */
+	private	long		processUptime;
+
+	/** The value of {@link System#nanoTime()} when this profiler was created. */
+	private	long		startTime;
+
+	/** The value of {@link System#nanoTime()} at the most recent mark. */
+	private	long		markTime;
+
+	/** The phases that have been marked. */
+	private	List<Phase>	phases;
+
+	/** Flag: if {@code true}, this profiler has been finished. */
+	private	boolean		finished;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a profiler of the phases of the startup of the application.  The first phase starts
+	 * when the profiler is created.
+	 */
+
+	public StartupProfiler()
+	{
+		// Initialise instance variables
+		startTime = System.nanoTime();
+		markTime = startTime;
+		timestamp = Instant.now();
+		processUptime = ProcessHandle.current().info().startInstant()
+								.map(instant -> Duration.between(instant, timestamp).toMillis())
+								.orElse(-1L);
+		phases = new ArrayList<>();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Marks the end of the phase with the specified name, which is also the start of the next phase.  This method has
+	 * no effect if this profiler has been finished.
+	 *
+	 * @param name
+	 *          the name of the phase.
+	 */
+
+	public void mark(
+		String	name)
+	{
+		if (!finished)
+		{
+			long time = System.nanoTime();
+			phases.add(new Phase(name, markTime - startTime, time - markTime));
+			markTime = time;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the time from the creation of this profiler to the most recent mark.
+	 *
+	 * @return the time (in nanoseconds) from the creation of this profiler to the most recent mark.
+	 */
+
+	public long total()
+	{
+		return markTime - startTime;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Encodes this profile as a {@link MapNode}.
+	 *
+	 * @return a {@link MapNode} that encodes this profile.
+	 */
+
+	public MapNode encode()
+	{
+		MapNode rootNode = new MapNode();
+		rootNode.addString(PropertyKey.TIMESTAMP, timestamp.toString());
+		rootNode.addLong(PropertyKey.PROCESS_UPTIME, processUptime);
+		rootNode.addString(PropertyKey.UNIT, UNIT);
+		rootNode.addLong(PropertyKey.TOTAL, total());
+		ListNode phasesNode = rootNode.addList(PropertyKey.PHASES);
+		for (Phase phase : phases)
+		{
+			MapNode phaseNode = phasesNode.addMap();
+			phaseNode.addString(PropertyKey.NAME, phase.name);
+			phaseNode.addLong(PropertyKey.START, phase.start);
+			phaseNode.addLong(PropertyKey.DURATION, phase.duration);
+		}
+		return rootNode;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Finishes this profile: subsequent marks are ignored, and the profile is appended as a single line of JSON text to
+	 * the specified file and, optionally, written to the standard error stream.
+	 *
+	 * @param  file
+	 *           the file to which the profile will be appended, or {@code null} if the profile is not to be written to
+	 *           a file.  The parent directory of the file is created if it does not exist.
+	 * @param  print
+	 *           if {@code true}, the profile will be written to the standard error stream as a JSON object and as a
+	 *           table of phases.
+	 * @throws FileException
+	 *           if an error occurred when writing the profile to {@code file}.
+	 */
+
+	public void finish(
+		Path	file,
+		boolean	print)
+		throws FileException
+	{
+		// Ignore if profile has been finished
+		if (finished)
+			return;
+		finished = true;
+
+		// Generate JSON text
+		String text = JsonGenerator.builder().outputMode(OutputMode.DENSE).build().generate(encode()).toString();
+
+		// Write profile to standard error stream
+		if (print)
+		{
+			System.err.println(text);
+			for (Phase phase : phases)
+				System.err.printf("%-24s %10.3f ms%n", phase.name, 1.0e-6 * phase.duration);
+			System.err.printf("%-24s %10.3f ms%n", PropertyKey.TOTAL, 1.0e-6 * total());
+		}
+
+		// Append profile to file
+		if (file != null)
+		{
+			try
+			{
+				Path directory = file.toAbsolutePath().getParent();
+				if (directory != null)
+					Files.createDirectories(directory);
+				Files.writeString(file, text + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+								  StandardOpenOption.APPEND);
+			}
+			catch (IOException e)
+			{
+				throw new FileException(ErrorMsg.FAILED_TO_WRITE_PROFILE, e, file);
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: PHASE OF STARTUP
+
+
+	/**
+	 * This record encapsulates a phase of the startup of the application.
+	 *
+	 * @param name
+	 *          the name of the phase.
+	 * @param start
+	 *          the time (in nanoseconds) from the creation of the profiler to the start of the phase.
+	 * @param duration
+	 *          the duration (in nanoseconds) of the phase.
+	 */
+
+	private record Phase(
+		String	name,
+		long	start,
+		long	duration)
+	{ }
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,474 @@
+/*====================================================================*\
+
+TextStreamSource.java
+
+Class: source of programs of key events that are compiled from a stream of text.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+import java.nio.CharBuffer;
+
+import java.nio.charset.Charset;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import uk.blankaspect.common.exception2.BaseException;
+import uk.blankaspect.common.exception2.FileException;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: SOURCE OF PROGRAMS OF KEY EVENTS THAT ARE COMPILED FROM A STREAM OF TEXT
+
+
+/**
+ * This class implements a {@linkplain TypingEngine.IProgramSource source of programs of key events} that reads text
+ * from a {@link Reader} in fixed-size chunks and compiles each chunk into a program just before its key events are
+ * generated.  A single buffer of characters and a single program are reused for all chunks, so the memory that is used
+ * by a typing job does not depend on the length of the text.
+ * <p>
+ * Line terminators are normalised as the text is read: CR+LF and a lone CR are each converted to LF.  The compiler
+ * that is specified when the source is created should therefore map LF to the <i>enter</i> key.  A surrogate pair is
+ * never split between chunks: a high surrogate at the end of a chunk is held back until the next chunk.
+ * </p>
+ * <p>
+ * Each chunk is validated against the key map as it is compiled; if it contains characters that cannot be mapped to
+ * keys, {@link #next()} throws an exception before any of the key events of the chunk are generated.  A source whose
+ * text is read from a file also validates the entire file when it is {@linkplain #prepare() prepared}, so that an error
+ * can be reported before any key events are generated.
+ * </p>
+ */
+
+public class TextStreamSource
+	implements TypingEngine.IProgramSource
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of characters in a chunk of text. */
+	private static final	int		CHUNK_SIZE	= 8192;
+
+	/** The maximum number of distinct unmapped characters that are reported in an error message. */
+	private static final	int		MAX_NUM_REPORTED_CHARS	= 40;
+
+	/** The number of unmapped characters on each line of an error message. */
+	private static final	int		NUM_REPORTED_CHARS_PER_LINE	= 10;
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	ERROR_READING_TEXT =
+				"An error occurred when reading the text.";
+
+		String	ERROR_READING_FILE =
+				"An error occurred when reading the file.";
+
+		String	CHARACTERS_NOT_IN_KEY_MAP =
+				"Line %d: the following characters cannot be mapped to key codes:%s";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The file from which the text is read, or {@code null} if the text is read from another kind of stream. */
+	private	Path							file;
+
+	/** The character encoding of {@link #file}. */
+	private	Charset							encoding;
+
+	/** The compiler that translates each chunk of text into a program of key events. */
+	private	KeyEventProgram.Compiler		compiler;
+
+	/** The reader from which the text is read. */
+	private	Reader							reader;
+
+	/** The buffer into which each chunk of text is read. */
+	private	char[]							buffer;
+
+	/** The chunk of text in {@link #buffer}. */
+	private	CharBuffer						chunk;
+
+	/** The program that is reused for each chunk of text. */
+	private	KeyEventProgram					program;
+
+	/** The list of the code points of unmapped characters in the current chunk of text. */
+	private	List<Integer>					unmappedChars;
+
+	/** Flag: if {@code true}, the last character that was read was a CR. */
+	private	boolean							afterCr;
+
+	/** The high surrogate that was held back from the end of the previous chunk, or U+0000 if there is none. */
+	private	char							highSurrogate;
+
+	/** The zero-based index of the line at the start of the current chunk of text. */
+	private	int								lineIndex;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a source of programs of key events.
+	 *
+	 * @param file
+	 *          the file from which the text will be read, or {@code null} if {@code reader} is specified.
+	 * @param encoding
+	 *          the character encoding of {@code file}.
+	 * @param reader
+	 *          the reader from which the text will be read, or {@code null} if {@code file} is specified.
+	 * @param compiler
+	 *          the compiler that will translate each chunk of text into a program of key events.
+	 */
+
+	private TextStreamSource(
+		Path						file,
+		Charset						encoding,
+		Reader						reader,
+		KeyEventProgram.Compiler	compiler)
+	{
+		// Initialise instance variables
+		this.file = file;
+		this.encoding = encoding;
+		this.reader = reader;
+		this.compiler = compiler;
+		buffer = new char[CHUNK_SIZE];
+		chunk = CharBuffer.wrap(buffer);
+		unmappedChars = new ArrayList<>();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates and returns a new instance of a source whose text is read from the specified file.  The file is not
+	 * opened until the source is prepared.
+	 *
+	 * @param  file
+	 *           the file from which the text will be read.
+	 * @param  encoding
+	 *           the character encoding of {@code file}.
+	 * @param  compiler
+	 *           the compiler that will translate each chunk of text into a program of key events.
+	 * @return a new instance of a source whose text is read from {@code file}.
+	 */
+
+	public static TextStreamSource ofFile(
+		Path						file,
+		Charset						encoding,
+		KeyEventProgram.Compiler	compiler)
+	{
+		return new TextStreamSource(file, encoding, null, compiler);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of a source whose text is read from the specified reader (for example, a
+	 * reader of the standard input stream).  Because the text cannot be read twice, each chunk is validated only when
+	 * it is compiled.
+	 *
+	 * @param  reader
+	 *           the reader from which the text will be read.
+	 * @param  compiler
+	 *           the compiler that will translate each chunk of text into a program of key events.
+	 * @return a new instance of a source whose text is read from {@code reader}.
+	 */
+
+	public static TextStreamSource ofReader(
+		Reader						reader,
+		KeyEventProgram.Compiler	compiler)
+	{
+		return new TextStreamSource(null, null, new BufferedReader(reader, CHUNK_SIZE), compiler);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : TypingEngine.IProgramSource interface
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the text of this source is read from a file, the entire file is read and validated against the key map, and
+	 * the file is then reopened so that its text can be typed.
+	 * </p>
+	 */
+
+	@Override
+	public void prepare()
+		throws BaseException
+	{
+		if (file != null)
+		{
+			// Validate text of file
+			open();
+			try
+			{
+				while (readChunk())
+					compileChunk();
+			}
+			finally
+			{
+				closeReader();
+			}
+
+			// Reopen file and reset state
+			open();
+			afterCr = false;
+			highSurrogate = '\0';
+			lineIndex = 0;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public KeyEventProgram next()
+		throws BaseException
+	{
+		// Open file if necessary
+		if (reader == null)
+			open();
+
+		// Read and compile next chunk of text
+		return readChunk() ? compileChunk() : null;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void close()
+		throws IOException
+	{
+		if (reader != null)
+		{
+			Reader r = reader;
+			reader = null;
+			r.close();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Opens a reader on the file of this source.
+	 *
+	 * @throws BaseException
+	 *           if an error occurred when opening the file.
+	 */
+
+	private void open()
+		throws BaseException
+	{
+		try
+		{
+			reader = Files.newBufferedReader(file, encoding);
+		}
+		catch (IOException e)
+		{
+			throw new FileException(ErrorMsg.ERROR_READING_FILE, e, file);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Closes the reader of this source, ignoring any error.
+	 */
+
+	private void closeReader()
+	{
+		try
+		{
+			close();
+		}
+		catch (IOException e)
+		{
+			// ignore
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Reads the next chunk of text into the buffer of this source, normalising line terminators.  If the chunk ends
+	 * with a high surrogate and the end of the text has not been reached, the high surrogate is held back and becomes
+	 * the first character of the next chunk.
+	 *
+	 * @return {@code true} if the chunk contains at least one character; {@code false} if the end of the text has been
+	 *         reached.
+	 * @throws BaseException
+	 *           if an error occurred when reading the text.
+	 */
+
+	private boolean readChunk()
+		throws BaseException
+	{
+		int length = 0;
+		boolean endOfText = false;
+		try
+		{
+			while ((length == 0) && !endOfText)
+			{
+				// Restore high surrogate that was held back from previous chunk
+				if (highSurrogate != '\0')
+				{
+					buffer[length++] = highSurrogate;
+					highSurrogate = '\0';
+				}
+
+				// Read characters into buffer
+				int start = length;
+				int numRead = reader.read(buffer, start, buffer.length - start);
+				if (numRead < 0)
+				{
+					endOfText = true;
+					break;
+				}
+
+				// Convert CR+LF and CR to LF
+				for (int i = start; i < start + numRead; i++)
+				{
+					char ch = buffer[i];
+					if (ch == '\r')
+					{
+						buffer[length++] = '\n';
+						afterCr = true;
+					}
+					else
+					{
+						if ((ch != '\n') || !afterCr)
+							buffer[length++] = ch;
+						afterCr = false;
+					}
+				}
+
+				// Hold back high surrogate at end of chunk
+				if ((length > 0) && Character.isHighSurrogate(buffer[length - 1]))
+					highSurrogate = buffer[--length];
+			}
+		}
+		catch (IOException e)
+		{
+			if (file == null)
+				throw new BaseException(ErrorMsg.ERROR_READING_TEXT, e);
+			throw new FileException(ErrorMsg.ERROR_READING_FILE, e, file);
+		}
+
+		// Set limit of chunk
+		chunk.clear().limit(length);
+		return (length > 0);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Compiles the chunk of text in the buffer of this source into a program of key events.
+	 *
+	 * @return the program of key events for the current chunk of text.
+	 * @throws BaseException
+	 *           if the chunk contains characters that cannot be mapped to keys.
+	 */
+
+	private KeyEventProgram compileChunk()
+		throws BaseException
+	{
+		// Compile chunk
+		unmappedChars.clear();
+		KeyEventProgram result = compiler.compile(chunk, unmappedChars, program);
+
+		// If chunk contains unmapped characters, throw exception
+		if (result == null)
+		{
+			// Find index of first line that contains an unmapped character
+			int index = lineIndex;
+			int firstUnmappedChar = unmappedChars.get(0);
+			for (int i = 0; Character.codePointAt(buffer, i, chunk.limit()) != firstUnmappedChar; )
+			{
+				if (buffer[i] == '\n')
+					++index;
+				i += Character.charCount(Character.codePointAt(buffer, i, chunk.limit()));
+			}
+
+			// Create list of distinct unmapped characters
+			Set<Integer> distinctChars = new LinkedHashSet<>(unmappedChars);
+			StringBuilder charsBuffer = new StringBuilder(256);
+			int numChars = 0;
+			for (int ch : distinctChars)
+			{
+				if (numChars == MAX_NUM_REPORTED_CHARS)
+				{
+					charsBuffer.append("  ...");
+					break;
+				}
+				charsBuffer.append((numChars++ % NUM_REPORTED_CHARS_PER_LINE == 0) ? "\n" : "  ");
+				if (Character.isISOControl(ch) || (Character.getType(ch) == Character.SURROGATE))
+					charsBuffer.append(String.format("U+%04X", ch));
+				else
+					charsBuffer.appendCodePoint(ch);
+			}
+
+			// Throw exception
+			if (file == null)
+				throw new BaseException(ErrorMsg.CHARACTERS_NOT_IN_KEY_MAP, index + 1, charsBuffer);
+			throw new FileException(ErrorMsg.CHARACTERS_NOT_IN_KEY_MAP, file, index + 1, charsBuffer);
+		}
+
+		// Update index of line at start of next chunk
+		for (int i = 0; i < chunk.limit(); i++)
+		{
+			if (buffer[i] == '\n')
+				++lineIndex;
+		}
+
+		// Retain program for reuse, and return it
+		program = result;
+		return result;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
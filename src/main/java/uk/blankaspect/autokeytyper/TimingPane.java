@@ -0,0 +1,313 @@
+/*====================================================================*\
+
+TimingPane.java
+
+Class: pane of statistics of the timing of generated key events.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.File;
+import java.io.IOException;
+
+import javafx.geometry.HPos;
+import javafx.geometry.Pos;
+
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+
+import javafx.stage.FileChooser;
+
+import uk.blankaspect.common.basictree.MapNode;
+
+import uk.blankaspect.common.exception2.FileException;
+
+import uk.blankaspect.common.function.IFunction0;
+
+import uk.blankaspect.common.json.JsonGenerator;
+import uk.blankaspect.common.json.JsonUtils;
+
+import uk.blankaspect.ui.jfx.button.Buttons;
+
+import uk.blankaspect.ui.jfx.dialog.ErrorDialog;
+
+import uk.blankaspect.ui.jfx.font.FontUtils;
+
+import uk.blankaspect.ui.jfx.scene.SceneUtils;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: PANE OF STATISTICS OF THE TIMING OF GENERATED KEY EVENTS
+
+
+/**
+ * This class implements a small pane that displays a {@linkplain TimingRecorder.Snapshot snapshot} of the accuracy of
+ * the timing of generated key events as a table of percentiles, and from which the statistics can be saved to a file
+ * as JSON text.
+ */
+
+public class TimingPane
+	extends HBox
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of nanoseconds in a millisecond. */
+	private static final	double	NANOSECONDS_PER_MILLISECOND	= 1.0e6;
+
+	/** The percentiles that are displayed in the table. */
+	private static final	double[]	PERCENTILES	= { 0.5, 0.9, 0.99 };
+
+	/** The format of a duration in the table. */
+	private static final	String	DURATION_FORMAT	= "%.3f";
+
+	/** The text of a cell of the table for which there is no value. */
+	private static final	String	NO_VALUE_STR	= "\u2013";
+
+	/** The horizontal gap between adjacent columns of the table. */
+	private static final	double	TABLE_H_GAP	= 10.0;
+
+	/** The vertical gap between adjacent rows of the table. */
+	private static final	double	TABLE_V_GAP	= 2.0;
+
+	/** The gap between the table and the button. */
+	private static final	double	GAP	= 12.0;
+
+	/** The maximum length of a line of the JSON text of a file. */
+	private static final	int		MAX_LINE_LENGTH	= 128;
+
+	/** The filename extension of a JSON file. */
+	private static final	String	JSON_FILENAME_EXTENSION	= ".json";
+
+	/** Miscellaneous strings. */
+	private static final	String	MS_STR					= "ms";
+	private static final	String	P50_STR					= "p50";
+	private static final	String	P90_STR					= "p90";
+	private static final	String	P99_STR					= "p99";
+	private static final	String	MAX_STR					= "max";
+	private static final	String	COUNT_STR				= "count";
+	private static final	String	DISPATCH_LATENCY_STR	= "Dispatch latency";
+	private static final	String	KEY_EVENT_STR			= "Key event";
+	private static final	String	SCHEDULE_JITTER_STR		= "Schedule jitter";
+	private static final	String	SAVE_STR				= "Save\u2026";
+	private static final	String	SAVE_TIMING_STR			= "Save timing statistics";
+	private static final	String	JSON_FILES_STR			= "JSON files";
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	ERROR_WRITING_FILE =
+				"An error occurred when writing the file.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The labels of the cells of the table, indexed by row and column. */
+	private	Label[][]	valueLabels;
+
+	/** The button that saves the statistics to a file. */
+	private	Button		saveButton;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a pane of statistics of the timing of generated key events.
+	 *
+	 * @param encoder
+	 *          the function that encodes the statistics that will be saved to a file as a tree of {@linkplain MapNode
+	 *          nodes}.
+	 */
+
+	public TimingPane(
+		IFunction0<MapNode>	encoder)
+	{
+		// Call superclass constructor
+		super(GAP);
+
+		// Set properties
+		setAlignment(Pos.CENTER_LEFT);
+
+		// Create table
+		GridPane table = new GridPane();
+		table.setHgap(TABLE_H_GAP);
+		table.setVgap(TABLE_V_GAP);
+
+		// Initialise column constraints
+		ColumnConstraints column = new ColumnConstraints();
+		table.getColumnConstraints().add(column);
+		String[] headings = { P50_STR, P90_STR, P99_STR, MAX_STR, COUNT_STR };
+		for (int i = 0; i < headings.length; i++)
+		{
+			column = new ColumnConstraints();
+			column.setHalignment(HPos.RIGHT);
+			table.getColumnConstraints().add(column);
+		}
+
+		// Add header row
+		Label unitLabel = new Label(MS_STR);
+		unitLabel.setFont(FontUtils.boldFont());
+		table.add(unitLabel, 0, 0);
+		for (int i = 0; i < headings.length; i++)
+		{
+			Label label = new Label(headings[i]);
+			label.setFont(FontUtils.boldFont());
+			table.add(label, i + 1, 0);
+		}
+
+		// Add rows of values
+		String[] rowNames = { DISPATCH_LATENCY_STR, KEY_EVENT_STR, SCHEDULE_JITTER_STR };
+		valueLabels = new Label[rowNames.length][headings.length];
+		for (int i = 0; i < rowNames.length; i++)
+		{
+			table.add(new Label(rowNames[i]), 0, i + 1);
+			for (int j = 0; j < headings.length; j++)
+			{
+				Label label = new Label(NO_VALUE_STR);
+				valueLabels[i][j] = label;
+				table.add(label, j + 1, i + 1);
+			}
+		}
+
+		// Button: save
+		saveButton = Buttons.hNoShrink(SAVE_STR);
+		saveButton.setDisable(true);
+		saveButton.setOnAction(event ->
+		{
+			// Initialise file chooser
+			FileChooser fileChooser = new FileChooser();
+			fileChooser.setTitle(SAVE_TIMING_STR);
+			fileChooser.getExtensionFilters().add(
+					new FileChooser.ExtensionFilter(JSON_FILES_STR, "*" + JSON_FILENAME_EXTENSION));
+
+			// Display file chooser
+			File file = fileChooser.showSaveDialog(SceneUtils.getWindow(saveButton));
+			if (file == null)
+				return;
+
+			// Append filename extension
+			if (!file.getName().contains("."))
+				file = new File(file.getPath() + JSON_FILENAME_EXTENSION);
+
+			// Write statistics to file
+			try
+			{
+				JsonUtils.writeFile(file.toPath(), encoder.invoke(),
+									JsonGenerator.builder().maxLineLength(MAX_LINE_LENGTH).build());
+			}
+			catch (IOException e)
+			{
+				ErrorDialog.show(SceneUtils.getWindow(saveButton), SAVE_TIMING_STR,
+								 new FileException(ErrorMsg.ERROR_WRITING_FILE, e, file.toPath()));
+			}
+		});
+
+		// Add children
+		getChildren().addAll(table, saveButton);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the specified duration formatted in milliseconds.
+	 *
+	 * @param  duration
+	 *           the duration (in nanoseconds).
+	 * @return {@code duration} formatted in milliseconds.
+	 */
+
+	private static String formatDuration(
+		long	duration)
+	{
+		return String.format(DURATION_FORMAT, (double)duration / NANOSECONDS_PER_MILLISECOND);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Displays the specified snapshot of the accuracy of the timing of generated key events.
+	 *
+	 * @param snapshot
+	 *          the snapshot that will be displayed.  If it is {@code null}, the table is cleared.
+	 */
+
+	public void update(
+		TimingRecorder.Snapshot	snapshot)
+	{
+		// Update table
+		if (snapshot == null)
+		{
+			for (Label[] labels : valueLabels)
+			{
+				for (Label label : labels)
+					label.setText(NO_VALUE_STR);
+			}
+		}
+		else
+		{
+			updateRow(valueLabels[0], snapshot.dispatchLatency());
+			updateRow(valueLabels[1], snapshot.keyEventDuration());
+			updateRow(valueLabels[2], snapshot.scheduleJitter());
+		}
+
+		// Update 'save' button
+		saveButton.setDisable(snapshot == null);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Displays the statistics of the specified histogram in the specified labels of a row of the table.
+	 *
+	 * @param labels
+	 *          the labels of the row.
+	 * @param histogram
+	 *          the histogram whose statistics will be displayed.
+	 */
+
+	private void updateRow(
+		Label[]				labels,
+		LatencyHistogram	histogram)
+	{
+		boolean empty = (histogram.count() == 0);
+		int index = 0;
+		for (double percentile : PERCENTILES)
+			labels[index++].setText(empty ? NO_VALUE_STR : formatDuration(histogram.percentile(percentile)));
+		labels[index++].setText(empty ? NO_VALUE_STR : formatDuration(histogram.max()));
+		labels[index].setText(Long.toString(histogram.count()));
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,255 @@
+/*====================================================================*\
+
+TimingRecorder.java
+
+Class: recorder of the timing of generated key events.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import uk.blankaspect.common.basictree.MapNode;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: RECORDER OF THE TIMING OF GENERATED KEY EVENTS
+
+
+/**
+ * This class records the accuracy with which a job that generates key events keeps to its schedule.  Three
+ * distributions of durations are accumulated in {@linkplain LatencyHistogram histograms}:
+ * <ul>
+ *   <li>the <i>dispatch latency</i>: the time by which the first key event of a scheduled group of events (a character
+ *       or a periodic key press) was generated after the time at which it was due;</li>
+ *   <li>the <i>key-event duration</i>: the time taken by each call to the {@linkplain IKeyEventSink sink} of key
+ *       events;</li>
+ *   <li>the <i>schedule jitter</i>: the absolute difference between the dispatch latencies of successive groups of
+ *       events, which is the amount by which the actual interval between the groups differed from the scheduled
+ *       interval.</li>
+ * </ul>
+ * <p>
+ * Recording a duration requires no allocation.  An instance of this class is not thread-safe; a {@linkplain
+ * #snapshot() snapshot} should be created on the thread on which durations are recorded and passed to other threads.
+ * </p>
+ */
+
+public class TimingRecorder
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The unit of the durations that are recorded. */
+	private static final	String	UNIT	= "ns";
+
+	/** Keys of properties. */
+	private interface PropertyKey
+	{
+		String	DISPATCH_LATENCY	= "dispatchLatency";
+		String	KEY_EVENT_DURATION	= "keyEventDuration";
+		String	SCHEDULE_JITTER		= "scheduleJitter";
+		String	UNIT				= "unit";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The histogram of dispatch latencies. */
+	private	LatencyHistogram	dispatchLatency;
+
+	/** The histogram of the durations of calls to the sink of key events. */
+	private	LatencyHistogram	keyEventDuration;
+
+	/** The histogram of schedule jitter. */
+	private	LatencyHistogram	scheduleJitter;
+
+	/** The most recent dispatch latency, or -1 if no dispatch has been recorded. */
+	private	long				lastLatency;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a recorder of the timing of generated key events.
+	 */
+
+	public TimingRecorder()
+	{
+		// Initialise instance variables
+		dispatchLatency = new LatencyHistogram();
+		keyEventDuration = new LatencyHistogram();
+		scheduleJitter = new LatencyHistogram();
+		lastLatency = -1;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Removes all recorded durations from this recorder.
+	 */
+
+	public void reset()
+	{
+		dispatchLatency.reset();
+		keyEventDuration.reset();
+		scheduleJitter.reset();
+		lastLatency = -1;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Records that the first key event of a scheduled group of events was about to be generated at the specified time.
+	 *
+	 * @param dueTime
+	 *          the value of {@link System#nanoTime()} at which the group of events was due.
+	 * @param time
+	 *          the value of {@link System#nanoTime()} at which the first key event of the group was about to be
+	 *          generated.
+	 */
+
+	public void dispatched(
+		long	dueTime,
+		long	time)
+	{
+		long latency = Math.max(time - dueTime, 0);
+		dispatchLatency.record(latency);
+		if (lastLatency >= 0)
+			scheduleJitter.record(Math.abs(latency - lastLatency));
+		lastLatency = latency;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Records the duration of a call to the sink of key events.
+	 *
+	 * @param startTime
+	 *          the value of {@link System#nanoTime()} before the call.
+	 * @param endTime
+	 *          the value of {@link System#nanoTime()} after the call.
+	 */
+
+	public void keyEvent(
+		long	startTime,
+		long	endTime)
+	{
+		keyEventDuration.record(endTime - startTime);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a snapshot of the durations that have been recorded.
+	 *
+	 * @return a snapshot of the durations that have been recorded.
+	 */
+
+	public Snapshot snapshot()
+	{
+		return new Snapshot(new LatencyHistogram(dispatchLatency), new LatencyHistogram(keyEventDuration),
+							new LatencyHistogram(scheduleJitter));
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: SNAPSHOT OF RECORDED DURATIONS
+
+
+	/**
+	 * This record encapsulates a snapshot of the durations that were recorded by a {@link TimingRecorder}.  The
+	 * histograms of a snapshot should not be modified, except by {@link #merge(Iterable)}, which creates new ones.
+	 *
+	 * @param dispatchLatency
+	 *          the histogram of dispatch latencies.
+	 * @param keyEventDuration
+	 *          the histogram of the durations of calls to the sink of key events.
+	 * @param scheduleJitter
+	 *          the histogram of schedule jitter.
+	 */
+
+	public record Snapshot(
+		LatencyHistogram	dispatchLatency,
+		LatencyHistogram	keyEventDuration,
+		LatencyHistogram	scheduleJitter)
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates and returns a snapshot that combines the durations of the specified snapshots.
+		 *
+		 * @param  snapshots
+		 *           the snapshots that will be combined.
+		 * @return a snapshot that combines the durations of {@code snapshots}.
+		 */
+
+		public static Snapshot merge(
+			Iterable<Snapshot>	snapshots)
+		{
+			Snapshot result = new Snapshot(new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram());
+			for (Snapshot snapshot : snapshots)
+			{
+				result.dispatchLatency.add(snapshot.dispatchLatency);
+				result.keyEventDuration.add(snapshot.keyEventDuration);
+				result.scheduleJitter.add(snapshot.scheduleJitter);
+			}
+			return result;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Encodes this snapshot as a tree of {@linkplain MapNode nodes}.
+		 *
+		 * @return a map node that encodes this snapshot.
+		 */
+
+		public MapNode encode()
+		{
+			MapNode rootNode = new MapNode();
+			rootNode.addString(PropertyKey.UNIT, UNIT);
+			rootNode.add(PropertyKey.DISPATCH_LATENCY, dispatchLatency.encode());
+			rootNode.add(PropertyKey.KEY_EVENT_DURATION, keyEventDuration.encode());
+			rootNode.add(PropertyKey.SCHEDULE_JITTER, scheduleJitter.encode());
+			return rootNode;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
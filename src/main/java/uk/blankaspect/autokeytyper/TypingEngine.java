@@ -0,0 +1,740 @@
+/*====================================================================*\
+
+TypingEngine.java
+
+Class: typing engine.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import uk.blankaspect.common.exception2.BaseException;
+
+import uk.blankaspect.common.thread.DaemonFactory;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: TYPING ENGINE
+
+
+/**
+ * This class implements an engine that generates key events by replaying a {@linkplain KeyEventProgram program
+ * of key events} on a dedicated background thread.  A typing job may be cancelled between any two key events; any
+ * keys that are pressed when a job is cancelled are released before the engine starts its next job.
+ * <p>
+ * The key events of a job are obtained from a {@linkplain IProgramSource source of programs}, which may supply them
+ * in successive chunks so that arbitrarily long text can be typed in bounded memory.
+ * </p>
+ * <p>
+ * The rate at which the key events of successive characters are generated is controlled by a {@link Pacer} that is
+ * specified for each job.
+ * </p>
+ * <p>
+ * The instructions of a program that was compiled from a {@linkplain MacroCompiler macro} (waits, loops and integer
+ * variables) are interpreted on the same thread.  The variables of a program are allocated once before it runs, so
+ * the interpreter neither parses nor allocates while it executes the instructions.
+ * </p>
+ * <p>
+ * The listener of a job is notified of the progress and completion of the job through an {@link Executor} that is
+ * specified when the engine is created (for example, {@code Platform::runLater}).  Progress notifications are
+ * coalesced: at most one progress notification is pending on the executor at any time.  Each notification includes a
+ * {@linkplain TypingStats.Summary summary} of the statistics of the job and a {@linkplain TimingRecorder.Snapshot
+ * snapshot} of the accuracy of its timing.
+ * </p>
+ */
+
+public class TypingEngine
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The name of the thread on which key events are generated. */
+	private static final	String	THREAD_NAME	= "typing-engine";
+
+	/** The maximum number of keys that may be pressed at any time. */
+	private static final	int		MAX_NUM_PRESSED_KEYS	= 16;
+
+	/** The number of nanoseconds in a millisecond. */
+	private static final	long	NANOSECONDS_PER_MILLISECOND	= 1_000_000L;
+
+	/** The variables of a program that has no variables. */
+	private static final	int[]	NO_VARIABLES	= new int[0];
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	TOO_MANY_KEYS_PRESSED =
+				"More than %d keys were pressed at the same time.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The sink to which key events are sent. */
+	private	IKeyEventSink	sink;
+
+	/** The executor on which the listeners of jobs are notified. */
+	private	Executor		listenerExecutor;
+
+	/** The executor on which jobs are run. */
+	private	ExecutorService	jobExecutor;
+
+	/** The key codes of the keys that are currently pressed, in the order in which they were pressed. */
+	private	int[]			pressedKeyCodes;
+
+	/** The number of keys that are currently pressed. */
+	private	int				numPressedKeys;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a typing engine.
+	 *
+	 * @param sink
+	 *          the sink to which key events will be sent.
+	 * @param listenerExecutor
+	 *          the executor on which the listeners of jobs will be notified.
+	 */
+
+	public TypingEngine(
+		IKeyEventSink	sink,
+		Executor		listenerExecutor)
+	{
+		// Initialise instance variables
+		this.sink = sink;
+		this.listenerExecutor = listenerExecutor;
+		jobExecutor = Executors.newSingleThreadExecutor(runnable -> DaemonFactory.create(THREAD_NAME, runnable));
+		pressedKeyCodes = new int[MAX_NUM_PRESSED_KEYS];
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Submits a job that will generate the key events of the specified program after the specified delay, and
+	 * returns a handle for the job.
+	 *
+	 * @param  program
+	 *           the program whose key events will be generated.
+	 * @param  delay
+	 *           the delay (in milliseconds) before the first key event is generated.
+	 * @param  pacer
+	 *           the pacer that will control the rate at which the key events of successive characters are generated.
+	 * @param  listener
+	 *           the listener that will be notified of the progress and completion of the job.
+	 * @return a handle for the job that was submitted.
+	 */
+
+	public Task submit(
+		KeyEventProgram	program,
+		long			delay,
+		Pacer			pacer,
+		IListener		listener)
+	{
+		return submit(IProgramSource.of(program), delay, pacer, listener);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Submits a job that will generate the key events of the programs that are supplied by the specified source
+	 * after the specified delay, and returns a handle for the job.  The source is {@linkplain IProgramSource#prepare()
+	 * prepared} before the delay starts, and it is closed when the job ends.
+	 *
+	 * @param  source
+	 *           the source of the programs whose key events will be generated.
+	 * @param  delay
+	 *           the delay (in milliseconds) before the first key event is generated.
+	 * @param  pacer
+	 *           the pacer that will control the rate at which the key events of successive characters are generated.
+	 * @param  listener
+	 *           the listener that will be notified of the progress and completion of the job.
+	 * @return a handle for the job that was submitted.
+	 */
+
+	public Task submit(
+		IProgramSource	source,
+		long			delay,
+		Pacer			pacer,
+		IListener		listener)
+	{
+		Task task = new Task(listener);
+		task.future = jobExecutor.submit(() -> run(task, source, delay, pacer));
+		return task;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Runs the specified job on the thread of the job executor.
+	 *
+	 * @param task
+	 *          the handle of the job.
+	 * @param source
+	 *          the source of the programs whose key events will be generated.
+	 * @param delay
+	 *          the delay (in milliseconds) before the first key event is generated.
+	 * @param pacer
+	 *          the pacer that will control the rate at which the key events of successive characters are generated.
+	 */
+
+	private void run(
+		Task			task,
+		IProgramSource	source,
+		long			delay,
+		Pacer			pacer)
+	{
+		try
+		{
+			// Prepare source of programs
+			source.prepare();
+
+			// Wait for delay to expire
+			long dueTime = System.nanoTime() + delay * NANOSECONDS_PER_MILLISECOND;
+			if (delay > 0)
+				Thread.sleep(delay);
+
+			// Initialise statistics and pacer
+			long startTime = System.nanoTime();
+			task.stats.start(startTime);
+			pacer.start(startTime);
+
+			// The dispatch latency of a character is recorded before its first key event
+			TimingRecorder timing = task.timing;
+			boolean dispatchPending = true;
+
+			// Execute instructions of each program from source
+			KeyEventProgram program = null;
+			while (!task.cancelled && ((program = source.next()) != null))
+			{
+				// Allocate variables of program
+				int numVariables = program.numVariables();
+				int[] variables = (numVariables == 0) ? NO_VARIABLES : new int[numVariables];
+
+				// Execute instructions of program
+				int[] instructions = program.instructions();
+				int length = program.length();
+				int i = 0;
+				while (i < length)
+				{
+					// Stop if job has been cancelled
+					if (task.cancelled)
+						return;
+
+					// Decode instruction
+					int instruction = instructions[i++];
+					int opcode = KeyEventProgram.opcode(instruction);
+					int operand = KeyEventProgram.operand(instruction);
+
+					// Record dispatch latency of character
+					if (dispatchPending && ((opcode == KeyEventProgram.OP_PRESS)
+												|| (opcode == KeyEventProgram.OP_RELEASE)))
+					{
+						timing.dispatched(dueTime, System.nanoTime());
+						dispatchPending = false;
+					}
+
+					// Execute instruction
+					switch (opcode)
+					{
+						case KeyEventProgram.OP_PRESS:
+							press(operand, timing);
+							break;
+
+						case KeyEventProgram.OP_RELEASE:
+							release(operand, timing);
+							break;
+
+						case KeyEventProgram.OP_END_OF_CHAR:
+						{
+							long time = System.nanoTime();
+							task.stats.charTyped(time);
+							task.reportProgress();
+							pacer.charTyped(time);
+							dueTime = pacer.dueTime();
+							dispatchPending = true;
+							break;
+						}
+
+						case KeyEventProgram.OP_WAIT:
+						{
+							long time = System.nanoTime();
+							long duration = Math.max(KeyEventProgram.value(instructions[i++], variables), 0);
+							if (duration > 0)
+								Thread.sleep(duration);
+							dueTime = time + duration * NANOSECONDS_PER_MILLISECOND;
+							dispatchPending = true;
+							break;
+						}
+
+						case KeyEventProgram.OP_SET:
+							variables[operand] = KeyEventProgram.value(instructions[i++], variables);
+							break;
+
+						case KeyEventProgram.OP_ADD:
+							variables[operand] += KeyEventProgram.value(instructions[i++], variables);
+							break;
+
+						case KeyEventProgram.OP_SUBTRACT:
+							variables[operand] -= KeyEventProgram.value(instructions[i++], variables);
+							break;
+
+						case KeyEventProgram.OP_LOOP:
+						{
+							int count = KeyEventProgram.value(instructions[i++], variables);
+							if (count > 0)
+							{
+								variables[operand] = count;
+								++i;
+							}
+							else
+								i = instructions[i];
+							break;
+						}
+
+						case KeyEventProgram.OP_NEXT:
+							if (--variables[operand] > 0)
+								i = instructions[i];
+							else
+								++i;
+							break;
+					}
+				}
+			}
+
+			// Report completion
+			task.reportFinished(null);
+		}
+		catch (InterruptedException e)
+		{
+			// job was cancelled
+		}
+		catch (Exception e)
+		{
+			// Report failure
+			task.reportFinished(e);
+		}
+		finally
+		{
+			// Release any keys that are still pressed
+			releaseAll();
+
+			// Close source of programs
+			try
+			{
+				source.close();
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Generates a key-press event for the specified key code and records that the key is pressed.  A key that is
+	 * already pressed is recorded only once.
+	 *
+	 * @param  keyCode
+	 *           the key code for which a key-press event will be generated.
+	 * @param  timing
+	 *           the recorder of the duration of the call to the sink of key events.
+	 * @throws BaseException
+	 *           if the maximum number of keys are already pressed.
+	 */
+
+	private void press(
+		int				keyCode,
+		TimingRecorder	timing)
+		throws BaseException
+	{
+		// Test whether key is already pressed
+		boolean pressed = false;
+		for (int i = 0; i < numPressedKeys; i++)
+		{
+			if (pressedKeyCodes[i] == keyCode)
+			{
+				pressed = true;
+				break;
+			}
+		}
+
+		// Test for too many pressed keys
+		if (!pressed && (numPressedKeys == pressedKeyCodes.length))
+			throw new BaseException(ErrorMsg.TOO_MANY_KEYS_PRESSED, pressedKeyCodes.length);
+
+		// Generate key-press event
+		long time = System.nanoTime();
+		sink.keyPress(keyCode);
+		timing.keyEvent(time, System.nanoTime());
+
+		// Add key code to list of pressed keys
+		if (!pressed)
+			pressedKeyCodes[numPressedKeys++] = keyCode;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Generates a key-release event for the specified key code and records that the key is no longer pressed.
+	 *
+	 * @param keyCode
+	 *          the key code for which a key-release event will be generated.
+	 * @param timing
+	 *          the recorder of the duration of the call to the sink of key events.
+	 */
+
+	private void release(
+		int				keyCode,
+		TimingRecorder	timing)
+	{
+		// Generate key-release event
+		long time = System.nanoTime();
+		sink.keyRelease(keyCode);
+		timing.keyEvent(time, System.nanoTime());
+
+		// Remove key code from list of pressed keys
+		for (int i = numPressedKeys - 1; i >= 0; i--)
+		{
+			if (pressedKeyCodes[i] == keyCode)
+			{
+				System.arraycopy(pressedKeyCodes, i + 1, pressedKeyCodes, i, --numPressedKeys - i);
+				break;
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Generates key-release events for all keys that are currently pressed, in the reverse order in which they were
+	 * pressed.
+	 */
+
+	private void releaseAll()
+	{
+		while (numPressedKeys > 0)
+		{
+			try
+			{
+				sink.keyRelease(pressedKeyCodes[--numPressedKeys]);
+			}
+			catch (Exception e)
+			{
+				// ignore
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member interfaces
+////////////////////////////////////////////////////////////////////////
+
+
+	// INTERFACE: LISTENER
+
+
+	/**
+	 * This interface defines the methods that must be implemented by a listener that is notified of the progress and
+	 * completion of a typing job.  The methods are called on the executor that was specified when the {@link
+	 * TypingEngine} was created.  No method is called after a job has been cancelled.
+	 */
+
+	public interface IListener
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Notifies this listener of the progress of a job.
+		 *
+		 * @param stats
+		 *          a summary of the statistics of the job, including the number of characters that have been typed.
+		 * @param timing
+		 *          a snapshot of the accuracy of the timing of the job.
+		 */
+
+		void progress(
+			TypingStats.Summary		stats,
+			TimingRecorder.Snapshot	timing);
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Notifies this listener that a job has finished.
+		 *
+		 * @param stats
+		 *          a summary of the statistics of the job.
+		 * @param timing
+		 *          a snapshot of the accuracy of the timing of the job.
+		 * @param exception
+		 *          the exception that caused the job to fail, or {@code null} if the job completed normally.
+		 */
+
+		void finished(
+			TypingStats.Summary		stats,
+			TimingRecorder.Snapshot	timing,
+			Exception				exception);
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// INTERFACE: SOURCE OF PROGRAMS OF KEY EVENTS
+
+
+	/**
+	 * This interface defines the methods that must be implemented by a source of {@linkplain KeyEventProgram programs
+	 * of key events} for a typing job.  All methods are called on the thread of the typing engine.  The program that is
+	 * returned by {@link #next()} need not be valid after the following call to {@code next()}, so a source may reuse
+	 * a single program for successive chunks of text.
+	 */
+
+	public interface IProgramSource
+		extends Closeable
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates and returns a source that supplies only the specified program.
+		 *
+		 * @param  program
+		 *           the program that will be supplied by the source.
+		 * @return a source that supplies only {@code program}.
+		 */
+
+		static IProgramSource of(
+			KeyEventProgram	program)
+		{
+			return new IProgramSource()
+			{
+				private	boolean	done;
+
+				@Override
+				public KeyEventProgram next()
+				{
+					if (done)
+						return null;
+					done = true;
+					return program;
+				}
+			};
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Prepares this source before the delay of a typing job starts.  A source may use this method to validate its
+		 * content so that an error can be reported before any key events are generated.  The default implementation
+		 * does nothing.
+		 *
+		 * @throws BaseException
+		 *           if an error occurred when preparing this source.
+		 */
+
+		default void prepare()
+			throws BaseException
+		{
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the next program of this source.
+		 *
+		 * @return the next program of this source, or {@code null} if there are no more programs.
+		 * @throws BaseException
+		 *           if an error occurred when reading or compiling the next program.
+		 */
+
+		KeyEventProgram next()
+			throws BaseException;
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Closes this source, releasing any resources that it holds.  The default implementation does nothing.
+		 *
+		 * @throws IOException
+		 *           if an error occurred when closing this source.
+		 */
+
+		@Override
+		default void close()
+			throws IOException
+		{
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: HANDLE OF A TYPING JOB
+
+
+	/**
+	 * This class implements a handle of a typing job, through which the job may be cancelled.
+	 */
+
+	public class Task
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The listener that is notified of the progress and completion of the job. */
+		private	IListener			listener;
+
+		/** The result of submitting the job to the job executor. */
+		private	Future<?>			future;
+
+		/** Flag: if {@code true}, the job has been cancelled. */
+		private volatile boolean	cancelled;
+
+		/** The statistics of the job, which are updated on the thread of the job executor. */
+		private	TypingStats			stats;
+
+		/** The recorder of the timing of the job, which is updated on the thread of the job executor. */
+		private	TimingRecorder		timing;
+
+		/** Flag: if {@code true}, a progress notification is pending on the listener executor. */
+		private	AtomicBoolean		progressPending;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Task(
+			IListener	listener)
+		{
+			// Initialise instance variables
+			this.listener = listener;
+			stats = new TypingStats();
+			timing = new TimingRecorder();
+			progressPending = new AtomicBoolean();
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Cancels the job.  If the job is generating key events, it will stop before the next key event, and any keys
+		 * that it pressed will be released.  The listener of the job will not be notified after this method is called.
+		 * This method should be called on the thread of the listener executor.
+		 */
+
+		public void cancel()
+		{
+			cancelled = true;
+			if (future != null)
+				future.cancel(true);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * If there is not already a progress notification pending, notifies the listener of the job of its progress
+		 * through the listener executor.
+		 */
+
+		private void reportProgress()
+		{
+			if (progressPending.compareAndSet(false, true))
+			{
+				TypingStats.Summary summary = stats.summary();
+				TimingRecorder.Snapshot timingSnapshot = timing.snapshot();
+				listenerExecutor.execute(() ->
+				{
+					progressPending.set(false);
+					if (!cancelled)
+						listener.progress(summary, timingSnapshot);
+				});
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Notifies the listener of the job through the listener executor that the job has finished.
+		 *
+		 * @param exception
+		 *          the exception that caused the job to fail, or {@code null} if the job completed normally.
+		 */
+
+		private void reportFinished(
+			Exception	exception)
+		{
+			TypingStats.Summary summary = stats.summary();
+			TimingRecorder.Snapshot timingSnapshot = timing.snapshot();
+			listenerExecutor.execute(() ->
+			{
+				if (!cancelled)
+					listener.finished(summary, timingSnapshot, exception);
+			});
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,184 @@
+/*====================================================================*\
+
+TypingStats.java
+
+Class: statistics of a typing job.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: STATISTICS OF A TYPING JOB
+
+
+/**
+ * This class records the times at which a {@link TypingEngine} finishes generating the key events of successive
+ * characters, and derives from them the rate of typing and the distribution of the intervals between characters.
+ * <p>
+ * The intervals are accumulated in a {@link LatencyHistogram}, whose log-linear buckets bound the error of an
+ * estimated percentile to 1/8 of its value, and in which recording an interval requires no allocation.  An instance
+ * of this class is not thread-safe; a {@linkplain #summary() summary} should be created on the typing thread and passed
+ * to other threads.
+ * </p>
+ */
+
+public class TypingStats
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of nanoseconds in a second. */
+	private static final	double	NANOSECONDS_PER_SECOND	= 1.0e9;
+
+	/** The percentiles of the distribution of intervals that are included in a summary. */
+	private static final	double[]	PERCENTILES	= { 0.5, 0.9, 0.99 };
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The time (in nanoseconds) at which the generation of key events started. */
+	private	long	startTime;
+
+	/** The time (in nanoseconds) at which the key events of the most recent character had been generated. */
+	private	long	lastCharTime;
+
+	/** The number of characters that have been typed. */
+	private	int		numChars;
+
+	/** The histogram of the intervals (in nanoseconds) between characters. */
+	private	LatencyHistogram	intervals;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of the statistics of a typing job.
+	 */
+
+	public TypingStats()
+	{
+		// Initialise instance variables
+		intervals = new LatencyHistogram();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Resets these statistics and records the time at which the generation of key events started.
+	 *
+	 * @param time
+	 *          the value of {@link System#nanoTime()} when the generation of key events started.
+	 */
+
+	public void start(
+		long	time)
+	{
+		startTime = time;
+		lastCharTime = time;
+		numChars = 0;
+		intervals.reset();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Records that the key events of a character had been generated at the specified time.
+	 *
+	 * @param time
+	 *          the value of {@link System#nanoTime()} when the key events of the character had been generated.
+	 */
+
+	public void charTyped(
+		long	time)
+	{
+		intervals.record(time - lastCharTime);
+		lastCharTime = time;
+		++numChars;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a summary of these statistics.
+	 *
+	 * @return a summary of these statistics.
+	 */
+
+	public Summary summary()
+	{
+		// Calculate rate of typing
+		long elapsedTime = lastCharTime - startTime;
+		double charsPerSecond = (elapsedTime > 0) ? (double)numChars * NANOSECONDS_PER_SECOND / (double)elapsedTime
+												  : 0.0;
+
+		// Estimate percentiles of intervals from histogram
+		long[] percentiles = new long[PERCENTILES.length];
+		for (int i = 0; i < percentiles.length; i++)
+			percentiles[i] = intervals.percentile(PERCENTILES[i]);
+
+		// Create summary and return it
+		return new Summary(numChars, charsPerSecond, intervals.min(), percentiles[0], percentiles[1], percentiles[2],
+						   intervals.max());
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: SUMMARY OF STATISTICS
+
+
+	/**
+	 * This record encapsulates a summary of the statistics of a typing job.  All intervals are in nanoseconds; the
+	 * percentiles are the upper bounds of the buckets of a {@link LatencyHistogram} that contain them, so each one
+	 * exceeds the true percentile by at most 1/8.
+	 *
+	 * @param numChars
+	 *          the number of characters that have been typed.
+	 * @param charsPerSecond
+	 *          the rate of typing (in characters per second).
+	 * @param minInterval
+	 *          the shortest interval between characters.
+	 * @param p50Interval
+	 *          the 50th percentile of the intervals between characters.
+	 * @param p90Interval
+	 *          the 90th percentile of the intervals between characters.
+	 * @param p99Interval
+	 *          the 99th percentile of the intervals between characters.
+	 * @param maxInterval
+	 *          the longest interval between characters.
+	 */
+
+	public record Summary(
+		int		numChars,
+		double	charsPerSecond,
+		long	minInterval,
+		long	p50Interval,
+		long	p90Interval,
+		long	p99Interval,
+		long	maxInterval)
+	{ }
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,382 @@
+/*====================================================================*\
+
+UnmappedCharTracker.java
+
+Class: tracker of unmapped characters in editable text.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.autokeytyper;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: TRACKER OF UNMAPPED CHARACTERS IN EDITABLE TEXT
+
+
+/**
+ * This class implements a tracker of the positions of the characters of some editable text that cannot be mapped to
+ * keys.  The tracker is notified of each edit of the text, and it validates only the characters that were inserted by
+ * the edit against a {@link BitSet} of mapped code points.  The positions of unmapped characters are kept in a sorted
+ * array; an edit removes the positions in the replaced range and shifts the positions that follow it, so the cost of an
+ * edit depends on the length of the edit and the number of unmapped characters, but not on the length of the text.
+ * <p>
+ * The text is validated as a sequence of code points, so a surrogate pair is treated as a single character whose
+ * position is that of its high surrogate, and an unpaired surrogate is treated as an unmapped character.  Because an
+ * edit may join or separate a surrogate pair at either end of the replaced range, the character on each side of the
+ * range is revalidated if it is a surrogate.
+ * </p>
+ */
+
+public class UnmappedCharTracker
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The initial capacity of the array of positions of unmapped characters. */
+	private static final	int		INITIAL_CAPACITY	= 16;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The code points that can be mapped to keys by the key map. */
+	private	BitSet	mappedChars;
+
+	/** The character that is mapped to the <i>tab</i> key, or U+0000 for no alias. */
+	private	char	tabAlias;
+
+	/** The character that is mapped to the <i>enter</i> key, or U+0000 for no alias. */
+	private	char	enterAlias;
+
+	/** The positions of the unmapped characters of the text, in ascending order. */
+	private	int[]	positions;
+
+	/** The number of unmapped characters of the text. */
+	private	int		numPositions;
+
+	/** The code points of the unmapped characters of the text, in the same order as {@link #positions}. */
+	private	int[]	codePoints;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a tracker of unmapped characters for the specified key map.  The text is initially
+	 * empty.
+	 *
+	 * @param keyMap
+	 *          the map from characters to keys against which characters will be validated.
+	 */
+
+	public UnmappedCharTracker(
+		CompiledKeyMap	keyMap)
+	{
+		// Initialise instance variables
+		mappedChars = mappedChars(keyMap);
+		positions = new int[INITIAL_CAPACITY];
+		codePoints = new int[INITIAL_CAPACITY];
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns a set of the code points that can be mapped to keys by the specified key map.
+	 *
+	 * @param  keyMap
+	 *           the key map.
+	 * @return a set of the code points that can be mapped to keys by {@code keyMap}.
+	 */
+
+	private static BitSet mappedChars(
+		CompiledKeyMap	keyMap)
+	{
+		BitSet mappedChars = new BitSet();
+		for (int codePoint : keyMap.codePoints())
+			mappedChars.set(codePoint);
+		return mappedChars;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns {@code true} if the specified code point can be mapped to a key, taking into account the aliases of this
+	 * tracker.
+	 *
+	 * @param  ch
+	 *           the code point of interest.
+	 * @return {@code true} if {@code ch} can be mapped to a key.
+	 */
+
+	public boolean isMapped(
+		int	ch)
+	{
+		return mappedChars.get(ch) || ((ch == tabAlias) && (tabAlias != '\0'))
+				|| ((ch == enterAlias) && (enterAlias != '\0'));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of unmapped characters of the text.
+	 *
+	 * @return the number of unmapped characters of the text.
+	 */
+
+	public int numUnmapped()
+	{
+		return numPositions;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of unmapped characters of the text that are unpaired surrogates.  Such a character cannot be
+	 * typed even by a {@linkplain FallbackSequence fallback sequence}, so it remains unmapped when a fallback sequence
+	 * is used for other unmapped characters.
+	 *
+	 * @return the number of unmapped characters of the text that are unpaired surrogates.
+	 */
+
+	public int numUnmappedSurrogates()
+	{
+		int count = 0;
+		for (int i = 0; i < numPositions; i++)
+		{
+			if (Character.getType(codePoints[i]) == Character.SURROGATE)
+				++count;
+		}
+		return count;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the position in the text of the unmapped character at the specified index.
+	 *
+	 * @param  index
+	 *           the index of the unmapped character.
+	 * @return the position in the text of the unmapped character at {@code index}.
+	 */
+
+	public int position(
+		int	index)
+	{
+		return positions[index];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the code point of the unmapped character at the specified index.
+	 *
+	 * @param  index
+	 *           the index of the unmapped character.
+	 * @return the code point of the unmapped character at {@code index}.
+	 */
+
+	public int unmappedChar(
+		int	index)
+	{
+		return codePoints[index];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Sets the aliases of the <i>tab</i> and <i>enter</i> keys, and revalidates the specified text.
+	 *
+	 * @param tabAlias
+	 *          the character that is mapped to the <i>tab</i> key, or U+0000 for no alias.
+	 * @param enterAlias
+	 *          the character that is mapped to the <i>enter</i> key, or U+0000 for no alias.
+	 * @param text
+	 *          the current text.
+	 */
+
+	public void setAliases(
+		char			tabAlias,
+		char			enterAlias,
+		CharSequence	text)
+	{
+		this.tabAlias = tabAlias;
+		this.enterAlias = enterAlias;
+		reset(text);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Sets the key map against which characters are validated, and revalidates the specified text.
+	 *
+	 * @param keyMap
+	 *          the map from characters to keys against which characters will be validated.
+	 * @param text
+	 *          the current text.
+	 */
+
+	public void setKeyMap(
+		CompiledKeyMap	keyMap,
+		CharSequence	text)
+	{
+		mappedChars = mappedChars(keyMap);
+		reset(text);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Validates the whole of the specified text, replacing the positions of any existing unmapped characters.
+	 *
+	 * @param text
+	 *          the text that will be validated.
+	 */
+
+	public void reset(
+		CharSequence	text)
+	{
+		numPositions = 0;
+		update(0, 0, text, "");
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Updates the positions of unmapped characters after an edit in which the specified range of the text was replaced
+	 * by the specified characters.
+	 *
+	 * @param start
+	 *          the start index (inclusive) of the range of the text that was replaced.
+	 * @param end
+	 *          the end index (exclusive) of the range of the text that was replaced.
+	 * @param insertedText
+	 *          the characters that replaced the range.
+	 * @param oldText
+	 *          the text before the edit.
+	 */
+
+	public void update(
+		int				start,
+		int				end,
+		CharSequence	insertedText,
+		CharSequence	oldText)
+	{
+		// Extend the range to include a surrogate on either side of it, which may have been joined to or separated from
+		// the other surrogate of a pair by the edit
+		int insertedLength = insertedText.length();
+		boolean highBefore = (start > 0) && Character.isHighSurrogate(oldText.charAt(start - 1));
+		boolean lowAfter = (end < oldText.length()) && Character.isLowSurrogate(oldText.charAt(end));
+		CharSequence text = insertedText;
+		if (highBefore || lowAfter)
+		{
+			StringBuilder buffer = new StringBuilder(insertedLength + 2);
+			if (highBefore)
+				buffer.append(oldText.charAt(start - 1));
+			buffer.append(insertedText);
+			if (lowAfter)
+				buffer.append(oldText.charAt(end));
+			text = buffer;
+		}
+		int textStart = highBefore ? start - 1 : start;
+		int oldEnd = lowAfter ? end + 1 : end;
+
+		// Find the indices of the positions that lie in the replaced range
+		int startIndex = search(textStart);
+		int endIndex = search(oldEnd);
+
+		// Count unmapped code points in text of range
+		int textLength = text.length();
+		int numInserted = 0;
+		for (int i = 0; i < textLength; )
+		{
+			int codePoint = Character.codePointAt(text, i);
+			if (!isMapped(codePoint))
+				++numInserted;
+			i += Character.charCount(codePoint);
+		}
+
+		// Ensure capacity of arrays
+		int numTail = numPositions - endIndex;
+		int newNumPositions = startIndex + numInserted + numTail;
+		if (newNumPositions > positions.length)
+		{
+			int capacity = Math.max(newNumPositions, 2 * positions.length);
+			positions = Arrays.copyOf(positions, capacity);
+			codePoints = Arrays.copyOf(codePoints, capacity);
+		}
+
+		// Move the positions that follow the replaced range, and shift them by the change in length of the text
+		int delta = insertedLength - (end - start);
+		int tailIndex = startIndex + numInserted;
+		System.arraycopy(positions, endIndex, positions, tailIndex, numTail);
+		System.arraycopy(codePoints, endIndex, codePoints, tailIndex, numTail);
+		if (delta != 0)
+		{
+			for (int i = tailIndex; i < newNumPositions; i++)
+				positions[i] += delta;
+		}
+
+		// Add the positions of unmapped code points in text of range
+		int index = startIndex;
+		for (int i = 0; (i < textLength) && (index < tailIndex); )
+		{
+			int codePoint = Character.codePointAt(text, i);
+			if (!isMapped(codePoint))
+			{
+				positions[index] = textStart + i;
+				codePoints[index++] = codePoint;
+			}
+			i += Character.charCount(codePoint);
+		}
+
+		// Update number of positions
+		numPositions = newNumPositions;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index of the first position of an unmapped character that is not less than the specified position.
+	 *
+	 * @param  position
+	 *           the position of interest.
+	 * @return the index of the first element of {@link #positions} that is not less than {@code position}, or the
+	 *         number of positions if there is no such element.
+	 */
+
+	private int search(
+		int	position)
+	{
+		int index = Arrays.binarySearch(positions, 0, numPositions, position);
+		return (index < 0) ? -(index + 1) : index;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,956 @@
+/*====================================================================*\
+
+AbstractJsonLexer.java
+
+Class: abstract lexical analyser of JSON text.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.json;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import uk.blankaspect.common.basictree.BooleanNode;
+import uk.blankaspect.common.basictree.NullNode;
+import uk.blankaspect.common.basictree.StringNode;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: ABSTRACT LEXICAL ANALYSER OF JSON TEXT
+
+
+/**
+ * This is the abstract base class of the lexical analysers that supply the tokens of JSON text to {@link JsonParser}.
+ * A subclass provides access to the characters of the input text, and it parses JSON strings, whose representation
+ * depends on the form of the input.  This class parses JSON numbers, literal names and escape sequences in terms of
+ * the characters that are supplied by a subclass.
+ * <p>
+ * The lexer keeps track of the current line of the input text so that the location of an error can be reported.  An
+ * error is reported by throwing a {@link JsonParser.ParseException}.
+ * </p>
+ */
+
+abstract class AbstractJsonLexer
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The prefix of a four-hex-digit Unicode representation of a character. */
+	private static final	String	UNICODE_PREFIX	= "U+";
+
+	/** Miscellaneous strings. */
+	private static final	String	CHARACTER_NOT_ALLOWED_STR	= "the character %s at index %d is not allowed.";
+	private static final	String	ENDED_PREMATURELY_STR		= "it ended prematurely at index %d.";
+
+	/** The largest integer that can be represented exactly by a {@code double}. */
+	private static final	long	MAX_EXACT_DOUBLE_INTEGER	= 1L << 53;
+
+	/** The limit of the absolute value of the exponent of a JSON number that is accumulated while the number is
+		validated.  The exponent of a number whose exponent reaches this limit is not accumulated further, and the
+		value of the number is not obtained by {@link #numberValue(int)}. */
+	private static final	int		MAX_EXPONENT	= 100_000;
+
+	/** The powers of ten that can be represented exactly by a {@code double}. */
+	private static final	double[]	EXACT_POWERS_OF_TEN	=
+	{
+		1.0e0,  1.0e1,  1.0e2,  1.0e3,  1.0e4,  1.0e5,  1.0e6,  1.0e7,  1.0e8,  1.0e9,  1.0e10, 1.0e11,
+		1.0e12, 1.0e13, 1.0e14, 1.0e15, 1.0e16, 1.0e17, 1.0e18, 1.0e19, 1.0e20, 1.0e21, 1.0e22
+	};
+
+	/** JSON literal names. */
+	private static final	String[]	LITERAL_NAMES	=
+	{
+		NullNode.VALUE,
+		BooleanNode.VALUE_FALSE,
+		BooleanNode.VALUE_TRUE
+	};
+
+	/** Mappings from characters in an escape sequence to their corresponding literal characters. */
+	private static final	char[][]	ESCAPE_MAPPINGS	=
+	{
+		{ '\\', '\\' },
+		{ '\"', '\"' },
+		{ '/',  '/' },
+		{ 'b',  '\b' },
+		{ 't',  '\t' },
+		{ 'n',  '\n' },
+		{ 'f',  '\f' },
+		{ 'r',  '\r' }
+	};
+
+	/** The states of the number validator. */
+	private enum NumberState
+	{
+		INTEGER_PART_SIGN,
+		INTEGER_PART_FIRST_DIGIT,
+		INTEGER_PART_DIGITS,
+		FRACTION_PART_FIRST_DIGIT,
+		FRACTION_PART_DIGITS,
+		EXPONENT_SIGN,
+		EXPONENT_FIRST_DIGIT,
+		EXPONENT_DIGITS,
+		DONE
+	}
+
+	/** Error messages. */
+	interface ErrorMsg
+	{
+		String	ERROR_READING_FROM_STREAM =
+				"An error occured when reading from the input stream.";
+
+		String	PREMATURE_END_OF_TEXT =
+				"The input text ended prematurely.";
+
+		String	ILLEGAL_CHARACTER_IN_STRING =
+				"The character '%s' is not allowed in a string.";
+
+		String	ILLEGAL_VALUE =
+				"The value is illegal.";
+
+		String	ILLEGAL_ESCAPE_SEQUENCE =
+				"The escape sequence '%s' is illegal.";
+
+		String	ILLEGAL_UNICODE_ESCAPE_SEQUENCE =
+				"The Unicode escape sequence '%s' is illegal.";
+
+		String	INVALID_NUMBER =
+				"The number is not valid";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The index of the current line in the input text. */
+	protected	int		lineIndex;
+
+	/** The index of the start of the current line in the input text. */
+	protected	int		lineStartIndex;
+
+	/** A buffer for the characters of a Unicode escape sequence. */
+	private		char[]	unicodeSeqChars;
+
+	/** Flag: if {@code true}, the last JSON number that was validated has a minus sign. */
+	private		boolean	numberNegative;
+
+	/** Flag: if {@code true}, the last JSON number that was validated has a fraction part. */
+	private		boolean	numberFraction;
+
+	/** Flag: if {@code true}, the last JSON number that was validated has an exponent. */
+	private		boolean	numberExponent;
+
+	/** Flag: if {@code true}, the digits of the last JSON number that was validated were too many to be accumulated in
+		{@link #numberMantissa}. */
+	private		boolean	numberOverflow;
+
+	/** The decimal digits of the integer part and fraction part of the last JSON number that was validated, as an
+		integer. */
+	private		long	numberMantissa;
+
+	/** The number of digits in the fraction part of the last JSON number that was validated. */
+	private		int		numberScale;
+
+	/** The signed value of the exponent of the last JSON number that was validated, whose absolute value is limited
+		to {@link #MAX_EXPONENT}. */
+	private		int		exponentValue;
+
+	/** The {@linkplain #numberValue(int) value} of the last JSON number that was validated, if it is an integer. */
+	private		long	integerValue;
+
+	/** The {@linkplain #numberValue(int) value} of the last JSON number that was validated, if it has a fraction
+		part. */
+	private		double	fractionValue;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a lexical analyser of JSON text.
+	 */
+
+	protected AbstractJsonLexer()
+	{
+		// Initialise instance variables
+		unicodeSeqChars = new char[StringNode.UNICODE_SEQUENCE_LENGTH];
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns {@code true} if the specified character is a value terminator (ie, either whitespace or a structural
+	 * character).
+	 *
+	 * @param  ch
+	 *           the character that will be tested.
+	 * @return {@code true} if {@code ch} is whitespace or a structural character.
+	 */
+
+	private static boolean isValueTerminator(
+		char	ch)
+	{
+		return switch (ch)
+		{
+			case ' ', '\n', '\r', '\t',
+				 JsonConstants.ARRAY_START_CHAR,
+				 JsonConstants.ARRAY_END_CHAR,
+				 JsonConstants.OBJECT_START_CHAR,
+				 JsonConstants.OBJECT_END_CHAR,
+				 JsonConstants.OBJECT_NAME_VALUE_SEPARATOR_CHAR,
+				 JsonConstants.OBJECT_MEMBER_SEPARATOR_CHAR -> true;
+			default -> false;
+		};
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the specified character is a decimal digit.
+	 *
+	 * @param  ch
+	 *           the character that will be tested.
+	 * @return {@code true} if {@code ch} is a decimal digit.
+	 */
+
+	private static boolean isDigit(
+		char	ch)
+	{
+		return (ch >= '0') && (ch <= '9');
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Abstract methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the index of the next character in the input text.
+	 *
+	 * @return the index of the next character in the input text.
+	 */
+
+	abstract int index();
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the character of the input text that is the specified number of characters after the next character,
+	 * without consuming any characters.
+	 *
+	 * @param  distance
+	 *           the number of characters after the next character; 0 denotes the next character.
+	 * @return the character that is {@code distance} characters after the next character of the input text, or -1 if
+	 *         the input text ends before that character.
+	 * @throws JsonParser.ParseException
+	 *           if an error occurs when reading the input text.
+	 */
+
+	abstract int peek(
+		int	distance)
+		throws JsonParser.ParseException;
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes the next character of the input text, which must have been {@linkplain #peek() peeked}.
+	 */
+
+	abstract void advance();
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes any whitespace at the current position in the input text, and returns the next character without
+	 * consuming it.  The {@linkplain #lineIndex() current line} is updated at each line feed (U+000A).
+	 *
+	 * @return the first character after any whitespace, or -1 if the end of the input text has been reached.
+	 * @throws JsonParser.ParseException
+	 *           if an error occurs when reading the input text.
+	 */
+
+	abstract int skipWhitespace()
+		throws JsonParser.ParseException;
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Parses a JSON string whose opening quotation mark (U+0022) is the next character of the input text, and returns
+	 * the value of the string.
+	 *
+	 * @return the value of the JSON string.
+	 * @throws JsonParser.ParseException
+	 *           if the JSON string is not valid or an error occurs when reading the input text.
+	 */
+
+	abstract String readString()
+		throws JsonParser.ParseException;
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the specified number of characters of the input text, starting at the next character, as a string
+	 * without consuming them.  The characters must have been {@linkplain #peek(int) peeked} and must all be in the
+	 * US-ASCII range.
+	 *
+	 * @param  length
+	 *           the number of characters that will be returned.
+	 * @return the next {@code length} characters of the input text.
+	 */
+
+	abstract String peekAscii(
+		int	length);
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes the specified number of characters of the input text, which must have been {@linkplain #peek(int)
+	 * peeked} and must all be in the US-ASCII range.
+	 *
+	 * @param length
+	 *          the number of characters that will be consumed.
+	 */
+
+	abstract void skip(
+		int	length);
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the index of the current line in the input text.
+	 *
+	 * @return the index of the current line in the input text.
+	 */
+
+	int lineIndex()
+	{
+		return lineIndex;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index of the start of the current line in the input text.
+	 *
+	 * @return the index of the start of the current line in the input text.
+	 */
+
+	int lineStartIndex()
+	{
+		return lineStartIndex;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the next character of the input text without consuming it.
+	 *
+	 * @return the next character of the input text, or -1 if the end of the input text has been reached.
+	 * @throws JsonParser.ParseException
+	 *           if an error occurs when reading the input text.
+	 */
+
+	int peek()
+		throws JsonParser.ParseException
+	{
+		return peek(0);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Parses a JSON literal name ({@code null}, {@code false} or {@code true}) that starts at the next character of the
+	 * input text.
+	 *
+	 * @return the literal name, which is one of {@link NullNode#VALUE}, {@link BooleanNode#VALUE_FALSE} and {@link
+	 *         BooleanNode#VALUE_TRUE}.
+	 * @throws JsonParser.ParseException
+	 *           if the token at the current position is not a literal name or an error occurs when reading the input
+	 *           text.
+	 */
+
+	String readLiteral()
+		throws JsonParser.ParseException
+	{
+		// Match input against each literal name
+		for (String name : LITERAL_NAMES)
+		{
+			// Match characters of name
+			int length = name.length();
+			int i = 0;
+			while ((i < length) && (peek(i) == name.charAt(i)))
+				++i;
+
+			// If name matched and is followed by a value terminator, consume it
+			if (i == length)
+			{
+				int next = peek(length);
+				if ((next < 0) || isValueTerminator((char)next))
+				{
+					for (i = 0; i < length; i++)
+						advance();
+					return name;
+				}
+			}
+		}
+
+		// Token is not a literal name
+		throw exception(ErrorMsg.ILLEGAL_VALUE, index());
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Validates a JSON number that starts at the next character of the input text, and returns its length.  While the
+	 * number is validated, its sign, the decimal digits of its integer part and fraction part and its exponent are
+	 * accumulated in instance variables, from which its {@linkplain #numberValue(int) value} may be obtained; no
+	 * objects are created.  The characters of the number are not consumed.
+	 * <p>
+	 * The use of a finite-state machine to validate a JSON number is preferred to a regular expression because it is
+	 * faster.
+	 * </p>
+	 *
+	 * @return the number of characters in the JSON number.
+	 * @throws JsonParser.ParseException
+	 *           if the text at the current position is not a valid JSON representation of a number or an error occurs
+	 *           when reading the input text.
+	 */
+
+	int scanNumber()
+		throws JsonParser.ParseException
+	{
+		// Initialise local variables
+		int length = 0;
+		boolean exponentNegative = false;
+		int exponent = 0;
+		NumberState state = NumberState.INTEGER_PART_SIGN;
+
+		// Reset components of number
+		numberNegative = false;
+		numberFraction = false;
+		numberExponent = false;
+		numberOverflow = false;
+		numberMantissa = 0;
+		numberScale = 0;
+
+		// Validate number
+		while (state != NumberState.DONE)
+		{
+			// Get next character; the end of the input is treated as a terminating space
+			int next = peek(length);
+			char ch = (next < 0) ? ' ' : (char)next;
+
+			// Execute finite-state machine
+			switch (state)
+			{
+				//----  Sign of integer part
+				case INTEGER_PART_SIGN:
+				{
+					// Skip any minus sign
+					if (ch == '-')
+					{
+						numberNegative = true;
+						++length;
+					}
+
+					// Set next state
+					state = NumberState.INTEGER_PART_FIRST_DIGIT;
+					break;
+				}
+
+				//----  First digit of integer part
+				case INTEGER_PART_FIRST_DIGIT:
+				{
+					// Test for decimal digit
+					if (!isDigit(ch))
+						throwNumberException(length, next);
+
+					// Accumulate digit
+					accumulateDigit(ch);
+
+					// Set next state
+					++length;
+					state = NumberState.INTEGER_PART_DIGITS;
+					break;
+				}
+
+				//----  Remaining digits of integer part
+				case INTEGER_PART_DIGITS:
+				{
+					// If end of number, stop validation ...
+					if (isValueTerminator(ch))
+						state = NumberState.DONE;
+
+					// ... otherwise, if decimal point, expect fraction ...
+					else if (ch == '.')
+					{
+						numberFraction = true;
+						++length;
+						state = NumberState.FRACTION_PART_FIRST_DIGIT;
+					}
+
+					// ... otherwise, if exponent prefix, expect exponent ...
+					else if ((ch == 'E') || (ch == 'e'))
+					{
+						numberExponent = true;
+						++length;
+						state = NumberState.EXPONENT_SIGN;
+					}
+
+					// ... otherwise, if decimal digit, test for leading zero and accumulate digit ...
+					else if (isDigit(ch))
+					{
+						if (((length == 1) && (peek(0) == '0'))
+								|| ((length == 2) && (peek(0) == '-') && (peek(1) == '0')))
+							throwNumberException(length - 1, '0');
+						accumulateDigit(ch);
+						++length;
+					}
+
+					// ... otherwise, throw an exception
+					else
+						throwNumberException(length, next);
+					break;
+				}
+
+				//----  First digit of fraction part
+				case FRACTION_PART_FIRST_DIGIT:
+				{
+					// Test for decimal digit
+					if (!isDigit(ch))
+						throwNumberException(length, next);
+
+					// Accumulate digit
+					accumulateDigit(ch);
+					++numberScale;
+
+					// Set next state
+					++length;
+					state = NumberState.FRACTION_PART_DIGITS;
+					break;
+				}
+
+				//----  Remaining digits of fraction part
+				case FRACTION_PART_DIGITS:
+				{
+					// If end of number, stop validation ...
+					if (isValueTerminator(ch))
+						state = NumberState.DONE;
+
+					// ... otherwise, if exponent prefix, expect exponent ...
+					else if ((ch == 'E') || (ch == 'e'))
+					{
+						numberExponent = true;
+						++length;
+						state = NumberState.EXPONENT_SIGN;
+					}
+
+					// ... otherwise, if decimal digit, accumulate it ...
+					else if (isDigit(ch))
+					{
+						accumulateDigit(ch);
+						++numberScale;
+						++length;
+					}
+
+					// ... otherwise, throw an exception
+					else
+						throwNumberException(length, next);
+					break;
+				}
+
+				//----  Sign of exponent
+				case EXPONENT_SIGN:
+				{
+					// Skip any sign of exponent
+					if ((ch == '-') || (ch == '+'))
+					{
+						exponentNegative = (ch == '-');
+						++length;
+					}
+
+					// Set next state
+					state = NumberState.EXPONENT_FIRST_DIGIT;
+					break;
+				}
+
+				//----  First digit of exponent
+				case EXPONENT_FIRST_DIGIT:
+				{
+					// Test for decimal digit
+					if (!isDigit(ch))
+						throwNumberException(length, next);
+
+					// Accumulate digit
+					exponent = ch - '0';
+
+					// Set next state
+					++length;
+					state = NumberState.EXPONENT_DIGITS;
+					break;
+				}
+
+				//----  Remaining digits of exponent
+				case EXPONENT_DIGITS:
+				{
+					// If end of number, stop validation ...
+					if (isValueTerminator(ch))
+						state = NumberState.DONE;
+
+					// ... otherwise, if decimal digit, accumulate it up to limit ...
+					else if (isDigit(ch))
+					{
+						if (exponent < MAX_EXPONENT)
+							exponent = 10 * exponent + (ch - '0');
+						++length;
+					}
+
+					// ... otherwise, throw an exception
+					else
+						throwNumberException(length, next);
+					break;
+				}
+
+				//----  Validation completed successfully
+				case DONE:
+					// do nothing
+					break;
+			}
+		}
+
+		// Set signed exponent
+		exponentValue = exponentNegative ? -Math.min(exponent, MAX_EXPONENT) : Math.min(exponent, MAX_EXPONENT);
+
+		// Return length of number
+		return length;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Obtains the value of the JSON number that was last {@linkplain #scanNumber() validated}, if it can be obtained
+	 * without recourse to {@link java.math.BigDecimal BigDecimal}, and returns {@code true} if it was obtained.  The
+	 * value is then available from {@link #integerValue()}, if the number has neither a fraction part nor an
+	 * exponent, or from {@link #fractionValue()}, if it has a fraction part.  No characters are consumed.
+	 * <p>
+	 * The value of an integer is accumulated from its digits while it is validated; the value of an integer that is
+	 * too large for a {@code long} is not obtained.  The value of a number with a fraction part is obtained from its
+	 * digits and exponent with a single correctly rounded multiplication or division if the digits (ignoring the
+	 * decimal point) form an integer that can be represented exactly by a {@code double} and the power of ten by which
+	 * they are scaled is likewise exact; otherwise, the value is parsed from the text of the number with {@link
+	 * Double#parseDouble(String)}, which is also correctly rounded.  A number whose value is zero is deemed to be
+	 * positive zero, regardless of its sign.  The value of a number that has an exponent but no fraction part, or
+	 * whose exponent is very large, is not obtained.
+	 * </p>
+	 *
+	 * @param  length
+	 *           the length of the JSON number, as returned by {@link #scanNumber()}.
+	 * @return {@code true} if the value of the number was obtained.
+	 */
+
+	boolean numberValue(
+		int	length)
+	{
+		// Case: integer
+		if (!numberFraction)
+		{
+			if (numberExponent || numberOverflow)
+				return false;
+			integerValue = numberNegative ? -numberMantissa : numberMantissa;
+			return true;
+		}
+
+		// Case: number with fraction part
+		if (Math.abs(exponentValue) >= MAX_EXPONENT)
+			return false;
+		int exponent = exponentValue - numberScale;
+		if (numberOverflow || (numberMantissa > MAX_EXACT_DOUBLE_INTEGER)
+				|| (Math.abs(exponent) >= EXACT_POWERS_OF_TEN.length))
+			fractionValue = Double.parseDouble(peekAscii(length));
+		else
+		{
+			double value = (exponent < 0) ? numberMantissa / EXACT_POWERS_OF_TEN[-exponent]
+										  : numberMantissa * EXACT_POWERS_OF_TEN[exponent];
+			fractionValue = numberNegative ? -value : value;
+		}
+
+		// If all digits are zero, discard any minus sign
+		if ((numberMantissa == 0) && !numberOverflow)
+			fractionValue = 0.0;
+		return true;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the last JSON number that was {@linkplain #scanNumber() validated} has a fraction part.
+	 *
+	 * @return {@code true} if the last JSON number that was validated has a fraction part.
+	 */
+
+	boolean isFractionNumber()
+	{
+		return numberFraction;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the last JSON number that was {@linkplain #scanNumber() validated} has a minus sign.
+	 *
+	 * @return {@code true} if the last JSON number that was validated has a minus sign.
+	 */
+
+	boolean isNegativeNumber()
+	{
+		return numberNegative;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of the last JSON number that was {@linkplain #scanNumber() validated}, if it is an integer.
+	 *
+	 * @return the value of the last JSON number that was validated, if it is an integer.
+	 */
+
+	long integerValue()
+	{
+		return integerValue;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of the last JSON number that was {@linkplain #scanNumber() validated}, if it has a fraction
+	 * part.
+	 *
+	 * @return the value of the last JSON number that was validated, if it has a fraction part.
+	 */
+
+	double fractionValue()
+	{
+		return fractionValue;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends the specified decimal digit to the {@linkplain #numberMantissa digits} of the JSON number that is being
+	 * validated.  If the digits would exceed the range of a {@code long}, the digit is discarded and the number is
+	 * flagged as having overflowed.
+	 *
+	 * @param ch
+	 *          the decimal digit.
+	 */
+
+	private void accumulateDigit(
+		char	ch)
+	{
+		int digit = ch - '0';
+		if ((numberMantissa < Long.MAX_VALUE / 10)
+				|| ((numberMantissa == Long.MAX_VALUE / 10) && (digit <= Long.MAX_VALUE % 10)))
+			numberMantissa = 10 * numberMantissa + digit;
+		else
+			numberOverflow = true;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of {@link JsonParser.ParseException} with the specified message, index of the
+	 * character at which the error occurred and optional replacements for placeholders in the message.  The column of
+	 * the error is relative to the start of the current line.
+	 *
+	 * @param  message
+	 *           the message of the exception.
+	 * @param  index
+	 *           the index in the input text of the character at which the error occurred.
+	 * @param  replacements
+	 *           the items whose string representations will replace placeholders in {@code message}.
+	 * @return a new instance of {@link JsonParser.ParseException}.
+	 */
+
+	JsonParser.ParseException exception(
+		String		message,
+		int			index,
+		Object...	replacements)
+	{
+		return new JsonParser.ParseException(message, lineIndex, index - lineStartIndex, replacements);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of {@link JsonParser.ParseException} for a control character that was found
+	 * in the JSON string at the specified index.
+	 *
+	 * @param  index
+	 *           the index of the JSON string in the input text.
+	 * @param  ch
+	 *           the control character.
+	 * @return a new instance of {@link JsonParser.ParseException}.
+	 */
+
+	protected JsonParser.ParseException illegalCharacterException(
+		int		index,
+		char	ch)
+	{
+		return exception(ErrorMsg.ILLEGAL_CHARACTER_IN_STRING, index, UNICODE_PREFIX + StringNode.charToUnicodeHex(ch));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Parses the escape sequence whose prefix has just been consumed, and returns the character that it denotes.
+	 *
+	 * @return the character that is denoted by the escape sequence.
+	 * @throws JsonParser.ParseException
+	 *           if the escape sequence is illegal or the input text ends before the end of the sequence.
+	 */
+
+	protected char parseEscapeSequence()
+		throws JsonParser.ParseException
+	{
+		// Get first character of escape sequence after prefix
+		int startIndex = index();
+		int next = peek();
+		if (next < 0)
+			throw exception(ErrorMsg.PREMATURE_END_OF_TEXT, index());
+		char ch = (char)next;
+		advance();
+
+		// Case: Unicode escape sequence
+		if (ch == StringNode.UNICODE_ESCAPE_CHAR)
+		{
+			// Read Unicode escape sequence from input
+			for (int i = 0; i < StringNode.UNICODE_SEQUENCE_LENGTH; i++)
+			{
+				next = peek();
+				if (next < 0)
+					throw exception(ErrorMsg.PREMATURE_END_OF_TEXT, index());
+				unicodeSeqChars[i] = (char)next;
+				advance();
+			}
+
+			// Parse Unicode escape sequence
+			int value = 0;
+			for (int i = 0; i < StringNode.UNICODE_SEQUENCE_LENGTH; i++)
+			{
+				// Decode hex-digit character
+				ch = unicodeSeqChars[i];
+				int digit = ((ch >= '0') && (ch <= '9'))
+									? ch - '0'
+									: ((ch >= 'A') && (ch <= 'F'))
+											? ch - 'A' + 10
+											: ((ch >= 'a') && (ch <= 'f'))
+													? ch - 'a' + 10
+													: -1;
+				if (digit < 0)
+				{
+					throw exception(ErrorMsg.ILLEGAL_UNICODE_ESCAPE_SEQUENCE, startIndex,
+									StringNode.UNICODE_ESCAPE_PREFIX + new String(unicodeSeqChars));
+				}
+
+				// Update value
+				value <<= 4;
+				value |= digit;
+			}
+			return (char)value;
+		}
+
+		// Case: escape sequence other than Unicode
+		for (char[] pair : ESCAPE_MAPPINGS)
+		{
+			if (ch == pair[0])
+				return pair[1];
+		}
+		throw exception(ErrorMsg.ILLEGAL_ESCAPE_SEQUENCE, startIndex, StringNode.ESCAPE_PREFIX + ch);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Throws a {@link JsonParser.ParseException} when the validation of a JSON number fails at the character that is
+	 * the specified number of characters after the start of the number.
+	 *
+	 * @param  errorIndex
+	 *           the index of the character at which validation failed, relative to the start of the number.
+	 * @param  next
+	 *           the character at which validation failed, or -1 if the end of the input text has been reached.
+	 * @throws JsonParser.ParseException
+	 */
+
+	private void throwNumberException(
+		int	errorIndex,
+		int	next)
+		throws JsonParser.ParseException
+	{
+		if (next < 0)
+			throwNumberException(errorIndex - 1, ' ');
+		else
+			throwNumberException(errorIndex, (char)next);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Throws a {@link JsonParser.ParseException} when the validation of a JSON number fails at the specified
+	 * character.  The detail message of the exception contains a reference to the index of the character at which
+	 * validation failed.
+	 *
+	 * @param  errorIndex
+	 *           the index of the character at which validation failed, relative to the start of the number.
+	 * @param  ch
+	 *           the character that caused the validation of a number to fail.
+	 * @throws JsonParser.ParseException
+	 */
+
+	private void throwNumberException(
+		int		errorIndex,
+		char	ch)
+		throws JsonParser.ParseException
+	{
+		// Initialise secondary message
+		String message = null;
+
+		// If character is terminator, secondary message is 'ended prematurely' ...
+		if (isValueTerminator(ch))
+			message = String.format(ENDED_PREMATURELY_STR, errorIndex);
+
+		// ... otherwise, secondary message is 'character is not allowed'
+		else
+		{
+			String charStr = ((ch < ' ') || (ch > '~')) ? UNICODE_PREFIX + StringNode.charToUnicodeHex(ch)
+														: "'" + Character.toString(ch) + "'";
+			message = String.format(CHARACTER_NOT_ALLOWED_STR, charStr, errorIndex);
+		}
+
+		// Throw exception
+		throw exception(ErrorMsg.INVALID_NUMBER + ": " + message, index());
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
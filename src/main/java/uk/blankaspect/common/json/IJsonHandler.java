@@ -0,0 +1,183 @@
+/*====================================================================*\
+
+IJsonHandler.java
+
+Interface: handler of the events of a JSON parser.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.json;
+
+//----------------------------------------------------------------------
+
+
+// INTERFACE: HANDLER OF THE EVENTS OF A JSON PARSER
+
+
+/**
+ * This interface defines the methods that are called by a {@link JsonParser} to notify a handler of the structure and
+ * values of the JSON text that it is parsing.  The events are notified in the order of the text: an array or object
+ * is notified by a start event, the events of its elements or members and an end event; a member of an object is
+ * notified by a {@linkplain #name(String) name} event followed by the events of its value.  The parser retains
+ * nothing, so a handler can filter, aggregate or transform a JSON value of any size as it is parsed.
+ * <p>
+ * The default implementation of each method does nothing, so a handler need implement only the methods for the events
+ * in which it is interested.  A handler may stop the parser by throwing an exception.
+ * </p>
+ */
+
+public interface IJsonHandler
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Notifies this handler of the start of a JSON array.
+	 *
+	 * @throws JsonParser.ParseException
+	 *           if the handler rejects the array.
+	 */
+
+	default void startArray()
+		throws JsonParser.ParseException
+	{
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this handler of the end of a JSON array.
+	 *
+	 * @throws JsonParser.ParseException
+	 *           if the handler rejects the array.
+	 */
+
+	default void endArray()
+		throws JsonParser.ParseException
+	{
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this handler of the start of a JSON object.
+	 *
+	 * @throws JsonParser.ParseException
+	 *           if the handler rejects the object.
+	 */
+
+	default void startObject()
+		throws JsonParser.ParseException
+	{
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this handler of the end of a JSON object.
+	 *
+	 * @throws JsonParser.ParseException
+	 *           if the handler rejects the object.
+	 */
+
+	default void endObject()
+		throws JsonParser.ParseException
+	{
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this handler of the name of a member of a JSON object.  The events of the value of the member follow.
+	 *
+	 * @param  name
+	 *           the name of the member.
+	 * @throws JsonParser.ParseException
+	 *           if the handler rejects the name.
+	 */
+
+	default void name(
+		String	name)
+		throws JsonParser.ParseException
+	{
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this handler of a JSON string.
+	 *
+	 * @param  value
+	 *           the value of the string.
+	 * @throws JsonParser.ParseException
+	 *           if the handler rejects the string.
+	 */
+
+	default void stringValue(
+		String	value)
+		throws JsonParser.ParseException
+	{
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this handler of a JSON number, which is the current token of the specified reader.  The handler may
+	 * obtain the text or value of the number from the reader (for example, with {@link JsonReader#getString()
+	 * getString()}, {@link JsonReader#getLong() getLong()} or {@link JsonReader#getDouble() getDouble()}), but it must
+	 * not advance the reader.  The value of the number is not obtained unless the handler requests it.
+	 *
+	 * @param  reader
+	 *           the reader whose current token is the number.
+	 * @throws JsonParser.ParseException
+	 *           if the value of the number cannot be represented or the handler rejects the number.
+	 */
+
+	default void numberValue(
+		JsonReader	reader)
+		throws JsonParser.ParseException
+	{
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this handler of a JSON Boolean value.
+	 *
+	 * @param  value
+	 *           the Boolean value.
+	 * @throws JsonParser.ParseException
+	 *           if the handler rejects the value.
+	 */
+
+	default void booleanValue(
+		boolean	value)
+		throws JsonParser.ParseException
+	{
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Notifies this handler of the JSON null value.
+	 *
+	 * @throws JsonParser.ParseException
+	 *           if the handler rejects the value.
+	 */
+
+	default void nullValue()
+		throws JsonParser.ParseException
+	{
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,436 @@
+/*====================================================================*\
+
+JsonLexer.java
+
+Class: lexical analyser of JSON text.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.json;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.IOException;
+import java.io.Reader;
+
+import java.util.Arrays;
+
+import uk.blankaspect.common.basictree.StringNode;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: LEXICAL ANALYSER OF JSON TEXT IN A WINDOW OF CHARACTERS
+
+
+/**
+ * This class implements the lexical analysis of JSON text that is supplied as a {@link CharSequence} or read from a
+ * {@link Reader}.
+ * <p>
+ * The input text is held in a window of characters that is filled in blocks from a {@link Reader} (or that contains
+ * the whole text, if the input is a {@link CharSequence}).  The parser may look ahead by any number of characters.
+ * The value of a token (a string, a number or a literal name) is sliced directly from the window; the characters of a
+ * token are copied individually only if the token is a string that contains escape sequences.  The window retains the
+ * characters of the current token when it is refilled, and it is enlarged if a token is longer than the window.
+ * </p>
+ */
+
+class JsonLexer
+	extends AbstractJsonLexer
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The initial size of the window when the input text is read from a {@link Reader}. */
+	private static final	int		DEFAULT_BUFFER_SIZE	= 8192;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The reader of the character stream that is the source of the JSON text, or {@code null} if the whole text is
+		in the window. */
+	private	Reader			reader;
+
+	/** The window of input characters. */
+	private	char[]			buffer;
+
+	/** The index in {@link #buffer} of the next character. */
+	private	int				position;
+
+	/** The index in {@link #buffer} of the end of the valid characters. */
+	private	int				limit;
+
+	/** The index in the input text of the first character of {@link #buffer}. */
+	private	int				offset;
+
+	/** The index in the input text of the first character of a string that must be retained when the window is
+		refilled, or -1 if only the characters from the next character onwards need be retained. */
+	private	int				mark;
+
+	/** Flag: if {@code true}, the end of the character stream has been reached. */
+	private	boolean			endOfStream;
+
+	/** A buffer for the value of a string that contains escape sequences. */
+	private	StringBuilder	tokenBuffer;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a lexical analyser of the specified text.
+	 *
+	 * @param text
+	 *          the JSON text that will be analysed.
+	 */
+
+	JsonLexer(
+		CharSequence	text)
+	{
+		// Call alternative constructor
+		this(null, text.toString().toCharArray());
+
+		// Initialise remaining instance variables
+		limit = buffer.length;
+		endOfStream = true;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates a new instance of a lexical analyser of the JSON text that is read from a character stream by the
+	 * specified reader.
+	 *
+	 * @param reader
+	 *          the reader of the character stream that is the source of the JSON text.
+	 */
+
+	JsonLexer(
+		Reader	reader)
+	{
+		// Call alternative constructor
+		this(reader, new char[DEFAULT_BUFFER_SIZE]);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates a new instance of a lexical analyser with the specified reader and window.
+	 *
+	 * @param reader
+	 *          the reader of the character stream that is the source of the JSON text, which may be {@code null}.
+	 * @param buffer
+	 *          the window of input characters.
+	 */
+
+	private JsonLexer(
+		Reader	reader,
+		char[]	buffer)
+	{
+		// Initialise instance variables
+		this.reader = reader;
+		this.buffer = buffer;
+		mark = -1;
+		tokenBuffer = new StringBuilder();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : overriding methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the index of the next character in the input text.
+	 *
+	 * @return the index of the next character in the input text.
+	 */
+
+	@Override
+	int index()
+	{
+		return offset + position;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the character of the input text that is the specified number of characters after the next character,
+	 * without consuming any characters.  The window is refilled if necessary.
+	 *
+	 * @param  distance
+	 *           the number of characters after the next character; 0 denotes the next character.
+	 * @return the character that is {@code distance} characters after the next character of the input text, or -1 if
+	 *         the input text ends before that character.
+	 * @throws JsonParser.ParseException
+	 *           if an error occurs when reading from the input stream.
+	 */
+
+	@Override
+	int peek(
+		int	distance)
+		throws JsonParser.ParseException
+	{
+		while (position + distance >= limit)
+		{
+			if (!fill())
+				return -1;
+		}
+		return buffer[position + distance];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes the next character of the input text, which must have been {@linkplain #peek() peeked}.
+	 */
+
+	@Override
+	void advance()
+	{
+		++position;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes any whitespace at the current position in the input text, and returns the next character without
+	 * consuming it.  The {@linkplain #lineIndex() current line} is updated at each line feed (U+000A).
+	 *
+	 * @return the first character after any whitespace, or -1 if the end of the input text has been reached.
+	 * @throws JsonParser.ParseException
+	 *           if an error occurs when reading from the input stream.
+	 */
+
+	@Override
+	int skipWhitespace()
+		throws JsonParser.ParseException
+	{
+		while ((position < limit) || fill())
+		{
+			char ch = buffer[position];
+			switch (ch)
+			{
+				case '\n':
+					++position;
+					++lineIndex;
+					lineStartIndex = offset + position;
+					break;
+
+				case ' ':
+				case '\r':
+				case '\t':
+					++position;
+					break;
+
+				default:
+					return ch;
+			}
+		}
+		return -1;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Parses a JSON string whose opening quotation mark (U+0022) is the next character of the input text, and returns
+	 * the value of the string.  The value is sliced directly from the window unless the string contains escape
+	 * sequences.
+	 *
+	 * @return the value of the JSON string.
+	 * @throws JsonParser.ParseException
+	 *           if the JSON string is not valid or an error occurs when reading from the input stream.
+	 */
+
+	@Override
+	String readString()
+		throws JsonParser.ParseException
+	{
+		// Initialise local variables
+		int tokenIndex = index();
+		int startIndex = tokenIndex + 1;
+		boolean escaped = false;
+
+		// Skip opening quotation mark
+		++position;
+
+		// Retain characters of string in window
+		mark = startIndex;
+
+		// Parse string
+		try
+		{
+			while (true)
+			{
+				// Find next special character
+				while (position < limit)
+				{
+					char ch = buffer[position];
+					if ((ch == StringNode.END_CHAR) || (ch == StringNode.ESCAPE_PREFIX_CHAR) || (ch < ' '))
+						break;
+					++position;
+				}
+
+				// If end of window, read more characters and resume search
+				if (position == limit)
+				{
+					if (!fill())
+						throw exception(ErrorMsg.PREMATURE_END_OF_TEXT, index());
+					continue;
+				}
+
+				// Process special character
+				char ch = buffer[position];
+
+				// Case: end of string
+				if (ch == StringNode.END_CHAR)
+				{
+					// Get value of string
+					String str = null;
+					if (escaped)
+					{
+						tokenBuffer.append(buffer, startIndex - offset, index() - startIndex);
+						str = tokenBuffer.toString();
+					}
+					else
+						str = new String(buffer, startIndex - offset, index() - startIndex);
+
+					// Skip closing quotation mark
+					++position;
+
+					// Return value of string
+					return str;
+				}
+
+				// Case: control character
+				if (ch < ' ')
+					throw illegalCharacterException(tokenIndex, ch);
+
+				// Case: escape sequence
+				if (!escaped)
+				{
+					tokenBuffer.setLength(0);
+					escaped = true;
+				}
+				tokenBuffer.append(buffer, startIndex - offset, index() - startIndex);
+				++position;
+				tokenBuffer.append(parseEscapeSequence());
+				startIndex = index();
+				mark = startIndex;
+			}
+		}
+		finally
+		{
+			mark = -1;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the specified number of characters of the input text, starting at the next character, as a string that
+	 * is sliced from the window, without consuming them.  The characters must have been {@linkplain #peek(int)
+	 * peeked}.
+	 *
+	 * @param  length
+	 *           the number of characters that will be returned.
+	 * @return the next {@code length} characters of the input text.
+	 */
+
+	@Override
+	String peekAscii(
+		int	length)
+	{
+		return new String(buffer, position, length);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes the specified number of characters of the input text, which must have been {@linkplain #peek(int)
+	 * peeked}.
+	 *
+	 * @param length
+	 *          the number of characters that will be consumed.
+	 */
+
+	@Override
+	void skip(
+		int	length)
+	{
+		position += length;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Reads more characters from the input stream into the window.  The characters before the {@linkplain #mark
+	 * retained text} (or before the current position, if no text is retained) are discarded, and the window is
+	 * enlarged if it is full.
+	 *
+	 * @return {@code true} if at least one character was read; {@code false} if the end of the input text has been
+	 *         reached.
+	 * @throws JsonParser.ParseException
+	 *           if an error occurs when reading from the input stream.
+	 */
+
+	private boolean fill()
+		throws JsonParser.ParseException
+	{
+		// Test for end of input
+		if (endOfStream)
+			return false;
+
+		// Discard characters that are no longer required
+		int start = (mark < 0) ? position : mark - offset;
+		if (start > 0)
+		{
+			System.arraycopy(buffer, start, buffer, 0, limit - start);
+			offset += start;
+			position -= start;
+			limit -= start;
+		}
+
+		// If window is full, enlarge it
+		if (limit == buffer.length)
+			buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+
+		// Read block of characters into window
+		try
+		{
+			int length = reader.read(buffer, limit, buffer.length - limit);
+			if (length < 0)
+			{
+				endOfStream = true;
+				return false;
+			}
+			limit += length;
+			return (length > 0) || fill();
+		}
+		catch (IOException e)
+		{
+			throw new JsonParser.ParseException(ErrorMsg.ERROR_READING_FROM_STREAM, e, lineIndex,
+												index() - lineStartIndex);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -20,10 +20,9 @@ package uk.blankaspect.common.json;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.IOException;
 import java.io.Reader;
 
-import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -55,27 +54,49 @@ import uk.blankaspect.common.jsonxml.JsonXmlUtils;
 
 /**
  * <p style="margin-bottom: 0.25em;">
- * This class implements a parser that transforms JSON text into either a tree of nodes or a tree of XML elements:
+ * This class implements a parser that transforms JSON text into either a tree of nodes or a tree of XML elements, or
+ * that notifies a handler of the events of parsing the text:
  * </p>
  * <ul>
  *   <li>
- *     The {@code parse(\u2026)} methods transform JSON text into a tree of {@linkplain AbstractNode nodes}.  Each node
- *     corresponds to a JSON value.
+ *     The {@code parse(\u2026)} methods that return a value transform JSON text into a tree of {@linkplain
+ *     AbstractNode nodes}.  Each node corresponds to a JSON value.
  *   </li>
  *   <li>
  *     The {@code parseToXml(\u2026)} methods transform JSON text into a tree of {@linkplain Element XML elements}.
  *     Each XML element corresponds to a JSON value.
  *   </li>
+ *   <li>
+ *     The {@code parse(\u2026)} methods that take an {@link IJsonHandler} argument notify the handler of the start and
+ *     end of each JSON array and object, the name of each member of an object and each other JSON value, in the order
+ *     of the text.  Nothing is retained by the parser.
+ *   </li>
  * </ul>
  * <p>
+ * The {@code createReader(\u2026)} methods create a {@linkplain JsonReader pull parser}, which reads JSON text one
+ * token at a time without creating a tree.
+ * </p>
+ * <p>
  * The input text of the parser is expected to conform to the JSON grammar as specified in <a
  * href="https://www.rfc-editor.org/rfc/rfc8259.html">IETF RFC 8259</a>.
  * </p>
  * <p>
- * The parser is implemented as a <a href="https://en.wikipedia.org/wiki/Finite-state_machine">finite-state machine</a>
- * (FSM) that terminates with an exception at the first error in the input text.  The FSM combines the lexical analysis
- * and parsing of the input text with the generation of the output (a tree of {@linkplain AbstractNode nodes} or
- * {@linkplain Element XML elements} that correspond to JSON values).
+ * The input text is parsed by a {@link JsonReader}, which is implemented as a <a
+ * href="https://en.wikipedia.org/wiki/Finite-state_machine">finite-state machine</a> (FSM) that terminates with an
+ * exception at the first error in the input text.  The parser notifies a handler of the tokens that are returned by
+ * the reader; a tree of {@linkplain AbstractNode nodes} or {@linkplain Element XML elements} is generated by a handler
+ * that builds the tree from those events.
+ * </p>
+ * <p>
+ * The lexical analysis of the input text is performed by a lexer that supplies whole tokens to the FSM.  Text from a
+ * character sequence or a {@link Reader} is read in blocks into a window of characters, from which the values of
+ * strings, numbers and literal names are sliced directly.  UTF-8 text in a {@link ByteBuffer} (for example, a file
+ * that is mapped into memory) is analysed in place, and only the content of strings is decoded.
+ * </p>
+ * <p>
+ * The value of a number is usually accumulated from its digits as it is validated.  The number is parsed from its
+ * text only if it is an integer that is too large for a {@code long}, if it has an exponent but no fraction part, or
+ * if it has more significant digits or a larger exponent than can be converted exactly to a {@code double}.
  * </p>
  */
 
@@ -86,132 +107,21 @@ public class JsonParser
 //  Constants
 ////////////////////////////////////////////////////////////////////////
 
-	/** Whitespace characters. */
-	private static final	String	WHITESPACE	= "\t\n\r ";
-
-	/** Structural characters. */
-	private static final	char[]	STRUCTURAL_CHARS	= new char[]
-	{
-		JsonConstants.ARRAY_START_CHAR,
-		JsonConstants.ARRAY_END_CHAR,
-		JsonConstants.OBJECT_START_CHAR,
-		JsonConstants.OBJECT_END_CHAR,
-		JsonConstants.OBJECT_NAME_VALUE_SEPARATOR_CHAR,
-		JsonConstants.OBJECT_MEMBER_SEPARATOR_CHAR
-	};
-
-	/** Value terminators: the union of whitespace characters and structural characters. */
-	private static final	String	VALUE_TERMINATORS	= WHITESPACE + new String(STRUCTURAL_CHARS);
-
-	/** The prefix of a four-hex-digit Unicode representation of a character. */
-	private static final	String	UNICODE_PREFIX	= "U+";
-
 	/** Miscellaneous strings. */
-	private static final	String	CHARACTER_NOT_ALLOWED_STR	= "the character %s at index %d is not allowed.";
-	private static final	String	ENDED_PREMATURELY_STR		= "it ended prematurely at index %d.";
-	private static final	String	UNSUPPORTED_OPERATION_STR	= "Unsupported operation";
 	private static final	String	NULL_INPUT_STREAM_STR		= "Null input stream";
 	private static final	String	NULL_READER_STR				= "Null reader";
 	private static final	String	NULL_TEXT_STR				= "Null text";
+	private static final	String	NULL_BUFFER_STR				= "Null buffer";
+	private static final	String	NULL_HANDLER_STR			= "Null handler";
 	private static final	String	NO_XML_ELEMENT_FACADE_STR	= "No XML element facade";
 	private static final	String	INVALID_PARENT_STR			= "Unexpected error: invalid parent";
 
-	/** Mappings from characters in an escape sequence to their corresponding literal characters. */
-	private static final	char[][]	ESCAPE_MAPPINGS	=
-	{
-		{ '\\', '\\' },
-		{ '\"', '\"' },
-		{ '/',  '/' },
-		{ 'b',  '\b' },
-		{ 't',  '\t' },
-		{ 'n',  '\n' },
-		{ 'f',  '\f' },
-		{ 'r',  '\r' }
-	};
-
-	/** The states of the parser. */
-	private enum State
-	{
-		VALUE_START,
-		VALUE_END,
-		LITERAL_VALUE,
-		NUMBER_VALUE,
-		STRING_VALUE,
-		ARRAY_ELEMENT_START,
-		ARRAY_ELEMENT_END,
-		OBJECT_MEMBER_START,
-		OBJECT_MEMBER_NAME_START,
-		OBJECT_MEMBER_NAME,
-		OBJECT_MEMBER_NAME_END,
-		OBJECT_MEMBER_END,
-		DONE
-	}
-
-	/** The states of the number validator. */
-	private enum NumberState
-	{
-		INTEGER_PART_SIGN,
-		INTEGER_PART_FIRST_DIGIT,
-		INTEGER_PART_DIGITS,
-		FRACTION_PART_FIRST_DIGIT,
-		FRACTION_PART_DIGITS,
-		EXPONENT_SIGN,
-		EXPONENT_FIRST_DIGIT,
-		EXPONENT_DIGITS,
-		DONE
-	}
-
 	/** Error messages. */
 	private interface ErrorMsg
 	{
-		String	ERROR_READING_FROM_STREAM =
-				"An error occured when reading from the input stream.";
-
-		String	PREMATURE_END_OF_TEXT =
-				"The input text ended prematurely.";
-
-		String	EXTRANEOUS_TEXT =
-				"There is extraneous text after the JSON value.";
-
-		String	VALUE_EXPECTED =
-				"A value was expected.";
-
-		String	OBJECT_MEMBER_NAME_EXPECTED =
-				"The name of an object member was expected.";
-
-		String	NAME_SEPARATOR_EXPECTED =
-				"A name separator was expected.";
-
-		String	END_OF_OBJECT_EXPECTED =
-				"An end-of-object character was expected.";
-
-		String	ARRAY_ELEMENT_EXPECTED =
-				"An array element was expected.";
-
-		String	END_OF_ARRAY_EXPECTED =
-				"An end-of-array character was expected.";
-
-		String	ILLEGAL_CHARACTER_IN_STRING =
-				"The character '%s' is not allowed in a string.";
-
-		String	ILLEGAL_VALUE =
-				"The value is illegal.";
-
-		String	ILLEGAL_ESCAPE_SEQUENCE =
-				"The escape sequence '%s' is illegal.";
-
-		String	ILLEGAL_UNICODE_ESCAPE_SEQUENCE =
-				"The Unicode escape sequence '%s' is illegal.";
-
 		String	DUPLICATE_OBJECT_MEMBER_NAME =
 				"The object has more than one member with the name '%s'.";
 
-		String	INVALID_NUMBER =
-				"The number is not valid";
-
-		String	NOT_A_VALID_NUMBER =
-				"'%s' is not a valid number";
-
 		String	TOO_LARGE_FOR_INTEGER =
 				"The number is too large for an integer.";
 	}
@@ -220,36 +130,6 @@ public class JsonParser
 //  Instance variables
 ////////////////////////////////////////////////////////////////////////
 
-	/** The reader of the character stream that is the source of the JSON text. */
-	private	Reader			inputReader;
-
-	/** The last character that was read from {@link #inputReader}. */
-	private	char			inputChar;
-
-	/** Flag: if {@code true}, the end of the input has been reached. */
-	private	boolean			endOfInput;
-
-	/** Flag: if {@code true}, the last character that was read from the input has been pushed back. */
-	private	boolean			pushedBack;
-
-	/** The index of the next character in the input text. */
-	private	int				index;
-
-	/** The index of the current line in the input text. */
-	private	int				lineIndex;
-
-	/** The index of the start of the current line in the input text. */
-	private	int				lineStartIndex;
-
-	/** The index of the current token in the input text. */
-	private	int				tokenIndex;
-
-	/** A buffer for the current token. */
-	private	StringBuilder	tokenBuffer;
-
-	/** A buffer for the characters of a Unicode escape sequence. */
-	private	char[]			unicodeSeqChars;
-
 	/** The interface through which XML elements are created and their attributes accessed. */
 	private	IElementFacade	xmlElementFacade;
 
@@ -272,8 +152,6 @@ public class JsonParser
 		Builder	builder)
 	{
 		// Initialise instance variables
-		tokenBuffer = new StringBuilder();
-		unicodeSeqChars = new char[StringNode.UNICODE_SEQUENCE_LENGTH];
 		xmlElementFacade = builder.elementFacade;
 		storeExcessiveIntegerAsFP = builder.storeExcessiveIntegerAsFP;
 	}
@@ -297,39 +175,6 @@ public class JsonParser
 
 	//------------------------------------------------------------------
 
-	/**
-	 * Returns {@code true} if the specified character is whitespace.
-	 *
-	 * @param  ch
-	 *           the character that will be tested.
-	 * @return {@code true} if {@code ch} is whitespace.
-	 */
-
-	private static boolean isWhitespace(
-		char	ch)
-	{
-		return (WHITESPACE.indexOf(ch) >= 0);
-	}
-
-	//------------------------------------------------------------------
-
-	/**
-	 * Returns {@code true} if the specified character is a value terminator (ie, either whitespace or a structural
-	 * character).
-	 *
-	 * @param  ch
-	 *           the character that will be tested.
-	 * @return {@code true} if {@code ch} is whitespace or a structural character.
-	 */
-
-	private static boolean isValueTerminator(
-		char	ch)
-	{
-		return (VALUE_TERMINATORS.indexOf(ch) >= 0);
-	}
-
-	//------------------------------------------------------------------
-
 	/**
 	 * Creates and returns a new instance of a {@linkplain InputStreamReader reader} for the specified byte stream and
 	 * character encoding.
@@ -377,7 +222,7 @@ public class JsonParser
 			throw new IllegalArgumentException(NULL_TEXT_STR);
 
 		// Parse input text and return result
-		return parse(reader(text));
+		return parseToNode(new JsonLexer(text));
 	}
 
 	//------------------------------------------------------------------
@@ -461,11 +306,42 @@ public class JsonParser
 		if (reader == null)
 			throw new IllegalArgumentException(NULL_READER_STR);
 
-		// Initialise instance variables
-		inputReader = reader;
+		// Parse input text and return result
+		return parseToNode(new JsonLexer(reader));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Parses the text that is encoded as UTF-8 in the specified buffer, from the position of the buffer to its limit.
+	 * If the text conforms to the JSON grammar, the JSON text is transformed into a tree of {@linkplain AbstractNode
+	 * nodes} that correspond to JSON values, and the root of the tree is returned.
+	 * <p>
+	 * The text is parsed in place: only the content of JSON strings is decoded.  The buffer may be a region of a file
+	 * that is {@linkplain java.nio.channels.FileChannel#map mapped into memory}.  The position of the buffer is not
+	 * changed.
+	 * </p>
+	 *
+	 * @param  buffer
+	 *           the buffer that contains the JSON text.
+	 * @return the root of the tree of {@linkplain AbstractNode nodes} that was created from parsing the JSON text in
+	 *         {@code buffer}.
+	 * @throws IllegalArgumentException
+	 *           if {@code buffer} is {@code null}.
+	 * @throws ParseException
+	 *           if an error occurs when parsing the input text.
+	 */
+
+	public AbstractNode parse(
+		ByteBuffer	buffer)
+		throws ParseException
+	{
+		// Validate argument
+		if (buffer == null)
+			throw new IllegalArgumentException(NULL_BUFFER_STR);
 
 		// Parse input text and return result
-		return parse(false).node;
+		return parseToNode(new Utf8JsonLexer(buffer));
 	}
 
 	//------------------------------------------------------------------
@@ -494,8 +370,12 @@ public class JsonParser
 		if (text == null)
 			throw new IllegalArgumentException(NULL_TEXT_STR);
 
+		// Test for XML element facade
+		if (xmlElementFacade == null)
+			throw new IllegalStateException(NO_XML_ELEMENT_FACADE_STR);
+
 		// Parse input text and return result
-		return parseToXml(reader(text));
+		return parseToElement(new JsonLexer(text));
 	}
 
 	//------------------------------------------------------------------
@@ -589,1089 +469,398 @@ public class JsonParser
 		if (xmlElementFacade == null)
 			throw new IllegalStateException(NO_XML_ELEMENT_FACADE_STR);
 
-		// Initialise instance variables
-		inputReader = reader;
-
 		// Parse input text and return result
-		return parse(true).xmlElement;
+		return parseToElement(new JsonLexer(reader));
 	}
 
 	//------------------------------------------------------------------
 
 	/**
-	 * Parses the text that is read from a character stream by the reader that was set on this parser.  If the text
-	 * conforms to the JSON grammar, the JSON text is transformed into a tree of either {@linkplain AbstractNode nodes}
-	 * or {@linkplain Element XML elements} that correspond to JSON values; the {@code toXml} flag determines the kind
-	 * of tree.  The root of the tree is returned.
+	 * Parses the text that is encoded as UTF-8 in the specified buffer, from the position of the buffer to its limit.
+	 * If the text conforms to the JSON grammar, the JSON text is transformed into a tree of {@linkplain Element XML
+	 * elements} that correspond to JSON values, and the root of the tree is returned.
+	 * <p>
+	 * The text is parsed in place: only the content of JSON strings is decoded.  The buffer may be a region of a file
+	 * that is {@linkplain java.nio.channels.FileChannel#map mapped into memory}.  The position of the buffer is not
+	 * changed.
+	 * </p>
 	 *
-	 * @param  toXml
-	 *           if {@code true}, the JSON text is transformed into a tree of {@linkplain Element XML elements};
-	 *           otherwise, the JSON text is transformed into a tree of {@linkplain AbstractNode nodes}.
-	 * @return a pairing of the root of a tree of {@linkplain AbstractNode nodes} and the root of a tree of {@linkplain
-	 *         Element XML elements}.  The inapplicable element of the pair is {@code null}.
+	 * @param  buffer
+	 *           the buffer that contains the JSON text.
+	 * @return the root of the tree of XML elements that was created from parsing the JSON text in {@code buffer}.
+	 * @throws IllegalArgumentException
+	 *           if {@code buffer} is {@code null}.
+	 * @throws IllegalStateException
+	 *           if no {@linkplain IElementFacade XML element facade} has been set on this parser.
 	 * @throws ParseException
 	 *           if an error occurs when parsing the input text.
 	 */
 
-	private Result parse(
-		boolean	toXml)
+	public Element parseToXml(
+		ByteBuffer	buffer)
 		throws ParseException
 	{
-		// Reset instance variables
-		index = 0;
-		lineIndex = 0;
-		lineStartIndex = 0;
-		tokenIndex = 0;
-		tokenBuffer.setLength(0);
-
-		// Initialise local variables
-		Deque<MemberInfo> memberInfoStack = new ArrayDeque<>();
-		int memberIndex = 0;
-		int memberLineIndex = 0;
-		AbstractNode node = null;
-		Element xmlElement = null;
-		State state = State.VALUE_START;
-
-		// Parse text
-		while (state != State.DONE)
-		{
-			// Get next character from input stream
-			char ch = nextChar();
-
-			// Execute finite-state machine
-			switch (state)
-			{
-				//----  Start of JSON value
-				case VALUE_START:
-				{
-					// Case: character is whitespace
-					if (isWhitespace(ch))
-					{
-						// If end of input stream, test whether parsing is complete ...
-						if (endOfInput)
-						{
-							// If current value is not root, input stream has ended prematurely ...
-							if (toXml)
-							{
-								if ((xmlElement == null) || (xmlElement.getParentNode() != null))
-								{
-									throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex,
-															 index - lineStartIndex);
-								}
-							}
-							else
-							{
-								if ((node == null) || !node.isRoot())
-								{
-									throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex,
-															 index - lineStartIndex);
-								}
-							}
-
-							// ... otherwise, parsing is complete
-							state = State.DONE;
-						}
-
-						// ... otherwise, if character is LF, start new line
-						else
-							newLine(ch);
-					}
-
-					// Case: character is not whitespace
-					else
-					{
-						// Update index of current token
-						tokenIndex = index - 1;
-
-						// Test for extraneous text after root value
-						if (toXml)
-						{
-							if ((xmlElement != null) && (xmlElement.getParentNode() == null)
-									&& !ElementKind.isCompound(xmlElement))
-							{
-								throw new ParseException(ErrorMsg.EXTRANEOUS_TEXT, lineIndex,
-														 tokenIndex - lineStartIndex);
-							}
-						}
-						else
-						{
-							if ((node != null) && node.isRoot() && !node.isContainer())
-							{
-								throw new ParseException(ErrorMsg.EXTRANEOUS_TEXT, lineIndex,
-														 tokenIndex - lineStartIndex);
-							}
-						}
-
-						// Clear token buffer
-						tokenBuffer.setLength(0);
-
-						// Set next state according to character
-						switch (ch)
-						{
-							case StringNode.START_CHAR:
-								state = State.STRING_VALUE;
-								break;
-
-							case JsonConstants.ARRAY_START_CHAR:
-								if (toXml)
-									xmlElement = addChild(xmlElement, ElementKind.ARRAY, null);
-								else
-									node = new ListNode(node);
-								state = State.ARRAY_ELEMENT_START;
-								break;
-
-							case JsonConstants.OBJECT_START_CHAR:
-								if (toXml)
-									xmlElement = addChild(xmlElement, ElementKind.OBJECT, null);
-								else
-									node = new MapNode(node);
-								state = State.OBJECT_MEMBER_START;
-								break;
-
-							case JsonConstants.ARRAY_END_CHAR:
-							case JsonConstants.OBJECT_END_CHAR:
-							case JsonConstants.OBJECT_NAME_VALUE_SEPARATOR_CHAR:
-							case JsonConstants.OBJECT_MEMBER_SEPARATOR_CHAR:
-								throw new ParseException(ErrorMsg.VALUE_EXPECTED, lineIndex,
-														 tokenIndex - lineStartIndex);
-
-							default:
-								// Push back start of number or literal
-								pushBackChar();
-
-								// Set next state
-								state = ((ch == '-') || ((ch >= '0') && (ch <= '9'))) ? State.NUMBER_VALUE
-																					  : State.LITERAL_VALUE;
-								break;
-						}
-					}
-					break;
-				}
-
-				//----  End of JSON value
-				case VALUE_END:
-				{
-					if (toXml)
-					{
-						// Get parent of current value
-						Element parent = (xmlElement == null) ? null : (Element)xmlElement.getParentNode();
-
-						// If current value has no parent (ie, it is the root value), move to next value (which should
-						// not exist) ...
-						if (parent == null)
-							state = State.VALUE_START;
-
-						// ... otherwise, if parent is array or object, add value to it ...
-						else if (ElementKind.isCompound(parent))
-						{
-							// Case: parent is JSON array
-							if (ElementKind.ARRAY.matches(parent))
-							{
-								// Add element to its parent array
-								parent.appendChild(xmlElement);
-
-								// Set next state
-								state = State.ARRAY_ELEMENT_END;
-							}
-
-							// Case: parent is JSON object
-							else
-							{
-								// Get info about current member from stack
-								MemberInfo memberInfo = memberInfoStack.removeFirst();
-
-								// Set 'name' attribute of member
-								JsonXmlUtils.setName(xmlElementFacade, xmlElement, memberInfo.name);
-
-								// Add member to its parent object
-								parent.appendChild(xmlElement);
-
-								// Set next state
-								state = State.OBJECT_MEMBER_END;
-							}
-
-							// Push back element/member separator or array/object terminator
-							pushBackChar();
-
-							// Set current value to previous parent
-							xmlElement = parent;
-						}
-
-						// ... otherwise, throw exception
-						else
-							throw new RuntimeException(INVALID_PARENT_STR);
-					}
-					else
-					{
-						// Get parent of current value
-						AbstractNode parent = (node == null) ? null : node.getParent();
-
-						// If current value has no parent (ie, it is the root value), move to next value (which should
-						// not exist) ...
-						if (parent == null)
-							state = State.VALUE_START;
-
-						// ... otherwise, if parent is array or object, add value to it ...
-						else if (parent.isContainer())
-						{
-							// Case: parent is JSON array
-							if (parent instanceof ListNode array)
-							{
-								// Add element to its parent array
-								array.add(node);
-
-								// Set next state
-								state = State.ARRAY_ELEMENT_END;
-							}
-
-							// Case: parent is JSON object
-							else if (parent instanceof MapNode object)
-							{
-								// Get information about current object member from stack
-								MemberInfo memberInfo = memberInfoStack.removeFirst();
-
-								// Test for duplicate member name
-								if (object.hasKey(memberInfo.name))
-								{
-									throw new ParseException(ErrorMsg.DUPLICATE_OBJECT_MEMBER_NAME,
-															 memberInfo.lineIndex, memberInfo.index - lineStartIndex,
-															 memberInfo.name);
-								}
-
-								// Add member to its parent object value
-								object.add(memberInfo.name, node);
-
-								// Set next state
-								state = State.OBJECT_MEMBER_END;
-							}
-
-							// Push back element/member separator or array/object terminator
-							pushBackChar();
-
-							// Set current value to previous parent
-							node = parent;
-						}
-
-						// ... otherwise, throw exception
-						else
-							throw new RuntimeException(INVALID_PARENT_STR);
-					}
-					break;
-				}
-
-				//----  JSON literal value (null or Boolean)
-				case LITERAL_VALUE:
-				{
-					// If end of current token, add null node or Boolean node according to token ...
-					if (isValueTerminator(ch))
-					{
-						if (toXml)
-						{
-							String str = tokenBuffer.toString();
-							switch (str)
-							{
-								case NullNode.VALUE:
-									xmlElement = addChild(xmlElement, ElementKind.NULL, null);
-									break;
-
-								case BooleanNode.VALUE_FALSE:
-								case BooleanNode.VALUE_TRUE:
-									xmlElement = addChild(xmlElement, ElementKind.BOOLEAN, str);
-									break;
-
-								default:
-									throw new ParseException(ErrorMsg.ILLEGAL_VALUE, lineIndex,
-															 tokenIndex - lineStartIndex);
-							}
-						}
-						else
-						{
-							switch (tokenBuffer.toString())
-							{
-								case NullNode.VALUE:
-									node = new NullNode(node);
-									break;
-
-								case BooleanNode.VALUE_FALSE:
-									node = new BooleanNode(node, false);
-									break;
-
-								case BooleanNode.VALUE_TRUE:
-									node = new BooleanNode(node, true);
-									break;
-
-								default:
-									throw new ParseException(ErrorMsg.ILLEGAL_VALUE, lineIndex,
-															 tokenIndex - lineStartIndex);
-							}
-						}
-
-						// Push back value terminator
-						pushBackChar();
-
-						// Set next state
-						state = State.VALUE_END;
-					}
-
-					// ... otherwise, append character to current token
-					else
-						tokenBuffer.append(ch);
-					break;
-				}
-
-				//----  JSON number value
-				case NUMBER_VALUE:
-				{
-					// Test for premature end of input stream
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-					// Push back start of number
-					pushBackChar();
-
-					// Validate number; put valid number in token buffer
-					validateNumber();
-
-					// Get string representation of number
-					String numberStr = tokenBuffer.toString();
-
-					// Process number string
-					try
-					{
-						// If generating XML, add number element to parent ...
-						if (toXml)
-							xmlElement = addChild(xmlElement, ElementKind.NUMBER, numberStr);
-
-						// ... otherwise, parse number
-						else
-						{
-							// Create new instance of BigDecimal from token
-							BigDecimal number = new BigDecimal(numberStr);
-
-							// If number is integer, add node of smallest type ...
-							if (numberStr.indexOf('.') < 0)
-							{
-								try
-								{
-									node = new IntNode(node, number.intValueExact());
-								}
-								catch (ArithmeticException e)
-								{
-									try
-									{
-										node = new LongNode(node, number.longValueExact());
-									}
-									catch (ArithmeticException e0)
-									{
-										if (storeExcessiveIntegerAsFP)
-											node = new DoubleNode(node, number.doubleValue());
-										else
-										{
-											throw new ParseException(ErrorMsg.TOO_LARGE_FOR_INTEGER, lineIndex,
-																	 tokenIndex - lineStartIndex);
-										}
-									}
-								}
-							}
-
-							// ... otherwise, add node for double-precision FP
-							else
-								node = new DoubleNode(node, number.doubleValue());
-						}
-
-						// Push back terminator
-						pushBackChar();
-
-						// Set next state
-						state = State.VALUE_END;
-					}
-					catch (NumberFormatException e)
-					{
-						String causeMessage = e.getMessage();
-						throw new ParseException(((causeMessage == null) || causeMessage.isEmpty())
-														? ErrorMsg.NOT_A_VALID_NUMBER + "."
-														: ErrorMsg.NOT_A_VALID_NUMBER + ": " + causeMessage,
-												 lineIndex, tokenIndex - lineStartIndex, numberStr);
-					}
-					break;
-				}
-
-				//----  JSON string value
-				case STRING_VALUE:
-				{
-					// Test for premature end of input stream
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-					// Parse string; put valid string in token buffer; if string is valid, create JSON string value
-					if (parseString(ch))
-					{
-						// Add string node
-						if (toXml)
-							xmlElement = addChild(xmlElement, ElementKind.STRING, tokenBuffer.toString());
-						else
-							node = new StringNode(node, tokenBuffer.toString());
-
-						// Set next state
-						state = State.VALUE_END;
-					}
-					break;
-				}
+		// Validate argument
+		if (buffer == null)
+			throw new IllegalArgumentException(NULL_BUFFER_STR);
 
-				//----  Start of member of JSON object
-				case OBJECT_MEMBER_START:
-				{
-					// Test for premature end of input stream
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-					// Case: character is whitespace
-					if (isWhitespace(ch))
-					{
-						// If character is LF, start new line
-						newLine(ch);
-					}
-
-					// Case: character is not whitespace
-					else
-					{
-						// If end-of-object character, empty object has ended ...
-						if (ch == JsonConstants.OBJECT_END_CHAR)
-							state = State.VALUE_END;
-
-						// ... otherwise, expect another member
-						else
-						{
-							// Push back start of member
-							pushBackChar();
-
-							// Set next state
-							state = State.OBJECT_MEMBER_NAME_START;
-						}
-					}
-					break;
-				}
+		// Test for XML element facade
+		if (xmlElementFacade == null)
+			throw new IllegalStateException(NO_XML_ELEMENT_FACADE_STR);
 
-				//----  Start of name of member of JSON object
-				case OBJECT_MEMBER_NAME_START:
-				{
-					// Test for premature end of input stream
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-					// Case: character is whitespace
-					if (isWhitespace(ch))
-					{
-						// If character is LF, start new line
-						newLine(ch);
-					}
-
-					// Case: character is not whitespace
-					else
-					{
-						// Update index of current token
-						tokenIndex = index - 1;
-
-						// Test for start of name of member
-						if (ch != StringNode.START_CHAR)
-						{
-							throw new ParseException(ErrorMsg.OBJECT_MEMBER_NAME_EXPECTED, lineIndex,
-													 tokenIndex - lineStartIndex);
-						}
-
-						// Update member-related variables
-						memberIndex = tokenIndex;
-						memberLineIndex = lineIndex;
-
-						// Clear token buffer
-						tokenBuffer.setLength(0);
-
-						// Set next state
-						state = State.OBJECT_MEMBER_NAME;
-					}
-					break;
-				}
+		// Parse input text and return result
+		return parseToElement(new Utf8JsonLexer(buffer));
+	}
 
-				//----  Name of member of JSON object
-				case OBJECT_MEMBER_NAME:
-				{
-					// Test for premature end of input stream
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-					// Parse name of member; put valid name in token buffer; if name is valid, put information about
-					// member on stack
-					if (parseString(ch))
-					{
-						// Create information about member and put it on stack
-						memberInfoStack.addFirst(new MemberInfo(tokenBuffer.toString(), memberIndex, memberLineIndex));
-
-						// Set next state
-						state = State.OBJECT_MEMBER_NAME_END;
-					}
-					break;
-				}
+	//------------------------------------------------------------------
 
-				//----  End of name of member of JSON object
-				case OBJECT_MEMBER_NAME_END:
-				{
-					// Test for premature end of input stream
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-					// Case: character is whitespace
-					if (isWhitespace(ch))
-					{
-						// If character is LF, start new line
-						newLine(ch);
-					}
-
-					// Case: character is not whitespace
-					else
-					{
-						// Test for separator of object name and value
-						if (ch != JsonConstants.OBJECT_NAME_VALUE_SEPARATOR_CHAR)
-						{
-							throw new ParseException(ErrorMsg.NAME_SEPARATOR_EXPECTED, lineIndex,
-													 tokenIndex - lineStartIndex);
-						}
-
-						// Set next state
-						state = State.VALUE_START;
-					}
-
-					break;
-				}
+	/**
+	 * Parses the specified text, and notifies the specified handler of the structure and values of the JSON text.  No
+	 * tree is created.
+	 *
+	 * @param  text
+	 *           the text that will be parsed as JSON text.
+	 * @param  handler
+	 *           the handler that will be notified of the events of the parser.
+	 * @throws IllegalArgumentException
+	 *           if {@code text} or {@code handler} is {@code null}.
+	 * @throws ParseException
+	 *           if an error occurs when parsing the input text or the handler rejects an event.
+	 */
 
-				//----  End of member of JSON object
-				case OBJECT_MEMBER_END:
-				{
-					// Test for premature end of input stream
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-					// Case: character is whitespace
-					if (isWhitespace(ch))
-					{
-						// If character is LF, start new line
-						newLine(ch);
-					}
-
-					// Case: character is not whitespace
-					else
-					{
-						// Update index of current token
-						tokenIndex = index - 1;
-
-						// Set next state according to current character
-						switch (ch)
-						{
-							case JsonConstants.OBJECT_MEMBER_SEPARATOR_CHAR:
-								state = State.OBJECT_MEMBER_NAME_START;
-								break;
-
-							case JsonConstants.OBJECT_END_CHAR:
-								state = State.VALUE_END;
-								break;
-
-							default:
-								throw new ParseException(ErrorMsg.END_OF_OBJECT_EXPECTED, lineIndex,
-														 tokenIndex - lineStartIndex);
-						}
-					}
-					break;
-				}
+	public void parse(
+		CharSequence	text,
+		IJsonHandler	handler)
+		throws ParseException
+	{
+		// Validate arguments
+		if (text == null)
+			throw new IllegalArgumentException(NULL_TEXT_STR);
+		if (handler == null)
+			throw new IllegalArgumentException(NULL_HANDLER_STR);
 
-				//----  Start of element of JSON array
-				case ARRAY_ELEMENT_START:
-				{
-					// Test for premature end of input stream
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-					// Case: character is whitespace
-					if (isWhitespace(ch))
-					{
-						// If character is LF, start new line
-						newLine(ch);
-					}
-
-					// Case: character is not whitespace
-					else
-					{
-						// If end-of-array character, array has ended ...
-						if (ch == JsonConstants.ARRAY_END_CHAR)
-						{
-							// Test for empty array
-							if (toXml)
-							{
-								if ((xmlElement == null) || (xmlElement.getChildNodes().getLength() > 0))
-								{
-									throw new ParseException(ErrorMsg.ARRAY_ELEMENT_EXPECTED, lineIndex,
-															 index - 1 - lineStartIndex);
-								}
-							}
-							else
-							{
-								if (!((node instanceof ListNode listNode) && listNode.isEmpty()))
-								{
-									throw new ParseException(ErrorMsg.ARRAY_ELEMENT_EXPECTED, lineIndex,
-															 index - 1 - lineStartIndex);
-								}
-							}
-
-							// Set next state
-							state = State.VALUE_END;
-						}
-
-						// ... otherwise, expect another element
-						else
-						{
-							// Push back start of element
-							pushBackChar();
-
-							// Set next state
-							state = State.VALUE_START;
-						}
-					}
-					break;
-				}
+		// Parse input text
+		parse(new JsonReader(new JsonLexer(text)), handler);
+	}
 
-				//----  End of element of JSON array
-				case ARRAY_ELEMENT_END:
-				{
-					// Test for premature end of input stream
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-					// Case: character is whitespace
-					if (isWhitespace(ch))
-					{
-						// If character is LF, start new line
-						newLine(ch);
-					}
-
-					// Case: character is not whitespace
-					else
-					{
-						// Update index of current token
-						tokenIndex = index - 1;
-
-						// Set next state according to current character
-						switch (ch)
-						{
-							case JsonConstants.ARRAY_ELEMENT_SEPARATOR_CHAR:
-								state = State.ARRAY_ELEMENT_START;
-								break;
-
-							case JsonConstants.ARRAY_END_CHAR:
-								state = State.VALUE_END;
-								break;
-
-							default:
-								throw new ParseException(ErrorMsg.END_OF_ARRAY_EXPECTED, lineIndex,
-														 tokenIndex - lineStartIndex);
-						}
-					}
-					break;
-				}
+	//------------------------------------------------------------------
 
-				//----  Parsing completed successfully
-				case DONE:
-					// do nothing
-					break;
-			}
-		}
+	/**
+	 * Parses the text that is composed of characters that are read from the specified byte stream using the UTF-8
+	 * character encoding, and notifies the specified handler of the structure and values of the JSON text.  No tree is
+	 * created.
+	 *
+	 * @param  inputStream
+	 *           the byte stream from which the JSON text will be read.
+	 * @param  handler
+	 *           the handler that will be notified of the events of the parser.
+	 * @throws IllegalArgumentException
+	 *           if {@code inputStream} or {@code handler} is {@code null}.
+	 * @throws ParseException
+	 *           if an error occurs when parsing the input text or the handler rejects an event.
+	 */
 
-		// Return result
-		return new Result(node, xmlElement);
+	public void parse(
+		InputStream		inputStream,
+		IJsonHandler	handler)
+		throws ParseException
+	{
+		parse(inputStream, StandardCharsets.UTF_8, handler);
 	}
 
 	//------------------------------------------------------------------
 
 	/**
-	 * Reads and returns the next character from the input stream.  If a character has been {@linkplain #pushBackChar()
-	 * pushed back}, the last character that was read from the input stream is returned.
+	 * Parses the text that is composed of characters that are read from the specified byte stream using the specified
+	 * character encoding, and notifies the specified handler of the structure and values of the JSON text.  No tree is
+	 * created.
 	 *
-	 * @return the next character from the input stream, or a space character (U+0020) if the end of the input stream
-	 *         has been reached.
+	 * @param  inputStream
+	 *           the byte stream from which the JSON text will be read.
+	 * @param  encoding
+	 *           the character encoding of {@code inputStream}; if {@code null}, the UTF-8 encoding will be used.
+	 * @param  handler
+	 *           the handler that will be notified of the events of the parser.
+	 * @throws IllegalArgumentException
+	 *           if {@code inputStream} or {@code handler} is {@code null}.
 	 * @throws ParseException
-	 *           if an error occurs when reading from the input stream.
+	 *           if an error occurs when parsing the input text or the handler rejects an event.
 	 */
 
-	private char nextChar()
+	public void parse(
+		InputStream		inputStream,
+		Charset			encoding,
+		IJsonHandler	handler)
 		throws ParseException
 	{
-		// Case: a character is pushed back
-		if (pushedBack)
-		{
-			// Clear 'pushed back' flag
-			pushedBack = false;
-
-			// Increment input index
-			++index;
-		}
+		// Validate arguments
+		if (inputStream == null)
+			throw new IllegalArgumentException(NULL_INPUT_STREAM_STR);
 
-		// Case: no character is pushed back
-		else
-		{
-			try
-			{
-				// Read next character from input
-				int ch = inputReader.read();
+		// Create reader for input stream; read input and parse it
+		parse(reader(inputStream, encoding), handler);
+	}
 
-				// Set flag to indicate end of input
-				endOfInput = (ch < 0);
+	//------------------------------------------------------------------
 
-				// If not end of input, increment input index
-				if (!endOfInput)
-					++index;
+	/**
+	 * Parses the text that is read from a character stream by the specified reader, and notifies the specified handler
+	 * of the structure and values of the JSON text.  No tree is created.
+	 *
+	 * @param  reader
+	 *           the reader of the character stream that is the source of the JSON text.
+	 * @param  handler
+	 *           the handler that will be notified of the events of the parser.
+	 * @throws IllegalArgumentException
+	 *           if {@code reader} or {@code handler} is {@code null}.
+	 * @throws ParseException
+	 *           if an error occurs when parsing the input text or the handler rejects an event.
+	 */
 
-				// Update last character that was read from input
-				inputChar = endOfInput ? ' ' : (char)ch;
-			}
-			catch (IOException e)
-			{
-				throw new ParseException(ErrorMsg.ERROR_READING_FROM_STREAM, e, lineIndex, index - lineStartIndex);
-			}
-		}
+	public void parse(
+		Reader			reader,
+		IJsonHandler	handler)
+		throws ParseException
+	{
+		// Validate arguments
+		if (reader == null)
+			throw new IllegalArgumentException(NULL_READER_STR);
+		if (handler == null)
+			throw new IllegalArgumentException(NULL_HANDLER_STR);
 
-		// Return last character that was read from input
-		return inputChar;
+		// Parse input text
+		parse(new JsonReader(new JsonLexer(reader)), handler);
 	}
 
 	//------------------------------------------------------------------
 
 	/**
-	 * Pushes the last character that was read from input stream back to the stream.  This method may be called only
-	 * once after each call to {@link #nextChar()}.
+	 * Parses the text that is encoded as UTF-8 in the specified buffer, from the position of the buffer to its limit,
+	 * and notifies the specified handler of the structure and values of the JSON text.  No tree is created.  The text
+	 * is parsed in place, and the position of the buffer is not changed.
 	 *
-	 * @throws IllegalStateException
-	 *           if a character is already pushed back or {@link #nextChar()} has not yet been called on the input
-	 *           stream.
+	 * @param  buffer
+	 *           the buffer that contains the JSON text.
+	 * @param  handler
+	 *           the handler that will be notified of the events of the parser.
+	 * @throws IllegalArgumentException
+	 *           if {@code buffer} or {@code handler} is {@code null}.
+	 * @throws ParseException
+	 *           if an error occurs when parsing the input text or the handler rejects an event.
 	 */
 
-	private void pushBackChar()
+	public void parse(
+		ByteBuffer		buffer,
+		IJsonHandler	handler)
+		throws ParseException
 	{
-		// Test whether a character is already pushed back
-		if (pushedBack)
-			throw new IllegalStateException("Character already pushed back");
-
-		// Test for start of input stream
-		if (index == 0)
-			throw new IllegalStateException("Start of input stream");
-
-		// Set 'pushed back' flag
-		pushedBack = true;
+		// Validate arguments
+		if (buffer == null)
+			throw new IllegalArgumentException(NULL_BUFFER_STR);
+		if (handler == null)
+			throw new IllegalArgumentException(NULL_HANDLER_STR);
 
-		// Decrement input index
-		--index;
+		// Parse input text
+		parse(new JsonReader(new Utf8JsonLexer(buffer)), handler);
 	}
 
 	//------------------------------------------------------------------
 
 	/**
-	 * Increments the index of the current line in the input stream and resets the index of the start of the current
-	 * line in the input stream if the specified character (from the input stream) is a line feed (U+000A).
+	 * Creates and returns a new instance of a {@linkplain JsonReader pull parser} of the specified text.
 	 *
-	 * @param ch
-	 *          the next character from the input stream.
+	 * @param  text
+	 *           the text that will be parsed as JSON text.
+	 * @return a new instance of a pull parser of {@code text}.
+	 * @throws IllegalArgumentException
+	 *           if {@code text} is {@code null}.
 	 */
 
-	private void newLine(
-		char	ch)
+	public JsonReader createReader(
+		CharSequence	text)
 	{
-		if (ch == '\n')
-		{
-			++lineIndex;
-			lineStartIndex = index;
-		}
+		// Validate argument
+		if (text == null)
+			throw new IllegalArgumentException(NULL_TEXT_STR);
+
+		// Create reader and return it
+		return new JsonReader(new JsonLexer(text));
 	}
 
 	//------------------------------------------------------------------
 
 	/**
-	 * Creates an element of the specified kind and with the specified value, and adds the new element to the specified
-	 * parent.
+	 * Creates and returns a new instance of a {@linkplain JsonReader pull parser} of the text that is composed of
+	 * characters that are read from the specified byte stream using the UTF-8 character encoding.
 	 *
-	 * @param  parent
-	 *           the parent to which the new element will be added.
-	 * @param  elementKind
-	 *           the kind of the new element.
-	 * @param  value
-	 *           the value of the new element.
-	 * @return the new element that was added to {@code parent}.
+	 * @param  inputStream
+	 *           the byte stream from which the JSON text will be read.
+	 * @return a new instance of a pull parser of the JSON text that is read from {@code inputStream}.
+	 * @throws IllegalArgumentException
+	 *           if {@code inputStream} is {@code null}.
 	 */
 
-	private Element addChild(
-		Element		parent,
-		ElementKind	elementKind,
-		String		value)
+	public JsonReader createReader(
+		InputStream	inputStream)
 	{
-		Element element = elementKind.createElement(xmlElementFacade);
-		if (parent != null)
-			parent.appendChild(element);
-		if (value != null)
-			JsonXmlUtils.setValue(xmlElementFacade, element, value);
-		return element;
+		return createReader(inputStream, StandardCharsets.UTF_8);
 	}
 
 	//------------------------------------------------------------------
 
 	/**
-	 * Throws a {@link ParseException} when the validation of a JSON number with {@link #validateNumber(CharSequence)}
-	 * fails at the specified character.  The detail message of the exception contains a reference to the index of the
-	 * character at which validation failed.
+	 * Creates and returns a new instance of a {@linkplain JsonReader pull parser} of the text that is composed of
+	 * characters that are read from the specified byte stream using the specified character encoding.
 	 *
-	 * @param  ch
-	 *           the character that caused the validation of a number to fail.
-	 * @throws ParseException
+	 * @param  inputStream
+	 *           the byte stream from which the JSON text will be read.
+	 * @param  encoding
+	 *           the character encoding of {@code inputStream}; if {@code null}, the UTF-8 encoding will be used.
+	 * @return a new instance of a pull parser of the JSON text that is read from {@code inputStream}.
+	 * @throws IllegalArgumentException
+	 *           if {@code inputStream} is {@code null}.
 	 */
 
-	private void throwNumberException(
-		char	ch)
-		throws ParseException
+	public JsonReader createReader(
+		InputStream	inputStream,
+		Charset		encoding)
 	{
-		// Get index of character at which validation failed
-		int errorIndex = index - 1 - tokenIndex;
-
-		// Initialise secondary message
-		String message = null;
-
-		// If character is terminator, secondary message is 'ended prematurely' ...
-		if (isValueTerminator(ch))
-			message = String.format(ENDED_PREMATURELY_STR, errorIndex);
-
-		// ... otherwise, secondary message is 'character is not allowed'
-		else
-		{
-			String charStr = ((ch < '\u0020') || (ch > '\u007E')) ? UNICODE_PREFIX + StringNode.charToUnicodeHex(ch)
-																  : "'" + Character.toString(ch) + "'";
-			message = String.format(CHARACTER_NOT_ALLOWED_STR, charStr, errorIndex);
-		}
+		// Validate arguments
+		if (inputStream == null)
+			throw new IllegalArgumentException(NULL_INPUT_STREAM_STR);
 
-		// Throw exception
-		throw new ParseException(ErrorMsg.INVALID_NUMBER + ": " + message, lineIndex, tokenIndex - lineStartIndex);
+		// Create reader for input stream; create pull parser and return it
+		return createReader(reader(inputStream, encoding));
 	}
 
 	//------------------------------------------------------------------
 
 	/**
-	 * Validates a JSON number at the {@linkplain #index current index} within the input text.  This method only checks
-	 * that a number conforms to the JSON grammar; the number is subsequently parsed by calling {@link
-	 * BigDecimal#BigDecimal(String)}.
-	 * <p>
-	 * The use of a finite-state machine to validate a JSON number is preferred to a regular expression because it is
-	 * faster.
-	 * </p>
+	 * Creates and returns a new instance of a {@linkplain JsonReader pull parser} of the text that is read from a
+	 * character stream by the specified reader.
 	 *
-	 * @throws ParseException
-	 *           if the text at the current index is not a valid JSON representation of a number.
-	 */
+	 * @param  reader
+	 *           the reader of the character stream that is the source of the JSON text.
+	 * @return a new instance of a pull parser of the JSON text that is read by {@code reader}.
+	 * @throws IllegalArgumentException
+	 *           if {@code reader} is {@code null}.
+	 */
 
-	private void validateNumber()
-		throws ParseException
+	public JsonReader createReader(
+		Reader	reader)
 	{
-		NumberState state = NumberState.INTEGER_PART_SIGN;
-		while (state != NumberState.DONE)
-		{
-			// Get next character from input stream
-			char ch = nextChar();
-
-			// Execute finite-state machine
-			switch (state)
-			{
-				//----  Sign of integer part
-				case INTEGER_PART_SIGN:
-				{
-					// If minus sign, append it to current token ...
-					if (ch == '-')
-						tokenBuffer.append(ch);
-
-					// ... otherwise, push back first character of number
-					else
-						pushBackChar();
-
-					// Set next state
-					state = NumberState.INTEGER_PART_FIRST_DIGIT;
-					break;
-				}
-
-				//----  First digit of integer part
-				case INTEGER_PART_FIRST_DIGIT:
-				{
-					// Test for decimal digit
-					if ((ch < '0') || (ch > '9'))
-						throwNumberException(ch);
-
-					// Append digit to current token
-					tokenBuffer.append(ch);
+		// Validate argument
+		if (reader == null)
+			throw new IllegalArgumentException(NULL_READER_STR);
 
-					// Set next state
-					state = NumberState.INTEGER_PART_DIGITS;
-					break;
-				}
+		// Create pull parser and return it
+		return new JsonReader(new JsonLexer(reader));
+	}
 
-				//----  Remaining digits of integer part
-				case INTEGER_PART_DIGITS:
-				{
-					// If end of number, stop validation ...
-					if (isValueTerminator(ch))
-						state = NumberState.DONE;
-
-					// ... otherwise, if decimal point, append it to token ...
-					else if (ch == '.')
-					{
-						// Append decimal point to current token
-						tokenBuffer.append(ch);
-
-						// Set next state
-						state = NumberState.FRACTION_PART_FIRST_DIGIT;
-					}
-
-					// ... otherwise, if exponent prefix, append it to token ...
-					else if ((ch == 'E') || (ch == 'e'))
-					{
-						// Append exponent prefix to current token
-						tokenBuffer.append(ch);
-
-						// Set next state
-						state = NumberState.EXPONENT_SIGN;
-					}
-
-					// ... otherwise, if decimal digit, process it ...
-					else if ((ch >= '0') && (ch <= '9'))
-					{
-						switch (tokenBuffer.length())
-						{
-							// Positive number may not have leading zero
-							case 1:
-								if (tokenBuffer.charAt(0) == '0')
-								{
-									pushBackChar();
-									throwNumberException('0');
-								}
-								break;
-
-							// Negative number may not have leading zero
-							case 2:
-								if ((tokenBuffer.charAt(0) == '-') && (tokenBuffer.charAt(1) == '0'))
-								{
-									pushBackChar();
-									throwNumberException('0');
-								}
-								break;
-
-							default:
-								// do nothing
-								break;
-						}
-
-						// Append digit to current token
-						tokenBuffer.append(ch);
-					}
-
-					// ... otherwise, throw an exception
-					else
-						throwNumberException(ch);
-
-					break;
-				}
+	//------------------------------------------------------------------
 
-				//----  First digit of fraction part
-				case FRACTION_PART_FIRST_DIGIT:
-				{
-					// Test for decimal digit
-					if ((ch < '0') || (ch > '9'))
-						throwNumberException(ch);
+	/**
+	 * Creates and returns a new instance of a {@linkplain JsonReader pull parser} of the text that is encoded as UTF-8
+	 * in the specified buffer, from the position of the buffer to its limit.  The text is parsed in place, and the
+	 * position of the buffer is not changed.
+	 *
+	 * @param  buffer
+	 *           the buffer that contains the JSON text.
+	 * @return a new instance of a pull parser of the JSON text in {@code buffer}.
+	 * @throws IllegalArgumentException
+	 *           if {@code buffer} is {@code null}.
+	 */
 
-					// Append digit to current token
-					tokenBuffer.append(ch);
+	public JsonReader createReader(
+		ByteBuffer	buffer)
+	{
+		// Validate argument
+		if (buffer == null)
+			throw new IllegalArgumentException(NULL_BUFFER_STR);
 
-					// Set next state
-					state = NumberState.FRACTION_PART_DIGITS;
-					break;
-				}
+		// Create pull parser and return it
+		return new JsonReader(new Utf8JsonLexer(buffer));
+	}
 
-				//----  Remaining digits of fraction part
-				case FRACTION_PART_DIGITS:
-				{
-					// If end of number, stop validation ...
-					if (isValueTerminator(ch))
-						state = NumberState.DONE;
-
-					// ... otherwise, if exponent prefix, append it to token ...
-					else if ((ch == 'E') || (ch == 'e'))
-					{
-						// Append exponent prefix to current token
-						tokenBuffer.append(ch);
-
-						// Set next state
-						state = NumberState.EXPONENT_SIGN;
-					}
-
-					// ... otherwise, if decimal digit, append it to current token ...
-					else if ((ch >= '0') && (ch <= '9'))
-						tokenBuffer.append(ch);
-
-					// ... otherwise, throw an exception
-					else
-						throwNumberException(ch);
-					break;
-				}
+	//------------------------------------------------------------------
 
-				//----  Sign of exponent
-				case EXPONENT_SIGN:
-				{
-					// If sign of exponent, append it to token ...
-					if ((ch == '-') || (ch == '+'))
-						tokenBuffer.append(ch);
+	/**
+	 * Parses the text that is supplied by the specified lexical analyser.  If the text conforms to the JSON grammar,
+	 * the JSON text is transformed into a tree of {@linkplain AbstractNode nodes} that correspond to JSON values, and
+	 * the root of the tree is returned.
+	 *
+	 * @param  lexer
+	 *           the lexical analyser of the input text.
+	 * @return the root of the tree of {@linkplain AbstractNode nodes} that was created from parsing the JSON text.
+	 * @throws ParseException
+	 *           if an error occurs when parsing the input text.
+	 */
 
-					// ... otherwise, push back first digit of exponent
-					else
-						pushBackChar();
+	private AbstractNode parseToNode(
+		AbstractJsonLexer	lexer)
+		throws ParseException
+	{
+		JsonReader reader = new JsonReader(lexer);
+		NodeBuilder builder = new NodeBuilder(reader);
+		parse(reader, builder);
+		return builder.node;
+	}
 
-					// Set next state
-					state = NumberState.EXPONENT_FIRST_DIGIT;
-					break;
-				}
+	//------------------------------------------------------------------
 
-				//----  First digit of exponent
-				case EXPONENT_FIRST_DIGIT:
-				{
-					// Test for decimal digit
-					if ((ch < '0') || (ch > '9'))
-						throwNumberException(ch);
+	/**
+	 * Parses the text that is supplied by the specified lexical analyser.  If the text conforms to the JSON grammar,
+	 * the JSON text is transformed into a tree of {@linkplain Element XML elements} that correspond to JSON values, and
+	 * the root of the tree is returned.
+	 *
+	 * @param  lexer
+	 *           the lexical analyser of the input text.
+	 * @return the root of the tree of XML elements that was created from parsing the JSON text.
+	 * @throws ParseException
+	 *           if an error occurs when parsing the input text.
+	 */
 
-					// Append digit to current token
-					tokenBuffer.append(ch);
+	private Element parseToElement(
+		AbstractJsonLexer	lexer)
+		throws ParseException
+	{
+		XmlBuilder builder = new XmlBuilder();
+		parse(new JsonReader(lexer), builder);
+		return builder.element;
+	}
 
-					// Set next state
-					state = NumberState.EXPONENT_DIGITS;
-					break;
-				}
+	//------------------------------------------------------------------
 
-				//----  Remaining digits of exponent
-				case EXPONENT_DIGITS:
-				{
-					// If end of number, stop validation ...
-					if (isValueTerminator(ch))
-						state = NumberState.DONE;
-
-					// ... otherwise, if decimal digit, append it to current token ...
-					else if ((ch >= '0') && (ch <= '9'))
-						tokenBuffer.append(ch);
-
-					// ... otherwise, throw an exception
-					else
-						throwNumberException(ch);
-					break;
-				}
+	/**
+	 * Reads the tokens of the input text with the specified reader, and notifies the specified handler of the
+	 * corresponding events.
+	 *
+	 * @param  reader
+	 *           the reader of the tokens of the input text.
+	 * @param  handler
+	 *           the handler that will be notified of the events of the parser.
+	 * @throws ParseException
+	 *           if an error occurs when parsing the input text or the handler rejects an event.
+	 */
 
-				//----  Validation completed successfully
-				case DONE:
-					// do nothing
-					break;
+	private void parse(
+		JsonReader		reader,
+		IJsonHandler	handler)
+		throws ParseException
+	{
+		for (JsonReader.Token token = reader.nextToken(); token != null; token = reader.nextToken())
+		{
+			switch (token)
+			{
+				case START_ARRAY  -> handler.startArray();
+				case END_ARRAY    -> handler.endArray();
+				case START_OBJECT -> handler.startObject();
+				case END_OBJECT   -> handler.endObject();
+				case NAME         -> handler.name(reader.getString());
+				case STRING       -> handler.stringValue(reader.getString());
+				case NUMBER       -> handler.numberValue(reader);
+				case BOOLEAN      -> handler.booleanValue(reader.getBoolean());
+				case NULL         -> handler.nullValue();
 			}
 		}
 	}
@@ -1679,157 +868,67 @@ public class JsonParser
 	//------------------------------------------------------------------
 
 	/**
-	 * Parses a JSON string at the {@linkplain #index current index} within the input text, and sets the resulting
-	 * string in the {@linkplain #tokenBuffer token buffer}.  This method is not called on the quotation mark (U+0022)
-	 * at the start of the string.
+	 * Creates a node for the JSON number that is the current token of the specified reader, and returns the node.  If
+	 * the number has no fraction part, the node is of the smallest integer type that can hold its value.
 	 *
-	 * @param  ch
-	 *           the current character of the JSON string representation.
-	 * @return {@code true} if the string has been parsed successfully, {@code false} if the end of the string has not
-	 *         been reached.
+	 * @param  parent
+	 *           the parent of the new node.
+	 * @param  reader
+	 *           the reader whose current token is the JSON number.
+	 * @return a node for the current number of {@code reader}.
 	 * @throws ParseException
-	 *           if an error occurs when parsing the JSON string.
+	 *           if the number cannot be represented by a node.
 	 */
 
-	private boolean parseString(
-		char	ch)
+	private AbstractNode createNumberNode(
+		AbstractNode	parent,
+		JsonReader		reader)
 		throws ParseException
 	{
-		// Test for end of string
-		if (ch == StringNode.END_CHAR)
-			return true;
-
-		// Test for control character
-		if (ch < '\u0020')
-		{
-			throw new ParseException(ErrorMsg.ILLEGAL_CHARACTER_IN_STRING, lineIndex, tokenIndex - lineStartIndex,
-									 UNICODE_PREFIX + StringNode.charToUnicodeHex(ch));
-		}
+		// If number has a fraction part, create node for double-precision FP
+		if (reader.hasFraction())
+			return new DoubleNode(parent, reader.doubleValue());
 
-		// If character is escape prefix, parse escape sequence
-		if (ch == StringNode.ESCAPE_PREFIX_CHAR)
+		// If number is an integer in the range of a long, create node of smallest type for it
+		if (reader.isLong())
 		{
-			// Get first character of escape sequence after prefix
-			ch = nextChar();
-
-			// Test whether input stream ended before first character of escape sequence after prefix
-			if (endOfInput)
-				throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-
-			// Initialise index of start of escape sequence without prefix
-			int startIndex = index;
-
-			// Case: Unicode escape sequence
-			if (ch == StringNode.UNICODE_ESCAPE_CHAR)
-			{
-				// Read Unicode escape sequence from input stream
-				for (int i = 0; i < StringNode.UNICODE_SEQUENCE_LENGTH; i++)
-				{
-					// Get next character from input stream
-					unicodeSeqChars[i] = nextChar();
-
-					// Test whether input stream ended before end of Unicode escape sequence
-					if (endOfInput)
-						throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
-				}
-
-				// Parse Unicode escape sequence
-				int value = 0;
-				for (int i = 0; i < StringNode.UNICODE_SEQUENCE_LENGTH; i++)
-				{
-					// Decode hex-digit character
-					ch = unicodeSeqChars[i];
-					int digit = ((ch >= '0') && (ch <= '9'))
-										? ch - '0'
-										: ((ch >= 'A') && (ch <= 'F'))
-												? ch - 'A' + 10
-												: ((ch >= 'a') && (ch <= 'f'))
-														? ch - 'a' + 10
-														: -1;
-					if (digit < 0)
-					{
-						--startIndex;
-						throw new ParseException(ErrorMsg.ILLEGAL_UNICODE_ESCAPE_SEQUENCE, lineIndex,
-												 startIndex - lineStartIndex,
-												 StringNode.UNICODE_ESCAPE_PREFIX + new String(unicodeSeqChars));
-					}
-
-					// Update value
-					value <<= 4;
-					value |= digit;
-				}
-				ch = (char)value;
-			}
-
-			// Case: escape sequence other than Unicode
-			else
-			{
-				boolean found = false;
-				for (int i = 0; i < ESCAPE_MAPPINGS.length; i++)
-				{
-					char[] pair = ESCAPE_MAPPINGS[i];
-					if (ch == pair[0])
-					{
-						ch = pair[1];
-						found = true;
-						break;
-					}
-				}
-				if (!found)
-				{
-					--startIndex;
-					throw new ParseException(ErrorMsg.ILLEGAL_ESCAPE_SEQUENCE, lineIndex, startIndex - lineStartIndex,
-											 StringNode.ESCAPE_PREFIX + ch);
-				}
-			}
+			long value = reader.getLong();
+			return ((value >= Integer.MIN_VALUE) && (value <= Integer.MAX_VALUE)) ? new IntNode(parent, (int)value)
+																				   : new LongNode(parent, value);
 		}
 
-		// Append character to buffer
-		tokenBuffer.append(ch);
-
-		// Indicate that the end of the string has not been reached
-		return false;
+		// Create node for double-precision FP or throw an exception
+		if (storeExcessiveIntegerAsFP)
+			return new DoubleNode(parent, reader.doubleValue());
+		throw reader.exception(ErrorMsg.TOO_LARGE_FOR_INTEGER, reader.tokenIndex());
 	}
 
 	//------------------------------------------------------------------
 
 	/**
-	 * Creates and returns a new instance of a {@linkplain Reader reader} for the specified text.
+	 * Creates an element of the specified kind and with the specified value, and adds the new element to the specified
+	 * parent.
 	 *
-	 * @param  text
-	 *           the text for which a reader is desired.
-	 * @return a new instance of a {@linkplain Reader reader} for {@code text}.
+	 * @param  parent
+	 *           the parent to which the new element will be added.
+	 * @param  elementKind
+	 *           the kind of the new element.
+	 * @param  value
+	 *           the value of the new element.
+	 * @return the new element that was added to {@code parent}.
 	 */
 
-	private Reader reader(
-		CharSequence	text)
+	private Element addChild(
+		Element		parent,
+		ElementKind	elementKind,
+		String		value)
 	{
-		return new Reader()
-		{
-			@Override
-			public int read()
-				throws IOException
-			{
-				return (index < text.length()) ? text.charAt(index) : -1;
-			}
-
-			@Override
-			public int read(
-				char[]	buffer,
-				int		offset,
-				int		length)
-				throws IOException
-			{
-				throw new IOException(UNSUPPORTED_OPERATION_STR);
-			}
-
-			@Override
-			public void close()
-				throws IOException
-			{
-				throw new IOException(UNSUPPORTED_OPERATION_STR);
-			}
-		};
+		Element element = elementKind.createElement(xmlElementFacade);
+		if (parent != null)
+			parent.appendChild(element);
+		if (value != null)
+			JsonXmlUtils.setValue(xmlElementFacade, element, value);
+		return element;
 	}
 
 	//------------------------------------------------------------------
@@ -1861,28 +960,6 @@ public class JsonParser
 
 	//==================================================================
 
-
-	// RECORD: RESULT OF PARSING JSON TEXT
-
-
-	/**
-	 * This record is a pairing of the result of transforming some JSON text to a tree of {@linkplain AbstractNode
-	 * nodes} and the result of transforming some JSON text to a tree of {@linkplain Element XML elements}.  The
-	 * inapplicable element of the pair is {@code null}.
-	 *
-	 * @param node
-	 *          the root of a tree of {@link AbstractNode}s.
-	 * @param xmlElement
-	 *          the root of a tree of {@link Element}s.
-	 */
-
-	private record Result(
-		AbstractNode	node,
-		Element			xmlElement)
-	{ }
-
-	//==================================================================
-
 ////////////////////////////////////////////////////////////////////////
 //  Member classes : non-inner classes
 ////////////////////////////////////////////////////////////////////////
@@ -2027,7 +1104,7 @@ public class JsonParser
 		 *          the items whose string representations will replace placeholders in {@code message}.
 		 */
 
-		private ParseException(
+		ParseException(
 			String		message,
 			int			lineIndex,
 			int			columnIndex,
@@ -2055,7 +1132,7 @@ public class JsonParser
 		 *          the items whose string representations will replace placeholders in {@code message}.
 		 */
 
-		private ParseException(
+		ParseException(
 			String		message,
 			Throwable	cause,
 			int			lineIndex,
@@ -2109,6 +1186,444 @@ public class JsonParser
 
 	//==================================================================
 
+////////////////////////////////////////////////////////////////////////
+//  Member classes : inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: BUILDER OF A TREE OF NODES
+
+
+	/**
+	 * This class implements a handler of the events of the parser that builds a tree of {@linkplain AbstractNode nodes}
+	 * that correspond to JSON values.
+	 */
+
+	private class NodeBuilder
+		implements IJsonHandler
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The reader of the tokens of the input text. */
+		private	JsonReader			reader;
+
+		/** A stack of information about the members of the JSON objects that are being built. */
+		private	Deque<MemberInfo>	memberInfoStack;
+
+		/** The current node. */
+		private	AbstractNode		node;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of a builder of a tree of nodes from the tokens that are read by the specified reader.
+		 *
+		 * @param reader
+		 *          the reader of the tokens of the input text.
+		 */
+
+		private NodeBuilder(
+			JsonReader	reader)
+		{
+			// Initialise instance variables
+			this.reader = reader;
+			memberInfoStack = new ArrayDeque<>();
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : IJsonHandler interface
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void startArray()
+		{
+			node = new ListNode(node);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void endArray()
+			throws ParseException
+		{
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void startObject()
+		{
+			node = new MapNode(node);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void endObject()
+			throws ParseException
+		{
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void name(
+			String	name)
+		{
+			memberInfoStack.addFirst(new MemberInfo(name, reader.tokenIndex(), reader.tokenLineIndex()));
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void stringValue(
+			String	value)
+			throws ParseException
+		{
+			node = new StringNode(node, value);
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void numberValue(
+			JsonReader	reader)
+			throws ParseException
+		{
+			node = createNumberNode(node, reader);
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void booleanValue(
+			boolean	value)
+			throws ParseException
+		{
+			node = new BooleanNode(node, value);
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void nullValue()
+			throws ParseException
+		{
+			node = new NullNode(node);
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Adds the current node, whose value has ended, to its parent, and makes the parent the current node.  The
+		 * current node is left unchanged if it is the root of the tree.
+		 *
+		 * @throws ParseException
+		 *           if the current node is a member of a JSON object that already has a member with the same name.
+		 */
+
+		private void endValue()
+			throws ParseException
+		{
+			// Get parent of current value
+			AbstractNode parent = node.getParent();
+
+			// If current value is the root value, stop
+			if (parent == null)
+				return;
+
+			// Test for array or object
+			if (!parent.isContainer())
+				throw new RuntimeException(INVALID_PARENT_STR);
+
+			// Case: parent is JSON array
+			if (parent instanceof ListNode array)
+			{
+				// Add element to its parent array
+				array.add(node);
+			}
+
+			// Case: parent is JSON object
+			else if (parent instanceof MapNode object)
+			{
+				// Get information about current object member from stack
+				MemberInfo memberInfo = memberInfoStack.removeFirst();
+
+				// Test for duplicate member name
+				if (object.hasKey(memberInfo.name))
+				{
+					throw new ParseException(ErrorMsg.DUPLICATE_OBJECT_MEMBER_NAME, memberInfo.lineIndex,
+											 memberInfo.index - reader.lineStartIndex(), memberInfo.name);
+				}
+
+				// Add member to its parent object value
+				object.add(memberInfo.name, node);
+			}
+
+			// Set current value to previous parent
+			node = parent;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// CLASS: BUILDER OF A TREE OF XML ELEMENTS
+
+
+	/**
+	 * This class implements a handler of the events of the parser that builds a tree of {@linkplain Element XML
+	 * elements} that correspond to JSON values.
+	 */
+
+	private class XmlBuilder
+		implements IJsonHandler
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** A stack of the names of the members of the JSON objects that are being built. */
+		private	Deque<String>	nameStack;
+
+		/** The current element. */
+		private	Element			element;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of a builder of a tree of XML elements.
+		 */
+
+		private XmlBuilder()
+		{
+			// Initialise instance variables
+			nameStack = new ArrayDeque<>();
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : IJsonHandler interface
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void startArray()
+		{
+			element = addChild(element, ElementKind.ARRAY, null);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void endArray()
+		{
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void startObject()
+		{
+			element = addChild(element, ElementKind.OBJECT, null);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void endObject()
+		{
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void name(
+			String	name)
+		{
+			nameStack.addFirst(name);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void stringValue(
+			String	value)
+		{
+			element = addChild(element, ElementKind.STRING, value);
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void numberValue(
+			JsonReader	reader)
+		{
+			element = addChild(element, ElementKind.NUMBER, reader.getString());
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void booleanValue(
+			boolean	value)
+		{
+			element = addChild(element, ElementKind.BOOLEAN, value ? BooleanNode.VALUE_TRUE : BooleanNode.VALUE_FALSE);
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void nullValue()
+		{
+			element = addChild(element, ElementKind.NULL, null);
+			endValue();
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Adds the current element, whose value has ended, to its parent, and makes the parent the current element.
+		 * The current element is left unchanged if it is the root of the tree.
+		 */
+
+		private void endValue()
+		{
+			// Get parent of current value
+			Element parent = (Element)element.getParentNode();
+
+			// If current value is the root value, stop
+			if (parent == null)
+				return;
+
+			// Test for array or object
+			if (!ElementKind.isCompound(parent))
+				throw new RuntimeException(INVALID_PARENT_STR);
+
+			// Case: parent is JSON object
+			if (!ElementKind.ARRAY.matches(parent))
+			{
+				// Set 'name' attribute of member
+				JsonXmlUtils.setName(xmlElementFacade, element, nameStack.removeFirst());
+			}
+
+			// Add value to its parent
+			parent.appendChild(element);
+
+			// Set current value to previous parent
+			element = parent;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
 }
 
 //----------------------------------------------------------------------
@@ -0,0 +1,916 @@
+/*====================================================================*\
+
+JsonReader.java
+
+Class: pull parser of JSON text.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.json;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.math.BigDecimal;
+
+import java.util.Arrays;
+
+import uk.blankaspect.common.basictree.BooleanNode;
+import uk.blankaspect.common.basictree.NullNode;
+import uk.blankaspect.common.basictree.StringNode;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: PULL PARSER OF JSON TEXT
+
+
+/**
+ * This class implements a pull parser of JSON text, which reads the text one token at a time at the request of its
+ * caller.  No tree of nodes is created, so the caller can stream through a large JSON value and retain only the parts
+ * of it that it needs.  An instance of this class is created by one of the {@code createReader(\u2026)} methods of
+ * {@link JsonParser}.
+ * <p>
+ * Each call to {@link #nextToken()} advances the reader to the next token of the input text and returns the {@linkplain
+ * Token kind} of the token.  The value of the current token is available from {@link #getString()}, {@link
+ * #getBoolean()}, {@link #getLong()} and {@link #getDouble()}, and {@link #skipValue()} skips an array, an object or
+ * the value of a member of an object.
+ * </p>
+ * <p>
+ * The reader checks that the input text conforms to the JSON grammar as it advances; the first error that it finds is
+ * reported with a {@link JsonParser.ParseException} that contains the line and column at which the error occurred.
+ * {@link JsonParser} is itself implemented with a reader, so the errors that they report are the same, with one
+ * exception: a reader does not check that the names of the members of an object are unique.
+ * </p>
+ * <p>
+ * A JSON number is validated when it is read, but its value is not obtained until it is requested.  The value is
+ * usually obtained without creating any objects; a {@link BigDecimal} is created only for an integer that is too large
+ * for a {@code long}, for a number that has an exponent but no fraction part, or for a number with a very large
+ * exponent.
+ * </p>
+ */
+
+public class JsonReader
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The initial capacity of the stack of enclosing arrays and objects. */
+	private static final	int		INITIAL_STACK_CAPACITY	= 16;
+
+	/** The minimum value of a {@code long}. */
+	private static final	BigDecimal	MIN_LONG	= BigDecimal.valueOf(Long.MIN_VALUE);
+
+	/** The maximum value of a {@code long}. */
+	private static final	BigDecimal	MAX_LONG	= BigDecimal.valueOf(Long.MAX_VALUE);
+
+	/** Miscellaneous strings. */
+	private static final	String	NO_VALUE_STR	= "The current token has no value of the requested kind";
+
+	/** The kinds of token that are returned by {@link #nextToken()}. */
+	public enum Token
+	{
+		/**
+		 * The start of a JSON array.
+		 */
+		START_ARRAY,
+
+		/**
+		 * The end of a JSON array.
+		 */
+		END_ARRAY,
+
+		/**
+		 * The start of a JSON object.
+		 */
+		START_OBJECT,
+
+		/**
+		 * The end of a JSON object.
+		 */
+		END_OBJECT,
+
+		/**
+		 * The name of a member of a JSON object.
+		 */
+		NAME,
+
+		/**
+		 * A JSON string.
+		 */
+		STRING,
+
+		/**
+		 * A JSON number.
+		 */
+		NUMBER,
+
+		/**
+		 * A JSON Boolean value ({@code false} or {@code true}).
+		 */
+		BOOLEAN,
+
+		/**
+		 * The JSON null value.
+		 */
+		NULL
+	}
+
+	/** The states of the reader. */
+	private enum State
+	{
+		VALUE_START,
+		VALUE_END,
+		ARRAY_ELEMENT_START,
+		ARRAY_ELEMENT_END,
+		OBJECT_MEMBER_START,
+		OBJECT_MEMBER_NAME_START,
+		OBJECT_MEMBER_NAME_END,
+		OBJECT_MEMBER_END,
+		DONE
+	}
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	PREMATURE_END_OF_TEXT =
+				"The input text ended prematurely.";
+
+		String	EXTRANEOUS_TEXT =
+				"There is extraneous text after the JSON value.";
+
+		String	VALUE_EXPECTED =
+				"A value was expected.";
+
+		String	OBJECT_MEMBER_NAME_EXPECTED =
+				"The name of an object member was expected.";
+
+		String	NAME_SEPARATOR_EXPECTED =
+				"A name separator was expected.";
+
+		String	END_OF_OBJECT_EXPECTED =
+				"An end-of-object character was expected.";
+
+		String	ARRAY_ELEMENT_EXPECTED =
+				"An array element was expected.";
+
+		String	END_OF_ARRAY_EXPECTED =
+				"An end-of-array character was expected.";
+
+		String	NOT_A_VALID_NUMBER =
+				"'%s' is not a valid number";
+
+		String	NOT_AN_INTEGER =
+				"The number is not an integer.";
+
+		String	TOO_LARGE_FOR_INTEGER =
+				"The number is too large for an integer.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The lexical analyser of the input text. */
+	private	AbstractJsonLexer	lexer;
+
+	/** The state of the reader. */
+	private	State				state;
+
+	/** The current token, or {@code null} if there is no current token. */
+	private	Token				token;
+
+	/** The index of the current token in the input text. */
+	private	int					tokenIndex;
+
+	/** The index of the line of the current token in the input text. */
+	private	int					tokenLineIndex;
+
+	/** The value of the current token if it is a string or the name of a member of an object, or the literal name of
+		the current token if it is a Boolean value or the null value. */
+	private	String				stringValue;
+
+	/** The length of the current token if it is a number, which has not yet been consumed; otherwise, 0. */
+	private	int					numberLength;
+
+	/** Flag: if {@code true}, an attempt has been made to obtain the value of the current number from the lexical
+		analyser. */
+	private	boolean				numberEvaluated;
+
+	/** Flag: if {@code true}, the value of the current number was obtained from the lexical analyser. */
+	private	boolean				numberValueObtained;
+
+	/** The value of the current number as a {@link BigDecimal}, or {@code null} if it has not been created. */
+	private	BigDecimal			decimalValue;
+
+	/** Flags for the arrays and objects that have been started but have not yet ended, from the outermost to the
+		innermost: a flag is {@code true} for an object and {@code false} for an array. */
+	private	boolean[]			containerStack;
+
+	/** The number of arrays and objects that have been started but have not yet ended. */
+	private	int					depth;
+
+	/** Flag: if {@code true}, an element of the innermost array is expected because an element separator has just
+		been read. */
+	private	boolean				elementExpected;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a pull parser of the JSON text that is supplied by the specified lexical analyser.
+	 *
+	 * @param lexer
+	 *          the lexical analyser of the input text.
+	 */
+
+	JsonReader(
+		AbstractJsonLexer	lexer)
+	{
+		// Initialise instance variables
+		this.lexer = lexer;
+		state = State.VALUE_START;
+		containerStack = new boolean[INITIAL_STACK_CAPACITY];
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns {@code true} if the specified number is an integer.
+	 *
+	 * @param  number
+	 *           the number of interest.
+	 * @return {@code true} if {@code number} is an integer.
+	 */
+
+	private static boolean isIntegral(
+		BigDecimal	number)
+	{
+		return (number.signum() == 0) || (number.scale() <= 0) || (number.stripTrailingZeros().scale() <= 0);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the specified number lies within the range of a {@code long}.
+	 *
+	 * @param  number
+	 *           the number of interest.
+	 * @return {@code true} if {@code number} lies within the range of a {@code long}.
+	 */
+
+	private static boolean isInLongRange(
+		BigDecimal	number)
+	{
+		return (number.compareTo(MIN_LONG) >= 0) && (number.compareTo(MAX_LONG) <= 0);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Advances this reader to the next token of the input text, and returns the kind of the token.
+	 *
+	 * @return the kind of the next token, or {@code null} if the end of the input text has been reached.
+	 * @throws JsonParser.ParseException
+	 *           if the input text does not conform to the JSON grammar or an error occurs when reading it.
+	 */
+
+	public Token nextToken()
+		throws JsonParser.ParseException
+	{
+		// Consume current number
+		if (numberLength > 0)
+		{
+			lexer.skip(numberLength);
+			numberLength = 0;
+		}
+
+		// Discard current token
+		token = null;
+		stringValue = null;
+		numberEvaluated = false;
+		decimalValue = null;
+
+		// Read tokens until a token is found or the root value has ended
+		while ((token == null) && (state != State.DONE))
+		{
+			// Execute finite-state machine
+			switch (state)
+			{
+				//----  Start of JSON value
+				case VALUE_START:
+				{
+					// Get first character of value
+					char ch = skipWhitespace();
+					startToken();
+
+					// Set token and next state according to character
+					switch (ch)
+					{
+						case StringNode.START_CHAR:
+							stringValue = lexer.readString();
+							token = Token.STRING;
+							state = State.VALUE_END;
+							break;
+
+						case JsonConstants.ARRAY_START_CHAR:
+							lexer.advance();
+							pushContainer(false);
+							elementExpected = false;
+							token = Token.START_ARRAY;
+							state = State.ARRAY_ELEMENT_START;
+							break;
+
+						case JsonConstants.OBJECT_START_CHAR:
+							lexer.advance();
+							pushContainer(true);
+							token = Token.START_OBJECT;
+							state = State.OBJECT_MEMBER_START;
+							break;
+
+						case JsonConstants.ARRAY_END_CHAR:
+						case JsonConstants.OBJECT_END_CHAR:
+						case JsonConstants.OBJECT_NAME_VALUE_SEPARATOR_CHAR:
+						case JsonConstants.OBJECT_MEMBER_SEPARATOR_CHAR:
+							throw lexer.exception(ErrorMsg.VALUE_EXPECTED, lexer.index());
+
+						default:
+						{
+							// Case: number
+							if ((ch == '-') || ((ch >= '0') && (ch <= '9')))
+							{
+								numberLength = lexer.scanNumber();
+								token = Token.NUMBER;
+							}
+
+							// Case: literal name
+							else
+							{
+								stringValue = lexer.readLiteral();
+								token = stringValue.equals(NullNode.VALUE) ? Token.NULL : Token.BOOLEAN;
+							}
+
+							// Set next state
+							state = State.VALUE_END;
+							break;
+						}
+					}
+					break;
+				}
+
+				//----  End of JSON value
+				case VALUE_END:
+				{
+					// If current value is the root value, test for extraneous text after it ...
+					if (depth == 0)
+					{
+						state = State.DONE;
+						if (lexer.skipWhitespace() >= 0)
+							throw lexer.exception(ErrorMsg.EXTRANEOUS_TEXT, lexer.index());
+					}
+
+					// ... otherwise, expect end of member of object or end of element of array
+					else
+						state = containerStack[depth - 1] ? State.OBJECT_MEMBER_END : State.ARRAY_ELEMENT_END;
+					break;
+				}
+
+				//----  Start of member of JSON object
+				case OBJECT_MEMBER_START:
+				{
+					// If end-of-object character, empty object has ended ...
+					if (skipWhitespace() == JsonConstants.OBJECT_END_CHAR)
+						endContainer(Token.END_OBJECT);
+
+					// ... otherwise, expect another member
+					else
+						state = State.OBJECT_MEMBER_NAME_START;
+					break;
+				}
+
+				//----  Start of name of member of JSON object
+				case OBJECT_MEMBER_NAME_START:
+				{
+					// Test for start of name of member
+					char ch = skipWhitespace();
+					startToken();
+					if (ch != StringNode.START_CHAR)
+						throw lexer.exception(ErrorMsg.OBJECT_MEMBER_NAME_EXPECTED, tokenIndex);
+
+					// Parse name of member
+					stringValue = lexer.readString();
+					token = Token.NAME;
+
+					// Set next state
+					state = State.OBJECT_MEMBER_NAME_END;
+					break;
+				}
+
+				//----  End of name of member of JSON object
+				case OBJECT_MEMBER_NAME_END:
+				{
+					// Test for separator of object name and value; the location of the error is that of the name
+					if (skipWhitespace() != JsonConstants.OBJECT_NAME_VALUE_SEPARATOR_CHAR)
+						throw lexer.exception(ErrorMsg.NAME_SEPARATOR_EXPECTED, tokenIndex);
+
+					// Set next state
+					lexer.advance();
+					state = State.VALUE_START;
+					break;
+				}
+
+				//----  End of member of JSON object
+				case OBJECT_MEMBER_END:
+				{
+					// Set next state according to character
+					switch (skipWhitespace())
+					{
+						case JsonConstants.OBJECT_MEMBER_SEPARATOR_CHAR:
+							lexer.advance();
+							state = State.OBJECT_MEMBER_NAME_START;
+							break;
+
+						case JsonConstants.OBJECT_END_CHAR:
+							endContainer(Token.END_OBJECT);
+							break;
+
+						default:
+							throw lexer.exception(ErrorMsg.END_OF_OBJECT_EXPECTED, lexer.index());
+					}
+					break;
+				}
+
+				//----  Start of element of JSON array
+				case ARRAY_ELEMENT_START:
+				{
+					// If end-of-array character, array has ended ...
+					if (skipWhitespace() == JsonConstants.ARRAY_END_CHAR)
+					{
+						// Test for element after separator
+						if (elementExpected)
+							throw lexer.exception(ErrorMsg.ARRAY_ELEMENT_EXPECTED, lexer.index());
+
+						// End array
+						endContainer(Token.END_ARRAY);
+					}
+
+					// ... otherwise, expect another element
+					else
+						state = State.VALUE_START;
+					break;
+				}
+
+				//----  End of element of JSON array
+				case ARRAY_ELEMENT_END:
+				{
+					// Set next state according to character
+					switch (skipWhitespace())
+					{
+						case JsonConstants.ARRAY_ELEMENT_SEPARATOR_CHAR:
+							lexer.advance();
+							elementExpected = true;
+							state = State.ARRAY_ELEMENT_START;
+							break;
+
+						case JsonConstants.ARRAY_END_CHAR:
+							endContainer(Token.END_ARRAY);
+							break;
+
+						default:
+							throw lexer.exception(ErrorMsg.END_OF_ARRAY_EXPECTED, lexer.index());
+					}
+					break;
+				}
+
+				//----  Reading completed successfully
+				case DONE:
+					// do nothing
+					break;
+			}
+		}
+
+		// Return kind of token
+		return token;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the kind of the current token.
+	 *
+	 * @return the kind of the current token, or {@code null} if {@link #nextToken()} has not been called or the end of
+	 *         the input text has been reached.
+	 */
+
+	public Token getToken()
+	{
+		return token;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Skips the value of the current token, which is validated but otherwise ignored:
+	 * <ul>
+	 *   <li>
+	 *     If the current token is the start of an array or object, this reader advances to the end of the array or
+	 *     object, which becomes the current token.
+	 *   </li>
+	 *   <li>
+	 *     If the current token is the name of a member of an object, this reader advances to the last token of the
+	 *     value of the member.
+	 *   </li>
+	 *   <li>
+	 *     Otherwise, this method has no effect.
+	 *   </li>
+	 * </ul>
+	 *
+	 * @throws JsonParser.ParseException
+	 *           if the input text does not conform to the JSON grammar or an error occurs when reading it.
+	 */
+
+	public void skipValue()
+		throws JsonParser.ParseException
+	{
+		// If current token is name of member of object, advance to value of member
+		if (token == Token.NAME)
+			nextToken();
+
+		// If current token is start of array or object, advance to its end
+		if ((token == Token.START_ARRAY) || (token == Token.START_OBJECT))
+		{
+			int containerDepth = depth;
+			while (depth >= containerDepth)
+				nextToken();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of the current token as a string.  The value of a number is its text, and the value of a
+	 * Boolean value or the null value is its literal name.
+	 *
+	 * @return the value of the current token as a string.
+	 * @throws IllegalStateException
+	 *           if the current token is not a string, a name, a number, a Boolean value or the null value.
+	 */
+
+	public String getString()
+	{
+		if (token == null)
+			throw new IllegalStateException(NO_VALUE_STR);
+		switch (token)
+		{
+			case NAME:
+			case STRING:
+			case BOOLEAN:
+			case NULL:
+				return stringValue;
+
+			case NUMBER:
+				return lexer.peekAscii(numberLength);
+
+			default:
+				throw new IllegalStateException(NO_VALUE_STR);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of the current token, which must be a Boolean value.
+	 *
+	 * @return the value of the current token.
+	 * @throws IllegalStateException
+	 *           if the current token is not a Boolean value.
+	 */
+
+	public boolean getBoolean()
+	{
+		if (token != Token.BOOLEAN)
+			throw new IllegalStateException(NO_VALUE_STR);
+		return stringValue.equals(BooleanNode.VALUE_TRUE);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the current token is a number with a fraction part.
+	 *
+	 * @return {@code true} if the current token is a number with a fraction part.
+	 * @throws IllegalStateException
+	 *           if the current token is not a number.
+	 */
+
+	public boolean hasFraction()
+	{
+		if (token != Token.NUMBER)
+			throw new IllegalStateException(NO_VALUE_STR);
+		return lexer.isFractionNumber();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the value of the current token is an integer that can be represented by a {@code long}.
+	 *
+	 * @return {@code true} if the value of the current token is an integer that can be represented by a {@code long}.
+	 * @throws IllegalStateException
+	 *           if the current token is not a number.
+	 * @throws JsonParser.ParseException
+	 *           if the value of the number cannot be represented.
+	 */
+
+	public boolean isLong()
+		throws JsonParser.ParseException
+	{
+		if (obtainNumberValue() && !lexer.isFractionNumber())
+			return true;
+		BigDecimal number = decimalValue();
+		return isIntegral(number) && isInLongRange(number);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of the current token, which must be a number whose value is an integer that can be represented
+	 * by a {@code long}.
+	 *
+	 * @return the value of the current token.
+	 * @throws IllegalStateException
+	 *           if the current token is not a number.
+	 * @throws JsonParser.ParseException
+	 *           if the value of the number is not an integer or it is too large for a {@code long}.
+	 */
+
+	public long getLong()
+		throws JsonParser.ParseException
+	{
+		// Return value that was obtained by lexical analyser
+		if (obtainNumberValue() && !lexer.isFractionNumber())
+			return lexer.integerValue();
+
+		// Test for integer
+		BigDecimal number = decimalValue();
+		if (!isIntegral(number))
+			throw lexer.exception(ErrorMsg.NOT_AN_INTEGER, tokenIndex);
+		if (!isInLongRange(number))
+			throw lexer.exception(ErrorMsg.TOO_LARGE_FOR_INTEGER, tokenIndex);
+
+		// Return value
+		return number.longValue();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of the current token, which must be a number, as a {@code double}.  The value is correctly
+	 * rounded, and a number with a minus sign whose value is zero (for example, {@code -0}) is negative zero.
+	 *
+	 * @return the value of the current token as a {@code double}.
+	 * @throws IllegalStateException
+	 *           if the current token is not a number.
+	 * @throws JsonParser.ParseException
+	 *           if the value of the number cannot be represented.
+	 */
+
+	public double getDouble()
+		throws JsonParser.ParseException
+	{
+		double value = doubleValue();
+		return ((value == 0.0) && lexer.isNegativeNumber()) ? -0.0 : value;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of the current token, which must be a number, as a {@code double}.  The value is correctly
+	 * rounded, but a number whose digits are all zero is deemed to be positive zero, regardless of its sign, as it is
+	 * by {@link BigDecimal}.  (A nonzero number that underflows to zero keeps its sign.)
+	 *
+	 * @return the value of the current token as a {@code double}.
+	 * @throws IllegalStateException
+	 *           if the current token is not a number.
+	 * @throws JsonParser.ParseException
+	 *           if the value of the number cannot be represented.
+	 */
+
+	double doubleValue()
+		throws JsonParser.ParseException
+	{
+		if (obtainNumberValue())
+			return lexer.isFractionNumber() ? lexer.fractionValue() : lexer.integerValue();
+		return decimalValue().doubleValue();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index of the current token in the input text.
+	 *
+	 * @return the index of the current token in the input text.
+	 */
+
+	int tokenIndex()
+	{
+		return tokenIndex;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index of the line of the current token in the input text.
+	 *
+	 * @return the index of the line of the current token in the input text.
+	 */
+
+	int tokenLineIndex()
+	{
+		return tokenLineIndex;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index of the start of the current line in the input text.
+	 *
+	 * @return the index of the start of the current line in the input text.
+	 */
+
+	int lineStartIndex()
+	{
+		return lexer.lineStartIndex();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of {@link JsonParser.ParseException} with the specified message, index of the
+	 * character at which the error occurred and optional replacements for placeholders in the message.  The column of
+	 * the error is relative to the start of the current line.
+	 *
+	 * @param  message
+	 *           the message of the exception.
+	 * @param  index
+	 *           the index in the input text of the character at which the error occurred.
+	 * @param  replacements
+	 *           the items whose string representations will replace placeholders in {@code message}.
+	 * @return a new instance of {@link JsonParser.ParseException}.
+	 */
+
+	JsonParser.ParseException exception(
+		String		message,
+		int			index,
+		Object...	replacements)
+	{
+		return lexer.exception(message, index, replacements);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes any whitespace at the current position in the input text, and returns the next character without
+	 * consuming it.
+	 *
+	 * @return the first character after any whitespace.
+	 * @throws JsonParser.ParseException
+	 *           if the end of the input text has been reached or an error occurs when reading the input text.
+	 */
+
+	private char skipWhitespace()
+		throws JsonParser.ParseException
+	{
+		int next = lexer.skipWhitespace();
+		if (next < 0)
+			throw lexer.exception(ErrorMsg.PREMATURE_END_OF_TEXT, lexer.index());
+		return (char)next;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Records the location of a token that starts at the next character of the input text.
+	 */
+
+	private void startToken()
+	{
+		tokenIndex = lexer.index();
+		tokenLineIndex = lexer.lineIndex();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Pushes an array or object onto the stack of enclosing containers, enlarging the stack if necessary.
+	 *
+	 * @param object
+	 *          if {@code true}, the container is an object; otherwise, it is an array.
+	 */
+
+	private void pushContainer(
+		boolean	object)
+	{
+		if (depth == containerStack.length)
+			containerStack = Arrays.copyOf(containerStack, 2 * depth);
+		containerStack[depth++] = object;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes the closing character of the innermost array or object, which is the next character of the input text,
+	 * and makes it the current token.
+	 *
+	 * @param endToken
+	 *          the kind of the token: {@link Token#END_ARRAY} or {@link Token#END_OBJECT}.
+	 */
+
+	private void endContainer(
+		Token	endToken)
+	{
+		startToken();
+		lexer.advance();
+		--depth;
+		token = endToken;
+		state = State.VALUE_END;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Attempts to obtain the value of the current number from the lexical analyser, if no attempt has been made.
+	 *
+	 * @return {@code true} if the value of the current number was obtained from the lexical analyser.
+	 * @throws IllegalStateException
+	 *           if the current token is not a number.
+	 */
+
+	private boolean obtainNumberValue()
+	{
+		if (token != Token.NUMBER)
+			throw new IllegalStateException(NO_VALUE_STR);
+		if (!numberEvaluated)
+		{
+			numberValueObtained = lexer.numberValue(numberLength);
+			numberEvaluated = true;
+		}
+		return numberValueObtained;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the value of the current number as a {@link BigDecimal}, creating it from the text of the number if
+	 * necessary.
+	 *
+	 * @return the value of the current number as a {@link BigDecimal}.
+	 * @throws JsonParser.ParseException
+	 *           if the value of the number cannot be represented by a {@link BigDecimal}.
+	 */
+
+	private BigDecimal decimalValue()
+		throws JsonParser.ParseException
+	{
+		if (decimalValue == null)
+		{
+			String numberStr = getString();
+			try
+			{
+				decimalValue = new BigDecimal(numberStr);
+			}
+			catch (NumberFormatException e)
+			{
+				String causeMessage = e.getMessage();
+				throw lexer.exception(((causeMessage == null) || causeMessage.isEmpty())
+											? ErrorMsg.NOT_A_VALID_NUMBER + "."
+											: ErrorMsg.NOT_A_VALID_NUMBER + ": " + causeMessage,
+									  tokenIndex, numberStr);
+			}
+		}
+		return decimalValue;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
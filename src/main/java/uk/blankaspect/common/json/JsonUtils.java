@@ -22,10 +22,15 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFileAttributes;
@@ -55,6 +60,13 @@ public class JsonUtils
 	/** The filename extension of a temporary file. */
 	public static final	String	TEMPORARY_FILENAME_EXTENSION	= ".$tmp";
 
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	FILE_TOO_LARGE =
+				"The file is too large to be read: %s";
+	}
+
 ////////////////////////////////////////////////////////////////////////
 //  Constructors
 ////////////////////////////////////////////////////////////////////////
@@ -315,26 +327,84 @@ public class JsonUtils
 	//------------------------------------------------------------------
 
 	/**
-	 * Opens a character stream on the specified file, which is expected to contain text with the UTF-8 character
-	 * encoding, parses the character stream as JSON text and returns the resulting JSON value.
+	 * Parses the content of the specified file, which is expected to contain text with the UTF-8 character encoding, as
+	 * JSON text and returns the resulting JSON value.  The file is read into a buffer on the heap, whose content is
+	 * {@linkplain JsonParser#parse(ByteBuffer) parsed as UTF-8 bytes} without first being decoded.
 	 *
 	 * @param  file
 	 *           the file whose content will be parsed as JSON text.
 	 * @return the JSON value that results from parsing the content of {@code file}, if the file contains valid JSON
 	 *         text.
 	 * @throws IOException
-	 *           if an error occurs when reading the file.
+	 *           if an error occurs when reading the file, or if the file is too large to be read into a buffer.
 	 * @throws JsonParser.ParseException
 	 *           if an error occurs when parsing the content of the file.
+	 * @see    #mapFile(Path)
 	 */
 
 	public static AbstractNode readFile(
 		Path	file)
 		throws IOException, JsonParser.ParseException
 	{
-		try (BufferedReader reader = Files.newBufferedReader(file))
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
 		{
-			return JsonParser.builder().build().parse(reader);
+			// Test size of file
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException(String.format(ErrorMsg.FILE_TOO_LARGE, file));
+
+			// Read file into buffer
+			ByteBuffer buffer = ByteBuffer.allocate((int)size);
+			while (buffer.hasRemaining())
+			{
+				if (channel.read(buffer) < 0)
+					break;
+			}
+			buffer.flip();
+
+			// Parse content of buffer
+			return JsonParser.builder().build().parse(buffer);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Parses the content of the specified file, which is expected to contain text with the UTF-8 character encoding, as
+	 * JSON text and returns the resulting JSON value.  The file is mapped into memory, and its content is {@linkplain
+	 * JsonParser#parse(ByteBuffer) parsed as UTF-8 bytes} in place, so this method is suitable for a large file that
+	 * is only read, such as a manifest.
+	 * <p>
+	 * The mapping of the file remains in place after this method returns, until the buffer that maps the file is
+	 * reclaimed by the garbage collector.  On some platforms (notably Windows), a mapped file cannot be deleted or
+	 * replaced while its mapping exists, so a file that is later written with {@link #writeFile(Path, AbstractNode)}
+	 * should be read with {@link #readFile(Path)} instead.
+	 * </p>
+	 *
+	 * @param  file
+	 *           the file whose content will be parsed as JSON text.
+	 * @return the JSON value that results from parsing the content of {@code file}, if the file contains valid JSON
+	 *         text.
+	 * @throws IOException
+	 *           if an error occurs when mapping the file, or if the file is too large to be mapped.
+	 * @throws JsonParser.ParseException
+	 *           if an error occurs when parsing the content of the file.
+	 * @see    #readFile(Path)
+	 */
+
+	public static AbstractNode mapFile(
+		Path	file)
+		throws IOException, JsonParser.ParseException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			// Test size of file
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException(String.format(ErrorMsg.FILE_TOO_LARGE, file));
+
+			// Map file into memory and parse its content
+			return JsonParser.builder().build().parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
 		}
 	}
 
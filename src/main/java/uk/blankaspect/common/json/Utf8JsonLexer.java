@@ -0,0 +1,423 @@
+/*====================================================================*\
+
+Utf8JsonLexer.java
+
+Class: lexical analyser of JSON text in a buffer of UTF-8 bytes.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.json;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import uk.blankaspect.common.basictree.StringNode;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: LEXICAL ANALYSER OF JSON TEXT IN A BUFFER OF UTF-8 BYTES
+
+
+/**
+ * This class implements the lexical analysis of JSON text that is encoded as UTF-8 in a {@link ByteBuffer}, such as a
+ * region of a file that is mapped into memory or a buffer on the heap.  The text is analysed in place: it is not
+ * decoded as a whole before it is parsed.
+ * <p>
+ * Outside strings, the JSON grammar allows only US-ASCII characters, which are represented by single bytes in UTF-8,
+ * so whitespace, structural characters, numbers and literal names are examined byte by byte.  Only the content of a
+ * string is decoded, when the string is sliced from the buffer; an ill-formed UTF-8 sequence in a string is replaced
+ * by U+FFFD, as it would be by an {@link java.io.InputStreamReader InputStreamReader}.  A character outside a string
+ * that is not in the US-ASCII range is decoded only so that it can be reported in an error message.
+ * </p>
+ * <p>
+ * Indices in the input text, which are reported in the location of an error, are indices of UTF-16 characters rather
+ * than bytes, as they are for text that is read from a character stream.  A {@linkplain #peek(int) look-ahead}
+ * distance is a number of bytes, which is the same as a number of characters when the intervening characters are in
+ * the US-ASCII range; the superclass looks ahead only over such characters.
+ * </p>
+ */
+
+class Utf8JsonLexer
+	extends AbstractJsonLexer
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The initial size of the buffer for bytes that are copied from a buffer without an accessible array. */
+	private static final	int		DEFAULT_BYTE_BUFFER_SIZE	= 256;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The buffer that contains the JSON text. */
+	private	ByteBuffer		buffer;
+
+	/** The array that backs {@link #buffer}, or {@code null} if the buffer has no accessible array. */
+	private	byte[]			array;
+
+	/** The offset of the first element of {@link #buffer} in {@link #array}. */
+	private	int				arrayOffset;
+
+	/** The index in {@link #buffer} of the start of the JSON text. */
+	private	int				start;
+
+	/** The index in {@link #buffer} of the next byte. */
+	private	int				position;
+
+	/** The index in {@link #buffer} of the end of the JSON text. */
+	private	int				limit;
+
+	/** The difference between the number of bytes and the number of UTF-16 characters that have been consumed. */
+	private	int				charOffset;
+
+	/** A buffer for the value of a string that contains escape sequences. */
+	private	StringBuilder	tokenBuffer;
+
+	/** A buffer for bytes that are copied from {@link #buffer} when it has no accessible array. */
+	private	byte[]			bytes;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a lexical analyser of the UTF-8 text in the specified buffer.  The text extends from
+	 * the position of the buffer to its limit.  The position of the buffer is not changed.
+	 *
+	 * @param buffer
+	 *          the buffer that contains the JSON text.
+	 */
+
+	Utf8JsonLexer(
+		ByteBuffer	buffer)
+	{
+		// Initialise instance variables
+		this.buffer = buffer;
+		if (buffer.hasArray())
+		{
+			array = buffer.array();
+			arrayOffset = buffer.arrayOffset();
+		}
+		start = buffer.position();
+		position = start;
+		limit = buffer.limit();
+		tokenBuffer = new StringBuilder();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : overriding methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the index of the next character in the input text.
+	 *
+	 * @return the index of the next character in the input text.
+	 */
+
+	@Override
+	int index()
+	{
+		return position - start - charOffset;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the character of the input text that starts at the byte that is the specified number of bytes after the
+	 * next byte, without consuming any bytes.  If the byte is the first byte of a multi-byte sequence, the first UTF-16
+	 * character of the decoded sequence is returned.
+	 *
+	 * @param  distance
+	 *           the number of bytes after the next byte; 0 denotes the next byte.
+	 * @return the character that starts {@code distance} bytes after the next byte of the input text, or -1 if the
+	 *         input text ends before that byte.
+	 */
+
+	@Override
+	int peek(
+		int	distance)
+	{
+		int index = position + distance;
+		if (index >= limit)
+			return -1;
+		byte b = buffer.get(index);
+		return (b >= 0) ? b : decode(index, index + sequenceLength(index), false).charAt(0);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes the next character of the input text, which must have been {@linkplain #peek() peeked}.
+	 */
+
+	@Override
+	void advance()
+	{
+		if (buffer.get(position) >= 0)
+			++position;
+		else
+		{
+			int end = position + sequenceLength(position);
+			decode(position, end, true);
+			position = end;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes any whitespace at the current position in the input text, and returns the next character without
+	 * consuming it.  The {@linkplain #lineIndex() current line} is updated at each line feed (U+000A).
+	 *
+	 * @return the first character after any whitespace, or -1 if the end of the input text has been reached.
+	 */
+
+	@Override
+	int skipWhitespace()
+	{
+		while (position < limit)
+		{
+			byte b = buffer.get(position);
+			switch (b)
+			{
+				case '\n':
+					++position;
+					++lineIndex;
+					lineStartIndex = index();
+					break;
+
+				case ' ':
+				case '\r':
+				case '\t':
+					++position;
+					break;
+
+				default:
+					return (b >= 0) ? b : peek(0);
+			}
+		}
+		return -1;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Parses a JSON string whose opening quotation mark (U+0022) is the next character of the input text, and returns
+	 * the value of the string.  The bytes of the string are decoded from UTF-8 in as few segments as possible: the
+	 * whole string, if it contains no escape sequences, or the parts between escape sequences.
+	 *
+	 * @return the value of the JSON string.
+	 * @throws JsonParser.ParseException
+	 *           if the JSON string is not valid.
+	 */
+
+	@Override
+	String readString()
+		throws JsonParser.ParseException
+	{
+		// Initialise local variables
+		int tokenIndex = index();
+		int segmentStart = ++position;
+		boolean escaped = false;
+
+		// Parse string
+		while (true)
+		{
+			// Find next special byte; bytes of multi-byte sequences are negative
+			while (position < limit)
+			{
+				byte b = buffer.get(position);
+				if ((b == StringNode.END_CHAR) || (b == StringNode.ESCAPE_PREFIX_CHAR) || ((b >= 0) && (b < ' ')))
+					break;
+				++position;
+			}
+
+			// Decode segment of string before special byte
+			String segment = decode(segmentStart, position, true);
+
+			// Test for end of input
+			if (position == limit)
+				throw exception(ErrorMsg.PREMATURE_END_OF_TEXT, index());
+
+			// Process special byte
+			char ch = (char)buffer.get(position);
+
+			// Case: end of string
+			if (ch == StringNode.END_CHAR)
+			{
+				// Skip closing quotation mark
+				++position;
+
+				// Return value of string
+				return escaped ? tokenBuffer.append(segment).toString() : segment;
+			}
+
+			// Case: control character
+			if (ch < ' ')
+				throw illegalCharacterException(tokenIndex, ch);
+
+			// Case: escape sequence
+			if (!escaped)
+			{
+				tokenBuffer.setLength(0);
+				escaped = true;
+			}
+			tokenBuffer.append(segment);
+			++position;
+			tokenBuffer.append(parseEscapeSequence());
+			segmentStart = position;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the specified number of bytes of the input text, starting at the next byte, as a string without
+	 * consuming them.  The bytes must have been {@linkplain #peek(int) peeked} and must all be in the US-ASCII range.
+	 *
+	 * @param  length
+	 *           the number of bytes that will be returned.
+	 * @return the characters that correspond to the next {@code length} bytes of the input text.
+	 */
+
+	@Override
+	String peekAscii(
+		int	length)
+	{
+		return decode(position, position + length, StandardCharsets.ISO_8859_1);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Consumes the specified number of bytes of the input text, which must have been {@linkplain #peek(int) peeked}
+	 * and must all be in the US-ASCII range.
+	 *
+	 * @param length
+	 *          the number of bytes that will be consumed.
+	 */
+
+	@Override
+	void skip(
+		int	length)
+	{
+		position += length;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the length of the UTF-8 sequence that starts at the specified index in the buffer.  The length of an
+	 * ill-formed sequence is the number of bytes up to the first byte that is not a valid continuation byte.
+	 *
+	 * @param  index
+	 *           the index in the buffer of the first byte of the sequence.
+	 * @return the length of the UTF-8 sequence that starts at {@code index}.
+	 */
+
+	private int sequenceLength(
+		int	index)
+	{
+		// Get expected length of sequence from first byte
+		int b = buffer.get(index) & 0xFF;
+		int length = (b < 0xC0) ? 1 : (b < 0xE0) ? 2 : (b < 0xF0) ? 3 : (b < 0xF8) ? 4 : 1;
+
+		// Check continuation bytes
+		for (int i = 1; i < length; i++)
+		{
+			if ((index + i >= limit) || ((buffer.get(index + i) & 0xC0) != 0x80))
+				return i;
+		}
+		return length;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Decodes the UTF-8 bytes between the specified indices in the buffer, and returns the resulting string.
+	 *
+	 * @param  startIndex
+	 *           the index in the buffer of the first byte.
+	 * @param  endIndex
+	 *           the index in the buffer of the byte after the last byte.
+	 * @param  consumed
+	 *           if {@code true}, the bytes are being consumed, and the difference between the number of bytes and the
+	 *           number of characters is added to the {@linkplain #charOffset character offset}.
+	 * @return the string that results from decoding the specified bytes.
+	 */
+
+	private String decode(
+		int		startIndex,
+		int		endIndex,
+		boolean	consumed)
+	{
+		String str = decode(startIndex, endIndex, StandardCharsets.UTF_8);
+		if (consumed)
+			charOffset += endIndex - startIndex - str.length();
+		return str;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Decodes the bytes between the specified indices in the buffer with the specified character encoding, and returns
+	 * the resulting string.  The bytes are decoded directly from the array that backs the buffer, if it has one;
+	 * otherwise, they are copied from the buffer first.
+	 *
+	 * @param  startIndex
+	 *           the index in the buffer of the first byte.
+	 * @param  endIndex
+	 *           the index in the buffer of the byte after the last byte.
+	 * @param  encoding
+	 *           the character encoding of the bytes.
+	 * @return the string that results from decoding the specified bytes.
+	 */
+
+	private String decode(
+		int		startIndex,
+		int		endIndex,
+		Charset	encoding)
+	{
+		// Test for empty sequence
+		int length = endIndex - startIndex;
+		if (length == 0)
+			return "";
+
+		// Decode bytes from backing array
+		if (array != null)
+			return new String(array, arrayOffset + startIndex, length, encoding);
+
+		// Copy bytes from buffer and decode them
+		if ((bytes == null) || (bytes.length < length))
+			bytes = new byte[Math.max(length, DEFAULT_BYTE_BUFFER_SIZE)];
+		buffer.get(startIndex, bytes, 0, length);
+		return new String(bytes, 0, length, encoding);
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -180,6 +181,8 @@ public class StyleManager
 	private SimpleObjectProperty<AbstractTheme>	theme;
 	private	Map<Class<?>, List<ColourProperty>>	colourProperties;
 	private	Map<Class<?>, List<CssRuleSet>>		ruleSets;
+	private	Map<Class<?>, Integer>				numAppliedColourProperties;
+	private	Map<Class<?>, Integer>				numAppliedRuleSets;
 	private	List<Class<?>>						registeringClasses;
 	private	Path								tempDirectory;
 	private	boolean								notUsingStyleSheet;
@@ -220,6 +223,8 @@ public class StyleManager
 		theme = new SimpleObjectProperty<>();
 		colourProperties = new LinkedHashMap<>();
 		ruleSets = new LinkedHashMap<>();
+		numAppliedColourProperties = new HashMap<>();
+		numAppliedRuleSets = new HashMap<>();
 		registeringClasses = new ArrayList<>();
 		notUsingStyleSheet = Boolean.getBoolean(StyleConstants.SystemPropertyKey.NO_STYLE_SHEET);
 
@@ -655,6 +660,7 @@ public class StyleManager
 	{
 		// Update map of colour properties
 		this.colourProperties.put(cls, new ArrayList<>(colourProperties));
+		numAppliedColourProperties.remove(cls);
 
 		// Invalidate style sheet
 		invalidateStyleSheet();
@@ -668,6 +674,7 @@ public class StyleManager
 	{
 		// Update map of rule sets
 		this.ruleSets.put(cls, new ArrayList<>(ruleSets));
+		numAppliedRuleSets.remove(cls);
 
 		// Invalidate style sheet
 		invalidateStyleSheet();
@@ -707,6 +714,52 @@ public class StyleManager
 
 	//------------------------------------------------------------------
 
+	public void appendStyleSheet(
+		Scene	scene)
+	{
+		// Test whether style sheets are being used
+		if (notUsingStyleSheet)
+			return;
+
+		// If no style sheet has been generated, add complete style sheet
+		if (numAppliedColourProperties.isEmpty() && numAppliedRuleSets.isEmpty())
+		{
+			addStyleSheet(scene);
+			return;
+		}
+
+		// Test for new colour properties and rule sets
+		if (!hasUnappliedStyles())
+			return;
+
+		// Generate text of style sheet for new colour properties and rule sets
+		String text = createCssText(true);
+		updateNumAppliedStyles();
+
+		// Add style sheet to scene
+		String uri = null;
+		if (styleSheetFilename == null)
+			uri = CssUtils.styleSheetToDataUri(text);
+		else
+		{
+			try
+			{
+				Path file = getTempDirectory().resolve(String.format(styleSheetFilename, styleSheetIndex));
+				IOUtils.writeTextFile(file, text);
+				++styleSheetIndex;
+				uri = file.toUri().toString();
+			}
+			catch (FileException e)
+			{
+				reportException(WRITE_STYLE_SHEET_STR, e);
+			}
+		}
+		if (uri != null)
+			scene.getStylesheets().add(uri);
+	}
+
+	//------------------------------------------------------------------
+
 	public void reapplyStylesheet()
 	{
 		// Test whether style sheets are being used
@@ -887,78 +940,7 @@ public class StyleManager
 
 	public String getCssText()
 	{
-		// Allocate buffer for CSS test
-		StringBuilder buffer = new StringBuilder(4096);
-
-		// Append comment containing ID
-		buffer.append(STYLE_SHEET_ID_COMMENT).append("\n\n");
-
-		// Get current theme
-		AbstractTheme theme = getTheme();
-
-		// Append base style sheet
-		String styleSheet = theme.getBaseStyleSheet();
-		if (styleSheet != null)
-			buffer.append(styleSheet);
-
-		// Initialise list of all rule sets
-		List<CssRuleSet> allRuleSets = new ArrayList<>();
-
-		// Create union of classes for which there are colour properties and class for which there are rule sets
-		List<Class<?>> classes = new ArraySet<>();
-		classes.addAll(colourProperties.keySet());
-		classes.addAll(ruleSets.keySet());
-
-		// Populate list of all rule sets
-		for (Class<?> cls : classes)
-		{
-			// Add rule sets
-			for (CssRuleSet ruleSet : ruleSets.get(cls))
-			{
-				CssRuleSet ruleSetCopy = ruleSet.clone();
-				if (theme != null)
-					theme.resolveColourProperties(ruleSetCopy);
-				allRuleSets.add(ruleSetCopy);
-			}
-
-			// Add rule sets for colour properties
-			if (theme != null)
-			{
-				for (ColourProperty property : colourProperties.get(cls))
-				{
-					CssRuleSet ruleSet = property.toRuleSet(theme);
-					if (ruleSet == null)
-					{
-						String selectors = String.join(", ", property.getSelectors());
-						String colourKey = property.getColourKey();
-						System.err.println(String.format(ErrorMsg.NO_COLOUR_FOR_PROPERTY2, selectors,
-														 property.getFxProperty().getName(),
-														 (colourKey == null) ? "" : colourKey));
-					}
-					else
-						allRuleSets.add(ruleSet);
-				}
-			}
-		}
-
-		// Merge rule sets
-		CssRuleSet.merge(allRuleSets);
-
-		// Convert rule sets to text
-		for (CssRuleSet ruleSet : allRuleSets)
-		{
-			if (!buffer.isEmpty())
-				buffer.append('\n');
-
-			for (String str : ruleSet.toStrings())
-			{
-				buffer.append(str);
-				buffer.append('\n');
-			}
-		}
-
-		// Return CSS text
-		return buffer.toString();
+		return createCssText(false);
 	}
 
 	//------------------------------------------------------------------
@@ -979,6 +961,7 @@ public class StyleManager
 				reportException(WRITE_STYLE_SHEET_STR, e);
 			}
 		}
+		updateNumAppliedStyles();
 		return location;
 	}
 
@@ -1066,6 +1049,121 @@ public class StyleManager
 
 	//------------------------------------------------------------------
 
+	private String createCssText(
+		boolean	newOnly)
+	{
+		// Allocate buffer for CSS test
+		StringBuilder buffer = new StringBuilder(4096);
+
+		// Append comment containing ID
+		buffer.append(STYLE_SHEET_ID_COMMENT).append("\n\n");
+
+		// Get current theme
+		AbstractTheme theme = getTheme();
+
+		// Append base style sheet, unless only new colour properties and rule sets are required
+		String styleSheet = newOnly ? null : theme.getBaseStyleSheet();
+		if (styleSheet != null)
+			buffer.append(styleSheet);
+
+		// Initialise list of all rule sets
+		List<CssRuleSet> allRuleSets = new ArrayList<>();
+
+		// Create union of classes for which there are colour properties and class for which there are rule sets
+		List<Class<?>> classes = new ArraySet<>();
+		classes.addAll(colourProperties.keySet());
+		classes.addAll(ruleSets.keySet());
+
+		// Populate list of all rule sets
+		for (Class<?> cls : classes)
+		{
+			// Add rule sets
+			List<CssRuleSet> classRuleSets = ruleSets.getOrDefault(cls, List.of());
+			if (newOnly)
+				classRuleSets = classRuleSets.subList(numAppliedRuleSets.getOrDefault(cls, 0), classRuleSets.size());
+			for (CssRuleSet ruleSet : classRuleSets)
+			{
+				CssRuleSet ruleSetCopy = ruleSet.clone();
+				if (theme != null)
+					theme.resolveColourProperties(ruleSetCopy);
+				allRuleSets.add(ruleSetCopy);
+			}
+
+			// Add rule sets for colour properties
+			if (theme != null)
+			{
+				List<ColourProperty> properties = colourProperties.getOrDefault(cls, List.of());
+				if (newOnly)
+				{
+					properties = properties.subList(numAppliedColourProperties.getOrDefault(cls, 0),
+													properties.size());
+				}
+				for (ColourProperty property : properties)
+				{
+					CssRuleSet ruleSet = property.toRuleSet(theme);
+					if (ruleSet == null)
+					{
+						String selectors = String.join(", ", property.getSelectors());
+						String colourKey = property.getColourKey();
+						System.err.println(String.format(ErrorMsg.NO_COLOUR_FOR_PROPERTY2, selectors,
+														 property.getFxProperty().getName(),
+														 (colourKey == null) ? "" : colourKey));
+					}
+					else
+						allRuleSets.add(ruleSet);
+				}
+			}
+		}
+
+		// Merge rule sets
+		CssRuleSet.merge(allRuleSets);
+
+		// Convert rule sets to text
+		for (CssRuleSet ruleSet : allRuleSets)
+		{
+			if (!buffer.isEmpty())
+				buffer.append('\n');
+
+			for (String str : ruleSet.toStrings())
+			{
+				buffer.append(str);
+				buffer.append('\n');
+			}
+		}
+
+		// Return CSS text
+		return buffer.toString();
+	}
+
+	//------------------------------------------------------------------
+
+	private boolean hasUnappliedStyles()
+	{
+		for (Class<?> cls : colourProperties.keySet())
+		{
+			if (colourProperties.get(cls).size() > numAppliedColourProperties.getOrDefault(cls, 0))
+				return true;
+		}
+		for (Class<?> cls : ruleSets.keySet())
+		{
+			if (ruleSets.get(cls).size() > numAppliedRuleSets.getOrDefault(cls, 0))
+				return true;
+		}
+		return false;
+	}
+
+	//------------------------------------------------------------------
+
+	private void updateNumAppliedStyles()
+	{
+		for (Class<?> cls : colourProperties.keySet())
+			numAppliedColourProperties.put(cls, colourProperties.get(cls).size());
+		for (Class<?> cls : ruleSets.keySet())
+			numAppliedRuleSets.put(cls, ruleSets.get(cls).size());
+	}
+
+	//------------------------------------------------------------------
+
 	private void reportException(
 		String			message,
 		BaseException	exception)